@@ -496,35 +496,17 @@ export default function FeedActionSection({
           console.log('✅ Like toggle response received from database:', {
             feedId,
             newLikesCount,
-            newUserLiked,
-            likesArray: response.data.likes,
-            likesArrayLength: response.data.likes?.length || 0,
-            userLikedFromBackend: response.data.userLiked
+            newUserLiked
           });
           
-          // CRITICAL: Always update from backend response (database is source of truth)
-          if (response.data.likes && Array.isArray(response.data.likes)) {
-            console.log('✅ Syncing likedByUserIds from database:', response.data.likes);
-            setLocalLikedByUserIds(response.data.likes);
-            // Count should match array length from database
-            setDisplayLikes(response.data.likes.length);
-          } else {
-            // Fallback: use likesCount if array not provided
-            console.warn('⚠️ toggleLike response does not include likes array, using likesCount');
-            setDisplayLikes(newLikesCount);
-          }
-          
-          // Always sync heart state with backend
+          // CRITICAL: Always update from backend response (database is source of truth).
+          // The like response only carries the counters, so the liked-by list is kept in step
+          // with userLiked for the current user instead of being replaced.
+          setDisplayLikes(newLikesCount);
           setIsHeartActive(newUserLiked);
-          
-          // Verify consistency
-          if (currentUserId && response.data.likes && Array.isArray(response.data.likes)) {
-            const isInArray = response.data.likes.includes(currentUserId);
-            if (isInArray !== newUserLiked) {
-              console.warn('⚠️ Inconsistency detected: User ID in likes array:', isInArray, 'but userLiked:', newUserLiked);
-              // Trust the array over userLiked flag
-              setIsHeartActive(isInArray);
-            }
+          if (currentUserId) {
+            const otherLikers = previousLikedByUserIds.filter(id => id !== currentUserId);
+            setLocalLikedByUserIds(newUserLiked ? [...otherLikers, currentUserId] : otherLikers);
           }
         } else {
           // Revert on error - restore previous state
@@ -589,6 +571,9 @@ export default function FeedActionSection({
       setLocalLikedByUserIds(prev => {
         if (prev.includes(event.userId!)) {
           console.log('⚠️ User already in likes array, not incrementing count. User:', event.userId);
+          if (event.likesCount !== undefined) {
+            setDisplayLikes(event.likesCount);
+          }
           return prev; // User already liked, don't change
         }
         
@@ -596,8 +581,8 @@ export default function FeedActionSection({
         const updated = [...prev, event.userId!];
         console.log('✅ Adding user to likes array. New count:', updated.length);
         
-        // Update display count based on array length (source of truth)
-        setDisplayLikes(updated.length);
+        // Deltas carry the server's count; otherwise the array length is the source of truth
+        setDisplayLikes(event.likesCount ?? updated.length);
         
         return updated;
       });
@@ -639,6 +624,9 @@ export default function FeedActionSection({
       setLocalLikedByUserIds(prev => {
         if (!prev.includes(event.userId!)) {
           console.log('⚠️ User not in likes array, not decrementing count. User:', event.userId);
+          if (event.likesCount !== undefined) {
+            setDisplayLikes(event.likesCount);
+          }
           return prev; // User wasn't in the list, don't change
         }
         
@@ -646,8 +634,8 @@ export default function FeedActionSection({
         const updated = prev.filter(id => id !== event.userId);
         console.log('✅ Removing user from likes array. New count:', updated.length);
         
-        // Update display count based on array length (source of truth)
-        setDisplayLikes(Math.max(0, updated.length)); // Ensure count never goes below 0
+        // Deltas carry the server's count; otherwise the array length is the source of truth
+        setDisplayLikes(Math.max(0, event.likesCount ?? updated.length)); // Ensure count never goes below 0
         
         return updated;
       });
@@ -671,13 +659,15 @@ export default function FeedActionSection({
       
       // Increment comment count (comments are always additive, no need to check array)
       setDisplayComments(prev => {
-        const newCount = prev + 1;
+        const newCount = event.commentsCount ?? prev + 1;
         console.log('✅ Updated comment count via WebSocket:', prev, '->', newCount);
         return newCount;
       });
       
-      // Notify parent component that a comment was added (will trigger feed refresh)
-      onCommentAdded?.();
+      // Deltas carry the comment itself, so only older events need a feed refresh
+      if (event.commentsCount === undefined) {
+        onCommentAdded?.();
+      }
     };
     
     const handleCommentDeleted = (event: FeedEvent) => {
@@ -698,13 +688,15 @@ export default function FeedActionSection({
       
       // Decrement comment count (ensure it never goes below 0)
       setDisplayComments(prev => {
-        const newCount = Math.max(0, prev - 1);
+        const newCount = Math.max(0, event.commentsCount ?? prev - 1);
         console.log('✅ Updated comment count via WebSocket:', prev, '->', newCount);
         return newCount;
       });
       
       // Notify parent component that a comment was deleted (will trigger feed refresh)
-      onCommentAdded?.();
+      if (event.commentsCount === undefined) {
+        onCommentAdded?.();
+      }
     };
     
     // Connect to WebSocket with feed-specific callbacks
@@ -722,6 +714,9 @@ export default function FeedActionSection({
       },
     });
     
+    // Engagement events are published per feed; only listen while this one is mounted
+    const unwatchFeed = feedId ? webSocketService.watchFeed(feedId) : undefined;
+    
     // Ensure WebSocket is connected - check after a short delay
     const checkConnection = setTimeout(() => {
       if (!webSocketService.isWebSocketConnected()) {
@@ -738,6 +733,7 @@ export default function FeedActionSection({
     // Cleanup is handled by the WebSocket service singleton
     return () => {
       clearTimeout(checkConnection);
+      unwatchFeed?.();
       // Clear processed events for this feed to allow fresh processing on remount
       processedEventsRef.current.clear();
       // Note: We don't disconnect as WebSocket is shared across components
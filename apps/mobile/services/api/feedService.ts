@@ -773,8 +773,7 @@ export const toggleLike = async (feedId: string): Promise<ApiResponse<PostRespon
       log('✅ Like toggled successfully', { 
         feedId, 
         likesCount: response.data.likesCount,
-        likesArray: response.data.likes,
-        likesArrayLength: response.data.likes?.length || 0
+        userLiked: response.data.userLiked
       });
       
       // Log the full response to debug
@@ -10,13 +10,27 @@ import { tokenManager } from './authService';
 import { Notification } from './notificationService';
 
 export interface FeedEvent {
-  type: 'FEED_CREATED' | 'FEED_DELETED' | 'FEED_UPDATED' | 'FEED_COMMENTED' | 'COMMENT_DELETED' | 'FEED_LIKED' | 'FEED_UNLIKED' | 'CONNECTION_ESTABLISHED' | 'CONNECTION_CLOSED';
+  type: 'FEED_CREATED' | 'FEED_DELETED' | 'FEED_UPDATED' | 'FEED_COMMENTED' | 'COMMENT_DELETED' | 'FEED_LIKED' | 'FEED_UNLIKED' | 'CONNECTION_ESTABLISHED' | 'CONNECTION_CLOSED' | 'BATCH';
   feedId?: string;
   userId?: string;
   message?: string;
+  events?: FeedEvent[]; // Set on BATCH: events coalesced by the server, in order
+  seq?: number; // Per-feed sequence on engagement deltas
+  likesCount?: number; // Counters after the change, set on engagement deltas
+  commentsCount?: number;
+  comment?: any; // The added comment on FEED_COMMENTED
+  commentIndex?: number; // The removed comment on COMMENT_DELETED
   timestamp: string;
 }
 
+interface FeedDeltaPage {
+  feedId: string;
+  deltas: FeedEvent[];
+  latestSeq: number;
+  hasMore: boolean;
+  resyncRequired: boolean;
+}
+
 export interface NotificationEvent {
   type: 'NOTIFICATION_CREATED' | 'NOTIFICATION_COUNT_UPDATED' | 'NOTIFICATION_READ' | 'NOTIFICATION_DELETED';
   notificationId?: string;
@@ -71,6 +85,8 @@ class WebSocketService {
   private callbackArrays: WebSocketCallbackArrays = {};
   private notificationSubscription: any = null;
   private feedSubscription: any = null;
+  // Per-feed topic subscriptions for posts on screen, ref-counted across components
+  private watchedFeeds = new Map<string, { count: number; subscription: any; lastSeq: number | null; catchingUp: boolean; catchUpAgain: boolean }>();
   private currentUserId: string | null = null;
   private isConnecting = false;
   private reconnectTimer: NodeJS.Timeout | null = null;
@@ -127,8 +143,13 @@ class WebSocketService {
         heartbeatOutgoing: 4000,
         connectionTimeout: 10000, // 10 second timeout (increased for slower networks)
         // Disable automatic reconnection - we'll handle it manually with exponential backoff
-        beforeConnect: () => {
+        beforeConnect: async () => {
           console.log('🔌 STOMP client attempting to connect...');
+          // The server resolves /user/queue/... destinations from this token
+          const token = await tokenManager.getAccessToken();
+          if (this.client) {
+            this.client.connectHeaders = token ? { Authorization: `Bearer ${token}` } : {};
+          }
         },
       });
 
@@ -218,6 +239,10 @@ class WebSocketService {
           }
           this.notificationSubscription = null;
         }
+        // Watched feeds stay registered and are resubscribed on reconnect
+        this.watchedFeeds.forEach(entry => {
+          entry.subscription = null;
+        });
         
         // Notify callbacks about connection closed
         const closedEvent: FeedEvent = {
@@ -277,23 +302,78 @@ class WebSocketService {
         this.feedSubscription = null;
       }
 
-      // Subscribe to general feed events
-      this.feedSubscription = this.client.subscribe('/topic/feeds', (message) => {
-        try {
-          const event: FeedEvent = JSON.parse(message.body);
-          console.log('📥 Received feed event:', event.type, 'for feed:', event.feedId, 'by user:', event.userId);
-          this.handleFeedEvent(event);
-        } catch (error) {
-          console.error('❌ Error parsing feed event:', error);
+      // New posts from followed users and events on our own posts
+      this.feedSubscription = this.client.subscribe('/user/queue/feeds', (message) => this.handleFeedMessage(message.body));
+
+      // Restore per-feed subscriptions for posts still on screen
+      this.watchedFeeds.forEach((entry, feedId) => {
+        entry.subscription = this.subscribeToFeedTopic(feedId);
+        // Deltas sent while we were disconnected are replayed from the server
+        if (entry.lastSeq !== null) {
+          this.catchUp(feedId);
         }
       });
 
-      console.log('📡 Subscribed to feed events topic');
+      console.log('📡 Subscribed to feed events queue');
     } catch (error) {
       console.error('❌ Error subscribing to feed events:', error);
     }
   }
 
+  private subscribeToFeedTopic(feedId: string) {
+    if (!this.client || !this.isConnected) {
+      return null;
+    }
+    return this.client.subscribe(`/topic/feeds/${feedId}`, (message) => this.handleFeedMessage(message.body));
+  }
+
+  private handleFeedMessage(body: string) {
+    try {
+      const event: FeedEvent = JSON.parse(body);
+      console.log('📥 Received feed event:', event.type, 'for feed:', event.feedId, 'by user:', event.userId);
+      this.handleFeedEvent(event);
+    } catch (error) {
+      console.error('❌ Error parsing feed event:', error);
+    }
+  }
+
+  /**
+   * Receive likes, comments and updates for one feed while it is on screen.
+   * Returns a function that stops watching it.
+   */
+  public watchFeed(feedId: string): () => void {
+    const existing = this.watchedFeeds.get(feedId);
+    if (existing) {
+      existing.count++;
+    } else {
+      this.watchedFeeds.set(feedId, {
+        count: 1,
+        subscription: this.subscribeToFeedTopic(feedId),
+        lastSeq: null,
+        catchingUp: false,
+        catchUpAgain: false,
+      });
+    }
+
+    return () => {
+      const entry = this.watchedFeeds.get(feedId);
+      if (!entry) {
+        return;
+      }
+      entry.count--;
+      if (entry.count <= 0) {
+        if (entry.subscription) {
+          try {
+            entry.subscription.unsubscribe();
+          } catch (e) {
+            // Ignore unsubscribe errors
+          }
+        }
+        this.watchedFeeds.delete(feedId);
+      }
+    };
+  }
+
   private async subscribeToNotificationEvents() {
     if (!this.client || !this.isConnected) {
       console.warn('⚠️ Cannot subscribe to notification events - not connected');
@@ -312,9 +392,8 @@ class WebSocketService {
         this.notificationSubscription = null;
       }
 
-      // Subscribe to notification topic - backend sends all notifications here
-      // Frontend will filter by recipientUserId to ensure only relevant notifications are processed
-      const notificationTopic = '/topic/notifications';
+      // Per-user queue - the server only delivers our own notifications here
+      const notificationTopic = '/user/queue/notifications';
       console.log('📡 Subscribing to notification topic:', notificationTopic, 'for user:', this.currentUserId);
       
       this.notificationSubscription = this.client.subscribe(notificationTopic, (message) => {
@@ -327,7 +406,7 @@ class WebSocketService {
             currentUserId: this.currentUserId
           });
           
-          // Filter events for current user only
+          // Guard against events for another account on a shared device
           if (event.recipientUserId === this.currentUserId) {
             console.log('✅ Notification event is for current user, processing...');
             this.handleNotificationEvent(event);
@@ -345,10 +424,96 @@ class WebSocketService {
     }
   }
 
-  private handleFeedEvent(event: FeedEvent) {
+  /**
+   * Apply engagement deltas of watched feeds in sequence order.
+   * Returns false for duplicates and for events after a gap; the gap is filled from the
+   * catch-up endpoint, which also replays the held-back event.
+   */
+  private acceptDelta(event: FeedEvent): boolean {
+    if (event.seq === undefined || event.seq === null || !event.feedId) {
+      return true;
+    }
+    const entry = this.watchedFeeds.get(event.feedId);
+    if (!entry) {
+      return true;
+    }
+    if (entry.lastSeq === null) {
+      entry.lastSeq = event.seq;
+      return true;
+    }
+    if (event.seq <= entry.lastSeq) {
+      console.log('⏭️ Skipping stale delta', event.seq, 'for feed:', event.feedId);
+      return false;
+    }
+    if (event.seq > entry.lastSeq + 1) {
+      this.catchUp(event.feedId);
+      return false;
+    }
+    entry.lastSeq = event.seq;
+    return true;
+  }
+
+  private async catchUp(feedId: string) {
+    const entry = this.watchedFeeds.get(feedId);
+    if (!entry || entry.lastSeq === null) {
+      return;
+    }
+    if (entry.catchingUp) {
+      // Something arrived past the page being fetched; fetch again once this run ends
+      entry.catchUpAgain = true;
+      return;
+    }
+    entry.catchingUp = true;
+
+    try {
+      const token = await tokenManager.getAccessToken();
+      let hasMore = true;
+      while (hasMore && this.watchedFeeds.get(feedId) === entry) {
+        const response = await fetch(
+          `${getGatewayURL()}/api/feed/${feedId}/deltas?since=${entry.lastSeq}`,
+          { headers: token ? { Authorization: `Bearer ${token}` } : {} }
+        );
+        if (!response.ok) {
+          console.warn('⚠️ Delta catch-up failed for feed:', feedId, 'status:', response.status);
+          return;
+        }
+        const page: FeedDeltaPage = await response.json();
+        if (page.resyncRequired) {
+          // Some deltas expired; the retained ones still end with the current counters
+          console.warn('⚠️ Missed deltas expired for feed:', feedId, '- applying latest state');
+        }
+        page.deltas.forEach(delta => {
+          entry.lastSeq = delta.seq ?? entry.lastSeq;
+          this.handleFeedEvent(delta, true);
+        });
+        // Sequences can skip values, so the server's latest is where we are now
+        if (!page.hasMore) {
+          entry.lastSeq = Math.max(entry.lastSeq ?? 0, page.latestSeq);
+        }
+        hasMore = page.hasMore && page.deltas.length > 0;
+      }
+    } catch (error) {
+      console.error('❌ Error catching up feed deltas:', error);
+    } finally {
+      entry.catchingUp = false;
+      if (entry.catchUpAgain) {
+        entry.catchUpAgain = false;
+        this.catchUp(feedId);
+      }
+    }
+  }
+
+  private handleFeedEvent(event: FeedEvent, replayed = false) {
     console.log('🔔 Handling feed event:', event.type, 'for feed:', event.feedId);
     
+    if (!replayed && event.type !== 'BATCH' && !this.acceptDelta(event)) {
+      return;
+    }
+
     switch (event.type) {
+      case 'BATCH':
+        (event.events || []).forEach(batched => this.handleFeedEvent(batched));
+        break;
       case 'FEED_CREATED':
         if (this.callbackArrays.onFeedCreated) {
           console.log('📤 Calling', this.callbackArrays.onFeedCreated.length, 'onFeedCreated callbacks');
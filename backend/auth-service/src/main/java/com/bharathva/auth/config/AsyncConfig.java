@@ -2,10 +2,12 @@ package com.bharathva.auth.config;
 
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class AsyncConfig {
-    // Enable async processing for email sending
+    // Enable async processing for email sending and scheduled jobs (follow graph rebuilds)
 }
 
@@ -0,0 +1,43 @@
+package com.bharathva.auth.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * The shared service-to-service token.
+ *
+ * The internal endpoints (post count relay, batch users, follow ID lists) trust any caller
+ * that presents this token, so it has no default: auth-service refuses to start without
+ * INTERNAL_SERVICE_TOKEN rather than run with a guessable value or silently reject
+ * feed-service. Requests are checked against it by InternalTokenFilter.
+ */
+@Configuration
+public class InternalTokenConfig {
+
+    @Value("${internal.service-token:}")
+    private String internalServiceToken;
+
+    @PostConstruct
+    public void verifyToken() {
+        if (internalServiceToken == null || internalServiceToken.isBlank()) {
+            throw new IllegalStateException(
+                    "internal.service-token is not set; provide INTERNAL_SERVICE_TOKEN (shared with feed-service)");
+        }
+    }
+
+    /**
+     * Whether the presented token is the internal token, compared in constant time.
+     */
+    public boolean matches(String token) {
+        if (internalServiceToken == null || internalServiceToken.isBlank() || token == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                internalServiceToken.getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,5 +1,6 @@
 package com.bharathva.auth.config;
 
+import com.bharathva.auth.security.InternalTokenFilter;
 import com.bharathva.auth.security.JwtAuthenticationFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -23,7 +24,8 @@ import java.util.List;
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthenticationFilter) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthenticationFilter,
+                                           InternalTokenFilter internalTokenFilter) throws Exception {
         http
             .csrf(AbstractHttpConfigurer::disable)
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
@@ -38,12 +40,15 @@ public class SecurityConfig {
                 .requestMatchers("/auth/health").permitAll()
                 .requestMatchers("/actuator/**").permitAll()
                 .requestMatchers("/error").permitAll()
+                // No JWT here: feed-service calls these with the internal token, checked by InternalTokenFilter
+                .requestMatchers(InternalTokenFilter.INTERNAL_PATHS).permitAll()
                 .requestMatchers("/auth/user/**").authenticated()
                 .requestMatchers("/auth/profile").authenticated()
                 .requestMatchers("/auth/sessions/**").authenticated()
                 .requestMatchers("/auth/follow/**").authenticated()
                 .anyRequest().authenticated()
             )
+            .addFilterBefore(internalTokenFilter, UsernamePasswordAuthenticationFilter.class)
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
@@ -2,6 +2,7 @@ package com.bharathva.auth.controller;
 
 import com.bharathva.auth.dto.LoginRequest;
 import com.bharathva.auth.dto.LoginResponse;
+import com.bharathva.auth.security.VerifiedToken;
 import com.bharathva.auth.service.AuthenticationService;
 import com.bharathva.auth.service.FastAuthService;
 import com.bharathva.shared.dto.ApiResponse;
@@ -146,19 +147,16 @@ public class AuthenticationController {
             }
 
             String token = authHeader.substring(7);
-            boolean isValid = fastAuthService.validateTokenFast(token);
+            VerifiedToken verified = fastAuthService.verifyTokenFast(token);
+            boolean isValid = verified != null;
             
             Map<String, Object> responseData = new HashMap<>();
             responseData.put("valid", isValid);
             
             if (isValid) {
-                UUID userId = fastAuthService.getUserIdFromTokenFast(token);
-                String username = fastAuthService.getUsernameFromToken(token);
-                String email = fastAuthService.getEmailFromToken(token);
-                
-                responseData.put("userId", userId.toString());
-                responseData.put("username", username);
-                responseData.put("email", email);
+                responseData.put("userId", verified.getUserId().toString());
+                responseData.put("username", verified.getUsername());
+                responseData.put("email", verified.getEmail());
                 responseData.put("message", "Token is valid");
             } else {
                 responseData.put("message", "Token is invalid or expired");
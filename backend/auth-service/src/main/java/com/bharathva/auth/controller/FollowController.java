@@ -1,5 +1,7 @@
 package com.bharathva.auth.controller;
 
+import com.bharathva.auth.dto.FollowEntry;
+import com.bharathva.auth.dto.FollowPage;
 import com.bharathva.auth.entity.UserStats;
 import com.bharathva.auth.service.FollowService;
 import com.bharathva.auth.util.JwtUtils;
@@ -12,7 +14,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -203,5 +207,225 @@ public class FollowController {
             ));
         }
     }
+    
+    /**
+     * Whether the current user follows each of the given users, so a list of profiles can
+     * render its follow buttons with one request. Body: {@code {"targetIds": ["<uuid>", ...]}}.
+     */
+    @PostMapping("/status")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getFollowStatuses(
+            @RequestBody Map<String, List<String>> request) {
+        try {
+            UUID followerId = JwtUtils.getCurrentUserId();
+            
+            List<String> rawIds = request.get("targetIds");
+            if (rawIds == null) {
+                throw new IllegalArgumentException("targetIds is required");
+            }
+            List<UUID> targetIds = new ArrayList<>(rawIds.size());
+            for (String rawId : rawIds) {
+                targetIds.add(UUID.fromString(rawId));
+            }
+            
+            Map<String, Object> responseData = new HashMap<>();
+            responseData.put("followerId", followerId);
+            responseData.put("statuses", followService.getFollowingStatus(followerId, targetIds));
+            
+            return ResponseEntity.ok(new ApiResponse<>(
+                    true,
+                    "Follow statuses retrieved successfully",
+                    responseData,
+                    LocalDateTime.now()
+            ));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid follow status request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ApiResponse<>(
+                    false,
+                    e.getMessage(),
+                    null,
+                    LocalDateTime.now()
+            ));
+        } catch (RuntimeException e) {
+            log.error("Authentication error in getFollowStatuses: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>(
+                    false,
+                    e.getMessage(),
+                    null,
+                    LocalDateTime.now()
+            ));
+        }
+    }
+    
+    /**
+     * Followers of a user, newest first, keyset-paginated with {@code cursor}.
+     */
+    @GetMapping("/{userId}/followers")
+    public ResponseEntity<ApiResponse<FollowPage>> getFollowers(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            FollowPage page = followService.getFollowers(userId, cursor, limit, currentUserIdOrNull());
+            
+            return ResponseEntity.ok(new ApiResponse<>(
+                    true,
+                    "Followers retrieved successfully",
+                    page,
+                    LocalDateTime.now()
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(
+                    false,
+                    e.getMessage(),
+                    null,
+                    LocalDateTime.now()
+            ));
+        } catch (Exception e) {
+            log.error("Error getting followers for user {}: {}", userId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse<>(
+                    false,
+                    "An unexpected error occurred",
+                    null,
+                    LocalDateTime.now()
+            ));
+        }
+    }
+    
+    /**
+     * Users a user follows, newest first, keyset-paginated with {@code cursor}.
+     */
+    @GetMapping("/{userId}/following")
+    public ResponseEntity<ApiResponse<FollowPage>> getFollowing(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            FollowPage page = followService.getFollowing(userId, cursor, limit, currentUserIdOrNull());
+            
+            return ResponseEntity.ok(new ApiResponse<>(
+                    true,
+                    "Following retrieved successfully",
+                    page,
+                    LocalDateTime.now()
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(
+                    false,
+                    e.getMessage(),
+                    null,
+                    LocalDateTime.now()
+            ));
+        } catch (Exception e) {
+            log.error("Error getting following for user {}: {}", userId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse<>(
+                    false,
+                    "An unexpected error occurred",
+                    null,
+                    LocalDateTime.now()
+            ));
+        }
+    }
+    
+    /**
+     * Users who follow this user and are followed back, up to {@code limit}.
+     */
+    @GetMapping("/{userId}/mutuals")
+    public ResponseEntity<ApiResponse<List<FollowEntry>>> getMutualFollows(
+            @PathVariable UUID userId,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            List<FollowEntry> mutuals = followService.getMutualFollows(userId, limit, currentUserIdOrNull());
+            
+            return ResponseEntity.ok(new ApiResponse<>(
+                    true,
+                    "Mutual follows retrieved successfully",
+                    mutuals,
+                    LocalDateTime.now()
+            ));
+        } catch (Exception e) {
+            log.error("Error getting mutual follows for user {}: {}", userId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse<>(
+                    false,
+                    "An unexpected error occurred",
+                    null,
+                    LocalDateTime.now()
+            ));
+        }
+    }
+    
+    /**
+     * Follower IDs for timeline fan-out. When the user has more followers than {@code limit}
+     * the ID list is omitted and {@code truncated} is set, signalling fan-out-on-read.
+     * Service-to-service only: InternalTokenFilter checks the shared internal token.
+     */
+    @GetMapping("/{userId}/followers/ids")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getFollowerIds(
+            @PathVariable UUID userId,
+            @RequestParam(defaultValue = "10000") long limit) {
+        try {
+            long followerCount = followService.getFollowerCount(userId);
+            boolean truncated = followerCount > limit;
+            List<UUID> followerIds = truncated ? List.of() : followService.getFollowerIds(userId);
+            
+            Map<String, Object> responseData = new HashMap<>();
+            responseData.put("userId", userId);
+            responseData.put("count", followerCount);
+            responseData.put("truncated", truncated);
+            responseData.put("followerIds", followerIds);
+            
+            return ResponseEntity.ok(new ApiResponse<>(
+                    true,
+                    "Follower IDs retrieved successfully",
+                    responseData,
+                    LocalDateTime.now()
+            ));
+        } catch (Exception e) {
+            log.error("Error getting follower IDs for user {}: {}", userId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse<>(
+                    false,
+                    "An unexpected error occurred",
+                    null,
+                    LocalDateTime.now()
+            ));
+        }
+    }
+    
+    /**
+     * IDs of the users a user follows, for home timeline reads. Service-to-service only.
+     */
+    @GetMapping("/{userId}/following/ids")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getFollowingIds(
+            @PathVariable UUID userId) {
+        try {
+            List<UUID> followingIds = followService.getFollowingIds(userId);
+            
+            Map<String, Object> responseData = new HashMap<>();
+            responseData.put("userId", userId);
+            responseData.put("count", followingIds.size());
+            responseData.put("followingIds", followingIds);
+            
+            return ResponseEntity.ok(new ApiResponse<>(
+                    true,
+                    "Following IDs retrieved successfully",
+                    responseData,
+                    LocalDateTime.now()
+            ));
+        } catch (Exception e) {
+            log.error("Error getting following IDs for user {}: {}", userId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse<>(
+                    false,
+                    "An unexpected error occurred",
+                    null,
+                    LocalDateTime.now()
+            ));
+        }
+    }
+    
+    private UUID currentUserIdOrNull() {
+        try {
+            return JwtUtils.getCurrentUserId();
+        } catch (Exception e) {
+            return null;
+        }
+    }
 }
-
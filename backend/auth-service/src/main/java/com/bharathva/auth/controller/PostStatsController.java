@@ -1,10 +1,12 @@
 package com.bharathva.auth.controller;
 
+import com.bharathva.auth.dto.BulkPostCountRequest;
 import com.bharathva.auth.service.PostStatsService;
 import com.bharathva.shared.dto.ApiResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,6 +25,44 @@ public class PostStatsController {
     @Autowired
     private PostStatsService postStatsService;
     
+    @Value("${internal.post-counts.max-batch-size:500}")
+    private int maxBatchSize;
+    
+    /**
+     * Receives coalesced post counts from feed-service's outbox relay and its full
+     * reconciliation. Service-to-service only: InternalTokenFilter checks the shared internal token.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> applyPostCounts(
+            @RequestBody BulkPostCountRequest request) {
+        if (request == null || request.getUpdates() == null || request.getUpdates().size() > maxBatchSize) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ApiResponse<>(
+                    false,
+                    "Updates must contain at most " + maxBatchSize + " entries",
+                    null,
+                    LocalDateTime.now()
+            ));
+        }
+        
+        try {
+            Map<String, Object> result = postStatsService.applyPostCounts(request.getUpdates(), request.isReconcile());
+            return ResponseEntity.ok(new ApiResponse<>(
+                    true,
+                    "Post counts applied successfully",
+                    result,
+                    LocalDateTime.now()
+            ));
+        } catch (Exception e) {
+            log.error("Error applying bulk post counts: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse<>(
+                    false,
+                    "Failed to apply post counts: " + e.getMessage(),
+                    null,
+                    LocalDateTime.now()
+            ));
+        }
+    }
+    
     @PostMapping("/increment/{userId}")
     public ResponseEntity<ApiResponse<Map<String, Object>>> incrementPostCount(
             @PathVariable String userId) {
@@ -1,9 +1,12 @@
 package com.bharathva.auth.controller;
 
+import com.bharathva.auth.dto.SocialContext;
 import com.bharathva.auth.entity.User;
 import com.bharathva.auth.entity.UserStats;
 import com.bharathva.auth.repository.UserRepository;
 import com.bharathva.auth.service.FollowService;
+import com.bharathva.auth.service.SuggestionService;
+import com.bharathva.auth.service.UserSearchService;
 import com.bharathva.auth.util.JwtUtils;
 import com.bharathva.shared.dto.ApiResponse;
 import org.slf4j.Logger;
@@ -19,6 +22,7 @@ import org.springframework.web.bind.annotation.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -41,6 +45,12 @@ public class UserController {
     
     @Autowired
     private FollowService followService;
+    
+    @Autowired
+    private SuggestionService suggestionService;
+    
+    @Autowired
+    private UserSearchService userSearchService;
 
     @GetMapping("/me")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getCurrentUser() {
@@ -221,6 +231,7 @@ public class UserController {
             
             // Save to database with verification
             User savedUser = userRepository.save(user);
+            userSearchService.onUserSaved(savedUser);
             
             // Verify the save was successful by checking the saved entity
             if (savedUser == null) {
@@ -346,6 +357,7 @@ public class UserController {
             user.setBio(sanitized);
             log.info("Updating bio only: userId={}, oldBioLength={}, newBioLength={}", user.getId(), old == null ? 0 : old.length(), sanitized == null ? 0 : sanitized.length());
             userRepository.save(user);
+            userSearchService.onUserSaved(user);
 
             return ResponseEntity.ok(new ApiResponse<>(
                     true,
@@ -398,6 +410,7 @@ public class UserController {
             String oldBio = user.getBio();
             user.setBio((newBio != null && !newBio.isEmpty()) ? newBio : null);
             userRepository.save(user);
+            userSearchService.onUserSaved(user);
 
             Map<String, Object> response = new HashMap<>();
             response.put("oldBio", oldBio);
@@ -459,15 +472,9 @@ public class UserController {
                 limit = 10;
             }
             
-            log.info("Processing user search: query='{}', limit={}", trimmedQuery, limit);
+            log.debug("Processing user search: query='{}', limit={}", trimmedQuery, limit);
             
-            org.springframework.data.domain.Pageable pageable = 
-                org.springframework.data.domain.PageRequest.of(0, limit);
-            
-            org.springframework.data.domain.Page<User> usersPage = 
-                userRepository.searchUsers(trimmedQuery, pageable);
-            
-            List<Map<String, Object>> userList = usersPage.getContent().stream()
+            List<Map<String, Object>> userList = userSearchService.search(trimmedQuery, limit).stream()
                 .map(user -> {
                     Map<String, Object> userData = new HashMap<>();
                     userData.put("id", user.getId());
@@ -480,7 +487,7 @@ public class UserController {
                 })
                 .collect(java.util.stream.Collectors.toList());
             
-            log.info("User search completed successfully: query='{}', found={} users", trimmedQuery, userList.size());
+            log.debug("User search completed successfully: query='{}', found={} users", trimmedQuery, userList.size());
             
             return ResponseEntity.ok(new ApiResponse<>(
                     true,
@@ -516,7 +523,8 @@ public class UserController {
     }
 
     /**
-     * Get suggested/random users from database
+     * Get suggested users: friends of friends ranked by SuggestionService, or popular accounts
+     * for anonymous visitors. Profiles and stats are loaded in one query each.
      * CRITICAL: This endpoint must be placed BEFORE the /{userId} path variable endpoint
      * to ensure Spring Boot matches /suggested before trying to match it as a UUID
      * 
@@ -535,16 +543,18 @@ public class UserController {
             try {
                 currentUserId = JwtUtils.getCurrentUserId();
             } catch (RuntimeException e) {
-                log.debug("No authenticated user, returning random users");
+                log.debug("No authenticated user, returning popular users");
                 currentUserId = null;
             }
             
-            List<User> randomUsers = userRepository.findRandomUsers(limit);
+            List<UUID> suggestedIds = suggestionService.getSuggestedUserIds(currentUserId, limit);
+            Map<UUID, User> users = userRepository.findAllById(suggestedIds).stream()
+                .collect(java.util.stream.Collectors.toMap(User::getId, java.util.function.Function.identity()));
+            Map<UUID, UserStats> stats = followService.getUserStatsByIds(suggestedIds);
             
-            final UUID finalCurrentUserId = currentUserId;
-            List<Map<String, Object>> userList = randomUsers.stream()
-                .filter(user -> finalCurrentUserId == null || !user.getId().equals(finalCurrentUserId))
-                .limit(limit)
+            List<Map<String, Object>> userList = suggestedIds.stream()
+                .map(users::get)
+                .filter(java.util.Objects::nonNull)
                 .map(user -> {
                     Map<String, Object> userData = new HashMap<>();
                     userData.put("id", user.getId().toString());
@@ -554,7 +564,7 @@ public class UserController {
                     userData.put("bio", user.getBio());
                     userData.put("isEmailVerified", user.getIsEmailVerified());
                     
-                    UserStats userStats = followService.getUserStats(user.getId());
+                    UserStats userStats = stats.get(user.getId());
                     if (userStats != null) {
                         userData.put("followersCount", userStats.getFollowersCount());
                         userData.put("followingCount", userStats.getFollowingCount());
@@ -628,6 +638,10 @@ public class UserController {
                 UUID currentUserId = JwtUtils.getCurrentUserId();
                 boolean isFollowing = followService.isFollowing(currentUserId, userId);
                 userData.put("isFollowing", isFollowing);
+                SocialContext socialContext = followService.getSocialContext(currentUserId, userId);
+                if (socialContext != null) {
+                    userData.put("socialContext", socialContext);
+                }
             } catch (Exception e) {
                 userData.put("isFollowing", false);
             }
@@ -726,24 +740,9 @@ public class UserController {
             
             Map<String, String> usernameMap = new HashMap<>();
             
-            // Fetch all users in batch
-            for (String userIdStr : userIds) {
-                try {
-                    UUID userId = UUID.fromString(userIdStr);
-                    Optional<User> userOptional = userRepository.findById(userId);
-                    
-                    if (userOptional.isPresent()) {
-                        User user = userOptional.get();
-                        usernameMap.put(userIdStr, user.getUsername());
-                        log.debug("Found username for userId {}: {}", userIdStr, user.getUsername());
-                    } else {
-                        log.warn("User not found in NeonDB for userId: {}", userIdStr);
-                        // Don't add to map - missing entries will be filtered out
-                    }
-                } catch (IllegalArgumentException e) {
-                    log.warn("Invalid UUID format for userId: {}", userIdStr);
-                    // Skip invalid UUIDs
-                }
+            // Fetch all users with a single query; missing users and invalid UUIDs are left out
+            for (User user : userRepository.findAllById(parseUserIds(userIds))) {
+                usernameMap.put(user.getId().toString(), user.getUsername());
             }
             
             log.info("Batch username fetch completed: {}/{} usernames found", usernameMap.size(), userIds.size());
@@ -765,6 +764,78 @@ public class UserController {
         }
     }
 
+    /**
+     * Public profile summaries for up to 100 users in one query, keyed by user ID.
+     * Used by feed-service to hydrate authors and actors of a whole page at once.
+     * Service-to-service only: InternalTokenFilter checks the shared internal token.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<Map<String, Map<String, Object>>>> getUsersBatch(
+            @RequestBody Map<String, Object> request) {
+        try {
+            @SuppressWarnings("unchecked")
+            List<String> userIds = (List<String>) request.get("userIds");
+            
+            if (userIds == null || userIds.isEmpty()) {
+                return ResponseEntity.badRequest().body(new ApiResponse<>(
+                        false,
+                        "userIds list is required and cannot be empty",
+                        null,
+                        LocalDateTime.now()
+                ));
+            }
+            
+            if (userIds.size() > 100) {
+                return ResponseEntity.badRequest().body(new ApiResponse<>(
+                        false,
+                        "Maximum 100 user IDs allowed per batch request",
+                        null,
+                        LocalDateTime.now()
+                ));
+            }
+            
+            Map<String, Map<String, Object>> users = new HashMap<>();
+            for (User user : userRepository.findAllById(parseUserIds(userIds))) {
+                Map<String, Object> userData = new HashMap<>();
+                userData.put("id", user.getId());
+                userData.put("username", user.getUsername());
+                userData.put("fullName", user.getFullName());
+                userData.put("profileImageUrl", user.getProfileImageUrl());
+                userData.put("isEmailVerified", user.getIsEmailVerified());
+                users.put(user.getId().toString(), userData);
+            }
+            
+            log.info("Batch user fetch completed: {}/{} users found", users.size(), userIds.size());
+            
+            return ResponseEntity.ok(new ApiResponse<>(
+                    true,
+                    "Users retrieved successfully",
+                    users,
+                    LocalDateTime.now()
+            ));
+        } catch (Exception e) {
+            log.error("Failed to retrieve users in batch: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse<>(
+                    false,
+                    "An unexpected error occurred",
+                    null,
+                    LocalDateTime.now()
+            ));
+        }
+    }
+    
+    private List<UUID> parseUserIds(List<String> userIds) {
+        List<UUID> parsed = new ArrayList<>();
+        for (String userIdStr : userIds) {
+            try {
+                parsed.add(UUID.fromString(userIdStr));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                log.warn("Invalid UUID format for userId: {}", userIdStr);
+            }
+        }
+        return parsed;
+    }
+
     @PutMapping("/me/fullname")
     public ResponseEntity<ApiResponse<Map<String, Object>>> updateFullName(@RequestBody Map<String, String> request) {
         try {
@@ -794,6 +865,7 @@ public class UserController {
             String oldFullName = user.getFullName();
             user.setFullName(newFullName.trim());
             userRepository.save(user);
+            userSearchService.onUserSaved(user);
             
             Map<String, Object> responseData = new HashMap<>();
             responseData.put("oldFullName", oldFullName);
@@ -876,6 +948,7 @@ public class UserController {
             String oldUsername = user.getUsername();
             user.setUsername(trimmedUsername);
             userRepository.save(user);
+            userSearchService.onUserSaved(user);
             
             Map<String, Object> responseData = new HashMap<>();
             responseData.put("oldUsername", oldUsername);
@@ -1227,6 +1300,7 @@ public class UserController {
                         user.getProfileImageUrl(), user.getBio(), user.getGender());
                 try {
                     User savedUser = userRepository.save(user);
+                    userSearchService.onUserSaved(savedUser);
                     log.info("Profile updated successfully for userId={}, saved profileImageUrl={}", 
                             savedUser.getId(), savedUser.getProfileImageUrl());
                 } catch (Exception e) {
@@ -0,0 +1,24 @@
+package com.bharathva.auth.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPostCountRequest {
+    
+    @NotNull(message = "Updates are required")
+    private List<PostCountUpdate> updates;
+    
+    /**
+     * True when the counts come from a full recount rather than the outbox relay
+     */
+    private boolean reconcile;
+}
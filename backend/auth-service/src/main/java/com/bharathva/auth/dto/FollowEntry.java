@@ -0,0 +1,35 @@
+package com.bharathva.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A user in a follower or following list. {@code isFollowing} is whether the viewer follows
+ * them and {@code followsYou} whether they follow the viewer; both are null when there is no
+ * viewer, and {@code followsYou} also while the follow graph index is loading.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowEntry {
+    
+    private UUID userId;
+    
+    private String username;
+    
+    private String fullName;
+    
+    private String profileImageUrl;
+    
+    private LocalDateTime followedAt;
+    
+    private Boolean isFollowing;
+    
+    private Boolean followsYou;
+}
@@ -0,0 +1,25 @@
+package com.bharathva.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a follower or following list, newest first.
+ * Pass {@code nextCursor} back to get the next page; it is null on the last one.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowPage {
+    
+    private List<FollowEntry> items;
+    
+    private String nextCursor;
+    
+    private boolean hasMore;
+}
@@ -0,0 +1,23 @@
+package com.bharathva.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A single coalesced post count pushed by feed-service's outbox relay.
+ * {@code userId:seq} is the idempotency key of the update.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostCountUpdate {
+    
+    private String userId;
+    
+    private Integer count;
+    
+    private Long seq;
+}
@@ -0,0 +1,30 @@
+package com.bharathva.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * How a profile relates to the viewer's follow graph: whether it follows the viewer back,
+ * and who it shares with them. {@code followedBy} is a short sample of the profile's
+ * followers whom the viewer follows; {@code followedByCount} is how many there are in all.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SocialContext {
+    
+    private Boolean followsYou;
+    
+    private Boolean isMutual;
+    
+    private List<FollowEntry> followedBy;
+    
+    private int followedByCount;
+    
+    private int commonFollowingCount;
+}
@@ -0,0 +1,30 @@
+package com.bharathva.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * A user as shown in search results and typeahead.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSearchResult {
+    
+    private UUID id;
+    
+    private String username;
+    
+    private String fullName;
+    
+    private String profileImageUrl;
+    
+    private String bio;
+    
+    private Boolean isEmailVerified;
+}
@@ -31,6 +31,9 @@ public class UserStats {
     @Column(name = "posts_count", nullable = false)
     private Integer postsCount = 0;
     
+    @Column(name = "posts_count_seq", nullable = false)
+    private Long postsCountSeq = 0L;
+    
     @Column(name = "total_likes_received", nullable = false)
     private Integer totalLikesReceived = 0;
     
@@ -96,6 +99,14 @@ public class UserStats {
         this.postsCount = postsCount != null ? postsCount : 0;
     }
     
+    public Long getPostsCountSeq() {
+        return postsCountSeq;
+    }
+    
+    public void setPostsCountSeq(Long postsCountSeq) {
+        this.postsCountSeq = postsCountSeq != null ? postsCountSeq : 0L;
+    }
+    
     public Integer getTotalLikesReceived() {
         return totalLikesReceived;
     }
@@ -1,14 +1,22 @@
 package com.bharathva.auth.repository;
 
 import com.bharathva.auth.entity.UserFollows;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserFollowsRepository extends JpaRepository<UserFollows, UUID> {
@@ -34,6 +42,53 @@ public interface UserFollowsRepository extends JpaRepository<UserFollows, UUID>
     
     @Query("SELECT uf FROM UserFollows uf WHERE uf.followingId = :userId")
     List<UserFollows> findAllByFollowingId(@Param("userId") UUID userId);
+    
+    /**
+     * Adds the follow unless it already exists; returns 1 if a row was inserted. The unique
+     * (follower_id, following_id) constraint makes this safe under concurrent requests.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_follows (follower_id, following_id) VALUES (:followerId, :followingId) " +
+                   "ON CONFLICT (follower_id, following_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("followerId") UUID followerId, @Param("followingId") UUID followingId);
+    
+    @Modifying
+    @Query("DELETE FROM UserFollows uf WHERE uf.followerId = :followerId AND uf.followingId = :followingId")
+    int deleteByFollowerIdAndFollowingId(@Param("followerId") UUID followerId, @Param("followingId") UUID followingId);
+    
+    /**
+     * Which of the given users the follower follows, in one query.
+     */
+    @Query("SELECT uf.followingId FROM UserFollows uf WHERE uf.followerId = :followerId AND uf.followingId IN :targetIds")
+    List<UUID> findFollowingIdsAmong(@Param("followerId") UUID followerId, @Param("targetIds") Collection<UUID> targetIds);
+    
+    // Keyset pages, newest first; served by the (following_id|follower_id, created_at, id) indexes
+    
+    @Query("SELECT uf FROM UserFollows uf WHERE uf.followingId = :userId ORDER BY uf.createdAt DESC, uf.id DESC")
+    List<UserFollows> findFollowersPage(@Param("userId") UUID userId, Pageable pageable);
+    
+    @Query("SELECT uf FROM UserFollows uf WHERE uf.followingId = :userId " +
+           "AND (uf.createdAt < :createdAt OR (uf.createdAt = :createdAt AND uf.id < :id)) " +
+           "ORDER BY uf.createdAt DESC, uf.id DESC")
+    List<UserFollows> findFollowersPageAfter(@Param("userId") UUID userId, @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") UUID id, Pageable pageable);
+    
+    @Query("SELECT uf FROM UserFollows uf WHERE uf.followerId = :userId ORDER BY uf.createdAt DESC, uf.id DESC")
+    List<UserFollows> findFollowingPage(@Param("userId") UUID userId, Pageable pageable);
+    
+    @Query("SELECT uf FROM UserFollows uf WHERE uf.followerId = :userId " +
+           "AND (uf.createdAt < :createdAt OR (uf.createdAt = :createdAt AND uf.id < :id)) " +
+           "ORDER BY uf.createdAt DESC, uf.id DESC")
+    List<UserFollows> findFollowingPageAfter(@Param("userId") UUID userId, @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") UUID id, Pageable pageable);
+    
+    /**
+     * Every follow as (follower_id, following_id), streamed in batches for loading the
+     * FollowGraphIndex. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT uf.followerId, uf.followingId FROM UserFollows uf")
+    Stream<Object[]> streamAllEdges();
 }
 
 
@@ -1,16 +1,19 @@
 package com.bharathva.auth.repository;
 
 import com.bharathva.auth.entity.User;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
@@ -19,17 +22,29 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     boolean existsByEmail(String email);
     boolean existsByUsername(String username);
     
+    /**
+     * Users whose username or full name matches {@code pattern}, a lower-case LIKE pattern in
+     * which the caller has escaped %, _ and the backslash. Substring patterns are served by the
+     * pg_trgm indexes, prefix patterns by the text_pattern_ops ones. Ranked exact username,
+     * username prefix, name prefix, then the rest.
+     */
     @Query("SELECT u FROM User u WHERE " +
-           "LOWER(u.username) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :query, '%')) " +
+           "LOWER(u.username) LIKE :pattern ESCAPE '\\' OR " +
+           "LOWER(u.fullName) LIKE :pattern ESCAPE '\\' " +
            "ORDER BY " +
-           "CASE WHEN LOWER(u.username) = LOWER(:query) THEN 1 " +
-           "WHEN LOWER(u.username) LIKE LOWER(CONCAT(:query, '%')) THEN 2 " +
-           "WHEN LOWER(u.fullName) LIKE LOWER(CONCAT(:query, '%')) THEN 3 " +
+           "CASE WHEN LOWER(u.username) = :query THEN 1 " +
+           "WHEN LOWER(u.username) LIKE :prefix ESCAPE '\\' THEN 2 " +
+           "WHEN LOWER(u.fullName) LIKE :prefix ESCAPE '\\' THEN 3 " +
            "ELSE 4 END, " +
            "u.username ASC")
-    Page<User> searchUsers(@Param("query") String query, Pageable pageable);
+    List<User> searchUsers(@Param("query") String query, @Param("pattern") String pattern,
+                           @Param("prefix") String prefix, Pageable pageable);
     
-    @Query(value = "SELECT * FROM users ORDER BY RANDOM() LIMIT :limit", nativeQuery = true)
-    List<User> findRandomUsers(@Param("limit") int limit);
+    /**
+     * The fields the in-memory search index keeps, for every user, streamed in batches.
+     * Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT u.id, u.username, u.fullName, u.profileImageUrl, u.bio, u.isEmailVerified FROM User u")
+    Stream<Object[]> streamSearchFields();
 }
@@ -1,6 +1,7 @@
 package com.bharathva.auth.repository;
 
 import com.bharathva.auth.entity.UserSession;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -41,6 +42,10 @@ public interface UserSessionRepository extends JpaRepository<UserSession, UUID>
     @Query("SELECT s FROM UserSession s WHERE s.user.id = :userId AND s.expiresAt > :now ORDER BY s.lastUsedAt DESC, s.createdAt DESC")
     List<UserSession> findActiveSessionsByUserId(UUID userId, LocalDateTime now);
 
+    // Users who used a session since the given time (suggestion precompute job)
+    @Query("SELECT DISTINCT s.user.id FROM UserSession s WHERE s.lastUsedAt > :since")
+    List<UUID> findUserIdsActiveSince(LocalDateTime since, Pageable pageable);
+
     // Delete expired sessions (cleanup job)
     @Modifying
     @Query("DELETE FROM UserSession s WHERE s.expiresAt < :now")
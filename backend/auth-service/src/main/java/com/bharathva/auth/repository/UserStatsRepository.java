@@ -1,12 +1,15 @@
 package com.bharathva.auth.repository;
 
 import com.bharathva.auth.entity.UserStats;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -15,6 +18,14 @@ public interface UserStatsRepository extends JpaRepository<UserStats, UUID> {
     
     Optional<UserStats> findByUserId(UUID userId);
     
+    List<UserStats> findByUserIdIn(Collection<UUID> userIds);
+    
+    /**
+     * The most followed users, for suggestions; served by idx_user_stats_followers_count.
+     */
+    @Query("SELECT us.userId FROM UserStats us ORDER BY us.followersCount DESC, us.userId")
+    List<UUID> findMostFollowedUserIds(Pageable pageable);
+    
     @Modifying
     @Query("UPDATE UserStats us SET us.followersCount = " +
            "(SELECT COUNT(uf) FROM UserFollows uf WHERE uf.followingId = :userId), " +
@@ -29,12 +40,54 @@ public interface UserStatsRepository extends JpaRepository<UserStats, UUID> {
            "WHERE us.userId = :userId")
     void updateFollowingCount(@Param("userId") UUID userId);
     
+    /**
+     * Creates the stats row with zero counts unless it exists.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_stats (user_id) VALUES (:userId) ON CONFLICT (user_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") UUID userId);
+    
+    /**
+     * Atomic follower count change, applied in the follow/unfollow transaction.
+     */
+    @Modifying
+    @Query("UPDATE UserStats us SET us.followersCount = GREATEST(0, us.followersCount + :delta), " +
+           "us.lastUpdatedAt = CURRENT_TIMESTAMP " +
+           "WHERE us.userId = :userId")
+    int adjustFollowersCount(@Param("userId") UUID userId, @Param("delta") Integer delta);
+    
+    @Modifying
+    @Query("UPDATE UserStats us SET us.followingCount = GREATEST(0, us.followingCount + :delta), " +
+           "us.lastUpdatedAt = CURRENT_TIMESTAMP " +
+           "WHERE us.userId = :userId")
+    int adjustFollowingCount(@Param("userId") UUID userId, @Param("delta") Integer delta);
+    
     @Modifying
     @Query("UPDATE UserStats us SET us.postsCount = :count, " +
            "us.lastUpdatedAt = CURRENT_TIMESTAMP " +
            "WHERE us.userId = :userId")
     void updatePostsCount(@Param("userId") UUID userId, @Param("count") Integer count);
     
+    /**
+     * Applies a post count only when its sequence is newer than the last one applied,
+     * so redelivered or out-of-order updates from feed-service are no-ops.
+     */
+    @Modifying
+    @Query("UPDATE UserStats us SET us.postsCount = :count, us.postsCountSeq = :seq, " +
+           "us.lastUpdatedAt = CURRENT_TIMESTAMP " +
+           "WHERE us.userId = :userId AND us.postsCountSeq < :seq")
+    int updatePostsCountIfNewer(@Param("userId") UUID userId, @Param("count") Integer count, @Param("seq") Long seq);
+    
+    /**
+     * Applies a recounted post count unless a newer outbox update has already been applied.
+     * Rows that already hold the count are not rewritten.
+     */
+    @Modifying
+    @Query("UPDATE UserStats us SET us.postsCount = :count, us.postsCountSeq = :seq, " +
+           "us.lastUpdatedAt = CURRENT_TIMESTAMP " +
+           "WHERE us.userId = :userId AND us.postsCountSeq <= :seq AND us.postsCount <> :count")
+    int reconcilePostsCount(@Param("userId") UUID userId, @Param("count") Integer count, @Param("seq") Long seq);
+    
     @Modifying
     @Query("UPDATE UserStats us SET us.postsCount = us.postsCount + :increment, " +
            "us.lastUpdatedAt = CURRENT_TIMESTAMP " +
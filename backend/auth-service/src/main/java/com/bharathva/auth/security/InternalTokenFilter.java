@@ -0,0 +1,84 @@
+package com.bharathva.auth.security;
+
+import com.bharathva.auth.config.InternalTokenConfig;
+import com.bharathva.shared.dto.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Guards the service-to-service endpoints. These take no JWT; the caller must send the shared
+ * internal token in {@code X-Internal-Token}, or gets a 403 before any controller runs.
+ */
+@Component
+public class InternalTokenFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(InternalTokenFilter.class);
+
+    public static final String HEADER = "X-Internal-Token";
+
+    public static final String[] INTERNAL_PATHS = {
+            "/auth/user/batch",
+            "/auth/stats/posts/bulk",
+            "/auth/follow/*/followers/ids",
+            "/auth/follow/*/following/ids"
+    };
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    @Autowired
+    private InternalTokenConfig internalTokenConfig;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !isInternalPath(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        if (internalTokenConfig.matches(request.getHeader(HEADER))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        logger.warn("Rejected {} {} without a valid internal token", request.getMethod(), request.getRequestURI());
+        response.setStatus(HttpStatus.FORBIDDEN.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ApiResponse<>(
+                false,
+                "Internal token required",
+                null,
+                LocalDateTime.now()
+        ));
+    }
+
+    static boolean isInternalPath(String requestURI) {
+        for (String pattern : INTERNAL_PATHS) {
+            if (PATH_MATCHER.match(pattern, requestURI)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
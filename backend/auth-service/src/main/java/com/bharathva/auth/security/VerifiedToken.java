@@ -0,0 +1,55 @@
+package com.bharathva.auth.security;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The claims of an access token whose signature and expiry have been checked.
+ * Produced once per token by JwtService.verify and shared by everything that needs them.
+ */
+public final class VerifiedToken {
+
+    private final UUID userId;
+    private final String email;
+    private final String username;
+    private final String type;
+    private final Instant issuedAt;
+    private final Instant expiresAt;
+
+    public VerifiedToken(UUID userId, String email, String username, String type, Instant issuedAt, Instant expiresAt) {
+        this.userId = userId;
+        this.email = email;
+        this.username = username;
+        this.type = type;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
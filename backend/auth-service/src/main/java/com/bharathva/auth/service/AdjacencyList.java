@@ -0,0 +1,295 @@
+package com.bharathva.auth.service;
+
+import java.util.Arrays;
+
+/**
+ * An immutable sorted set of dense user ids: one user's followers or following in FollowGraph.
+ *
+ * Small lists are a plain int[] searched by binary search. From COMPRESS_AT entries the ids
+ * are stored as varint deltas in blocks of BLOCK_SIZE, each block starting from a full value
+ * so a lookup binary-searches the block heads and decodes a single block. Edits to a
+ * compressed list go to small added/removed overlays and are folded in once the overlays
+ * reach MAX_PENDING, so following a popular user does not re-encode their whole follower list.
+ */
+final class AdjacencyList {
+
+    static final int COMPRESS_AT = 256;
+    static final int BLOCK_SIZE = 64;
+    static final int MAX_PENDING = 64;
+
+    private static final int[] NONE = new int[0];
+
+    static final AdjacencyList EMPTY = new AdjacencyList(NONE);
+
+    // Plain form: every id, sorted; null when compressed
+    private final int[] values;
+
+    // Compressed form
+    private final byte[] data;
+    private final int[] blockHeads;
+    private final int[] blockOffsets;
+    private final int encodedSize;
+    private final int[] added;
+    private final int[] removed;
+
+    private AdjacencyList(int[] values) {
+        this.values = values;
+        this.data = null;
+        this.blockHeads = null;
+        this.blockOffsets = null;
+        this.encodedSize = 0;
+        this.added = NONE;
+        this.removed = NONE;
+    }
+
+    private AdjacencyList(byte[] data, int[] blockHeads, int[] blockOffsets, int encodedSize, int[] added, int[] removed) {
+        this.values = null;
+        this.data = data;
+        this.blockHeads = blockHeads;
+        this.blockOffsets = blockOffsets;
+        this.encodedSize = encodedSize;
+        this.added = added;
+        this.removed = removed;
+    }
+
+    /**
+     * A list of the given ids, which must be sorted and distinct. The array is kept, not copied.
+     */
+    static AdjacencyList of(int[] sorted) {
+        if (sorted.length == 0) {
+            return EMPTY;
+        }
+        if (sorted.length < COMPRESS_AT) {
+            return new AdjacencyList(sorted);
+        }
+
+        int blocks = (sorted.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int[] heads = new int[blocks];
+        int[] offsets = new int[blocks];
+        byte[] buffer = new byte[sorted.length * 5];
+        int position = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i % BLOCK_SIZE == 0) {
+                heads[i / BLOCK_SIZE] = sorted[i];
+                offsets[i / BLOCK_SIZE] = position;
+                continue;
+            }
+            int delta = sorted[i] - sorted[i - 1];
+            while ((delta & ~0x7F) != 0) {
+                buffer[position++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            buffer[position++] = (byte) delta;
+        }
+        return new AdjacencyList(Arrays.copyOf(buffer, position), heads, offsets, sorted.length, NONE, NONE);
+    }
+
+    int size() {
+        if (values != null) {
+            return values.length;
+        }
+        return encodedSize + added.length - removed.length;
+    }
+
+    boolean isCompressed() {
+        return values == null;
+    }
+
+    boolean contains(int id) {
+        if (values != null) {
+            return Arrays.binarySearch(values, id) >= 0;
+        }
+        if (Arrays.binarySearch(added, id) >= 0) {
+            return true;
+        }
+        return Arrays.binarySearch(removed, id) < 0 && encodedContains(id);
+    }
+
+    /**
+     * Every id in ascending order, as a new array the caller may keep.
+     */
+    int[] toArray() {
+        if (values != null) {
+            return values.clone();
+        }
+        int[] decoded = decode();
+        if (added.length == 0 && removed.length == 0) {
+            return decoded;
+        }
+
+        int[] merged = new int[size()];
+        int i = 0;
+        int a = 0;
+        int r = 0;
+        int n = 0;
+        while (i < decoded.length || a < added.length) {
+            int next;
+            if (a >= added.length || (i < decoded.length && decoded[i] < added[a])) {
+                next = decoded[i++];
+                while (r < removed.length && removed[r] < next) {
+                    r++;
+                }
+                if (r < removed.length && removed[r] == next) {
+                    continue;
+                }
+            } else {
+                next = added[a++];
+            }
+            merged[n++] = next;
+        }
+        return merged;
+    }
+
+    AdjacencyList with(int id) {
+        if (contains(id)) {
+            return this;
+        }
+        if (values != null) {
+            return of(insert(values, id));
+        }
+        int removedAt = Arrays.binarySearch(removed, id);
+        if (removedAt >= 0) {
+            return pending(added, delete(removed, removedAt));
+        }
+        return pending(insert(added, id), removed);
+    }
+
+    AdjacencyList without(int id) {
+        if (!contains(id)) {
+            return this;
+        }
+        if (values != null) {
+            return values.length == 1 ? EMPTY : of(delete(values, Arrays.binarySearch(values, id)));
+        }
+        int addedAt = Arrays.binarySearch(added, id);
+        if (addedAt >= 0) {
+            return pending(delete(added, addedAt), removed);
+        }
+        return pending(added, insert(removed, id));
+    }
+
+    /**
+     * Ids in both lists, ascending. Probes the larger list when the other is much smaller,
+     * otherwise merges the two.
+     */
+    static int[] intersect(AdjacencyList first, AdjacencyList second) {
+        AdjacencyList small = first.size() <= second.size() ? first : second;
+        AdjacencyList large = small == first ? second : first;
+        if (small.size() == 0) {
+            return NONE;
+        }
+
+        int[] smallIds = small.toArray();
+        int[] common = new int[smallIds.length];
+        int n = 0;
+        if ((long) smallIds.length * 16 < large.size()) {
+            for (int id : smallIds) {
+                if (large.contains(id)) {
+                    common[n++] = id;
+                }
+            }
+            return Arrays.copyOf(common, n);
+        }
+
+        int[] largeIds = large.toArray();
+        int i = 0;
+        int j = 0;
+        while (i < smallIds.length && j < largeIds.length) {
+            if (smallIds[i] < largeIds[j]) {
+                i++;
+            } else if (smallIds[i] > largeIds[j]) {
+                j++;
+            } else {
+                common[n++] = smallIds[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(common, n);
+    }
+
+    /**
+     * Approximate heap footprint, for logging the size of the index.
+     */
+    long footprintBytes() {
+        if (values != null) {
+            return 16L + 4L * values.length;
+        }
+        return 48L + data.length + 8L * blockHeads.length + 4L * (added.length + removed.length);
+    }
+
+    private AdjacencyList pending(int[] newAdded, int[] newRemoved) {
+        if (newAdded.length + newRemoved.length > MAX_PENDING) {
+            return of(new AdjacencyList(data, blockHeads, blockOffsets, encodedSize, newAdded, newRemoved).toArray());
+        }
+        return new AdjacencyList(data, blockHeads, blockOffsets, encodedSize, newAdded, newRemoved);
+    }
+
+    private boolean encodedContains(int id) {
+        int block = Arrays.binarySearch(blockHeads, id);
+        if (block >= 0) {
+            return true;
+        }
+        block = -block - 2;
+        if (block < 0) {
+            return false;
+        }
+        int value = blockHeads[block];
+        int position = blockOffsets[block];
+        int count = Math.min(BLOCK_SIZE, encodedSize - block * BLOCK_SIZE);
+        for (int i = 1; i < count; i++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            value += delta;
+            if (value >= id) {
+                return value == id;
+            }
+        }
+        return false;
+    }
+
+    private int[] decode() {
+        int[] decoded = new int[encodedSize];
+        int position = 0;
+        int value = 0;
+        for (int i = 0; i < encodedSize; i++) {
+            if (i % BLOCK_SIZE == 0) {
+                value = blockHeads[i / BLOCK_SIZE];
+            } else {
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[position++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                value += delta;
+            }
+            decoded[i] = value;
+        }
+        return decoded;
+    }
+
+    private static int[] insert(int[] sorted, int id) {
+        int at = -Arrays.binarySearch(sorted, id) - 1;
+        int[] result = new int[sorted.length + 1];
+        System.arraycopy(sorted, 0, result, 0, at);
+        result[at] = id;
+        System.arraycopy(sorted, at, result, at + 1, sorted.length - at);
+        return result;
+    }
+
+    private static int[] delete(int[] sorted, int at) {
+        int[] result = new int[sorted.length - 1];
+        System.arraycopy(sorted, 0, result, 0, at);
+        System.arraycopy(sorted, at + 1, result, at, sorted.length - at - 1);
+        return result;
+    }
+}
@@ -1,5 +1,6 @@
 package com.bharathva.auth.service;
 
+import com.bharathva.auth.security.VerifiedToken;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -45,11 +46,23 @@ public class FastAuthService {
      * @return true if token is valid, false otherwise
      */
     public boolean validateTokenFast(String token) {
+        return verifyTokenFast(token) != null;
+    }
+
+    /**
+     * Fast, stateless JWT validation returning the verified claims, or null if the token is
+     * invalid or expired. One call per request is enough: the token is parsed (and its
+     * signature checked) at most once, later calls with the same token hit JwtService's cache.
+     * 
+     * @param token JWT access token
+     * @return verified claims, or null
+     */
+    public VerifiedToken verifyTokenFast(String token) {
         try {
-            return jwtService.validateToken(token);
+            return jwtService.verify(token);
         } catch (Exception e) {
             log.debug("Fast token validation failed: {}", e.getMessage());
-            return false;
+            return null;
         }
     }
 
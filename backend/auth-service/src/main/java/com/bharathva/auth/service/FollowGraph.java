@@ -0,0 +1,235 @@
+package com.bharathva.auth.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The follow graph in memory: users as dense int ids, and for each id its following and
+ * follower lists as AdjacencyLists.
+ *
+ * Reads take no lock. Writes are serialised on the graph and replace a user's list with a new
+ * immutable one; the arrays are republished through their volatile fields after every write,
+ * so a reader sees the latest lists once it has read the field.
+ */
+final class FollowGraph {
+
+    private final Map<UUID, Integer> ids;
+    private volatile UUID[] users;
+    private volatile AdjacencyList[] following;
+    private volatile AdjacencyList[] followers;
+    private int userCount;
+    private long edgeCount;
+
+    private FollowGraph(Map<UUID, Integer> ids, UUID[] users, int userCount,
+                        AdjacencyList[] following, AdjacencyList[] followers, long edgeCount) {
+        this.ids = ids;
+        this.users = users;
+        this.userCount = userCount;
+        this.following = following;
+        this.followers = followers;
+        this.edgeCount = edgeCount;
+    }
+
+    static FollowGraph empty() {
+        return new Builder().build();
+    }
+
+    /**
+     * The dense id of a user, or -1 if they have no follows.
+     */
+    int idOf(UUID userId) {
+        Integer id = ids.get(userId);
+        return id != null ? id : -1;
+    }
+
+    UUID userOf(int id) {
+        return users[id];
+    }
+
+    AdjacencyList following(int id) {
+        return listAt(following, id);
+    }
+
+    AdjacencyList followers(int id) {
+        return listAt(followers, id);
+    }
+
+    boolean isFollowing(UUID followerId, UUID followingId) {
+        int follower = idOf(followerId);
+        int followed = idOf(followingId);
+        if (follower < 0 || followed < 0) {
+            return false;
+        }
+        // Search whichever side is shorter
+        AdjacencyList out = following(follower);
+        AdjacencyList in = followers(followed);
+        return out.size() <= in.size() ? out.contains(followed) : in.contains(follower);
+    }
+
+    synchronized int userCount() {
+        return userCount;
+    }
+
+    synchronized long edgeCount() {
+        return edgeCount;
+    }
+
+    synchronized boolean add(UUID followerId, UUID followingId) {
+        int follower = register(followerId);
+        int followed = register(followingId);
+        AdjacencyList out = listAt(following, follower);
+        AdjacencyList updated = out.with(followed);
+        if (updated == out) {
+            return false;
+        }
+        following[follower] = updated;
+        followers[followed] = listAt(followers, followed).with(follower);
+        edgeCount++;
+        publish();
+        return true;
+    }
+
+    synchronized boolean remove(UUID followerId, UUID followingId) {
+        int follower = idOf(followerId);
+        int followed = idOf(followingId);
+        if (follower < 0 || followed < 0) {
+            return false;
+        }
+        AdjacencyList out = listAt(following, follower);
+        AdjacencyList updated = out.without(followed);
+        if (updated == out) {
+            return false;
+        }
+        following[follower] = updated;
+        followers[followed] = listAt(followers, followed).without(follower);
+        edgeCount--;
+        publish();
+        return true;
+    }
+
+    /**
+     * Approximate heap used by the adjacency lists, without the UUID map.
+     */
+    long footprintBytes() {
+        long bytes = 0;
+        for (AdjacencyList[] lists : List.of(following, followers)) {
+            for (AdjacencyList list : lists) {
+                if (list != null) {
+                    bytes += list.footprintBytes();
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private int register(UUID userId) {
+        Integer existing = ids.get(userId);
+        if (existing != null) {
+            return existing;
+        }
+        int id = userCount++;
+        if (id >= users.length) {
+            int capacity = Math.max(16, users.length + (users.length >> 1));
+            users = Arrays.copyOf(users, capacity);
+            following = Arrays.copyOf(following, capacity);
+            followers = Arrays.copyOf(followers, capacity);
+        }
+        users[id] = userId;
+        ids.put(userId, id);
+        return id;
+    }
+
+    private void publish() {
+        // Volatile writes: everything written before them is visible to the next reader
+        users = users;
+        following = following;
+        followers = followers;
+    }
+
+    private static AdjacencyList listAt(AdjacencyList[] lists, int id) {
+        AdjacencyList list = id < lists.length ? lists[id] : null;
+        return list != null ? list : AdjacencyList.EMPTY;
+    }
+
+    /**
+     * Collects follow edges, e.g. streamed from user_follows, and builds the graph in one pass:
+     * the edges are bucketed by user with a counting sort, then each bucket is sorted and
+     * encoded. Duplicate edges are dropped.
+     */
+    static final class Builder {
+
+        private final Map<UUID, Integer> ids = new HashMap<>();
+        private final List<UUID> users = new ArrayList<>();
+        private int[] from = new int[1024];
+        private int[] to = new int[1024];
+        private int edges;
+
+        void add(UUID followerId, UUID followingId) {
+            if (edges == from.length) {
+                from = Arrays.copyOf(from, edges * 2);
+                to = Arrays.copyOf(to, edges * 2);
+            }
+            from[edges] = idOf(followerId);
+            to[edges] = idOf(followingId);
+            edges++;
+        }
+
+        FollowGraph build() {
+            int userCount = users.size();
+            AdjacencyList[] following = group(from, to, userCount);
+            AdjacencyList[] followers = group(to, from, userCount);
+            long edgeCount = 0;
+            for (AdjacencyList list : following) {
+                edgeCount += list.size();
+            }
+            from = null;
+            to = null;
+            return new FollowGraph(new ConcurrentHashMap<>(ids), users.toArray(new UUID[0]), userCount,
+                    following, followers, edgeCount);
+        }
+
+        private int idOf(UUID userId) {
+            Integer id = ids.get(userId);
+            if (id == null) {
+                id = users.size();
+                ids.put(userId, id);
+                users.add(userId);
+            }
+            return id;
+        }
+
+        private AdjacencyList[] group(int[] keys, int[] values, int userCount) {
+            int[] starts = new int[userCount + 1];
+            for (int i = 0; i < edges; i++) {
+                starts[keys[i] + 1]++;
+            }
+            for (int user = 0; user < userCount; user++) {
+                starts[user + 1] += starts[user];
+            }
+            int[] bucketed = new int[edges];
+            int[] next = Arrays.copyOf(starts, userCount);
+            for (int i = 0; i < edges; i++) {
+                bucketed[next[keys[i]]++] = values[i];
+            }
+
+            AdjacencyList[] lists = new AdjacencyList[userCount];
+            for (int user = 0; user < userCount; user++) {
+                int[] ids = Arrays.copyOfRange(bucketed, starts[user], starts[user + 1]);
+                Arrays.sort(ids);
+                int distinct = 0;
+                for (int i = 0; i < ids.length; i++) {
+                    if (i == 0 || ids[i] != ids[i - 1]) {
+                        ids[distinct++] = ids[i];
+                    }
+                }
+                lists[user] = AdjacencyList.of(distinct == ids.length ? ids : Arrays.copyOf(ids, distinct));
+            }
+            return lists;
+        }
+    }
+}
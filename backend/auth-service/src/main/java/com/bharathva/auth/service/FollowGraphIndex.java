@@ -0,0 +1,271 @@
+package com.bharathva.auth.service;
+
+import com.bharathva.auth.repository.UserFollowsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of user_follows for mutual-follow, intersection and graph-walk queries
+ * without a database round trip.
+ *
+ * Loaded by streaming user_follows once the application is ready, and rebuilt every
+ * follow-graph.rebuild-interval-ms to pick up follows written by other instances. Follows and
+ * unfollows made here are applied after their transaction commits. While a rebuild runs, those
+ * edits are also kept and replayed onto the new graph before it replaces the old one; replaying
+ * is idempotent, so an edit the load already saw does no harm.
+ *
+ * Follows made through other instances only show up after the next rebuild. The viewer's own
+ * follow state (FollowService.isFollowing, getFollowingStatus) must be exact, so it is read
+ * from the database; the graph questions around it (follows you, mutuals, followed by people
+ * you follow, suggestions) are answered from here, where that lag is acceptable.
+ *
+ * Until the first load finishes isReady() is false and callers read the database instead.
+ */
+@Service
+public class FollowGraphIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(FollowGraphIndex.class);
+
+    @Autowired
+    private UserFollowsRepository userFollowsRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${follow-graph.enabled:true}")
+    private boolean enabled = true;
+
+    private volatile FollowGraph graph;
+
+    // Edits made while a rebuild runs; null otherwise. Guarded by this.
+    private List<Edit> pendingEdits;
+
+    public boolean isReady() {
+        return graph != null;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${follow-graph.rebuild-interval-ms:1800000}",
+               initialDelayString = "${follow-graph.rebuild-interval-ms:1800000}")
+    public void scheduledRebuild() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Stream every follow into a new graph and swap it in. Returns false if a rebuild was
+     * already running or the load failed.
+     */
+    public boolean rebuild() {
+        synchronized (this) {
+            if (pendingEdits != null) {
+                return false;
+            }
+            pendingEdits = new ArrayList<>();
+        }
+
+        long startedAt = System.currentTimeMillis();
+        try {
+            FollowGraph.Builder builder = new FollowGraph.Builder();
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> edges = userFollowsRepository.streamAllEdges()) {
+                    edges.forEach(edge -> builder.add((UUID) edge[0], (UUID) edge[1]));
+                }
+            });
+            FollowGraph built = builder.build();
+
+            int replayed;
+            synchronized (this) {
+                replayed = pendingEdits.size();
+                for (Edit edit : pendingEdits) {
+                    edit.applyTo(built);
+                }
+                graph = built;
+                pendingEdits = null;
+            }
+            log.info("Loaded follow graph: {} users, {} follows, ~{} KB of adjacency, {} edits replayed, in {} ms",
+                    built.userCount(), built.edgeCount(), built.footprintBytes() / 1024, replayed,
+                    System.currentTimeMillis() - startedAt);
+            return true;
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingEdits = null;
+            }
+            log.error("Failed to load follow graph: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Record a follow once the surrounding transaction commits (immediately without one).
+     */
+    public void recordFollow(UUID followerId, UUID followingId) {
+        afterCommit(new Edit(followerId, followingId, true));
+    }
+
+    public void recordUnfollow(UUID followerId, UUID followingId) {
+        afterCommit(new Edit(followerId, followingId, false));
+    }
+
+    public boolean isFollowing(UUID followerId, UUID followingId) {
+        return loaded().isFollowing(followerId, followingId);
+    }
+
+    /**
+     * Whether the two users follow each other.
+     */
+    public boolean isMutual(UUID userId, UUID otherUserId) {
+        FollowGraph current = loaded();
+        return current.isFollowing(userId, otherUserId) && current.isFollowing(otherUserId, userId);
+    }
+
+    /**
+     * Which of the targets the follower follows.
+     */
+    public Set<UUID> followedAmong(UUID followerId, Collection<UUID> targetIds) {
+        FollowGraph current = loaded();
+        Set<UUID> followed = new HashSet<>();
+        for (UUID targetId : targetIds) {
+            if (current.isFollowing(followerId, targetId)) {
+                followed.add(targetId);
+            }
+        }
+        return followed;
+    }
+
+    /**
+     * Users who follow this user and are followed back.
+     */
+    public List<UUID> getMutualFollows(UUID userId) {
+        FollowGraph current = loaded();
+        int id = current.idOf(userId);
+        if (id < 0) {
+            return List.of();
+        }
+        return toUsers(current, AdjacencyList.intersect(current.following(id), current.followers(id)));
+    }
+
+    /**
+     * Users followed by both users.
+     */
+    public List<UUID> getCommonFollowing(UUID userId, UUID otherUserId) {
+        FollowGraph current = loaded();
+        int id = current.idOf(userId);
+        int otherId = current.idOf(otherUserId);
+        if (id < 0 || otherId < 0) {
+            return List.of();
+        }
+        return toUsers(current, AdjacencyList.intersect(current.following(id), current.following(otherId)));
+    }
+
+    /**
+     * Followers of the target whom the viewer follows ("followed by people you follow").
+     */
+    public List<UUID> getFollowersKnownTo(UUID viewerId, UUID targetId) {
+        FollowGraph current = loaded();
+        int viewer = current.idOf(viewerId);
+        int target = current.idOf(targetId);
+        if (viewer < 0 || target < 0) {
+            return List.of();
+        }
+        return toUsers(current, AdjacencyList.intersect(current.following(viewer), current.followers(target)));
+    }
+
+    /**
+     * The current graph for callers in this package that work on dense ids directly.
+     */
+    FollowGraph snapshot() {
+        return loaded();
+    }
+
+    private FollowGraph loaded() {
+        FollowGraph current = graph;
+        if (current == null) {
+            throw new IllegalStateException("Follow graph is not loaded yet");
+        }
+        return current;
+    }
+
+    private void afterCommit(Edit edit) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(edit);
+                }
+            });
+        } else {
+            apply(edit);
+        }
+    }
+
+    private synchronized void apply(Edit edit) {
+        if (graph != null) {
+            edit.applyTo(graph);
+        }
+        if (pendingEdits != null) {
+            pendingEdits.add(edit);
+        }
+    }
+
+    private static List<UUID> toUsers(FollowGraph current, int[] ids) {
+        List<UUID> users = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            users.add(current.userOf(id));
+        }
+        return users;
+    }
+
+    private static final class Edit {
+
+        private final UUID followerId;
+        private final UUID followingId;
+        private final boolean follow;
+
+        Edit(UUID followerId, UUID followingId, boolean follow) {
+            this.followerId = followerId;
+            this.followingId = followingId;
+            this.follow = follow;
+        }
+
+        void applyTo(FollowGraph target) {
+            if (follow) {
+                target.add(followerId, followingId);
+            } else {
+                target.remove(followerId, followingId);
+            }
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.bharathva.auth.service;
 
+import com.bharathva.auth.dto.FollowEntry;
+import com.bharathva.auth.dto.FollowPage;
+import com.bharathva.auth.dto.SocialContext;
 import com.bharathva.auth.entity.User;
 import com.bharathva.auth.entity.UserFollows;
 import com.bharathva.auth.entity.UserStats;
@@ -9,17 +12,46 @@ import com.bharathva.auth.repository.UserStatsRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Follow graph: follow/unfollow, follower and following lists, follow status and counts.
+ *
+ * Counts live in user_stats and change with the follow row in one transaction, so reading
+ * them is a primary key lookup. Lists are keyset-paginated on (created_at, id), newest first.
+ * Single follow checks read the database, so a follow made through any instance shows up at
+ * once. Follows and unfollows are also recorded in the FollowGraphIndex, which answers the
+ * graph questions around them (follows you, mutuals, followed by people you follow) in memory;
+ * those may trail another instance's writes until its next rebuild.
+ */
 @Service
 public class FollowService {
     
     private static final Logger log = LoggerFactory.getLogger(FollowService.class);
     
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_STATUS_TARGETS = 500;
+    public static final int FOLLOWED_BY_SAMPLE_SIZE = 3;
+    
     @Autowired
     private UserFollowsRepository userFollowsRepository;
     
@@ -29,6 +61,9 @@ public class FollowService {
     @Autowired
     private UserStatsRepository userStatsRepository;
     
+    @Autowired
+    private FollowGraphIndex followGraphIndex;
+    
     @Transactional
     public boolean followUser(UUID followerId, UUID followingId) {
         try {
@@ -37,35 +72,26 @@ public class FollowService {
                 throw new IllegalArgumentException("Cannot follow yourself");
             }
             
-            if (userFollowsRepository.existsByFollowerIdAndFollowingId(followerId, followingId)) {
-                log.info("User {} already follows user {}", followerId, followingId);
-                return false;
-            }
-            
-            Optional<User> followerOptional = userRepository.findById(followerId);
-            Optional<User> followingOptional = userRepository.findById(followingId);
-            
-            if (followerOptional.isEmpty()) {
+            if (!userRepository.existsById(followerId)) {
                 log.error("Follower user not found: {}", followerId);
                 throw new IllegalArgumentException("Follower user not found");
             }
             
-            if (followingOptional.isEmpty()) {
+            if (!userRepository.existsById(followingId)) {
                 log.error("Following user not found: {}", followingId);
                 throw new IllegalArgumentException("Following user not found");
             }
             
-            User follower = followerOptional.get();
-            User following = followingOptional.get();
+            if (userFollowsRepository.insertIfAbsent(followerId, followingId) == 0) {
+                log.info("User {} already follows user {}", followerId, followingId);
+                return false;
+            }
             
-            UserFollows userFollows = new UserFollows(follower, following);
-            userFollowsRepository.save(userFollows);
+            adjustFollowCounts(followerId, followingId, 1);
+            followGraphIndex.recordFollow(followerId, followingId);
             
             log.info("User {} successfully followed user {}", followerId, followingId);
             
-            ensureUserStatsExist(followerId);
-            ensureUserStatsExist(followingId);
-            
             return true;
         } catch (Exception e) {
             log.error("Error following user: followerId={}, followingId={}, error={}", 
@@ -77,21 +103,16 @@ public class FollowService {
     @Transactional
     public boolean unfollowUser(UUID followerId, UUID followingId) {
         try {
-            Optional<UserFollows> userFollowsOptional = 
-                userFollowsRepository.findByFollowerIdAndFollowingId(followerId, followingId);
-            
-            if (userFollowsOptional.isEmpty()) {
+            if (userFollowsRepository.deleteByFollowerIdAndFollowingId(followerId, followingId) == 0) {
                 log.info("User {} does not follow user {}", followerId, followingId);
                 return false;
             }
             
-            userFollowsRepository.delete(userFollowsOptional.get());
+            adjustFollowCounts(followerId, followingId, -1);
+            followGraphIndex.recordUnfollow(followerId, followingId);
             
             log.info("User {} successfully unfollowed user {}", followerId, followingId);
             
-            ensureUserStatsExist(followerId);
-            ensureUserStatsExist(followingId);
-            
             return true;
         } catch (Exception e) {
             log.error("Error unfollowing user: followerId={}, followingId={}, error={}", 
@@ -104,6 +125,259 @@ public class FollowService {
         return userFollowsRepository.existsByFollowerIdAndFollowingId(followerId, followingId);
     }
     
+    /**
+     * Follow status of the follower towards each target, in one query and in the targets'
+     * order. Read from the database rather than FollowGraphIndex, which may not have seen a
+     * follow made through another instance yet.
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, Boolean> getFollowingStatus(UUID followerId, Collection<UUID> targetIds) {
+        if (targetIds.size() > MAX_STATUS_TARGETS) {
+            throw new IllegalArgumentException("At most " + MAX_STATUS_TARGETS + " target IDs per request");
+        }
+        Map<UUID, Boolean> statuses = new LinkedHashMap<>();
+        if (targetIds.isEmpty()) {
+            return statuses;
+        }
+        Set<UUID> followed = new HashSet<>(userFollowsRepository.findFollowingIdsAmong(followerId, targetIds));
+        for (UUID targetId : targetIds) {
+            statuses.put(targetId, followed.contains(targetId));
+        }
+        return statuses;
+    }
+    
+    /**
+     * A page of the user's followers, newest first. {@code viewerId} (optional) fills in
+     * whether the viewer follows each of them.
+     */
+    @Transactional(readOnly = true)
+    public FollowPage getFollowers(UUID userId, String cursor, int limit, UUID viewerId) {
+        int pageSize = pageSize(limit);
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<UserFollows> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = userFollowsRepository.findFollowersPage(userId, page);
+        } else {
+            Cursor after = decodeCursor(cursor);
+            rows = userFollowsRepository.findFollowersPageAfter(userId, after.createdAt, after.id, page);
+        }
+        return toPage(rows, pageSize, UserFollows::getFollowerId, viewerId);
+    }
+    
+    /**
+     * A page of the users this user follows, newest first.
+     */
+    @Transactional(readOnly = true)
+    public FollowPage getFollowing(UUID userId, String cursor, int limit, UUID viewerId) {
+        int pageSize = pageSize(limit);
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<UserFollows> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = userFollowsRepository.findFollowingPage(userId, page);
+        } else {
+            Cursor after = decodeCursor(cursor);
+            rows = userFollowsRepository.findFollowingPageAfter(userId, after.createdAt, after.id, page);
+        }
+        return toPage(rows, pageSize, UserFollows::getFollowingId, viewerId);
+    }
+    
+    /**
+     * The target's place in the viewer's follow graph, for their profile. Null while the
+     * FollowGraphIndex is loading, or when the viewer is looking at their own profile.
+     */
+    @Transactional(readOnly = true)
+    public SocialContext getSocialContext(UUID viewerId, UUID targetId) {
+        if (viewerId == null || viewerId.equals(targetId) || !followGraphIndex.isReady()) {
+            return null;
+        }
+        List<UUID> followedBy = followGraphIndex.getFollowersKnownTo(viewerId, targetId);
+        List<UUID> sampleIds = followedBy.subList(0, Math.min(FOLLOWED_BY_SAMPLE_SIZE, followedBy.size()));
+        Map<UUID, User> users = userRepository.findAllById(sampleIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        
+        List<FollowEntry> sample = new ArrayList<>(sampleIds.size());
+        for (UUID userId : sampleIds) {
+            User user = users.get(userId);
+            if (user != null) {
+                sample.add(toEntry(user).isFollowing(true).build());
+            }
+        }
+        return SocialContext.builder()
+                .followsYou(followGraphIndex.isFollowing(targetId, viewerId))
+                .isMutual(followGraphIndex.isMutual(viewerId, targetId))
+                .followedBy(sample)
+                .followedByCount(followedBy.size())
+                .commonFollowingCount(followGraphIndex.getCommonFollowing(viewerId, targetId).size())
+                .build();
+    }
+    
+    /**
+     * Users who follow this user and are followed back, up to {@code limit}. Answered from the
+     * FollowGraphIndex, or from the user's follow rows while it loads.
+     */
+    @Transactional(readOnly = true)
+    public List<FollowEntry> getMutualFollows(UUID userId, int limit, UUID viewerId) {
+        List<UUID> mutualIds;
+        if (followGraphIndex.isReady()) {
+            mutualIds = followGraphIndex.getMutualFollows(userId);
+        } else {
+            Set<UUID> followers = new HashSet<>(userFollowsRepository.findFollowerIdsByFollowingId(userId));
+            mutualIds = userFollowsRepository.findFollowingIdsByFollowerId(userId).stream()
+                    .filter(followers::contains)
+                    .collect(Collectors.toList());
+        }
+        mutualIds = mutualIds.subList(0, Math.min(pageSize(limit), mutualIds.size()));
+        
+        Map<UUID, User> users = userRepository.findAllById(mutualIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<UUID, Boolean> statuses = viewerId != null ? getFollowingStatus(viewerId, mutualIds) : Map.of();
+        Set<UUID> followingViewer = followingViewer(viewerId, mutualIds);
+        
+        List<FollowEntry> items = new ArrayList<>(mutualIds.size());
+        for (UUID mutualId : mutualIds) {
+            User user = users.get(mutualId);
+            if (user == null) {
+                continue;
+            }
+            items.add(toEntry(user)
+                    .isFollowing(viewerId != null ? statuses.get(mutualId) : null)
+                    .followsYou(followingViewer != null ? followingViewer.contains(mutualId) : null)
+                    .build());
+        }
+        return items;
+    }
+    
+    /**
+     * Follower IDs of a user, used by feed-service to fan new posts out to home timelines.
+     */
+    @Transactional(readOnly = true)
+    public List<UUID> getFollowerIds(UUID userId) {
+        return userFollowsRepository.findFollowerIdsByFollowingId(userId);
+    }
+    
+    @Transactional(readOnly = true)
+    public long getFollowerCount(UUID userId) {
+        Optional<UserStats> stats = userStatsRepository.findByUserId(userId);
+        if (stats.isPresent()) {
+            return stats.get().getFollowersCount();
+        }
+        // No stats row yet: count once
+        Long followerCount = userFollowsRepository.countByFollowingId(userId);
+        return followerCount != null ? followerCount : 0L;
+    }
+    
+    @Transactional(readOnly = true)
+    public List<UUID> getFollowingIds(UUID userId) {
+        return userFollowsRepository.findFollowingIdsByFollowerId(userId);
+    }
+    
+    /**
+     * Apply a follow or unfollow to both users' counters. Rows are touched in UUID order so two
+     * users following each other at the same time cannot deadlock.
+     */
+    private void adjustFollowCounts(UUID followerId, UUID followingId, int delta) {
+        if (followerId.compareTo(followingId) < 0) {
+            userStatsRepository.insertIfAbsent(followerId);
+            userStatsRepository.insertIfAbsent(followingId);
+            userStatsRepository.adjustFollowingCount(followerId, delta);
+            userStatsRepository.adjustFollowersCount(followingId, delta);
+        } else {
+            userStatsRepository.insertIfAbsent(followingId);
+            userStatsRepository.insertIfAbsent(followerId);
+            userStatsRepository.adjustFollowersCount(followingId, delta);
+            userStatsRepository.adjustFollowingCount(followerId, delta);
+        }
+    }
+    
+    private FollowPage toPage(List<UserFollows> rows, int pageSize, Function<UserFollows, UUID> listedUser, UUID viewerId) {
+        boolean hasMore = rows.size() > pageSize;
+        List<UserFollows> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+        
+        List<UUID> userIds = pageRows.stream().map(listedUser).collect(Collectors.toList());
+        Map<UUID, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<UUID, Boolean> statuses = viewerId != null ? getFollowingStatus(viewerId, userIds) : Map.of();
+        Set<UUID> followingViewer = followingViewer(viewerId, userIds);
+        
+        List<FollowEntry> items = new ArrayList<>(pageRows.size());
+        for (UserFollows row : pageRows) {
+            User user = users.get(listedUser.apply(row));
+            if (user == null) {
+                continue;
+            }
+            items.add(toEntry(user)
+                    .followedAt(row.getCreatedAt())
+                    .isFollowing(viewerId != null ? statuses.get(user.getId()) : null)
+                    .followsYou(followingViewer != null ? followingViewer.contains(user.getId()) : null)
+                    .build());
+        }
+        
+        UserFollows last = pageRows.isEmpty() ? null : pageRows.get(pageRows.size() - 1);
+        return FollowPage.builder()
+                .items(items)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? encodeCursor(last.getCreatedAt(), last.getId()) : null)
+                .build();
+    }
+    
+    /**
+     * Which of the listed users follow the viewer, from the FollowGraphIndex; null without a
+     * viewer or while the index loads.
+     */
+    private Set<UUID> followingViewer(UUID viewerId, List<UUID> userIds) {
+        if (viewerId == null || !followGraphIndex.isReady()) {
+            return null;
+        }
+        Set<UUID> following = new HashSet<>();
+        for (UUID userId : userIds) {
+            if (followGraphIndex.isFollowing(userId, viewerId)) {
+                following.add(userId);
+            }
+        }
+        return following;
+    }
+    
+    private static FollowEntry.FollowEntryBuilder toEntry(User user) {
+        return FollowEntry.builder()
+                .userId(user.getId())
+                .username(user.getUsername())
+                .fullName(user.getFullName())
+                .profileImageUrl(user.getProfileImageUrl());
+    }
+    
+    private static int pageSize(int limit) {
+        if (limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+    
+    static String encodeCursor(LocalDateTime createdAt, UUID id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+    
+    static final class Cursor {
+        
+        final LocalDateTime createdAt;
+        final UUID id;
+        
+        Cursor(LocalDateTime createdAt, UUID id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+    }
+    
     private void ensureUserStatsExist(UUID userId) {
         Optional<UserStats> statsOptional = userStatsRepository.findByUserId(userId);
         if (statsOptional.isEmpty()) {
@@ -116,6 +390,18 @@ public class FollowService {
         }
     }
     
+    /**
+     * Stats of several users in one query, by user ID. Users without a stats row are absent.
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, UserStats> getUserStatsByIds(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        return userStatsRepository.findByUserIdIn(userIds).stream()
+                .collect(Collectors.toMap(UserStats::getUserId, Function.identity()));
+    }
+    
     public UserStats getUserStats(UUID userId) {
         Optional<UserStats> statsOptional = userStatsRepository.findByUserId(userId);
         if (statsOptional.isPresent()) {
@@ -1,23 +1,42 @@
 package com.bharathva.auth.service;
 
+import com.bharathva.auth.security.VerifiedToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
 import java.util.UUID;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies access tokens.
+ *
+ * The signing key and parser are built once. A verified token is kept, by the SHA-256 of the
+ * token, until it expires (or jwt.cache.max-ttl-seconds), so the same token presented on every
+ * request of a session is parsed and its HMAC checked once.
+ */
 @Service
 public class JwtService {
 
@@ -34,8 +53,30 @@ public class JwtService {
     @Value("${jwt.refresh-expiration}")
     private long refreshExpiration;
 
+    @Value("${jwt.cache.max-entries:50000}")
+    private long cacheMaxEntries = 50_000;
+
+    @Value("${jwt.cache.max-ttl-seconds:300}")
+    private long cacheMaxTtlSeconds = 300;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parser()
+                .setSigningKey(signingKey)
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxEntries)
+                .expireAfter(new TokenExpiry())
+                .build();
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        return signingKey;
     }
 
     public String generateAccessToken(UUID userId, String email, String username) {
@@ -81,24 +122,32 @@ public class JwtService {
         return generateAccessToken(extraClaims, userId, email, username);
     }
 
+    /**
+     * Check the token's signature and expiry and return its claims, parsing it only if this
+     * token has not been verified before. Throws like the parser for an invalid token.
+     */
+    public VerifiedToken verify(String token) {
+        String key = cacheKey(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(key);
+        if (verified != null && !verified.isExpired(Instant.now())) {
+            return verified;
+        }
+
+        verified = toVerifiedToken(extractAllClaims(token));
+        verifiedTokens.put(key, verified);
+        return verified;
+    }
+
     public String extractUsername(String token) {
-        return extractClaim(token, claims -> claims.get("username", String.class));
+        return verify(token).getUsername();
     }
 
     public String extractEmail(String token) {
-        return extractClaim(token, claims -> claims.get("email", String.class));
+        return verify(token).getEmail();
     }
 
     public UUID extractUserId(String token) {
-        String userIdStr = extractClaim(token, claims -> claims.get("userId", String.class));
-        if (userIdStr == null || userIdStr.trim().isEmpty()) {
-            throw new IllegalArgumentException("Invalid user ID in token - userId claim missing");
-        }
-        try {
-            return UUID.fromString(userIdStr);
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Invalid user ID in token - invalid UUID format");
-        }
+        return verify(token).getUserId();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -108,11 +157,7 @@ public class JwtService {
 
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return parser.parseClaimsJws(token).getBody();
         } catch (Exception e) {
             log.error("Failed to extract claims from JWT: {}", e.getMessage());
             throw e;
@@ -120,17 +165,14 @@ public class JwtService {
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        Instant expiresAt = verify(token).getExpiresAt();
+        return expiresAt != null ? Date.from(expiresAt) : null;
     }
 
     public Boolean validateToken(String token, UUID userId) {
         try {
-            final UUID extractedUserId = extractUserId(token);
-            return extractedUserId.equals(userId) && !isTokenExpired(token);
+            // verify() rejects expired tokens
+            return verify(token).getUserId().equals(userId);
         } catch (Exception e) {
             log.error("Token validation failed: {}", e.getMessage());
             return false;
@@ -139,7 +181,8 @@ public class JwtService {
 
     public Boolean validateToken(String token) {
         try {
-            return !isTokenExpired(token);
+            verify(token);
+            return true;
         } catch (Exception e) {
             log.error("Token validation failed: {}", e.getMessage());
             return false;
@@ -162,4 +205,68 @@ public class JwtService {
             extractUsername(token)
         );
     }
+
+    private static VerifiedToken toVerifiedToken(Claims claims) {
+        String userIdStr = claims.get("userId", String.class);
+        if (userIdStr == null || userIdStr.trim().isEmpty()) {
+            throw new IllegalArgumentException("Invalid user ID in token - userId claim missing");
+        }
+        UUID userId;
+        try {
+            userId = UUID.fromString(userIdStr);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid user ID in token - invalid UUID format");
+        }
+        return new VerifiedToken(
+            userId,
+            claims.get("email", String.class),
+            claims.get("username", String.class),
+            claims.get("type", String.class),
+            claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+            claims.getExpiration() != null ? claims.getExpiration().toInstant() : null
+        );
+    }
+
+    private Duration cacheTtl(VerifiedToken token) {
+        Duration maxTtl = Duration.ofSeconds(cacheMaxTtlSeconds);
+        if (token.getExpiresAt() == null) {
+            return maxTtl;
+        }
+        Duration untilExpiry = Duration.between(Instant.now(), token.getExpiresAt());
+        if (untilExpiry.isNegative()) {
+            return Duration.ZERO;
+        }
+        return untilExpiry.compareTo(maxTtl) < 0 ? untilExpiry : maxTtl;
+    }
+
+    private static String cacheKey(String token) {
+        // The hash, not the bearer token itself, is what stays in memory
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Entries live until their token expires, at most the configured maximum.
+     */
+    private class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            return cacheTtl(value).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return cacheTtl(value).toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.bharathva.auth.service;
 
+import com.bharathva.auth.dto.PostCountUpdate;
 import com.bharathva.auth.entity.User;
 import com.bharathva.auth.entity.UserStats;
 import com.bharathva.auth.repository.UserRepository;
@@ -10,7 +11,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -110,6 +118,82 @@ public class PostStatsService {
         }
     }
     
+    /**
+     * Applies a batch of coalesced post counts from feed-service's outbox relay.
+     * Each update carries a per-user sequence and is only applied when it is newer
+     * than the last one stored, so the relay can safely redeliver a batch.
+     */
+    @Transactional
+    public Map<String, Object> applyPostCounts(List<PostCountUpdate> updates) {
+        return applyPostCounts(updates, false);
+    }
+    
+    /**
+     * Applies a batch of post counts. With {@code reconcile} set, the counts come from a full
+     * recount in feed-service: they are applied when their sequence is not older than the stored
+     * one, and rows whose count is already correct are left untouched.
+     * Missing stats rows are created for the whole batch up front rather than per user.
+     */
+    @Transactional
+    public Map<String, Object> applyPostCounts(List<PostCountUpdate> updates, boolean reconcile) {
+        int applied = 0;
+        int stale = 0;
+        List<String> rejected = new ArrayList<>();
+        Map<UUID, PostCountUpdate> validUpdates = new LinkedHashMap<>();
+        
+        for (PostCountUpdate update : updates) {
+            String userId = update.getUserId();
+            if (userId == null || update.getSeq() == null || update.getCount() == null || update.getCount() < 0) {
+                rejected.add(userId);
+                continue;
+            }
+            try {
+                validUpdates.put(UUID.fromString(userId), update);
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping post count update for invalid user ID: {}", userId);
+                rejected.add(userId);
+            }
+        }
+        
+        Set<UUID> missingStats = new HashSet<>(validUpdates.keySet());
+        userStatsRepository.findAllById(validUpdates.keySet())
+                .forEach(stats -> missingStats.remove(stats.getUserId()));
+        if (!missingStats.isEmpty()) {
+            List<UserStats> created = new ArrayList<>();
+            for (User user : userRepository.findAllById(missingStats)) {
+                created.add(new UserStats(user));
+                missingStats.remove(user.getId());
+            }
+            userStatsRepository.saveAllAndFlush(created);
+            for (UUID unknownUser : missingStats) {
+                log.warn("Skipping post count update for unknown user: {}", unknownUser);
+                validUpdates.remove(unknownUser);
+                rejected.add(unknownUser.toString());
+            }
+        }
+        
+        for (Map.Entry<UUID, PostCountUpdate> entry : validUpdates.entrySet()) {
+            PostCountUpdate update = entry.getValue();
+            int rows = reconcile
+                    ? userStatsRepository.reconcilePostsCount(entry.getKey(), update.getCount(), update.getSeq())
+                    : userStatsRepository.updatePostsCountIfNewer(entry.getKey(), update.getCount(), update.getSeq());
+            if (rows > 0) {
+                applied++;
+            } else {
+                stale++;
+            }
+        }
+        
+        log.info("Applied bulk post counts (reconcile: {}) - applied: {}, stale: {}, rejected: {}", 
+            reconcile, applied, stale, rejected.size());
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("applied", applied);
+        result.put("stale", stale);
+        result.put("rejected", rejected);
+        return result;
+    }
+    
     public Integer getPostCount(String userId) {
         try {
             UUID userUuid = UUID.fromString(userId);
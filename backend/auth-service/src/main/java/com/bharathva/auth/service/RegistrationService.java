@@ -35,6 +35,9 @@ public class RegistrationService {
     
     @Autowired
     private PasswordEncoder passwordEncoder;
+    
+    @Autowired
+    private UserSearchService userSearchService;
 
     @Value("${otp.expiry-minutes:10}")
     private int otpExpiryMinutes;
@@ -251,6 +254,7 @@ public class RegistrationService {
         user.setProfileImageUrl(session.getProfileImageUrl());
 
         userRepository.save(user);
+        userSearchService.onUserSaved(user);
 
         emailService.sendWelcomeEmail(user.getEmail(), user.getUsername());
         registrationSessionRepository.delete(session);
@@ -0,0 +1,271 @@
+package com.bharathva.auth.service;
+
+import com.bharathva.auth.entity.UserStats;
+import com.bharathva.auth.repository.UserFollowsRepository;
+import com.bharathva.auth.repository.UserSessionRepository;
+import com.bharathva.auth.repository.UserStatsRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * "Who to follow" suggestions.
+ *
+ * A user's candidates are the accounts followed by the accounts they follow, each path
+ * weighted by 1 / log(2 + how many accounts the intermediate follows) so that a follow from a
+ * selective account counts for more (Adamic-Adar). The best candidates get a popularity prior
+ * of log(1 + followers) from user_stats, loaded for all of them in one query. Users with too
+ * few candidates, and anonymous visitors, are topped up from the most followed accounts.
+ *
+ * Lists are computed from the FollowGraphIndex and cached per user. A background job works
+ * through recently active users and everyone in the cache, suggestions.refresh-batch-size
+ * users every suggestions.refresh-interval-ms, so one tick never holds a scheduler thread for
+ * long; a user missing from the cache gets theirs computed on the request.
+ * Accounts the user has followed since are filtered out when serving.
+ */
+@Service
+public class SuggestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestionService.class);
+
+    // Accounts the user follows that are walked, sampled when they follow more
+    private static final int MAX_SEEDS = 300;
+    private static final double POPULARITY_WEIGHT = 0.25;
+
+    @Autowired
+    private FollowGraphIndex followGraphIndex;
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    @Autowired
+    private UserFollowsRepository userFollowsRepository;
+
+    @Autowired
+    private UserSessionRepository userSessionRepository;
+
+    @Value("${suggestions.per-user:30}")
+    private int perUser = 30;
+
+    @Value("${suggestions.popular-pool-size:200}")
+    private int popularPoolSize = 200;
+
+    @Value("${suggestions.cache.max-users:100000}")
+    private long cacheMaxUsers = 100_000;
+
+    @Value("${suggestions.cache.ttl-minutes:120}")
+    private long cacheTtlMinutes = 120;
+
+    @Value("${suggestions.active-within-hours:24}")
+    private long activeWithinHours = 24;
+
+    @Value("${suggestions.refresh-batch-size:2000}")
+    private int refreshBatchSize = 2000;
+
+    private Cache<UUID, List<UUID>> suggestions;
+
+    private volatile List<UUID> popularUsers = List.of();
+
+    // Users still to recompute in the current refresh pass; only touched by refresh()
+    private final Deque<UUID> refreshQueue = new ArrayDeque<>();
+
+    @PostConstruct
+    public void init() {
+        suggestions = Caffeine.newBuilder()
+                .maximumSize(cacheMaxUsers)
+                .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+                .build();
+    }
+
+    /**
+     * Up to {@code limit} accounts to suggest, best first. {@code userId} may be null for an
+     * anonymous visitor, who gets a random sample of popular accounts.
+     */
+    public List<UUID> getSuggestedUserIds(UUID userId, int limit) {
+        if (popularUsers.isEmpty()) {
+            refreshPopularUsers();
+        }
+        if (userId == null) {
+            List<UUID> sample = new ArrayList<>(popularUsers);
+            Collections.shuffle(sample, ThreadLocalRandom.current());
+            return sample.subList(0, Math.min(limit, sample.size()));
+        }
+
+        List<UUID> ranked = suggestions.getIfPresent(userId);
+        if (ranked == null) {
+            ranked = compute(userId);
+            if (followGraphIndex.isReady()) {
+                suggestions.put(userId, ranked);
+            }
+        }
+
+        // Drop anyone followed since the list was computed
+        Set<UUID> followed = followGraphIndex.isReady()
+                ? followGraphIndex.followedAmong(userId, ranked)
+                : new HashSet<>(ranked.isEmpty() ? List.of() : userFollowsRepository.findFollowingIdsAmong(userId, ranked));
+        List<UUID> result = new ArrayList<>(limit);
+        for (UUID candidate : ranked) {
+            if (result.size() == limit) {
+                break;
+            }
+            if (!followed.contains(candidate)) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Recompute the suggestions of the next batch of recently active and cached users. A new
+     * pass (and the popular accounts) starts once the previous one has been worked through.
+     */
+    @Scheduled(fixedDelayString = "${suggestions.refresh-interval-ms:60000}",
+               initialDelayString = "${suggestions.initial-delay-ms:60000}")
+    public void refresh() {
+        if (!followGraphIndex.isReady()) {
+            refreshPopularUsers();
+            log.debug("Follow graph not loaded yet, skipping suggestion refresh");
+            return;
+        }
+
+        if (refreshQueue.isEmpty()) {
+            refreshPopularUsers();
+            Set<UUID> userIds = new LinkedHashSet<>(userSessionRepository.findUserIdsActiveSince(
+                    LocalDateTime.now().minusHours(activeWithinHours), PageRequest.of(0, (int) cacheMaxUsers)));
+            userIds.addAll(suggestions.asMap().keySet());
+            refreshQueue.addAll(userIds);
+        }
+
+        long startedAt = System.currentTimeMillis();
+        int computed = 0;
+        for (int i = 0; i < refreshBatchSize && !refreshQueue.isEmpty(); i++) {
+            UUID userId = refreshQueue.poll();
+            try {
+                suggestions.put(userId, compute(userId));
+                computed++;
+            } catch (RuntimeException e) {
+                log.warn("Failed to compute suggestions for user {}: {}", userId, e.getMessage());
+            }
+        }
+        log.info("Refreshed suggestions for {} users in {} ms, {} left in this pass",
+                computed, System.currentTimeMillis() - startedAt, refreshQueue.size());
+    }
+
+    void refreshPopularUsers() {
+        popularUsers = List.copyOf(userStatsRepository.findMostFollowedUserIds(PageRequest.of(0, popularPoolSize)));
+    }
+
+    /**
+     * Ranked suggestions for one user, excluding themselves and the accounts they follow.
+     */
+    List<UUID> compute(UUID userId) {
+        List<UUID> ranked = new ArrayList<>(perUser);
+        Set<UUID> included = new HashSet<>();
+        AdjacencyList myFollowing = AdjacencyList.EMPTY;
+        FollowGraph graph = null;
+
+        if (followGraphIndex.isReady()) {
+            graph = followGraphIndex.snapshot();
+            int me = graph.idOf(userId);
+            if (me >= 0) {
+                myFollowing = graph.following(me);
+                for (UUID candidate : rankFriendsOfFriends(graph, me, myFollowing)) {
+                    ranked.add(candidate);
+                    included.add(candidate);
+                }
+            }
+        }
+
+        for (UUID candidate : popularUsers) {
+            if (ranked.size() >= perUser) {
+                break;
+            }
+            if (candidate.equals(userId) || included.contains(candidate)) {
+                continue;
+            }
+            if (graph != null) {
+                int id = graph.idOf(candidate);
+                if (id >= 0 && myFollowing.contains(id)) {
+                    continue;
+                }
+            }
+            ranked.add(candidate);
+            included.add(candidate);
+        }
+        return ranked;
+    }
+
+    private List<UUID> rankFriendsOfFriends(FollowGraph graph, int me, AdjacencyList myFollowing) {
+        int[] seeds = myFollowing.toArray();
+        if (seeds.length > MAX_SEEDS) {
+            // Same sample for the same user between refreshes
+            Random random = new Random(me);
+            for (int i = seeds.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = seeds[i];
+                seeds[i] = seeds[j];
+                seeds[j] = swap;
+            }
+            seeds = Arrays.copyOf(seeds, MAX_SEEDS);
+        }
+
+        Map<Integer, Double> scores = new HashMap<>();
+        for (int seed : seeds) {
+            AdjacencyList theirFollowing = graph.following(seed);
+            double weight = 1.0 / Math.log(2 + theirFollowing.size());
+            for (int candidate : theirFollowing.toArray()) {
+                if (candidate != me && !myFollowing.contains(candidate)) {
+                    scores.merge(candidate, weight, Double::sum);
+                }
+            }
+        }
+        if (scores.isEmpty()) {
+            return List.of();
+        }
+
+        // Popularity only reorders the best candidates, so their stats are one query
+        List<UUID> shortlist = scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed())
+                .limit(perUser * 2L)
+                .map(entry -> graph.userOf(entry.getKey()))
+                .collect(Collectors.toList());
+        Map<UUID, Integer> followers = userStatsRepository.findByUserIdIn(shortlist).stream()
+                .collect(Collectors.toMap(UserStats::getUserId, UserStats::getFollowersCount));
+
+        Map<UUID, Double> finalScores = new HashMap<>();
+        for (UUID candidate : shortlist) {
+            double prior = Math.log1p(followers.getOrDefault(candidate, 0));
+            finalScores.put(candidate, scores.get(graph.idOf(candidate)) + POPULARITY_WEIGHT * prior);
+        }
+        return shortlist.stream()
+                .sorted(Comparator.comparing(finalScores::get, Comparator.reverseOrder()))
+                .limit(perUser)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,380 @@
+package com.bharathva.auth.service;
+
+import com.bharathva.auth.dto.UserSearchResult;
+import com.bharathva.auth.entity.User;
+import com.bharathva.auth.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * User search for the search box and typeahead.
+ *
+ * Prefix matches come from an in-memory term index: usernames, full names and each word of a
+ * full name, lower-cased and without accents, in sorted maps keyed by term then user ID. A
+ * prefix is one range scan that stops after MAX_RESULTS hits, already in ranking order
+ * (exact username, username prefix, name prefix). Queries of three or more characters that
+ * have fewer prefix hits than asked for are topped up with substring matches from Postgres,
+ * which the pg_trgm indexes serve.
+ *
+ * Results are cached per normalized query for search.cache.ttl-seconds. The index is loaded by
+ * streaming users once the application is ready and updated after each profile change commits;
+ * a change drops the cached results of every prefix of the user's old and new terms. A
+ * periodic rebuild picks up changes made on other instances. Until the first load finishes,
+ * everything is answered from Postgres.
+ */
+@Service
+public class UserSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSearchService.class);
+
+    public static final int MAX_RESULTS = 50;
+    private static final int MIN_SUBSTRING_LENGTH = 3;
+    private static final char SEPARATOR = '\u0000';
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${search.index.enabled:true}")
+    private boolean indexEnabled = true;
+
+    @Value("${search.cache.max-queries:10000}")
+    private long cacheMaxQueries = 10_000;
+
+    @Value("${search.cache.ttl-seconds:30}")
+    private long cacheTtlSeconds = 30;
+
+    private volatile TermIndex index;
+
+    // Changes made while a rebuild runs; null otherwise. Guarded by this.
+    private List<UserSearchResult> pendingChanges;
+
+    private Cache<String, CachedResults> hotQueries;
+
+    @PostConstruct
+    public void init() {
+        hotQueries = Caffeine.newBuilder()
+                .maximumSize(cacheMaxQueries)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .build();
+    }
+
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * Up to {@code limit} (at most MAX_RESULTS) users matching the query, best first.
+     */
+    public List<UserSearchResult> search(String query, int limit) {
+        String normalized = normalize(query.startsWith("@") ? query.substring(1) : query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        CachedResults cached = hotQueries.getIfPresent(normalized);
+        if (cached == null || (cached.results.size() < limit && !cached.complete)) {
+            cached = lookup(normalized, limit);
+            hotQueries.put(normalized, cached);
+        }
+        List<UserSearchResult> results = cached.results;
+        return results.size() > limit ? results.subList(0, limit) : results;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (indexEnabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.index.rebuild-interval-ms:1800000}",
+               initialDelayString = "${search.index.rebuild-interval-ms:1800000}")
+    public void scheduledRebuild() {
+        if (indexEnabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Stream every user into a new index and swap it in. Returns false if a rebuild was already
+     * running or the load failed.
+     */
+    public boolean rebuild() {
+        synchronized (this) {
+            if (pendingChanges != null) {
+                return false;
+            }
+            pendingChanges = new ArrayList<>();
+        }
+
+        long startedAt = System.currentTimeMillis();
+        try {
+            TermIndex built = new TermIndex();
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = userRepository.streamSearchFields()) {
+                    rows.forEach(row -> built.put(UserSearchResult.builder()
+                            .id((UUID) row[0])
+                            .username((String) row[1])
+                            .fullName((String) row[2])
+                            .profileImageUrl((String) row[3])
+                            .bio((String) row[4])
+                            .isEmailVerified((Boolean) row[5])
+                            .build()));
+                }
+            });
+
+            int replayed;
+            synchronized (this) {
+                replayed = pendingChanges.size();
+                for (UserSearchResult change : pendingChanges) {
+                    built.put(change);
+                }
+                index = built;
+                pendingChanges = null;
+            }
+            hotQueries.invalidateAll();
+            log.info("Loaded user search index: {} users, {} changes replayed, in {} ms",
+                    built.size(), replayed, System.currentTimeMillis() - startedAt);
+            return true;
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingChanges = null;
+            }
+            log.error("Failed to load user search index: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Index a created or updated user once the surrounding transaction commits (immediately
+     * without one).
+     */
+    public void onUserSaved(User user) {
+        if (!indexEnabled || user.getId() == null) {
+            return;
+        }
+        UserSearchResult entry = toResult(user);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(entry);
+                }
+            });
+        } else {
+            apply(entry);
+        }
+    }
+
+    private synchronized void apply(UserSearchResult entry) {
+        TermIndex current = index;
+        if (current != null) {
+            UserSearchResult previous = current.put(entry);
+            if (previous != null) {
+                invalidatePrefixes(previous);
+            }
+            invalidatePrefixes(entry);
+        }
+        if (pendingChanges != null) {
+            pendingChanges.add(entry);
+        }
+    }
+
+    private CachedResults lookup(String normalized, int limit) {
+        Map<UUID, UserSearchResult> found = new LinkedHashMap<>();
+        TermIndex current = index;
+        if (current != null) {
+            for (UserSearchResult result : current.prefixMatches(normalized, MAX_RESULTS)) {
+                found.put(result.getId(), result);
+            }
+            if (normalized.length() < MIN_SUBSTRING_LENGTH || found.size() >= MAX_RESULTS) {
+                return new CachedResults(List.copyOf(found.values()), true);
+            }
+            if (found.size() >= limit) {
+                // Enough for this request; a larger limit later adds the substring matches
+                return new CachedResults(List.copyOf(found.values()), false);
+            }
+        }
+
+        // Substring matches (and everything before the index has loaded) come from Postgres
+        // (a trigram index cannot serve a substring shorter than three characters)
+        String escaped = escapeLike(normalized);
+        String pattern = normalized.length() >= MIN_SUBSTRING_LENGTH ? "%" + escaped + "%" : escaped + "%";
+        for (User user : userRepository.searchUsers(normalized, pattern, escaped + "%", PageRequest.of(0, MAX_RESULTS))) {
+            if (found.size() >= MAX_RESULTS) {
+                break;
+            }
+            found.putIfAbsent(user.getId(), toResult(user));
+        }
+        return new CachedResults(List.copyOf(found.values()), true);
+    }
+
+    private void invalidatePrefixes(UserSearchResult entry) {
+        Set<String> prefixes = new LinkedHashSet<>();
+        for (String term : terms(entry)) {
+            for (int length = 1; length <= term.length(); length++) {
+                prefixes.add(term.substring(0, length));
+            }
+        }
+        hotQueries.invalidateAll(prefixes);
+    }
+
+    private static UserSearchResult toResult(User user) {
+        return UserSearchResult.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .fullName(user.getFullName())
+                .profileImageUrl(user.getProfileImageUrl())
+                .bio(user.getBio())
+                .isEmailVerified(user.getIsEmailVerified())
+                .build();
+    }
+
+    /**
+     * Lower case, accents removed, whitespace collapsed: "  José  Núñez" becomes "jose nunez".
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String plain = MARKS.matcher(decomposed).replaceAll("");
+        return WHITESPACE.matcher(plain.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static Set<String> terms(UserSearchResult entry) {
+        Set<String> terms = new LinkedHashSet<>();
+        String username = normalize(entry.getUsername());
+        if (!username.isEmpty()) {
+            terms.add(username);
+        }
+        terms.addAll(nameTerms(entry));
+        return terms;
+    }
+
+    private static Set<String> nameTerms(UserSearchResult entry) {
+        Set<String> terms = new LinkedHashSet<>();
+        String fullName = normalize(entry.getFullName());
+        if (!fullName.isEmpty()) {
+            terms.add(fullName);
+            terms.addAll(List.of(fullName.split(" ")));
+        }
+        return terms;
+    }
+
+    /**
+     * Results for a query, best first. Complete unless substring matches were skipped because
+     * the prefix matches already filled the request.
+     */
+    private static final class CachedResults {
+
+        private final List<UserSearchResult> results;
+        private final boolean complete;
+
+        CachedResults(List<UserSearchResult> results, boolean complete) {
+            this.results = results;
+            this.complete = complete;
+        }
+    }
+
+    /**
+     * The term maps for one generation of the index. Keys are term + NUL + user ID, so all
+     * users with a term are adjacent and a prefix is a contiguous range.
+     */
+    static final class TermIndex {
+
+        private final ConcurrentSkipListMap<String, UUID> usernameTerms = new ConcurrentSkipListMap<>();
+        private final ConcurrentSkipListMap<String, UUID> nameTerms = new ConcurrentSkipListMap<>();
+        private final ConcurrentHashMap<UUID, UserSearchResult> users = new ConcurrentHashMap<>();
+
+        int size() {
+            return users.size();
+        }
+
+        /**
+         * Add or replace a user; returns the entry it replaced, if any.
+         */
+        UserSearchResult put(UserSearchResult entry) {
+            UserSearchResult previous = users.put(entry.getId(), entry);
+            if (previous != null) {
+                usernameTerms.remove(key(normalize(previous.getUsername()), previous.getId()));
+                for (String term : nameTerms(previous)) {
+                    nameTerms.remove(key(term, previous.getId()));
+                }
+            }
+            String username = normalize(entry.getUsername());
+            if (!username.isEmpty()) {
+                usernameTerms.put(key(username, entry.getId()), entry.getId());
+            }
+            for (String term : nameTerms(entry)) {
+                nameTerms.put(key(term, entry.getId()), entry.getId());
+            }
+            return previous;
+        }
+
+        List<UserSearchResult> prefixMatches(String prefix, int limit) {
+            Map<UUID, UserSearchResult> found = new LinkedHashMap<>();
+            collect(usernameTerms, prefix, limit, found);
+            collect(nameTerms, prefix, limit, found);
+            return new ArrayList<>(found.values());
+        }
+
+        private void collect(ConcurrentSkipListMap<String, UUID> terms, String prefix, int limit,
+                             Map<UUID, UserSearchResult> found) {
+            for (UUID userId : terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                if (found.size() >= limit) {
+                    return;
+                }
+                UserSearchResult user = users.get(userId);
+                if (user != null) {
+                    found.putIfAbsent(userId, user);
+                }
+            }
+        }
+
+        private static String key(String term, UUID userId) {
+            return term + SEPARATOR + userId;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+-- ==========================================================
+-- BharathVA Post Count Sequence
+-- Tracks the last applied feed-service outbox sequence per user so
+-- redelivered post count updates are applied at most once
+-- ==========================================================
+ALTER TABLE user_stats
+    ADD COLUMN IF NOT EXISTS posts_count_seq BIGINT DEFAULT 0 NOT NULL;
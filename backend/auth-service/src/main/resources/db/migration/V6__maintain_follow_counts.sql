@@ -0,0 +1,41 @@
+-- ==========================================================
+-- BharathVA Follow Counts
+-- user_stats follower/following counts are now maintained by
+-- follow/unfollow in the same transaction; bring existing rows
+-- in line once, and index user_follows for keyset pagination
+-- ==========================================================
+
+-- Every user with a follow relationship gets a stats row
+INSERT INTO user_stats (user_id)
+SELECT follower_id FROM user_follows
+UNION
+SELECT following_id FROM user_follows
+ON CONFLICT (user_id) DO NOTHING;
+
+-- Recount every stats row, so users whose follows are all gone drop to 0
+UPDATE user_stats us
+SET followers_count = counts.followers_total,
+    following_count = counts.following_total,
+    last_updated_at = CURRENT_TIMESTAMP
+FROM (
+    SELECT s.user_id,
+           COALESCE(follower_counts.total, 0) AS followers_total,
+           COALESCE(following_counts.total, 0) AS following_total
+    FROM user_stats s
+    LEFT JOIN (SELECT following_id, COUNT(*) AS total FROM user_follows GROUP BY following_id) follower_counts
+        ON follower_counts.following_id = s.user_id
+    LEFT JOIN (SELECT follower_id, COUNT(*) AS total FROM user_follows GROUP BY follower_id) following_counts
+        ON following_counts.follower_id = s.user_id
+) counts
+WHERE us.user_id = counts.user_id
+  AND (us.followers_count <> counts.followers_total
+       OR us.following_count <> counts.following_total);
+
+-- ==========================================================
+-- KEYSET INDEXES
+-- Follower/following lists page by (created_at DESC, id DESC)
+-- ==========================================================
+CREATE INDEX IF NOT EXISTS idx_user_follows_following_created
+    ON user_follows(following_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_user_follows_follower_created
+    ON user_follows(follower_id, created_at DESC, id DESC);
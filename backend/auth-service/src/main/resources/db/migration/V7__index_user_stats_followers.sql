@@ -0,0 +1,12 @@
+-- ==========================================================
+-- BharathVA Suggestions
+-- Popular accounts for "who to follow" come from user_stats
+-- ordered by followers_count; give every existing user a row
+-- and index the ordering so it is a short index scan
+-- ==========================================================
+INSERT INTO user_stats (user_id)
+SELECT id FROM users
+ON CONFLICT (user_id) DO NOTHING;
+
+CREATE INDEX IF NOT EXISTS idx_user_stats_followers_count
+    ON user_stats(followers_count DESC, user_id);
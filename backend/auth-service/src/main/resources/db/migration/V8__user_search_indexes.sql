@@ -0,0 +1,30 @@
+-- ==========================================================
+-- BharathVA User Search
+-- Substring search (LOWER(col) LIKE '%q%') is served by pg_trgm
+-- GIN indexes; prefix search (LIKE 'q%') by text_pattern_ops
+-- B-tree indexes. Where pg_trgm cannot be installed the GIN
+-- indexes are skipped and substring search falls back to a scan
+-- ==========================================================
+
+DO $$
+BEGIN
+    CREATE EXTENSION IF NOT EXISTS pg_trgm;
+EXCEPTION
+    WHEN insufficient_privilege OR undefined_file OR feature_not_supported THEN
+        RAISE NOTICE 'pg_trgm is not available, user search uses prefix indexes only';
+END $$;
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm') THEN
+        CREATE INDEX IF NOT EXISTS idx_users_username_trgm
+            ON users USING gin (lower(username) gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_users_full_name_trgm
+            ON users USING gin (lower(full_name) gin_trgm_ops);
+    END IF;
+END $$;
+
+CREATE INDEX IF NOT EXISTS idx_users_username_prefix
+    ON users (lower(username) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_users_full_name_prefix
+    ON users (lower(full_name) text_pattern_ops);
@@ -0,0 +1,127 @@
+package com.bharathva.auth.benchmark;
+
+import com.bharathva.auth.security.JwtAuthenticationFilter;
+import com.bharathva.auth.security.VerifiedToken;
+import com.bharathva.auth.service.FastAuthService;
+import com.bharathva.auth.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cost per request of JwtAuthenticationFilter: the old path (two full parses, each building
+ * the key and the parser) against one verification per token with the verified-token cache,
+ * for a new token (miss) and a token the node has seen before (hit).
+ *
+ * A warmed-up timing loop in the style of the other benchmarks rather than JMH, which the build
+ * does not carry. Opt-in:
+ * {@code mvn test -Dtest=JwtFilterBenchmarkTest -Djwt.benchmark=true [-Djwt.benchmark.iterations=200000]}.
+ */
+@EnabledIfSystemProperty(named = "jwt.benchmark", matches = "true")
+class JwtFilterBenchmarkTest {
+
+    private static final String SECRET = "m7n1lhkmwGNryojEND4kks2nzZypr2S0pGoOAcTqfFIEjXOUByV5BewPKNr0ULNlb7frcStl4MHZO0fNI6g";
+    private static final int ITERATIONS = Integer.getInteger("jwt.benchmark.iterations", 200_000);
+    private static final int TOKENS = 1_000;
+
+    @Test
+    void filterCostPerRequest() throws Exception {
+        JwtService jwtService = configure(new JwtService());
+        JwtAuthenticationFilter filter = filterFor(jwtService);
+        JwtAuthenticationFilter legacyFilter = filterFor(configure(new LegacyJwtService()));
+
+        String[] tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            tokens[i] = jwtService.generateAccessToken(UUID.randomUUID(), "user" + i + "@example.com", "user" + i);
+        }
+        // Distinct tokens for the miss case: one per timed request
+        String[] fresh = new String[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            fresh[i] = jwtService.generateAccessToken(UUID.randomUUID(), "fresh" + i + "@example.com", "fresh" + i);
+        }
+
+        // Warm up all three paths
+        for (int i = 0; i < 20_000; i++) {
+            filterRequest(legacyFilter, tokens[i % TOKENS]);
+            filterRequest(filter, tokens[i % TOKENS]);
+        }
+
+        long before = time(i -> filterRequest(legacyFilter, tokens[i % TOKENS]));
+        long miss = time(i -> filterRequest(filter, fresh[i]));
+        long hit = time(i -> filterRequest(filter, tokens[i % TOKENS]));
+
+        System.out.printf("JwtAuthenticationFilter per request: before %,d ns, after (new token) %,d ns, after (seen token) %,d ns%n",
+                before, miss, hit);
+        assertTrue(hit < before, "a cached token should be cheaper than two parses");
+    }
+
+    /**
+     * What the filter cost per request before: validateToken and extractUserId each rebuilt the
+     * key and parser and parsed the token.
+     */
+    private static class LegacyJwtService extends JwtService {
+
+        @Override
+        public VerifiedToken verify(String token) {
+            Claims validated = Jwts.parser().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                    .parseClaimsJws(token).getBody();
+            if (validated.getExpiration().before(new Date())) {
+                throw new IllegalStateException("expired");
+            }
+            Claims claims = Jwts.parser().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                    .parseClaimsJws(token).getBody();
+            return new VerifiedToken(UUID.fromString(claims.get("userId", String.class)), null, null, null, null, null);
+        }
+    }
+
+    private static JwtService configure(JwtService jwtService) {
+        ReflectionTestUtils.setField(jwtService, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(jwtService, "cacheMaxEntries", (long) ITERATIONS * 2);
+        jwtService.init();
+        return jwtService;
+    }
+
+    private static JwtAuthenticationFilter filterFor(JwtService jwtService) {
+        FastAuthService fastAuthService = new FastAuthService();
+        ReflectionTestUtils.setField(fastAuthService, "jwtService", jwtService);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "fastAuthService", fastAuthService);
+        return filter;
+    }
+
+    private static void filterRequest(JwtAuthenticationFilter filter, String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/sessions");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    private static long time(IntConsumer request) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            request.accept(i);
+        }
+        return (System.nanoTime() - start) / ITERATIONS;
+    }
+}
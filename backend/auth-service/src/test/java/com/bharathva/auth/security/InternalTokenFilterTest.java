@@ -0,0 +1,67 @@
+package com.bharathva.auth.security;
+
+import com.bharathva.auth.config.InternalTokenConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("InternalTokenFilter Tests")
+class InternalTokenFilterTest {
+
+    private final InternalTokenFilter filter = new InternalTokenFilter();
+
+    @BeforeEach
+    void setUp() {
+        InternalTokenConfig config = new InternalTokenConfig();
+        ReflectionTestUtils.setField(config, "internalServiceToken", "secret-token");
+        ReflectionTestUtils.setField(filter, "internalTokenConfig", config);
+        ReflectionTestUtils.setField(filter, "objectMapper", new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @Test
+    @DisplayName("internal endpoints without the token get a 403 and never reach the controller")
+    void rejectsInternalPathWithoutToken() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/user/batch");
+        request.addHeader(InternalTokenFilter.HEADER, "wrong-token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(403, response.getStatus());
+        assertTrue(response.getContentAsString().contains("Internal token required"));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("internal endpoints with the token pass through")
+    void passesInternalPathWithToken() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/follow/123/followers/ids");
+        request.addHeader(InternalTokenFilter.HEADER, "secret-token");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("other endpoints are not checked")
+    void ignoresOtherPaths() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/auth/follow/123/followers"), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        assertTrue(InternalTokenFilter.isInternalPath("/auth/stats/posts/bulk"));
+        assertFalse(InternalTokenFilter.isInternalPath("/auth/stats/posts/increment/1"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.bharathva.auth.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AdjacencyList Tests")
+class AdjacencyListTest {
+
+    @Test
+    @DisplayName("small lists stay plain, large ones are compressed")
+    void of_CompressesLargeLists() {
+        int[] small = {3, 9, 27};
+        int[] large = new int[AdjacencyList.COMPRESS_AT];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = i * 3;
+        }
+
+        AdjacencyList plain = AdjacencyList.of(small);
+        AdjacencyList compressed = AdjacencyList.of(large.clone());
+
+        assertFalse(plain.isCompressed());
+        assertTrue(compressed.isCompressed());
+        assertArrayEquals(large, compressed.toArray());
+        assertTrue(compressed.contains(0));
+        assertTrue(compressed.contains(3 * 200));
+        assertFalse(compressed.contains(3 * 200 + 1));
+        assertFalse(compressed.contains(-1));
+        assertFalse(compressed.contains(Integer.MAX_VALUE));
+        assertTrue(compressed.footprintBytes() < 4L * large.length);
+    }
+
+    @Test
+    @DisplayName("edits match a TreeSet across compression and overlay folding")
+    void withAndWithout_MatchASortedSet() {
+        Random random = new Random(42);
+        TreeSet<Integer> expected = new TreeSet<>();
+        AdjacencyList list = AdjacencyList.EMPTY;
+        for (int i = 0; i < 20_000; i++) {
+            int id = random.nextInt(2_000);
+            if (random.nextInt(4) == 0) {
+                expected.remove(id);
+                list = list.without(id);
+            } else {
+                expected.add(id);
+                list = list.with(id);
+            }
+            assertEquals(expected.size(), list.size());
+        }
+
+        assertTrue(list.isCompressed());
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), list.toArray());
+        for (int id = 0; id < 2_000; id++) {
+            assertEquals(expected.contains(id), list.contains(id), "id " + id);
+        }
+    }
+
+    @Test
+    @DisplayName("intersection works by merge and by probing")
+    void intersect_FindsCommonIds() {
+        int[] evens = new int[5_000];
+        for (int i = 0; i < evens.length; i++) {
+            evens[i] = i * 2;
+        }
+        AdjacencyList large = AdjacencyList.of(evens);
+        AdjacencyList few = AdjacencyList.of(new int[] {1, 4, 9, 16});
+        AdjacencyList many = AdjacencyList.of(new int[] {3, 4, 5, 6, 9_998, 10_000});
+
+        assertArrayEquals(new int[] {4, 16}, AdjacencyList.intersect(few, large));
+        assertArrayEquals(new int[] {4, 6, 9_998}, AdjacencyList.intersect(large, many));
+        assertArrayEquals(new int[0], AdjacencyList.intersect(AdjacencyList.EMPTY, large));
+    }
+}
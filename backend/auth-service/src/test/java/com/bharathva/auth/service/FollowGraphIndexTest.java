@@ -0,0 +1,108 @@
+package com.bharathva.auth.service;
+
+import com.bharathva.auth.repository.UserFollowsRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FollowGraphIndex Tests")
+class FollowGraphIndexTest {
+
+    @Mock
+    private UserFollowsRepository userFollowsRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private FollowGraphIndex followGraphIndex;
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final UUID carol = UUID.randomUUID();
+    private final UUID dave = UUID.randomUUID();
+
+    @Test
+    @DisplayName("a rebuild streams user_follows into the index")
+    void rebuild_LoadsEveryFollow() {
+        when(userFollowsRepository.streamAllEdges()).thenReturn(Stream.of(
+                edge(alice, bob), edge(bob, alice), edge(alice, carol), edge(bob, carol),
+                edge(dave, carol), edge(alice, bob)));
+
+        assertFalse(followGraphIndex.isReady());
+        assertTrue(followGraphIndex.rebuild());
+
+        assertTrue(followGraphIndex.isReady());
+        assertTrue(followGraphIndex.isFollowing(alice, bob));
+        assertFalse(followGraphIndex.isFollowing(carol, alice));
+        assertFalse(followGraphIndex.isFollowing(UUID.randomUUID(), alice));
+        assertTrue(followGraphIndex.isMutual(alice, bob));
+        assertFalse(followGraphIndex.isMutual(alice, carol));
+        assertEquals(List.of(bob), followGraphIndex.getMutualFollows(alice));
+        assertEquals(List.of(carol), followGraphIndex.getCommonFollowing(alice, bob));
+        assertEquals(List.of(bob), followGraphIndex.getFollowersKnownTo(alice, carol));
+        assertEquals(List.of(), followGraphIndex.getFollowersKnownTo(dave, carol));
+        assertEquals(Set.of(bob, carol), followGraphIndex.followedAmong(alice, List.of(bob, carol, dave)));
+        assertEquals(4, followGraphIndex.snapshot().userCount());
+        assertEquals(5, followGraphIndex.snapshot().edgeCount());
+    }
+
+    @Test
+    @DisplayName("follows and unfollows outside a transaction apply at once")
+    void recordFollow_UpdatesTheIndex() {
+        when(userFollowsRepository.streamAllEdges()).thenReturn(Stream.<Object[]>of(edge(alice, bob)));
+        followGraphIndex.rebuild();
+
+        followGraphIndex.recordFollow(carol, alice);
+        followGraphIndex.recordUnfollow(alice, bob);
+
+        assertTrue(followGraphIndex.isFollowing(carol, alice));
+        assertFalse(followGraphIndex.isFollowing(alice, bob));
+        assertEquals(Set.of(alice), followGraphIndex.followedAmong(carol, List.of(alice, bob)));
+    }
+
+    @Test
+    @DisplayName("edits made during a rebuild are replayed onto the new graph")
+    void rebuild_ReplaysEditsMadeWhileLoading() {
+        when(userFollowsRepository.streamAllEdges()).thenAnswer(invocation -> {
+            // Committed after the load started: the rows below do not include them
+            followGraphIndex.recordFollow(carol, dave);
+            followGraphIndex.recordUnfollow(alice, bob);
+            return Stream.of(edge(alice, bob), edge(bob, carol));
+        });
+
+        followGraphIndex.rebuild();
+
+        assertTrue(followGraphIndex.isFollowing(carol, dave));
+        assertFalse(followGraphIndex.isFollowing(alice, bob));
+        assertTrue(followGraphIndex.isFollowing(bob, carol));
+    }
+
+    @Test
+    @DisplayName("a failed load leaves the index unready")
+    void rebuild_FailureKeepsTheIndexUnready() {
+        when(userFollowsRepository.streamAllEdges()).thenThrow(new RuntimeException("connection refused"));
+
+        assertFalse(followGraphIndex.rebuild());
+
+        assertFalse(followGraphIndex.isReady());
+        assertThrows(IllegalStateException.class, () -> followGraphIndex.isFollowing(alice, bob));
+    }
+
+    private static Object[] edge(UUID followerId, UUID followingId) {
+        return new Object[] {followerId, followingId};
+    }
+}
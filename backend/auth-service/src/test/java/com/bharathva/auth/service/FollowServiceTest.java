@@ -0,0 +1,230 @@
+package com.bharathva.auth.service;
+
+import com.bharathva.auth.dto.FollowEntry;
+import com.bharathva.auth.dto.FollowPage;
+import com.bharathva.auth.dto.SocialContext;
+import com.bharathva.auth.entity.User;
+import com.bharathva.auth.entity.UserFollows;
+import com.bharathva.auth.repository.UserFollowsRepository;
+import com.bharathva.auth.repository.UserRepository;
+import com.bharathva.auth.repository.UserStatsRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FollowService Tests")
+class FollowServiceTest {
+
+    @Mock
+    private UserFollowsRepository userFollowsRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserStatsRepository userStatsRepository;
+
+    @Mock
+    private FollowGraphIndex followGraphIndex;
+
+    @InjectMocks
+    private FollowService followService;
+
+    private final UUID low = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private final UUID high = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    @Test
+    @DisplayName("follow adds the row and both counters, in UUID order")
+    void followUser_IncrementsBothCountersInOrder() {
+        when(userRepository.existsById(any())).thenReturn(true);
+        when(userFollowsRepository.insertIfAbsent(high, low)).thenReturn(1);
+
+        assertTrue(followService.followUser(high, low));
+
+        InOrder order = inOrder(userStatsRepository);
+        order.verify(userStatsRepository).adjustFollowersCount(low, 1);
+        order.verify(userStatsRepository).adjustFollowingCount(high, 1);
+        verify(followGraphIndex).recordFollow(high, low);
+    }
+
+    @Test
+    @DisplayName("following twice leaves the counters alone")
+    void followUser_AlreadyFollowingChangesNothing() {
+        when(userRepository.existsById(any())).thenReturn(true);
+        when(userFollowsRepository.insertIfAbsent(low, high)).thenReturn(0);
+
+        assertFalse(followService.followUser(low, high));
+
+        verify(userStatsRepository, never()).adjustFollowersCount(any(), anyInt());
+        verify(userStatsRepository, never()).adjustFollowingCount(any(), anyInt());
+        verify(followGraphIndex, never()).recordFollow(any(), any());
+    }
+
+    @Test
+    @DisplayName("unfollow decrements only when a row was deleted")
+    void unfollowUser_DecrementsWhenDeleted() {
+        when(userFollowsRepository.deleteByFollowerIdAndFollowingId(low, high)).thenReturn(1);
+        when(userFollowsRepository.deleteByFollowerIdAndFollowingId(high, low)).thenReturn(0);
+
+        assertTrue(followService.unfollowUser(low, high));
+        assertFalse(followService.unfollowUser(high, low));
+
+        verify(userStatsRepository).adjustFollowingCount(low, -1);
+        verify(userStatsRepository).adjustFollowersCount(high, -1);
+        verify(userStatsRepository, times(1)).adjustFollowingCount(any(), anyInt());
+        verify(userStatsRepository, times(1)).adjustFollowersCount(any(), anyInt());
+        verify(followGraphIndex, times(1)).recordUnfollow(low, high);
+    }
+
+    @Test
+    @DisplayName("follow status of many targets comes from one query")
+    void getFollowingStatus_AnswersEveryTarget() {
+        UUID other = UUID.randomUUID();
+        when(userFollowsRepository.findFollowingIdsAmong(low, List.of(high, other))).thenReturn(List.of(high));
+
+        Map<UUID, Boolean> statuses = followService.getFollowingStatus(low, List.of(high, other));
+
+        assertEquals(List.of(high, other), List.copyOf(statuses.keySet()));
+        assertTrue(statuses.get(high));
+        assertFalse(statuses.get(other));
+        verify(userFollowsRepository, times(1)).findFollowingIdsAmong(any(), any());
+    }
+
+    @Test
+    @DisplayName("follow checks read the database, not the per-instance graph index")
+    void isFollowing_ReadsTheDatabase() {
+        when(userFollowsRepository.existsByFollowerIdAndFollowingId(low, high)).thenReturn(true);
+
+        assertTrue(followService.isFollowing(low, high));
+        verifyNoInteractions(followGraphIndex);
+    }
+
+    @Test
+    @DisplayName("a full page carries a cursor that continues after its last row")
+    void getFollowers_PagesByKeyset() {
+        LocalDateTime followedAt = LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123456000);
+        UserFollows first = follow(high, low, followedAt.plusMinutes(1));
+        UserFollows second = follow(UUID.randomUUID(), low, followedAt);
+        UserFollows extra = follow(UUID.randomUUID(), low, followedAt.minusMinutes(1));
+        when(userFollowsRepository.findFollowersPage(eq(low), any(Pageable.class)))
+                .thenReturn(List.of(first, second, extra));
+        when(userRepository.findAllById(any())).thenReturn(List.of(user(high), user(second.getFollowerId())));
+
+        FollowPage page = followService.getFollowers(low, null, 2, null);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals(high, page.getItems().get(0).getUserId());
+        assertNull(page.getItems().get(0).getIsFollowing());
+        assertTrue(page.isHasMore());
+        FollowService.Cursor cursor = FollowService.decodeCursor(page.getNextCursor());
+        assertEquals(followedAt, cursor.createdAt);
+        assertEquals(second.getId(), cursor.id);
+    }
+
+    @Test
+    @DisplayName("a malformed cursor is rejected")
+    void getFollowers_RejectsAMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> followService.getFollowers(low, "not-a-cursor", 20, null));
+    }
+
+    @Test
+    @DisplayName("a profile's social context comes from the graph index")
+    void getSocialContext_AnswersFromTheIndex() {
+        UUID friend = UUID.randomUUID();
+        when(followGraphIndex.isReady()).thenReturn(true);
+        when(followGraphIndex.getFollowersKnownTo(low, high)).thenReturn(List.of(friend));
+        when(followGraphIndex.isFollowing(high, low)).thenReturn(true);
+        when(followGraphIndex.isMutual(low, high)).thenReturn(false);
+        when(followGraphIndex.getCommonFollowing(low, high)).thenReturn(List.of(friend, UUID.randomUUID()));
+        when(userRepository.findAllById(List.of(friend))).thenReturn(List.of(user(friend)));
+
+        SocialContext context = followService.getSocialContext(low, high);
+
+        assertTrue(context.getFollowsYou());
+        assertFalse(context.getIsMutual());
+        assertEquals(1, context.getFollowedByCount());
+        assertEquals(friend, context.getFollowedBy().get(0).getUserId());
+        assertEquals(2, context.getCommonFollowingCount());
+        verifyNoInteractions(userFollowsRepository);
+    }
+
+    @Test
+    @DisplayName("no social context on your own profile or before the index loads")
+    void getSocialContext_NullWithoutAGraph() {
+        assertNull(followService.getSocialContext(low, low));
+        assertNull(followService.getSocialContext(low, high));
+        verify(followGraphIndex, never()).getFollowersKnownTo(any(), any());
+    }
+
+    @Test
+    @DisplayName("follow list entries say whether each user follows the viewer")
+    void getFollowing_MarksUsersWhoFollowTheViewer() {
+        UUID viewer = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        when(userFollowsRepository.findFollowingPage(eq(low), any(Pageable.class)))
+                .thenReturn(List.of(follow(low, high, LocalDateTime.now()), follow(low, other, LocalDateTime.now())));
+        when(userRepository.findAllById(any())).thenReturn(List.of(user(high), user(other)));
+        when(userFollowsRepository.findFollowingIdsAmong(viewer, List.of(high, other))).thenReturn(List.of(high));
+        when(followGraphIndex.isReady()).thenReturn(true);
+        when(followGraphIndex.isFollowing(high, viewer)).thenReturn(true);
+        when(followGraphIndex.isFollowing(other, viewer)).thenReturn(false);
+
+        FollowPage page = followService.getFollowing(low, null, 20, viewer);
+
+        assertTrue(page.getItems().get(0).getIsFollowing());
+        assertTrue(page.getItems().get(0).getFollowsYou());
+        assertFalse(page.getItems().get(1).getIsFollowing());
+        assertFalse(page.getItems().get(1).getFollowsYou());
+    }
+
+    @Test
+    @DisplayName("mutual follows come from the index once it has loaded, from follow rows before")
+    void getMutualFollows_UsesTheIndexWhenReady() {
+        UUID other = UUID.randomUUID();
+        when(userFollowsRepository.findFollowerIdsByFollowingId(low)).thenReturn(List.of(high, other));
+        when(userFollowsRepository.findFollowingIdsByFollowerId(low)).thenReturn(List.of(high));
+        when(userRepository.findAllById(List.of(high))).thenReturn(List.of(user(high)));
+
+        assertEquals(high, followService.getMutualFollows(low, 20, null).get(0).getUserId());
+
+        when(followGraphIndex.isReady()).thenReturn(true);
+        when(followGraphIndex.getMutualFollows(low)).thenReturn(List.of(high));
+
+        List<FollowEntry> mutuals = followService.getMutualFollows(low, 20, null);
+
+        assertEquals(1, mutuals.size());
+        assertNull(mutuals.get(0).getFollowsYou());
+        verify(userFollowsRepository, times(1)).findFollowerIdsByFollowingId(low);
+    }
+
+    private static UserFollows follow(UUID followerId, UUID followingId, LocalDateTime createdAt) {
+        UserFollows follows = new UserFollows(user(followerId), user(followingId));
+        follows.setId(UUID.randomUUID());
+        follows.setCreatedAt(createdAt);
+        return follows;
+    }
+
+    private static User user(UUID id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user-" + id);
+        return user;
+    }
+}
@@ -0,0 +1,76 @@
+package com.bharathva.auth.service;
+
+import com.bharathva.auth.security.VerifiedToken;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JwtService Verification Tests")
+class JwtServiceTest {
+
+    private static final String SECRET = "m7n1lhkmwGNryojEND4kks2nzZypr2S0pGoOAcTqfFIEjXOUByV5BewPKNr0ULNlb7frcStl4MHZO0fNI6g";
+
+    private JwtService jwtService;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = newJwtService(3_600_000L);
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("verify returns the claims and reuses them for the same token")
+    void verify_ParsesATokenOnce() {
+        String token = jwtService.generateAccessToken(userId, "user@example.com", "user");
+
+        VerifiedToken first = jwtService.verify(token);
+        VerifiedToken second = jwtService.verify(token);
+
+        assertEquals(userId, first.getUserId());
+        assertEquals("user@example.com", first.getEmail());
+        assertEquals("user", first.getUsername());
+        assertEquals("access", first.getType());
+        assertSame(first, second);
+        assertEquals(userId, jwtService.extractUserId(token));
+        assertTrue(jwtService.validateToken(token, userId));
+    }
+
+    @Test
+    @DisplayName("verify rejects a token signed with another key")
+    void verify_RejectsAForeignSignature() {
+        JwtService other = newJwtService(3_600_000L);
+        ReflectionTestUtils.setField(other, "jwtSecret", SECRET.replace('m', 'q'));
+        other.init();
+        String forged = other.generateAccessToken(userId, "user@example.com", "user");
+
+        assertThrows(SignatureException.class, () -> jwtService.verify(forged));
+        assertFalse(jwtService.validateToken(forged));
+    }
+
+    @Test
+    @DisplayName("verify rejects an expired token")
+    void verify_RejectsAnExpiredToken() {
+        String expired = newJwtService(-1_000L).generateAccessToken(userId, "user@example.com", "user");
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.verify(expired));
+        assertFalse(jwtService.validateToken(expired));
+        assertFalse(jwtService.validateToken("not-a-jwt"));
+    }
+
+    static JwtService newJwtService(long expirationMillis) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(service, "jwtExpiration", expirationMillis);
+        ReflectionTestUtils.setField(service, "refreshExpiration", 604_800_000L);
+        service.init();
+        return service;
+    }
+}
@@ -0,0 +1,106 @@
+package com.bharathva.auth.service;
+
+import com.bharathva.auth.dto.PostCountUpdate;
+import com.bharathva.auth.entity.User;
+import com.bharathva.auth.entity.UserStats;
+import com.bharathva.auth.repository.UserRepository;
+import com.bharathva.auth.repository.UserStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PostStatsService Bulk Update Tests")
+class PostStatsServiceTest {
+
+    @Mock
+    private UserStatsRepository userStatsRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private PostStatsService postStatsService;
+
+    @BeforeEach
+    void setUp() {
+        postStatsService = new PostStatsService();
+        ReflectionTestUtils.setField(postStatsService, "userStatsRepository", userStatsRepository);
+        ReflectionTestUtils.setField(postStatsService, "userRepository", userRepository);
+    }
+
+    @Test
+    @DisplayName("Should count redelivered updates as stale instead of applying them twice")
+    void testApplyPostCounts_RedeliveryIsStale() {
+        UUID fresh = UUID.randomUUID();
+        UUID redelivered = UUID.randomUUID();
+        when(userStatsRepository.findAllById(any())).thenReturn(List.of(stats(fresh), stats(redelivered)));
+        when(userStatsRepository.updatePostsCountIfNewer(fresh, 4, 7L)).thenReturn(1);
+        when(userStatsRepository.updatePostsCountIfNewer(redelivered, 2, 3L)).thenReturn(0);
+
+        Map<String, Object> result = postStatsService.applyPostCounts(List.of(
+                new PostCountUpdate(fresh.toString(), 4, 7L),
+                new PostCountUpdate(redelivered.toString(), 2, 3L)));
+
+        assertEquals(1, result.get("applied"));
+        assertEquals(1, result.get("stale"));
+        assertEquals(List.of(), result.get("rejected"));
+    }
+
+    @Test
+    @DisplayName("Should reject malformed and unknown users without failing the batch")
+    void testApplyPostCounts_RejectsBadEntries() {
+        UUID unknown = UUID.randomUUID();
+        when(userStatsRepository.findAllById(any())).thenReturn(List.of());
+        when(userRepository.findAllById(any())).thenReturn(List.of());
+
+        Map<String, Object> result = postStatsService.applyPostCounts(List.of(
+                new PostCountUpdate("not-a-uuid", 1, 1L),
+                new PostCountUpdate(unknown.toString(), 1, 1L),
+                new PostCountUpdate(UUID.randomUUID().toString(), -1, 1L)));
+
+        assertEquals(0, result.get("applied"));
+        assertEquals(3, ((List<?>) result.get("rejected")).size());
+        verify(userStatsRepository, never()).updatePostsCountIfNewer(any(), anyInt(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should create missing stats rows once per batch and reconcile recounted users")
+    void testApplyPostCounts_ReconcileCreatesMissingStats() {
+        UUID existing = UUID.randomUUID();
+        UUID withoutStats = UUID.randomUUID();
+        User user = new User();
+        user.setId(withoutStats);
+        when(userStatsRepository.findAllById(any())).thenReturn(List.of(stats(existing)));
+        when(userRepository.findAllById(any())).thenReturn(List.of(user));
+        when(userStatsRepository.reconcilePostsCount(any(), anyInt(), anyLong())).thenReturn(1);
+
+        Map<String, Object> result = postStatsService.applyPostCounts(List.of(
+                new PostCountUpdate(existing.toString(), 10, 0L),
+                new PostCountUpdate(withoutStats.toString(), 3, 0L)), true);
+
+        assertEquals(2, result.get("applied"));
+        ArgumentCaptor<List<UserStats>> created = ArgumentCaptor.forClass(List.class);
+        verify(userStatsRepository, times(1)).saveAllAndFlush(created.capture());
+        assertEquals(withoutStats, created.getValue().get(0).getUserId());
+        verify(userStatsRepository, never()).updatePostsCountIfNewer(any(), anyInt(), anyLong());
+    }
+
+    private static UserStats stats(UUID userId) {
+        UserStats stats = new UserStats();
+        stats.setUserId(userId);
+        return stats;
+    }
+}
@@ -0,0 +1,148 @@
+package com.bharathva.auth.service;
+
+import com.bharathva.auth.entity.UserStats;
+import com.bharathva.auth.repository.UserFollowsRepository;
+import com.bharathva.auth.repository.UserSessionRepository;
+import com.bharathva.auth.repository.UserStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SuggestionService Tests")
+class SuggestionServiceTest {
+
+    @Mock
+    private FollowGraphIndex followGraphIndex;
+
+    @Mock
+    private UserStatsRepository userStatsRepository;
+
+    @Mock
+    private UserFollowsRepository userFollowsRepository;
+
+    @Mock
+    private UserSessionRepository userSessionRepository;
+
+    @InjectMocks
+    private SuggestionService suggestionService;
+
+    private final UUID me = UUID.randomUUID();
+    private final UUID friend = UUID.randomUUID();
+    private final UUID otherFriend = UUID.randomUUID();
+    private final UUID sharedPick = UUID.randomUUID();
+    private final UUID singlePick = UUID.randomUUID();
+    private final UUID celebrity = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        suggestionService.init();
+    }
+
+    @Test
+    @DisplayName("friends of friends rank by shared follows, then popular accounts fill in")
+    void getSuggestedUserIds_RanksFriendsOfFriends() {
+        FollowGraph.Builder builder = new FollowGraph.Builder();
+        builder.add(me, friend);
+        builder.add(me, otherFriend);
+        builder.add(friend, sharedPick);
+        builder.add(otherFriend, sharedPick);
+        builder.add(friend, singlePick);
+        builder.add(friend, me);
+        builder.add(otherFriend, friend);
+        loaded(builder.build());
+        when(userStatsRepository.findMostFollowedUserIds(any(Pageable.class)))
+                .thenReturn(List.of(friend, celebrity, me, sharedPick));
+        when(userStatsRepository.findByUserIdIn(any())).thenReturn(List.of(stats(singlePick, 5)));
+
+        List<UUID> suggested = suggestionService.getSuggestedUserIds(me, 10);
+
+        assertEquals(List.of(sharedPick, singlePick, celebrity), suggested);
+    }
+
+    @Test
+    @DisplayName("accounts followed since the list was cached are left out")
+    void getSuggestedUserIds_DropsUsersFollowedSince() {
+        FollowGraph.Builder builder = new FollowGraph.Builder();
+        builder.add(me, friend);
+        builder.add(friend, sharedPick);
+        builder.add(friend, singlePick);
+        loaded(builder.build());
+        when(userStatsRepository.findMostFollowedUserIds(any(Pageable.class))).thenReturn(List.of(celebrity));
+        suggestionService.getSuggestedUserIds(me, 10);
+
+        when(followGraphIndex.followedAmong(eq(me), any())).thenReturn(Set.of(sharedPick));
+        List<UUID> suggested = suggestionService.getSuggestedUserIds(me, 10);
+
+        assertFalse(suggested.contains(sharedPick));
+        assertTrue(suggested.containsAll(List.of(singlePick, celebrity)));
+        verify(userStatsRepository, times(1)).findByUserIdIn(any());
+    }
+
+    @Test
+    @DisplayName("anonymous visitors get popular accounts")
+    void getSuggestedUserIds_AnonymousGetsPopularUsers() {
+        when(userStatsRepository.findMostFollowedUserIds(any(Pageable.class)))
+                .thenReturn(List.of(friend, celebrity, sharedPick));
+
+        List<UUID> suggested = suggestionService.getSuggestedUserIds(null, 2);
+
+        assertEquals(2, suggested.size());
+        assertTrue(List.of(friend, celebrity, sharedPick).containsAll(suggested));
+        verifyNoInteractions(followGraphIndex);
+    }
+
+    @Test
+    @DisplayName("before the graph loads, popular accounts are filtered against the database")
+    void getSuggestedUserIds_FallsBackWhileTheGraphLoads() {
+        when(followGraphIndex.isReady()).thenReturn(false);
+        when(userStatsRepository.findMostFollowedUserIds(any(Pageable.class))).thenReturn(List.of(me, friend, celebrity));
+        when(userFollowsRepository.findFollowingIdsAmong(me, List.of(friend, celebrity))).thenReturn(List.of(friend));
+
+        assertEquals(List.of(celebrity), suggestionService.getSuggestedUserIds(me, 4));
+    }
+
+    @Test
+    @DisplayName("a refresh tick recomputes one batch and the next tick continues the pass")
+    void refresh_WorksThroughUsersInBatches() {
+        ReflectionTestUtils.setField(suggestionService, "refreshBatchSize", 2);
+        when(followGraphIndex.isReady()).thenReturn(true);
+        when(followGraphIndex.snapshot()).thenReturn(new FollowGraph.Builder().build());
+        when(userStatsRepository.findMostFollowedUserIds(any(Pageable.class))).thenReturn(List.of());
+        when(userSessionRepository.findUserIdsActiveSince(any(), any(Pageable.class)))
+                .thenReturn(List.of(me, friend, otherFriend));
+
+        suggestionService.refresh();
+        suggestionService.refresh();
+
+        verify(followGraphIndex, times(3)).snapshot();
+        verify(userSessionRepository, times(1)).findUserIdsActiveSince(any(), any(Pageable.class));
+    }
+
+    private void loaded(FollowGraph graph) {
+        when(followGraphIndex.isReady()).thenReturn(true);
+        when(followGraphIndex.snapshot()).thenReturn(graph);
+        when(followGraphIndex.followedAmong(eq(me), any())).thenReturn(Set.of());
+    }
+
+    private static UserStats stats(UUID userId, int followers) {
+        UserStats stats = new UserStats();
+        stats.setUserId(userId);
+        stats.setFollowersCount(followers);
+        return stats;
+    }
+}
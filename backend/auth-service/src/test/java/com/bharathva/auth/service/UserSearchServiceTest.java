@@ -0,0 +1,133 @@
+package com.bharathva.auth.service;
+
+import com.bharathva.auth.dto.UserSearchResult;
+import com.bharathva.auth.entity.User;
+import com.bharathva.auth.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserSearchService Tests")
+class UserSearchServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private UserSearchService userSearchService;
+
+    private final UUID alex = UUID.randomUUID();
+    private final UUID alexandra = UUID.randomUUID();
+    private final UUID maria = UUID.randomUUID();
+    private final UUID jose = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        userSearchService.init();
+    }
+
+    @Test
+    @DisplayName("prefixes rank exact username, then username prefix, then name words")
+    void search_RanksPrefixMatches() {
+        loaded();
+
+        assertEquals(List.of(alex, alexandra, maria), ids(userSearchService.search("Al", 10)));
+        assertEquals(List.of(alex), ids(userSearchService.search("@alex", 1)));
+        assertEquals(List.of(maria), ids(userSearchService.search("maria al", 10)));
+        assertEquals(List.of(jose), ids(userSearchService.search("Jose", 10)));
+        assertEquals(List.of(jose), ids(userSearchService.search("núñ", 10)));
+        verify(userRepository, never()).searchUsers(eq("al"), anyString(), anyString(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("longer queries with few prefix hits are topped up with substring matches")
+    void search_TopsUpWithSubstringMatches() {
+        loaded();
+        User inside = user(UUID.randomUUID(), "the_alexander", "Someone Else");
+        when(userRepository.searchUsers(eq("alexa"), eq("%alexa%"), eq("alexa%"), any(Pageable.class)))
+                .thenReturn(List.of(user(alexandra, "alexandra", "Alexandra Stone"), inside));
+
+        assertEquals(List.of(alexandra, inside.getId()), ids(userSearchService.search("alexa", 10)));
+        assertEquals(List.of(alexandra, inside.getId()), ids(userSearchService.search("ALEXA", 10)));
+        verify(userRepository, times(1)).searchUsers(anyString(), anyString(), anyString(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("a profile change replaces the user's terms and their cached prefixes")
+    void onUserSaved_UpdatesTheIndex() {
+        loaded();
+        assertEquals(List.of(maria), ids(userSearchService.search("ma", 10)));
+
+        userSearchService.onUserSaved(user(maria, "mariana_k", "Mariana Kapoor"));
+        userSearchService.onUserSaved(user(UUID.randomUUID(), "zed", "Zed"));
+
+        assertEquals(List.of(maria), ids(userSearchService.search("ma", 10)));
+        assertEquals("mariana_k", userSearchService.search("ma", 10).get(0).getUsername());
+        assertTrue(userSearchService.search("lopez", 10).isEmpty());
+        assertEquals(1, userSearchService.search("ze", 10).size());
+    }
+
+    @Test
+    @DisplayName("before the index loads, search goes to Postgres with escaped patterns")
+    void search_UsesPostgresUntilLoaded() {
+        when(userRepository.searchUsers(eq("a_"), eq("a\\_%"), eq("a\\_%"), any(Pageable.class)))
+                .thenReturn(List.of(user(alex, "a_x", "Alex")));
+
+        List<UserSearchResult> results = userSearchService.search("A_", 10);
+
+        assertFalse(userSearchService.isReady());
+        assertEquals(List.of(alex), ids(results));
+    }
+
+    @Test
+    @DisplayName("normalization lower-cases, strips accents and collapses spaces")
+    void normalize_FoldsCaseAccentsAndSpaces() {
+        assertEquals("jose nunez", UserSearchService.normalize("  José   Núñez "));
+        assertEquals("100\\%\\_\\\\", UserSearchService.escapeLike("100%_\\"));
+    }
+
+    private void loaded() {
+        when(userRepository.streamSearchFields()).thenReturn(Stream.of(
+                row(alexandra, "alexandra", "Alexandra Stone"),
+                row(maria, "maria_l", "Maria Alvarez Lopez"),
+                row(alex, "alex", "Alex Kim"),
+                row(jose, "jnunez", "José Núñez")));
+        assertTrue(userSearchService.rebuild());
+    }
+
+    private static Object[] row(UUID id, String username, String fullName) {
+        return new Object[] {id, username, fullName, null, null, Boolean.TRUE};
+    }
+
+    private static User user(UUID id, String username, String fullName) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setFullName(fullName);
+        return user;
+    }
+
+    private static List<UUID> ids(List<UserSearchResult> results) {
+        return results.stream().map(UserSearchResult::getId).collect(Collectors.toList());
+    }
+}
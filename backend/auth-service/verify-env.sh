@@ -34,6 +34,7 @@ REQUIRED_VARS=(
     "SMTP_USERNAME"
     "SMTP_PASSWORD"
     "JWT_SECRET"
+    "INTERNAL_SERVICE_TOKEN"
 )
 
 # Optional but recommended variables
@@ -1,5 +1,6 @@
 package com.bharathva.feed.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -8,23 +9,56 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import java.util.concurrent.Executor;
 
 /**
- * Async configuration for post count synchronization
+ * Async configuration for home timeline fan-out and image processing
  */
 @Configuration
 @EnableAsync
 public class AsyncConfig {
     
-    @Bean(name = "postCountSyncExecutor")
-    public Executor postCountSyncExecutor() {
+    @Bean(name = "timelineFanoutExecutor")
+    public Executor timelineFanoutExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(5);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("timeline-fanout-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Uploads to the image store run here, so the number of files streaming at once (and the
+     * upload chunks held in heap) is capped across all requests.
+     */
+    @Bean(name = "imageUploadExecutor")
+    public Executor imageUploadExecutor(@Value("${feed.upload.parallelism:4}") int parallelism) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
         executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("post-count-sync-");
+        executor.setThreadNamePrefix("image-upload-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Decoding and resizing is CPU and memory heavy; a small fixed pool bounds both. When the
+     * queue is full the image stays PENDING and ImageDerivativeService retries it later.
+     */
+    @Bean(name = "imageDerivativeExecutor")
+    public Executor imageDerivativeExecutor(@Value("${feed.media.derivative-workers:2}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("image-derivative-");
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(60);
         executor.initialize();
         return executor;
     }
 }
-
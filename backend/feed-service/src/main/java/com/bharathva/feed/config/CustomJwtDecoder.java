@@ -8,43 +8,78 @@ import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtException;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
+import java.util.HexFormat;
 
 /**
  * Custom JWT Decoder with enhanced logging and error handling
  * This ensures consistent JWT validation with auth-service
+ *
+ * The key and parser are built once, and a decoded token is cached by its SHA-256 until it
+ * expires (at most maxTtlSeconds), so a client's repeat requests skip parsing and the HMAC check.
  */
 public class CustomJwtDecoder implements JwtDecoder {
     
     private static final Logger log = LoggerFactory.getLogger(CustomJwtDecoder.class);
     private final SecretKey secretKey;
+    private final JwtParser parser;
+    private final Cache<String, Jwt> decodedTokens;
+    private final Duration maxTtl;
     
     public CustomJwtDecoder(String jwtSecret) {
+        this(jwtSecret, 50_000, 300);
+    }
+    
+    public CustomJwtDecoder(String jwtSecret, long maxEntries, long maxTtlSeconds) {
         // CRITICAL: Use same key generation method as auth-service
         this.secretKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        log.info("CustomJwtDecoder initialized with secret key length: {}", jwtSecret.length());
+        // Using the same parser configuration as JwtService.extractAllClaims()
+        this.parser = Jwts.parser()
+                .setSigningKey(secretKey)
+                .build();
+        this.maxTtl = Duration.ofSeconds(maxTtlSeconds);
+        this.decodedTokens = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new TokenExpiry())
+                .build();
+        log.info("CustomJwtDecoder initialized with secret key length: {}, cache: {} tokens for up to {}s",
+                jwtSecret.length(), maxEntries, maxTtlSeconds);
     }
     
     @Override
     public Jwt decode(String token) throws JwtException {
+        String key = cacheKey(token);
+        Jwt cached = decodedTokens.getIfPresent(key);
+        if (cached != null && cached.getExpiresAt().isAfter(Instant.now())) {
+            return cached;
+        }
+        
+        Jwt jwt = parse(token);
+        decodedTokens.put(key, jwt);
+        return jwt;
+    }
+    
+    private Jwt parse(String token) {
         try {
-            // CRITICAL: Log at INFO level to see validation attempts
             String tokenPrefix = token.length() > 20 ? token.substring(0, 20) + "..." : token;
-            log.info("🔐 [CustomJwtDecoder] Attempting to decode JWT token (prefix: {})", tokenPrefix);
+            log.debug("🔐 [CustomJwtDecoder] Attempting to decode JWT token (prefix: {})", tokenPrefix);
             
             // Parse and validate JWT using same library and method as auth-service
-            // Using the same parser configuration as JwtService.extractAllClaims()
-            Claims claims = Jwts.parser()
-                    .setSigningKey(secretKey)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            Claims claims = parser.parseClaimsJws(token).getBody();
             
             // Extract claims
             String subject = claims.getSubject();
@@ -54,7 +89,7 @@ public class CustomJwtDecoder implements JwtDecoder {
             Date issuedAt = claims.getIssuedAt();
             Date expiration = claims.getExpiration();
             
-            log.info("✅ [CustomJwtDecoder] JWT decoded successfully - userId: {}, email: {}, issuedAt: {}, expiresAt: {}", 
+            log.debug("✅ [CustomJwtDecoder] JWT decoded successfully - userId: {}, email: {}, issuedAt: {}, expiresAt: {}", 
                     userId, email, issuedAt, expiration);
             
             // Check expiration with 60 second clock skew tolerance
@@ -105,5 +140,44 @@ public class CustomJwtDecoder implements JwtDecoder {
                     new OAuth2Error("invalid_token", "Token validation failed: " + e.getMessage(), null), e);
         }
     }
+    
+    private Duration cacheTtl(Jwt jwt) {
+        Duration untilExpiry = Duration.between(Instant.now(), jwt.getExpiresAt());
+        if (untilExpiry.isNegative()) {
+            return Duration.ZERO;
+        }
+        return untilExpiry.compareTo(maxTtl) < 0 ? untilExpiry : maxTtl;
+    }
+    
+    private static String cacheKey(String token) {
+        // The hash, not the bearer token itself, is what stays in memory
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * Entries live until their token expires, at most the configured maximum.
+     */
+    private class TokenExpiry implements Expiry<String, Jwt> {
+        
+        @Override
+        public long expireAfterCreate(String key, Jwt value, long currentTime) {
+            return cacheTtl(value).toNanos();
+        }
+        
+        @Override
+        public long expireAfterUpdate(String key, Jwt value, long currentTime, long currentDuration) {
+            return cacheTtl(value).toNanos();
+        }
+        
+        @Override
+        public long expireAfterRead(String key, Jwt value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
 
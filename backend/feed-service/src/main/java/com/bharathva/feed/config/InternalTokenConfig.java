@@ -0,0 +1,25 @@
+package com.bharathva.feed.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Startup check for the token feed-service presents to auth-service's internal endpoints.
+ * It has no default, so a deployment without INTERNAL_SERVICE_TOKEN fails here instead of
+ * having every post count, follow graph and batch user call rejected.
+ */
+@Configuration
+public class InternalTokenConfig {
+    
+    @Value("${internal.service-token:}")
+    private String internalServiceToken;
+    
+    @PostConstruct
+    public void verifyToken() {
+        if (internalServiceToken == null || internalServiceToken.isBlank()) {
+            throw new IllegalStateException(
+                "internal.service-token is not set; provide INTERNAL_SERVICE_TOKEN (shared with auth-service)");
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoTransactionManager;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
@@ -63,8 +64,19 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
     
     @Bean
     public MongoTemplate mongoTemplate() {
-        MongoTemplate template = new MongoTemplate(mongoClient(), getDatabaseName());
+        // Built on the shared database factory so its operations join transactions of the manager below
+        MongoTemplate template = new MongoTemplate(mongoDbFactory());
         log.info("✅ MongoTemplate created for database: {}", getDatabaseName());
         return template;
     }
+    
+    /**
+     * Multi-document transactions; the Atlas cluster is a replica set (change streams need
+     * one too), so writes that must land together, like a feed and its post count outbox
+     * entry, commit or roll back as one.
+     */
+    @Bean
+    public MongoTransactionManager transactionManager() {
+        return new MongoTransactionManager(mongoDbFactory());
+    }
 }
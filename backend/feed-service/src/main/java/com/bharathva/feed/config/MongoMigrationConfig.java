@@ -38,6 +38,15 @@ public class MongoMigrationConfig implements CommandLineRunner {
     @Value("${feed.migration.sample-data:false}")
     private boolean includeSampleData;
     
+    @Value("${feed.notifications.retention.read-ttl-days:30}")
+    private long readNotificationTtlDays;
+    
+    @Value("${feed.notifications.retention.like-actor-ttl-days:30}")
+    private long likeActorTtlDays;
+    
+    @Value("${feed.deltas.retention-hours:24}")
+    private long feedDeltaRetentionHours;
+    
     @Override
     public void run(String... args) throws Exception {
         if (migrationEnabled) {
@@ -113,6 +122,15 @@ public class MongoMigrationConfig implements CommandLineRunner {
         mongoTemplate.insert(tempFeed);
         mongoTemplate.remove(tempFeed);
         
+        // Delete events only carry the author and images (for feed statistics) with pre-images on
+        try {
+            database.runCommand(new org.bson.Document("collMod", "feeds")
+                    .append("changeStreamPreAndPostImages", new org.bson.Document("enabled", true)));
+            log.info("✅ Enabled change stream pre-images on feeds");
+        } catch (Exception e) {
+            log.warn("⚠️ Could not enable change stream pre-images on feeds, author and image statistics go stale on deletes: {}", e.getMessage());
+        }
+        
         // Create feed_metadata collection
         org.bson.Document tempMetadata = new org.bson.Document()
                 .append("key", "temp_migration_metadata")
@@ -159,10 +177,84 @@ public class MongoMigrationConfig implements CommandLineRunner {
                     org.bson.Document.parse("{'userId': 1, 'createdAt': -1}"), 
                     "idx_user_created_desc");
             
-            // Create text index for search
+            // Keyset pagination indexes: (createdAt, _id) cursors seek instead of skipping
+            createIndexIfNotExists(database.getCollection("feeds"), 
+                    org.bson.Document.parse("{'createdAt': -1, '_id': -1}"), 
+                    "idx_created_at_id_desc");
+            
+            createIndexIfNotExists(database.getCollection("feeds"), 
+                    org.bson.Document.parse("{'userId': 1, 'createdAt': -1, '_id': -1}"), 
+                    "idx_user_created_id_desc");
+            
+            // Search reads the tokenized arrays newest first; the old text index on message
+            // is unused by any query and only slowed down inserts
+            createIndexIfNotExists(database.getCollection("feeds"), 
+                    org.bson.Document.parse("{'searchTerms': 1, 'createdAt': -1}"), 
+                    "idx_search_terms_created");
+            
+            createIndexIfNotExists(database.getCollection("feeds"), 
+                    org.bson.Document.parse("{'hashtags': 1, 'createdAt': -1}"), 
+                    "idx_hashtags_created");
+            
             createIndexIfNotExists(database.getCollection("feeds"), 
-                    org.bson.Document.parse("{'message': 'text'}"), 
-                    "idx_text_search");
+                    org.bson.Document.parse("{'mentions': 1, 'createdAt': -1}"), 
+                    "idx_mentions_created");
+            
+            if (hasIndex(database.getCollection("feeds"), "idx_text_search")) {
+                database.getCollection("feeds").dropIndex("idx_text_search");
+                log.info("🗑️ Dropped index: idx_text_search");
+            }
+            
+            // Bucketed likes/comments: one bucket per (feedId, bucket), liker lookups by user
+            createIndexIfNotExists(database.getCollection("feed_like_buckets"), 
+                    org.bson.Document.parse("{'feedId': 1, 'bucket': 1}"), 
+                    "idx_like_bucket_unique", true);
+            
+            createIndexIfNotExists(database.getCollection("feed_like_buckets"), 
+                    org.bson.Document.parse("{'feedId': 1, 'userIds': 1}"), 
+                    "idx_like_bucket_user");
+            
+            // One like marker per user and bucketed feed
+            createIndexIfNotExists(database.getCollection("feed_likes"), 
+                    org.bson.Document.parse("{'feedId': 1, 'userId': 1}"), 
+                    "idx_feed_like_unique", true);
+            
+            createIndexIfNotExists(database.getCollection("feed_comment_buckets"), 
+                    org.bson.Document.parse("{'feedId': 1, 'bucket': 1}"), 
+                    "idx_comment_bucket_unique", true);
+            
+            // Catch-up reads one feed's deltas in sequence order; the sequence is unique per feed
+            createIndexIfNotExists(database.getCollection("feed_deltas"), 
+                    org.bson.Document.parse("{'feedId': 1, 'seq': 1}"), 
+                    "uk_feed_delta_seq", true);
+            
+            if (feedDeltaRetentionHours > 0 && !hasIndex(database.getCollection("feed_deltas"), "idx_feed_delta_ttl")) {
+                database.getCollection("feed_deltas").createIndex(
+                    org.bson.Document.parse("{'createdAt': 1}"),
+                    new IndexOptions()
+                        .name("idx_feed_delta_ttl")
+                        .expireAfter(feedDeltaRetentionHours, java.util.concurrent.TimeUnit.HOURS));
+                log.info("✅ Created index: idx_feed_delta_ttl (expires after {} hours)", feedDeltaRetentionHours);
+            }
+            
+            // Actors counted in aggregated like notifications; unlikes find theirs by post and actor
+            createIndexIfNotExists(database.getCollection("notification_like_actors"), 
+                    org.bson.Document.parse("{'postId': 1, 'actorId': 1}"), 
+                    "idx_like_actor_post_actor");
+            
+            // After this long an unlike no longer decrements the old notification's count
+            if (likeActorTtlDays > 0 && !hasIndex(database.getCollection("notification_like_actors"), "idx_like_actor_ttl")) {
+                database.getCollection("notification_like_actors").createIndex(
+                    org.bson.Document.parse("{'createdAt': 1}"),
+                    new IndexOptions()
+                        .name("idx_like_actor_ttl")
+                        .expireAfter(likeActorTtlDays, java.util.concurrent.TimeUnit.DAYS));
+                log.info("✅ Created index: idx_like_actor_ttl (expires after {} days)", likeActorTtlDays);
+            }
+            
+            createIndexIfNotExists(database.getCollection("post_count_outbox"), 
+                    org.bson.Document.parse("{'pending': 1, 'updatedAt': 1}"), 
+                    "idx_post_count_outbox_pending");
             
             // Create index for feed_metadata collection
             createIndexIfNotExists(database.getCollection("feed_metadata"), 
@@ -221,6 +313,15 @@ public class MongoMigrationConfig implements CommandLineRunner {
         }
     }
     
+    private boolean hasIndex(com.mongodb.client.MongoCollection<org.bson.Document> collection, String indexName) {
+        for (org.bson.Document index : collection.listIndexes()) {
+            if (indexName.equals(index.getString("name"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     private void insertSampleData() {
         log.info("📋 Inserting sample data...");
         
@@ -691,6 +792,32 @@ public class MongoMigrationConfig implements CommandLineRunner {
                 org.bson.Document.parse("{'receiverId': 1, 'isRead': 1, 'createdAt': -1}"), 
                 "idx_receiver_read_created");
             
+            createIndexIfNotExists(collection, 
+                org.bson.Document.parse("{'receiverId': 1, 'createdAt': -1, '_id': -1}"), 
+                "idx_receiver_created_id_desc");
+            
+            // One aggregated like notification per receiver and window; dedupes repeated likes
+            if (!hasIndex(collection, "uk_receiver_aggregation_key")) {
+                collection.createIndex(
+                    org.bson.Document.parse("{'receiverId': 1, 'aggregationKey': 1}"),
+                    new IndexOptions()
+                        .name("uk_receiver_aggregation_key")
+                        .unique(true)
+                        .partialFilterExpression(org.bson.Document.parse("{'aggregationKey': {'$exists': true}}")));
+                log.info("✅ Created index: uk_receiver_aggregation_key");
+            }
+            
+            // Read notifications expire; readAt is only set once a notification is read.
+            // Changing the TTL later needs a collMod on this index (or dropping it).
+            if (readNotificationTtlDays > 0 && !hasIndex(collection, "idx_read_at_ttl")) {
+                collection.createIndex(
+                    org.bson.Document.parse("{'readAt': 1}"),
+                    new IndexOptions()
+                        .name("idx_read_at_ttl")
+                        .expireAfter(readNotificationTtlDays, java.util.concurrent.TimeUnit.DAYS));
+                log.info("✅ Created index: idx_read_at_ttl (expires after {} days)", readNotificationTtlDays);
+            }
+            
             // Verify indexes were created
             long indexCount = collection.listIndexes().into(new java.util.ArrayList<>()).size();
             log.info("✅ Notification indexes created successfully (total: {} indexes)", indexCount);
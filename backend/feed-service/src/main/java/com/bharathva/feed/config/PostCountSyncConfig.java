@@ -35,8 +35,8 @@ public class PostCountSyncConfig {
                 Boolean success = (Boolean) result.get("success");
                 
                 if (Boolean.TRUE.equals(success)) {
-                    Integer syncedUsers = (Integer) result.get("syncedUsers");
-                    Integer failedUsers = (Integer) result.get("failedUsers");
+                    Long syncedUsers = ((Number) result.get("syncedUsers")).longValue();
+                    Long failedUsers = ((Number) result.get("failedUsers")).longValue();
                     Long totalPosts = ((Number) result.get("totalPosts")).longValue();
                     
                     log.info("========================================");
@@ -58,8 +58,8 @@ public class PostCountSyncConfig {
     }
     
     /**
-     * Periodic sync every 5 minutes to catch any missed updates
-     * This acts as a safety net in case real-time sync fails
+     * Periodic reconciliation every 5 minutes to catch any missed updates
+     * This acts as a safety net behind the post count outbox
      */
     @Scheduled(fixedRate = 300000) // 5 minutes
     public void periodicSync() {
@@ -74,8 +74,8 @@ public class PostCountSyncConfig {
             Boolean success = (Boolean) result.get("success");
             
             if (Boolean.TRUE.equals(success)) {
-                Integer syncedUsers = (Integer) result.get("syncedUsers");
-                Integer failedUsers = (Integer) result.get("failedUsers");
+                Long syncedUsers = ((Number) result.get("syncedUsers")).longValue();
+                Long failedUsers = ((Number) result.get("failedUsers")).longValue();
                 log.info("Periodic sync completed: {} users synced, {} failed", syncedUsers, failedUsers);
             } else {
                 log.warn("Periodic sync completed with errors");
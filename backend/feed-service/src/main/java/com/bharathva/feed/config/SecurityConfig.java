@@ -27,12 +27,18 @@ public class SecurityConfig {
     @Value("${jwt.secret}")
     private String jwtSecret;
     
+    @Value("${jwt.cache.max-entries:50000}")
+    private long jwtCacheMaxEntries;
+    
+    @Value("${jwt.cache.max-ttl-seconds:300}")
+    private long jwtCacheMaxTtlSeconds;
+    
     @Bean
     public JwtDecoder jwtDecoder() {
         // CRITICAL: Use custom JWT decoder that matches auth-service validation logic
         // This ensures consistent JWT validation across services and provides detailed error logging
         log.info("Initializing JWT decoder with secret key length: {}", jwtSecret.length());
-        return new CustomJwtDecoder(jwtSecret);
+        return new CustomJwtDecoder(jwtSecret, jwtCacheMaxEntries, jwtCacheMaxTtlSeconds);
     }
     
     @Bean
@@ -48,6 +54,12 @@ public class SecurityConfig {
                 .requestMatchers("/api/feed/user/**").permitAll()
                 .requestMatchers("/api/feed/notifications/health").permitAll()
                 .requestMatchers("/ws/**").permitAll()
+                // Content-addressed media: the hash in the URL is the capability
+                .requestMatchers(HttpMethod.GET, "/api/feed/media/**").permitAll()
+                .requestMatchers(HttpMethod.HEAD, "/api/feed/media/**").permitAll()
+                // Image links in posts redirect to the media URLs; plain image loads send no token
+                .requestMatchers(HttpMethod.GET, "/api/feed/images/*").permitAll()
+                .requestMatchers(HttpMethod.HEAD, "/api/feed/images/*").permitAll()
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                 .requestMatchers(HttpMethod.PUT, "/api/feed/notifications/**").authenticated()
                 .requestMatchers(HttpMethod.POST, "/api/feed/**").authenticated()
@@ -0,0 +1,95 @@
+package com.bharathva.feed.config;
+
+import com.bharathva.feed.service.WebSocketService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Authenticates STOMP sessions so per-user destinations can be resolved.
+ *
+ * The JWT travels in the {@code Authorization} header of the CONNECT frame and the session
+ * principal is named after its {@code userId} claim, which is what
+ * {@code convertAndSendToUser} addresses. Sessions without a token stay anonymous and can
+ * only use public topics.
+ *
+ * SUBSCRIBE is limited to the destinations clients are meant to receive from. Everything
+ * else under the broker prefixes is refused, in particular raw {@code /queue} destinations
+ * (clients go through {@code /user/queue/...} so they only ever see their own queue) and
+ * the relay's internal user-destination and user-registry broadcast topics.
+ */
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+    
+    private static final Logger log = LoggerFactory.getLogger(StompAuthChannelInterceptor.class);
+    
+    static final List<String> SUBSCRIBABLE_DESTINATIONS = List.of(
+            "/user" + WebSocketService.FEED_QUEUE,
+            "/user" + WebSocketService.NOTIFICATION_QUEUE,
+            WebSocketService.feedTopic("*"),
+            WebSocketService.authorTopic("*"),
+            WebSocketService.LEGACY_FEED_TOPIC,
+            WebSocketService.LEGACY_NOTIFICATION_TOPIC);
+    
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    
+    @Autowired
+    private JwtDecoder jwtDecoder;
+    
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            String authorization = accessor.getFirstNativeHeader("Authorization");
+            if (authorization != null && authorization.startsWith("Bearer ")) {
+                Jwt jwt;
+                try {
+                    jwt = jwtDecoder.decode(authorization.substring(7));
+                } catch (Exception e) {
+                    log.warn("⚠️ Rejected WebSocket CONNECT with invalid token: {}", e.getMessage());
+                    throw new MessageDeliveryException("Invalid token");
+                }
+                String userId = jwt.getClaimAsString("userId");
+                if (userId != null && !userId.isEmpty()) {
+                    accessor.setUser(new UsernamePasswordAuthenticationToken(userId, null, Collections.emptyList()));
+                }
+            }
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            String destination = accessor.getDestination();
+            if (destination == null || !isSubscribable(destination)) {
+                log.warn("⚠️ Rejected WebSocket SUBSCRIBE to {}", destination);
+                throw new MessageDeliveryException("Cannot subscribe to " + destination);
+            }
+        }
+        return message;
+    }
+    
+    boolean isSubscribable(String destination) {
+        for (String pattern : SUBSCRIBABLE_DESTINATIONS) {
+            if (pathMatcher.match(pattern, destination)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
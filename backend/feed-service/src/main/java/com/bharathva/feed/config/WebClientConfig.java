@@ -2,8 +2,13 @@ package com.bharathva.feed.config;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import io.netty.channel.ChannelOption;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
@@ -14,6 +19,12 @@ public class WebClientConfig {
     @Value("${gateway.url:http://localhost:8080}")
     private String gatewayUrl;
     
+    @Value("${feed.outbound.connect-timeout-ms:1000}")
+    private int connectTimeoutMs;
+    
+    @Value("${feed.outbound.timeout-ms:2000}")
+    private long responseTimeoutMs;
+    
     @Bean
     public WebClient.Builder webClientBuilder() {
         return WebClient.builder();
@@ -23,8 +34,13 @@ public class WebClientConfig {
     public WebClient authServiceWebClient(WebClient.Builder webClientBuilder) {
         // Use gateway URL if available, otherwise use direct auth service URL
         String baseUrl = gatewayUrl != null && !gatewayUrl.trim().isEmpty() ? gatewayUrl : authServiceUrl;
+        // Connection-level timeouts; OutboundCallGuard adds the per-call timeout and breakers
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs));
         return webClientBuilder
                 .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .build();
     }
 }
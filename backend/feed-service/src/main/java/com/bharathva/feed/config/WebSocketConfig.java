@@ -1,23 +1,87 @@
 package com.bharathva.feed.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 /**
  * WebSocket configuration for real-time feed updates
+ *
+ * In {@code simple} mode each instance keeps its subscriptions in memory, which is what
+ * tests and single-instance setups use. In {@code relay} mode subscriptions and delivery
+ * live in an external STOMP broker (RabbitMQ, ActiveMQ), so any instance can reach any
+ * session; user registries are shared between instances through broker topics.
  */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private static final Logger log = LoggerFactory.getLogger(WebSocketConfig.class);
+
+    @Autowired
+    private StompAuthChannelInterceptor stompAuthChannelInterceptor;
+
+    @Value("${feed.websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${feed.websocket.broker.relay-host:localhost}")
+    private String relayHost;
+
+    @Value("${feed.websocket.broker.relay-port:61613}")
+    private int relayPort;
+
+    @Value("${feed.websocket.broker.login:guest}")
+    private String relayLogin;
+
+    @Value("${feed.websocket.broker.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${feed.websocket.broker.virtual-host:}")
+    private String relayVirtualHost;
+
+    @Value("${feed.websocket.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+
+    @Value("${feed.websocket.outbound.max-pool-size:32}")
+    private int outboundMaxPoolSize;
+
+    @Value("${feed.websocket.outbound.send-time-limit-ms:15000}")
+    private int sendTimeLimitMs;
+
+    @Value("${feed.websocket.outbound.send-buffer-size-bytes:524288}")
+    private int sendBufferSizeBytes;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple in-memory message broker for destinations prefixed with "/topic" and "/queue"
-        // "/queue" is needed for user-specific messages
-        config.enableSimpleBroker("/topic", "/queue");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    // Messages for users connected to another instance are re-published here
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    // Instances share who is connected where through this topic
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+            if (relayVirtualHost != null && !relayVirtualHost.isEmpty()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+            log.info("🔌 WebSocket broker relay enabled: {}:{}", relayHost, relayPort);
+        } else {
+            // In-memory broker for destinations prefixed with "/topic" and "/queue"
+            config.enableSimpleBroker("/topic", "/queue");
+        }
         // Set the application destination prefix to "/app"
         config.setApplicationDestinationPrefixes("/app");
         // Set user destination prefix for user-specific messages
@@ -25,6 +89,27 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         config.setUserDestinationPrefix("/user");
     }
 
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Resolves the session principal from the CONNECT frame's JWT
+        registration.interceptors(stompAuthChannelInterceptor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A session that cannot drain its buffer within these limits is closed instead of
+        // holding outbound threads and memory for everyone else
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeBytes);
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // Register the "/ws" endpoint for WebSocket connections
@@ -1,16 +1,23 @@
 package com.bharathva.feed.controller;
 
+import com.bharathva.feed.dto.CommentResponse;
 import com.bharathva.feed.dto.CreateCommentRequest;
 import com.bharathva.feed.dto.CreateFeedRequest;
+import com.bharathva.feed.dto.CursorPage;
+import com.bharathva.feed.dto.FeedDeltaPage;
 import com.bharathva.feed.dto.FeedResponse;
 import com.bharathva.feed.service.FeedService;
 import com.bharathva.feed.service.CloudinaryService;
+import com.bharathva.feed.service.FeedDeltaService;
 import com.bharathva.feed.service.ImageUploadService;
+import com.bharathva.feed.service.NotificationRetentionService;
+import com.bharathva.feed.service.TimelineService;
 import com.bharathva.feed.model.ImageMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -43,6 +50,15 @@ public class FeedController {
     @Autowired
     private ImageUploadService imageUploadService;
     
+    @Autowired
+    private TimelineService timelineService;
+    
+    @Autowired
+    private NotificationRetentionService notificationRetentionService;
+    
+    @Autowired
+    private FeedDeltaService feedDeltaService;
+    
     // Health check endpoint
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> health() {
@@ -208,7 +224,7 @@ public class FeedController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
-
+    
     // Test endpoint for deleting a feed (for debugging)
     @DeleteMapping("/test/delete-feed/{feedId}")
     public ResponseEntity<Map<String, Object>> testDeleteFeed(
@@ -299,6 +315,84 @@ public class FeedController {
         }
     }
     
+    // Get all feeds with cursor pagination (no skip, no total count)
+    @GetMapping("/all/cursor")
+    public ResponseEntity<CursorPage<FeedResponse>> getAllFeedsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        
+        log.info("Getting all feeds by cursor, size: {}", size);
+        
+        try {
+            String currentUserId = null;
+            if (authentication != null && authentication.isAuthenticated()) {
+                try {
+                    currentUserId = getUserIdFromAuthentication(authentication);
+                } catch (Exception e) {
+                    log.warn("Could not extract user ID from authentication, proceeding without user context: {}", e.getMessage());
+                }
+            }
+            
+            return ResponseEntity.ok(feedService.getAllFeedsByCursor(cursor, size, currentUserId));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid cursor request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error getting feeds by cursor: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Get the authenticated user's home timeline (posts from followed users)
+    @GetMapping("/home")
+    public ResponseEntity<Slice<FeedResponse>> getHomeTimeline(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        
+        log.info("Getting home timeline, page: {}, size: {}", page, size);
+        
+        String userId;
+        try {
+            userId = getUserIdFromAuthentication(authentication);
+        } catch (Exception e) {
+            log.warn("Home timeline requested without a valid user: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        try {
+            Slice<FeedResponse> feeds = timelineService.getHomeTimeline(userId, page, size);
+            return ResponseEntity.ok(feeds);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid home timeline request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error getting home timeline: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Get feeds by user ID with cursor pagination
+    @GetMapping("/user/{userId}/cursor")
+    public ResponseEntity<CursorPage<FeedResponse>> getUserFeedsByCursor(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        log.info("Getting feeds by cursor for user: {}, size: {}", userId, size);
+        
+        try {
+            return ResponseEntity.ok(feedService.getUserFeedsByCursor(userId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid cursor request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error getting user feeds by cursor: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     // Get feeds by user ID
     @GetMapping("/user/{userId}")
     public ResponseEntity<Page<FeedResponse>> getUserFeeds(
@@ -358,12 +452,45 @@ public class FeedController {
         try {
             Page<FeedResponse> feeds = feedService.searchFeeds(query, page, size);
             return ResponseEntity.ok(feeds);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid search request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error searching feeds: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    // Search feeds ranked by relevance and recency with cursor pagination
+    @GetMapping("/search/cursor")
+    public ResponseEntity<CursorPage<FeedResponse>> searchFeedsByCursor(
+            @RequestParam String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        
+        log.info("Searching feeds by cursor with query: {}, size: {}", query, size);
+        
+        try {
+            String currentUserId = null;
+            if (authentication != null && authentication.isAuthenticated()) {
+                try {
+                    currentUserId = getUserIdFromAuthentication(authentication);
+                } catch (Exception e) {
+                    log.warn("Could not extract user ID from authentication, proceeding without user context: {}", e.getMessage());
+                }
+            }
+            
+            return ResponseEntity.ok(feedService.searchFeedsByCursor(query, cursor, size, currentUserId));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid search request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error searching feeds by cursor: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     // Count feeds by user
     @GetMapping("/user/{userId}/count")
     public ResponseEntity<Long> countFeedsByUser(@PathVariable String userId) {
@@ -412,8 +539,8 @@ public class FeedController {
             response.put("success", true);
             response.put("imageId", imageMetadata.getId());
             response.put("publicId", imageMetadata.getCloudinaryPublicId());
-            response.put("imageUrl", imageMetadata.getCloudinarySecureUrl());
-            response.put("url", imageMetadata.getCloudinarySecureUrl()); // For mobile compatibility
+            response.put("imageUrl", imageMetadata.getImageUrl());
+            response.put("url", imageMetadata.getImageUrl()); // For mobile compatibility
             response.put("originalFileName", imageMetadata.getOriginalFileName());
             response.put("fileSize", imageMetadata.getFileSize());
             response.put("mimeType", imageMetadata.getMimeType());
@@ -471,8 +598,8 @@ public class FeedController {
                 Map<String, Object> imageResponse = new HashMap<>();
                 imageResponse.put("imageId", imageMetadata.getId());
                 imageResponse.put("publicId", imageMetadata.getCloudinaryPublicId());
-                imageResponse.put("imageUrl", imageMetadata.getCloudinarySecureUrl());
-                imageResponse.put("url", imageMetadata.getCloudinarySecureUrl()); // For mobile compatibility
+                imageResponse.put("imageUrl", imageMetadata.getImageUrl());
+                imageResponse.put("url", imageMetadata.getImageUrl()); // For mobile compatibility
                 imageResponse.put("originalFileName", imageMetadata.getOriginalFileName());
                 imageResponse.put("fileSize", imageMetadata.getFileSize());
                 imageResponse.put("mimeType", imageMetadata.getMimeType());
@@ -650,6 +777,25 @@ public class FeedController {
         }
     }
     
+    // Get recent feeds (last 24 hours) with cursor pagination
+    @GetMapping("/recent/cursor")
+    public ResponseEntity<CursorPage<FeedResponse>> getRecentFeedsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        log.info("Getting recent feeds by cursor, size: {}", size);
+        
+        try {
+            return ResponseEntity.ok(feedService.getRecentFeedsByCursor(cursor, size));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid cursor request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error getting recent feeds by cursor: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     // Get feed statistics
     @GetMapping("/statistics")
     public ResponseEntity<Map<String, Object>> getFeedStatistics() {
@@ -731,8 +877,8 @@ public class FeedController {
             response.put("success", true);
             response.put("imageId", imageMetadata.getId());
             response.put("publicId", imageMetadata.getCloudinaryPublicId());
-            response.put("imageUrl", imageMetadata.getCloudinarySecureUrl());
-            response.put("url", imageMetadata.getCloudinarySecureUrl());
+            response.put("imageUrl", imageMetadata.getImageUrl());
+            response.put("url", imageMetadata.getImageUrl());
             response.put("originalFileName", imageMetadata.getOriginalFileName());
             response.put("fileSize", imageMetadata.getFileSize());
             response.put("mimeType", imageMetadata.getMimeType());
@@ -756,6 +902,52 @@ public class FeedController {
         }
     }
     
+    // Get comments of a feed with cursor pagination
+    @GetMapping("/{feedId}/comments")
+    public ResponseEntity<CursorPage<CommentResponse>> getComments(
+            @PathVariable String feedId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        log.info("Getting comments for feed: {}, size: {}", feedId, size);
+        
+        try {
+            return ResponseEntity.ok(feedService.getComments(feedId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid comments request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            log.error("Error getting comments: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (Exception e) {
+            log.error("Error getting comments: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Engagement deltas a client missed since the last sequence it applied
+    @GetMapping("/{feedId}/deltas")
+    public ResponseEntity<FeedDeltaPage> getDeltasSince(
+            @PathVariable String feedId,
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "100") int limit) {
+        
+        log.info("Getting deltas for feed: {} since seq: {}", feedId, since);
+        
+        try {
+            return ResponseEntity.ok(feedDeltaService.getDeltasSince(feedId, since, limit));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid deltas request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            log.error("Error getting deltas: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (Exception e) {
+            log.error("Error getting deltas: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     // Add comment to a feed
     @PostMapping("/{feedId}/comment")
     public ResponseEntity<FeedResponse> addComment(
@@ -825,6 +1017,12 @@ public class FeedController {
         }
     }
     
+    // Admin endpoint to check progress of the running (or last) post count sync
+    @GetMapping("/admin/sync-post-counts/progress")
+    public ResponseEntity<Map<String, Object>> getPostCountSyncProgress() {
+        return ResponseEntity.ok(feedService.getPostCountSyncService().getProgress());
+    }
+    
     // Admin endpoint to sync post count for a specific user
     @PostMapping("/admin/sync-user-post-count/{userId}")
     public ResponseEntity<Map<String, Object>> syncUserPostCount(@PathVariable String userId) {
@@ -848,6 +1046,33 @@ public class FeedController {
         }
     }
     
+    // Admin endpoint to run notification retention (caps and digests) now
+    @PostMapping("/admin/notifications/retention")
+    public ResponseEntity<Map<String, Object>> runNotificationRetention() {
+        log.info("Admin endpoint called to run notification retention");
+        
+        try {
+            Map<String, Object> result = notificationRetentionService.run();
+            if (Boolean.TRUE.equals(result.get("success"))) {
+                return ResponseEntity.ok(result);
+            } else {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+            }
+        } catch (Exception e) {
+            log.error("Error running notification retention: {}", e.getMessage(), e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+    
+    // Admin endpoint to check the running (or last) notification retention run
+    @GetMapping("/admin/notifications/retention")
+    public ResponseEntity<Map<String, Object>> getNotificationRetentionStatus() {
+        return ResponseEntity.ok(notificationRetentionService.getStatus());
+    }
+    
     // Helper method to extract user ID from JWT token
     private String getUserIdFromAuthentication(Authentication authentication) {
         if (authentication != null && authentication.getPrincipal() instanceof Jwt) {
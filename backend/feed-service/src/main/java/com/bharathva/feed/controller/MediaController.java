@@ -0,0 +1,261 @@
+package com.bharathva.feed.controller;
+
+import com.bharathva.feed.model.ImageMetadata;
+import com.bharathva.feed.model.ImageVariant;
+import com.bharathva.feed.service.ImageUploadService;
+import com.bharathva.feed.service.MediaFileService;
+import com.bharathva.feed.service.MediaFileService.MediaFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Serves locally stored images.
+ *
+ * {@code /media/{hash}/{file}} is the content-addressed URL: its bytes never change, so it is
+ * cacheable forever (immutable) with an ETag derived from the hash, and it needs no
+ * authentication since the hash is only known to whoever has seen the post. Bodies are sent
+ * from the hot cache, with Tomcat's sendfile when the connector supports it, or with
+ * FileChannel.transferTo otherwise; a single byte range is honoured.
+ *
+ * {@code /images/{id}} (ImageMetadata.getImageUrl) picks the best variant for the requested
+ * width and redirects to its media URL. It is public too, as it is what posts link to and
+ * image views load it without a bearer token.
+ */
+@RestController
+@RequestMapping("/api/feed")
+@CrossOrigin(origins = "*")
+public class MediaController {
+    
+    private static final Logger log = LoggerFactory.getLogger(MediaController.class);
+    
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String IMAGE_REDIRECT = "public, max-age=3600";
+    private static final String LEGACY_FILE = "public, max-age=86400";
+    
+    // Request attributes of Tomcat's sendfile support (org.apache.catalina.Globals)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    
+    static final long[] UNSATISFIABLE = new long[0];
+    
+    @Autowired
+    private MediaFileService mediaFileService;
+    
+    @Autowired
+    private ImageUploadService imageUploadService;
+    
+    /**
+     * Content-addressed media file: an original or one of its variants
+     */
+    @GetMapping("/media/{contentHash}/{fileName:.+}")
+    public void getMedia(@PathVariable String contentHash,
+                         @PathVariable String fileName,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        MediaFile file = mediaFileService.resolve(contentHash, fileName);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        serve(file, IMMUTABLE, request, response);
+    }
+    
+    /**
+     * Image by ID, at the smallest variant at least {@code w} pixels wide when one exists
+     */
+    @GetMapping("/images/{imageId}")
+    public void getImage(@PathVariable String imageId,
+                         @RequestParam(required = false) Integer w,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        ImageMetadata image = imageUploadService.getImageMetadata(imageId);
+        if (image == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        
+        if (Boolean.TRUE.equals(image.getIsCloudinaryUploaded()) && image.getCloudinarySecureUrl() != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, IMAGE_REDIRECT);
+            response.sendRedirect(image.getCloudinarySecureUrl());
+            return;
+        }
+        
+        if (image.getContentHash() == null) {
+            // Stored before content addressing: serve the file itself
+            Path path = Paths.get(image.getFilePath());
+            long size;
+            try {
+                size = Files.size(path);
+            } catch (NoSuchFileException e) {
+                log.warn("⚠️ File for image {} is missing: {}", imageId, path);
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            serve(new MediaFile(path, size, image.getMimeType(), "\"" + imageId + "-" + size + "\"", null),
+                    LEGACY_FILE, request, response);
+            return;
+        }
+        
+        String fileName = Paths.get(image.getFilePath()).getFileName().toString();
+        if (w != null && w > 0) {
+            ImageVariant variant = null;
+            String accept = request.getHeader(HttpHeaders.ACCEPT);
+            if (accept != null && accept.contains("image/webp")) {
+                variant = image.getVariantFor(w, "webp");
+            }
+            if (variant == null) {
+                variant = image.getVariantFor(w, "jpeg");
+            }
+            // Narrower than asked for: the original is the better fit
+            if (variant != null && variant.getWidth() >= w) {
+                fileName = variant.getFileName();
+            }
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMAGE_REDIRECT);
+        response.sendRedirect("/api/feed/media/" + image.getContentHash() + "/" + fileName);
+    }
+    
+    private void serve(MediaFile file, String cacheControl, HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, file.getEtag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Uploaded SVG must not run script on this origin
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setHeader("Content-Security-Policy", "default-src 'none'; style-src 'unsafe-inline'; sandbox");
+        
+        if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), file.getEtag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        
+        long size = file.getSize();
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(file.getEtag()))) {
+            long[] bounds = parseRange(range, size);
+            if (bounds == UNSATISFIABLE) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds != null) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+        
+        long length = end - start + 1;
+        response.setContentType(file.getContentType());
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+        
+        if (file.getContent() != null) {
+            response.getOutputStream().write(file.getContent(), (int) start, (int) length);
+            return;
+        }
+        
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat writes the file from the kernel once the request returns
+            request.setAttribute(SENDFILE_FILENAME, file.getPath().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        
+        try (FileChannel channel = FileChannel.open(file.getPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+    
+    /**
+     * Inclusive bounds of a single {@code bytes=} range; null to ignore the header (malformed or
+     * several ranges, answered with the whole file) and UNSATISFIABLE for a 416.
+     */
+    static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        String first = spec.substring(0, dash).trim();
+        String last = spec.substring(dash + 1).trim();
+        try {
+            if (first.isEmpty()) {
+                // Suffix range: the last n bytes
+                long suffix = Long.parseLong(last);
+                if (suffix < 0) {
+                    return null;
+                }
+                if (suffix == 0 || size == 0) {
+                    return UNSATISFIABLE;
+                }
+                return new long[] {Math.max(0, size - suffix), size - 1};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            if (start < 0 || end < start) {
+                return null;
+            }
+            if (start >= size) {
+                return UNSATISFIABLE;
+            }
+            return new long[] {start, Math.min(end, size - 1)};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,5 +1,6 @@
 package com.bharathva.feed.controller;
 
+import com.bharathva.feed.dto.CursorPage;
 import com.bharathva.feed.dto.NotificationResponse;
 import com.bharathva.feed.service.NotificationService;
 import org.slf4j.Logger;
@@ -59,6 +60,43 @@ public class NotificationController {
         }
     }
     
+    /**
+     * Get notifications for the authenticated user with cursor pagination.
+     * Pass the returned nextCursor to fetch the following page.
+     */
+    @GetMapping(value = "/cursor", produces = "application/json")
+    public ResponseEntity<CursorPage<NotificationResponse>> getNotificationsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        
+        log.info("Getting notifications by cursor, size: {}", size);
+        
+        String authenticatedUserId;
+        try {
+            if (authentication == null || !authentication.isAuthenticated()) {
+                log.warn("Unauthenticated request to notifications endpoint");
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            authenticatedUserId = getUserIdFromAuthentication(authentication);
+        } catch (RuntimeException e) {
+            log.error("Authentication error getting notifications: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        try {
+            CursorPage<NotificationResponse> notifications = 
+                notificationService.getNotificationsForUserByCursor(authenticatedUserId, cursor, size);
+            return ResponseEntity.ok(notifications);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid cursor request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error getting notifications by cursor: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     /**
      * Health check endpoint for notifications
      */
@@ -15,6 +15,7 @@ public class CommentResponse {
     private String text;
     private LocalDateTime createdAt;
     private Integer replyToCommentIndex; // Index of the comment being replied to (null for top-level comments)
+    private Integer index; // Index to use for replies and deletion (array position, or stable seq for bucketed feeds)
     
     // Constructors
     public CommentResponse() {}
@@ -24,6 +25,12 @@ public class CommentResponse {
         this.text = comment.getText();
         this.createdAt = comment.getCreatedAt();
         this.replyToCommentIndex = comment.getReplyToCommentIndex();
+        this.index = comment.getSeq();
+    }
+    
+    public CommentResponse(Comment comment, int index) {
+        this(comment);
+        this.index = index;
     }
     
     // Getters and Setters
@@ -67,6 +74,15 @@ public class CommentResponse {
         this.replyToCommentIndex = replyToCommentIndex;
     }
     
+    @JsonProperty("index")
+    public Integer getIndex() {
+        return index;
+    }
+    
+    public void setIndex(Integer index) {
+        this.index = index;
+    }
+    
     @Override
     public String toString() {
         return "CommentResponse{" +
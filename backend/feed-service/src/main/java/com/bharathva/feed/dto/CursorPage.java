@@ -0,0 +1,58 @@
+package com.bharathva.feed.dto;
+
+import java.util.List;
+
+/**
+ * Slice-style page returned by cursor-paginated endpoints.
+ * Carries no total count; {@code nextCursor} is null on the last page.
+ */
+public class CursorPage<T> {
+    
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+    private int size;
+    
+    // Constructors
+    public CursorPage() {}
+    
+    public CursorPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+        this.size = content != null ? content.size() : 0;
+    }
+    
+    // Getters and Setters
+    public List<T> getContent() {
+        return content;
+    }
+    
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public boolean isHasNext() {
+        return hasNext;
+    }
+    
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
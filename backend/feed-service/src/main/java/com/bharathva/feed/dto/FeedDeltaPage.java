@@ -0,0 +1,69 @@
+package com.bharathva.feed.dto;
+
+import java.util.List;
+
+/**
+ * Deltas of one feed after a client's last seen sequence, oldest first.
+ * When {@code resyncRequired} is true some of the missed deltas have expired and the
+ * client must reload the feed instead of replaying.
+ */
+public class FeedDeltaPage {
+    
+    private String feedId;
+    private List<FeedEvent> deltas;
+    private long latestSeq;
+    private boolean hasMore;
+    private boolean resyncRequired;
+    
+    // Constructors
+    public FeedDeltaPage() {}
+    
+    public FeedDeltaPage(String feedId, List<FeedEvent> deltas, long latestSeq, boolean hasMore, boolean resyncRequired) {
+        this.feedId = feedId;
+        this.deltas = deltas;
+        this.latestSeq = latestSeq;
+        this.hasMore = hasMore;
+        this.resyncRequired = resyncRequired;
+    }
+    
+    // Getters and Setters
+    public String getFeedId() {
+        return feedId;
+    }
+    
+    public void setFeedId(String feedId) {
+        this.feedId = feedId;
+    }
+    
+    public List<FeedEvent> getDeltas() {
+        return deltas;
+    }
+    
+    public void setDeltas(List<FeedEvent> deltas) {
+        this.deltas = deltas;
+    }
+    
+    public long getLatestSeq() {
+        return latestSeq;
+    }
+    
+    public void setLatestSeq(long latestSeq) {
+        this.latestSeq = latestSeq;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+    
+    public boolean isResyncRequired() {
+        return resyncRequired;
+    }
+    
+    public void setResyncRequired(boolean resyncRequired) {
+        this.resyncRequired = resyncRequired;
+    }
+}
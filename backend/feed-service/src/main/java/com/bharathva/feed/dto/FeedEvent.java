@@ -1,11 +1,18 @@
 package com.bharathva.feed.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.time.LocalDateTime;
 
 /**
  * DTO for WebSocket feed events
+ *
+ * Engagement events are deltas: they carry the feed's counters after the change, the
+ * appended comment where there is one, and the feed's event sequence. Clients apply an
+ * event only if its sequence is newer than the last one they saw for that feed, and
+ * fetch the missed range from the catch-up endpoint when they detect a gap.
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class FeedEvent {
     
     private String type; // FEED_CREATED, FEED_DELETED, FEED_UPDATED
@@ -13,6 +20,13 @@ public class FeedEvent {
     private String userId;
     private String message;
     
+    // Delta fields, set on engagement events only
+    private Long seq;
+    private Integer likesCount;
+    private Integer commentsCount;
+    private CommentResponse comment;
+    private Integer commentIndex;
+    
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime timestamp;
     
@@ -62,6 +76,46 @@ public class FeedEvent {
         this.message = message;
     }
     
+    public Long getSeq() {
+        return seq;
+    }
+    
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+    
+    public Integer getLikesCount() {
+        return likesCount;
+    }
+    
+    public void setLikesCount(Integer likesCount) {
+        this.likesCount = likesCount;
+    }
+    
+    public Integer getCommentsCount() {
+        return commentsCount;
+    }
+    
+    public void setCommentsCount(Integer commentsCount) {
+        this.commentsCount = commentsCount;
+    }
+    
+    public CommentResponse getComment() {
+        return comment;
+    }
+    
+    public void setComment(CommentResponse comment) {
+        this.comment = comment;
+    }
+    
+    public Integer getCommentIndex() {
+        return commentIndex;
+    }
+    
+    public void setCommentIndex(Integer commentIndex) {
+        this.commentIndex = commentIndex;
+    }
+    
     public LocalDateTime getTimestamp() {
         return timestamp;
     }
@@ -77,6 +131,7 @@ public class FeedEvent {
                 ", feedId='" + feedId + '\'' +
                 ", userId='" + userId + '\'' +
                 ", message='" + message + '\'' +
+                ", seq=" + seq +
                 ", timestamp=" + timestamp +
                 '}';
     }
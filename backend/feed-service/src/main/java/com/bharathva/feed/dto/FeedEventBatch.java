@@ -0,0 +1,56 @@
+package com.bharathva.feed.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for several feed events coalesced into one WebSocket frame.
+ * Events are in the order they should be applied.
+ */
+public class FeedEventBatch {
+    
+    public static final String TYPE = "BATCH";
+    
+    private String type = TYPE;
+    private List<FeedEvent> events = new ArrayList<>();
+    
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime timestamp;
+    
+    // Constructors
+    public FeedEventBatch() {
+        this.timestamp = LocalDateTime.now();
+    }
+    
+    public FeedEventBatch(List<FeedEvent> events) {
+        this();
+        this.events = events;
+    }
+    
+    // Getters and Setters
+    public String getType() {
+        return type;
+    }
+    
+    public void setType(String type) {
+        this.type = type;
+    }
+    
+    public List<FeedEvent> getEvents() {
+        return events;
+    }
+    
+    public void setEvents(List<FeedEvent> events) {
+        this.events = events;
+    }
+    
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+}
@@ -38,6 +38,12 @@ public class FeedResponse {
     @JsonProperty("userLiked")
     @JsonInclude(JsonInclude.Include.ALWAYS)
     private boolean userLiked;
+    
+    // Author details, filled in per page by UserProfileLoader (omitted if unavailable)
+    private String authorUsername;
+    private String authorFullName;
+    private String authorProfileImageUrl;
+    
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
@@ -145,8 +151,9 @@ public class FeedResponse {
         return likes;
     }
     
+    // Null marks a counters-only response (like/comment mutations); clients then use likesCount
     public void setLikes(List<String> likes) {
-        this.likes = likes != null ? new ArrayList<>(likes) : new ArrayList<>();
+        this.likes = likes != null ? new ArrayList<>(likes) : null;
     }
     
     public List<CommentResponse> getComments() {
@@ -154,7 +161,7 @@ public class FeedResponse {
     }
     
     public void setComments(List<CommentResponse> comments) {
-        this.comments = comments != null ? comments : new ArrayList<>();
+        this.comments = comments;
     }
     
     public int getCommentsCount() {
@@ -165,6 +172,30 @@ public class FeedResponse {
         this.commentsCount = commentsCount;
     }
     
+    public String getAuthorUsername() {
+        return authorUsername;
+    }
+    
+    public void setAuthorUsername(String authorUsername) {
+        this.authorUsername = authorUsername;
+    }
+    
+    public String getAuthorFullName() {
+        return authorFullName;
+    }
+    
+    public void setAuthorFullName(String authorFullName) {
+        this.authorFullName = authorFullName;
+    }
+    
+    public String getAuthorProfileImageUrl() {
+        return authorProfileImageUrl;
+    }
+    
+    public void setAuthorProfileImageUrl(String authorProfileImageUrl) {
+        this.authorProfileImageUrl = authorProfileImageUrl;
+    }
+    
     @Override
     public String toString() {
         return "FeedResponse{" +
@@ -4,6 +4,7 @@ import com.bharathva.feed.model.Notification;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * DTO for notification responses
@@ -34,6 +35,9 @@ public class NotificationResponse {
     private String commentText; // Comment/reply text for COMMENT/REPLY type notifications
     private String originalCommentText; // Original comment text that was replied to (for REPLY type notifications)
     private String commentId; // ID/index of the comment being replied to (for REPLY type notifications)
+    private Integer actorCount; // Distinct actors collapsed into an aggregated LIKE notification
+    private List<String> actorIds; // Sample of the latest actors of an aggregated LIKE notification
+    private Boolean digest; // True for a daily digest of older notifications across several posts
     
     private LocalDateTime updatedAt;
     
@@ -67,6 +71,9 @@ public class NotificationResponse {
         this.commentText = notification.getCommentText();
         this.originalCommentText = notification.getOriginalCommentText();
         this.commentId = notification.getCommentId();
+        this.actorCount = notification.getActorCount();
+        this.actorIds = notification.getActorIds();
+        this.digest = notification.isDigest() ? Boolean.TRUE : null;
         
         this.updatedAt = notification.getUpdatedAt();
         
@@ -80,6 +87,39 @@ public class NotificationResponse {
         } else {
             this.timeAgoHours = 0;
         }
+        
+        describeAggregate();
+    }
+    
+    /**
+     * Rebuild the message of an aggregated LIKE notification or a daily digest from the
+     * latest actor's name, e.g. "Asha and 12 others liked your post". Call again after
+     * actor details change.
+     */
+    public void describeAggregate() {
+        if (actorCount == null || actorCount < 1) {
+            return;
+        }
+        String action;
+        if ("LIKE".equals(type)) {
+            action = Boolean.TRUE.equals(digest) ? " liked your posts" : " liked your post";
+        } else if ("COMMENT".equals(type) && Boolean.TRUE.equals(digest)) {
+            action = " commented on your posts";
+        } else {
+            return;
+        }
+        String actorName = "Someone";
+        if (actorFullName != null && !actorFullName.trim().isEmpty()) {
+            actorName = actorFullName.trim();
+        } else if (actorUsername != null && !actorUsername.trim().isEmpty()) {
+            actorName = actorUsername.trim();
+        }
+        int others = actorCount - 1;
+        if (others == 0) {
+            this.message = actorName + action;
+        } else {
+            this.message = actorName + " and " + others + (others == 1 ? " other" : " others") + action;
+        }
     }
     
     // Getters and Setters
@@ -171,6 +211,30 @@ public class NotificationResponse {
         this.originalCommentText = originalCommentText;
     }
     
+    public Integer getActorCount() {
+        return actorCount;
+    }
+    
+    public void setActorCount(Integer actorCount) {
+        this.actorCount = actorCount;
+    }
+    
+    public List<String> getActorIds() {
+        return actorIds;
+    }
+    
+    public void setActorIds(List<String> actorIds) {
+        this.actorIds = actorIds;
+    }
+    
+    public Boolean getDigest() {
+        return digest;
+    }
+    
+    public void setDigest(Boolean digest) {
+        this.digest = digest;
+    }
+    
     public String getCommentId() {
         return commentId;
     }
@@ -0,0 +1,73 @@
+package com.bharathva.feed.dto;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor over {@code (createdAt, _id)}, both descending.
+ * Clients only ever see the Base64 token; the next page starts strictly after the
+ * last item of the previous one, so page N costs the same index seek as page 1.
+ */
+public final class PageCursor {
+    
+    /** Sort order every cursor-paginated query must use. */
+    public static final Sort SORT = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "_id"));
+    
+    private static final String SEPARATOR = "|";
+    
+    private final LocalDateTime createdAt;
+    private final String id;
+    
+    public PageCursor(LocalDateTime createdAt, String id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    /**
+     * Criteria matching documents that sort after this cursor.
+     */
+    public Criteria toCriteria() {
+        return new Criteria().orOperator(
+                Criteria.where("createdAt").lt(createdAt),
+                new Criteria().andOperator(
+                        Criteria.where("createdAt").is(createdAt),
+                        Criteria.where("_id").lt(id)));
+    }
+    
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decode a client-supplied cursor; {@code null} or blank means "first page".
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.bharathva.feed.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor over search results ordered by {@code (rank, _id)}, both descending.
+ * The rank only depends on the post and the query, never on the time of the request,
+ * so a cursor stays valid while the user pages through results.
+ */
+public final class SearchCursor {
+    
+    private static final String SEPARATOR = "|";
+    
+    private final double rank;
+    private final String id;
+    
+    public SearchCursor(double rank, String id) {
+        this.rank = rank;
+        this.id = id;
+    }
+    
+    public double getRank() {
+        return rank;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    /**
+     * Whether a result with this rank and id sorts after the cursor.
+     */
+    public boolean isFollowedBy(double otherRank, String otherId) {
+        int byRank = Double.compare(otherRank, rank);
+        return byRank < 0 || (byRank == 0 && otherId.compareTo(id) < 0);
+    }
+    
+    public String encode() {
+        String raw = rank + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decode a client-supplied cursor; {@code null} or blank means "first page".
+     */
+    public static SearchCursor decode(String token) {
+        if (token == null || token.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new SearchCursor(Double.parseDouble(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
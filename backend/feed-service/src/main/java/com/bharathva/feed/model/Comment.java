@@ -12,6 +12,7 @@ public class Comment {
     private String text;
     private LocalDateTime createdAt;
     private Integer replyToCommentIndex; // Index of the comment being replied to (null for top-level comments)
+    private Integer seq; // Stable comment index when stored in comment buckets (null for embedded comments)
     
     // Constructors
     public Comment() {
@@ -65,6 +66,14 @@ public class Comment {
         this.replyToCommentIndex = replyToCommentIndex;
     }
     
+    public Integer getSeq() {
+        return seq;
+    }
+    
+    public void setSeq(Integer seq) {
+        this.seq = seq;
+    }
+    
     public boolean isReply() {
         return replyToCommentIndex != null;
     }
@@ -0,0 +1,83 @@
+package com.bharathva.feed.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size bucket of comments on a feed.
+ * Comment {@code seq} N always lives in bucket N / bucketSize, so a comment can be found
+ * without scanning the feed's other buckets.
+ */
+@Document(collection = "feed_comment_buckets")
+public class CommentBucket {
+    
+    @Id
+    private String id;
+    
+    @Field("feedId")
+    private String feedId;
+    
+    @Field("bucket")
+    private int bucket;
+    
+    @Field("comments")
+    private List<Comment> comments = new ArrayList<>();
+    
+    @Field("count")
+    private int count;
+    
+    // Constructors
+    public CommentBucket() {}
+    
+    public CommentBucket(String feedId, int bucket, List<Comment> comments) {
+        this.feedId = feedId;
+        this.bucket = bucket;
+        this.comments = comments != null ? comments : new ArrayList<>();
+        this.count = this.comments.size();
+    }
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getFeedId() {
+        return feedId;
+    }
+    
+    public void setFeedId(String feedId) {
+        this.feedId = feedId;
+    }
+    
+    public int getBucket() {
+        return bucket;
+    }
+    
+    public void setBucket(int bucket) {
+        this.bucket = bucket;
+    }
+    
+    public List<Comment> getComments() {
+        return comments != null ? comments : new ArrayList<>();
+    }
+    
+    public void setComments(List<Comment> comments) {
+        this.comments = comments;
+    }
+    
+    public int getCount() {
+        return count;
+    }
+    
+    public void setCount(int count) {
+        this.count = count;
+    }
+}
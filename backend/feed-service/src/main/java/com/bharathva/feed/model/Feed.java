@@ -35,6 +35,41 @@ public class Feed {
     @Field("comments")
     private List<Comment> comments = new ArrayList<>();
     
+    // Denormalized counters maintained atomically with $inc alongside the arrays.
+    // Null on legacy documents until LikesMigrationService backfills them.
+    @Field("likesCount")
+    private Integer likesCount;
+    
+    @Field("commentsCount")
+    private Integer commentsCount;
+    
+    // Set when likes/comments live in feed_like_buckets / feed_comment_buckets instead of the arrays above.
+    // The sequences only ever grow and decide which fixed-size bucket the next like/comment goes to.
+    @Field("engagementBucketed")
+    private Boolean engagementBucketed;
+    
+    @Field("likeSeq")
+    private Long likeSeq;
+    
+    @Field("commentSeq")
+    private Long commentSeq;
+    
+    // Bumped by every like, unlike, comment and comment deletion in the same write;
+    // orders the delta events clients receive for this feed
+    @Field("eventSeq")
+    private Long eventSeq;
+    
+    // Search fields derived from the message by SearchTokenizer when the feed is written.
+    // Null on feeds written before search indexing until FeedSearchService backfills them.
+    @Field("searchTerms")
+    private List<String> searchTerms;
+    
+    @Field("hashtags")
+    private List<String> hashtags;
+    
+    @Field("mentions")
+    private List<String> mentions;
+    
     @Field("createdAt")
     @Indexed
     private LocalDateTime createdAt;
@@ -52,6 +87,8 @@ public class Feed {
         this();
         this.userId = userId;
         this.message = message;
+        this.likesCount = 0;
+        this.commentsCount = 0;
     }
     
     // Getters and Setters
@@ -104,6 +141,7 @@ public class Feed {
     
     public void setLikes(List<String> likes) {
         this.likes = likes != null ? likes : new ArrayList<>();
+        this.likesCount = this.likes.size();
     }
     
     public void addLike(String userId) {
@@ -111,13 +149,17 @@ public class Feed {
             this.likes = new ArrayList<>();
         }
         if (!this.likes.contains(userId)) {
+            int before = getLikesCount();
             this.likes.add(userId);
+            this.likesCount = before + 1;
         }
     }
     
     public void removeLike(String userId) {
-        if (this.likes != null) {
+        if (this.likes != null && this.likes.contains(userId)) {
+            int before = getLikesCount();
             this.likes.remove(userId);
+            this.likesCount = Math.max(0, before - 1);
         }
     }
     
@@ -126,34 +168,109 @@ public class Feed {
     }
     
     public int getLikesCount() {
+        if (likesCount != null) {
+            return likesCount;
+        }
         return this.likes != null ? this.likes.size() : 0;
     }
     
+    public void setLikesCount(Integer likesCount) {
+        this.likesCount = likesCount;
+    }
+    
     public List<Comment> getComments() {
         return comments != null ? comments : new ArrayList<>();
     }
     
     public void setComments(List<Comment> comments) {
         this.comments = comments != null ? comments : new ArrayList<>();
+        this.commentsCount = this.comments.size();
     }
     
     public void addComment(Comment comment) {
         if (this.comments == null) {
             this.comments = new ArrayList<>();
         }
+        int before = getCommentsCount();
         this.comments.add(comment);
+        this.commentsCount = before + 1;
     }
     
     public void removeComment(int index) {
         if (this.comments != null && index >= 0 && index < this.comments.size()) {
+            int before = getCommentsCount();
             this.comments.remove(index);
+            this.commentsCount = Math.max(0, before - 1);
         }
     }
     
     public int getCommentsCount() {
+        if (commentsCount != null) {
+            return commentsCount;
+        }
         return this.comments != null ? this.comments.size() : 0;
     }
     
+    public void setCommentsCount(Integer commentsCount) {
+        this.commentsCount = commentsCount;
+    }
+    
+    public boolean isEngagementBucketed() {
+        return Boolean.TRUE.equals(engagementBucketed);
+    }
+    
+    public void setEngagementBucketed(Boolean engagementBucketed) {
+        this.engagementBucketed = engagementBucketed;
+    }
+    
+    public long getLikeSeq() {
+        return likeSeq != null ? likeSeq : 0L;
+    }
+    
+    public void setLikeSeq(Long likeSeq) {
+        this.likeSeq = likeSeq;
+    }
+    
+    public long getCommentSeq() {
+        return commentSeq != null ? commentSeq : 0L;
+    }
+    
+    public void setCommentSeq(Long commentSeq) {
+        this.commentSeq = commentSeq;
+    }
+    
+    public long getEventSeq() {
+        return eventSeq != null ? eventSeq : 0L;
+    }
+    
+    public void setEventSeq(Long eventSeq) {
+        this.eventSeq = eventSeq;
+    }
+    
+    public List<String> getSearchTerms() {
+        return searchTerms;
+    }
+    
+    public void setSearchTerms(List<String> searchTerms) {
+        this.searchTerms = searchTerms;
+    }
+    
+    public List<String> getHashtags() {
+        return hashtags;
+    }
+    
+    public void setHashtags(List<String> hashtags) {
+        this.hashtags = hashtags;
+    }
+    
+    public List<String> getMentions() {
+        return mentions;
+    }
+    
+    public void setMentions(List<String> mentions) {
+        this.mentions = mentions;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,138 @@
+package com.bharathva.feed.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+/**
+ * One engagement change on a feed, kept for a limited time so reconnecting clients can
+ * replay what they missed. {@code seq} is the feed's {@code eventSeq} after the change and
+ * is unique per feed; entries expire through a TTL index on {@code createdAt}.
+ */
+@Document(collection = "feed_deltas")
+public class FeedDelta {
+    
+    @Id
+    private String id;
+    
+    @Field("feedId")
+    private String feedId;
+    
+    @Field("seq")
+    private long seq;
+    
+    @Field("type")
+    private String type;
+    
+    @Field("userId")
+    private String userId;
+    
+    @Field("likesCount")
+    private Integer likesCount;
+    
+    @Field("commentsCount")
+    private Integer commentsCount;
+    
+    @Field("comment")
+    private Comment comment;
+    
+    @Field("commentIndex")
+    private Integer commentIndex;
+    
+    @Field("createdAt")
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public FeedDelta() {}
+    
+    public FeedDelta(String feedId, long seq, String type, String userId) {
+        this.feedId = feedId;
+        this.seq = seq;
+        this.type = type;
+        this.userId = userId;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getFeedId() {
+        return feedId;
+    }
+    
+    public void setFeedId(String feedId) {
+        this.feedId = feedId;
+    }
+    
+    public long getSeq() {
+        return seq;
+    }
+    
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public void setType(String type) {
+        this.type = type;
+    }
+    
+    public String getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+    
+    public Integer getLikesCount() {
+        return likesCount;
+    }
+    
+    public void setLikesCount(Integer likesCount) {
+        this.likesCount = likesCount;
+    }
+    
+    public Integer getCommentsCount() {
+        return commentsCount;
+    }
+    
+    public void setCommentsCount(Integer commentsCount) {
+        this.commentsCount = commentsCount;
+    }
+    
+    public Comment getComment() {
+        return comment;
+    }
+    
+    public void setComment(Comment comment) {
+        this.comment = comment;
+    }
+    
+    public Integer getCommentIndex() {
+        return commentIndex;
+    }
+    
+    public void setCommentIndex(Integer commentIndex) {
+        this.commentIndex = commentIndex;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,70 @@
+package com.bharathva.feed.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marker for one user's like on a bucketed feed.
+ * A unique (feedId, userId) index lets only one like per user through, whichever bucket the
+ * like sequence would put it in; the liker IDs themselves still live in {@link LikeBucket}.
+ */
+@Document(collection = "feed_likes")
+public class FeedLike {
+    
+    @Id
+    private String id;
+    
+    @Field("feedId")
+    private String feedId;
+    
+    @Field("userId")
+    private String userId;
+    
+    @Field("createdAt")
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public FeedLike() {}
+    
+    public FeedLike(String feedId, String userId, LocalDateTime createdAt) {
+        this.feedId = feedId;
+        this.userId = userId;
+        this.createdAt = createdAt;
+    }
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getFeedId() {
+        return feedId;
+    }
+    
+    public void setFeedId(String feedId) {
+        this.feedId = feedId;
+    }
+    
+    public String getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,72 @@
+package com.bharathva.feed.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Materialized home timeline for a single user.
+ * Holds a bounded ring of recent feed IDs (newest first) written by fan-out-on-write;
+ * the document ID is the owning user's ID so a read is a single key lookup.
+ */
+@Document(collection = "home_timelines")
+public class HomeTimeline {
+    
+    @Id
+    private String userId;
+    
+    @Field("feedIds")
+    private List<String> feedIds = new ArrayList<>();
+    
+    @Field("updatedAt")
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public HomeTimeline() {
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    public HomeTimeline(String userId, List<String> feedIds) {
+        this();
+        this.userId = userId;
+        this.feedIds = feedIds != null ? feedIds : new ArrayList<>();
+    }
+    
+    // Getters and Setters
+    public String getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+    
+    public List<String> getFeedIds() {
+        return feedIds;
+    }
+    
+    public void setFeedIds(List<String> feedIds) {
+        this.feedIds = feedIds;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "HomeTimeline{" +
+                "userId='" + userId + '\'' +
+                ", feedIds=" + (feedIds != null ? feedIds.size() : 0) +
+                ", updatedAt=" + updatedAt +
+                '}';
+    }
+}
@@ -6,6 +6,8 @@ import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Stores image info including file path, size, type, and user association this is how itt works here
@@ -63,6 +65,21 @@ public class ImageMetadata {
     @Field("isCloudinaryUploaded")
     private Boolean isCloudinaryUploaded = false;
     
+    // Local store fields: files are addressed by the SHA-256 of their content, so identical
+    // uploads (from any user) share one original and one set of variants
+    @Field("contentHash")
+    @Indexed
+    private String contentHash;
+    
+    @Field("variants")
+    private List<ImageVariant> variants = new ArrayList<>();
+    
+    @Field("placeholder")
+    private String placeholder; // BlurHash of the image, shown while a variant loads
+    
+    @Field("derivativeStatus")
+    private String derivativeStatus; // PENDING, READY, UNSUPPORTED or FAILED
+    
     @Field("createdAt")
     @Indexed
     private LocalDateTime createdAt;
@@ -217,6 +234,38 @@ public class ImageMetadata {
         this.isCloudinaryUploaded = isCloudinaryUploaded;
     }
     
+    public String getContentHash() {
+        return contentHash;
+    }
+    
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+    
+    public List<ImageVariant> getVariants() {
+        return variants;
+    }
+    
+    public void setVariants(List<ImageVariant> variants) {
+        this.variants = variants;
+    }
+    
+    public String getPlaceholder() {
+        return placeholder;
+    }
+    
+    public void setPlaceholder(String placeholder) {
+        this.placeholder = placeholder;
+    }
+    
+    public String getDerivativeStatus() {
+        return derivativeStatus;
+    }
+    
+    public void setDerivativeStatus(String derivativeStatus) {
+        this.derivativeStatus = derivativeStatus;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -246,6 +295,29 @@ public class ImageMetadata {
         return "/api/feed/images/" + this.id;
     }
     
+    /**
+     * Smallest variant in the given format at least {@code width} wide, else the widest one;
+     * null when there are no variants in that format.
+     */
+    public ImageVariant getVariantFor(int width, String format) {
+        if (variants == null) {
+            return null;
+        }
+        ImageVariant best = null;
+        for (ImageVariant variant : variants) {
+            if (!variant.getFormat().equals(format)) {
+                continue;
+            }
+            if (best == null) {
+                best = variant;
+            } else if (best.getWidth() < width ? variant.getWidth() > best.getWidth()
+                    : variant.getWidth() >= width && variant.getWidth() < best.getWidth()) {
+                best = variant;
+            }
+        }
+        return best;
+    }
+    
     public boolean isImage() {
         return mimeType != null && mimeType.startsWith("image/");
     }
@@ -276,6 +348,9 @@ public class ImageMetadata {
                 ", cloudinaryBytes=" + cloudinaryBytes +
                 ", cloudinaryFolder='" + cloudinaryFolder + '\'' +
                 ", isCloudinaryUploaded=" + isCloudinaryUploaded +
+                ", contentHash='" + contentHash + '\'' +
+                ", variants=" + variants +
+                ", derivativeStatus='" + derivativeStatus + '\'' +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
                 '}';
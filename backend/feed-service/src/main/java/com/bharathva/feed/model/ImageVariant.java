@@ -0,0 +1,88 @@
+package com.bharathva.feed.model;
+
+/**
+ * ImageVariant model for BharathVA Feed
+ * A resized copy of a locally stored image, kept next to the original in its content directory
+ */
+public class ImageVariant {
+    
+    private Integer width;
+    private Integer height;
+    private String format; // "jpeg" or "webp"
+    private String mimeType;
+    private String fileName; // Relative to the original's directory
+    private Long bytes;
+    
+    // Constructors
+    public ImageVariant() {
+    }
+    
+    public ImageVariant(Integer width, Integer height, String format, String mimeType, String fileName, Long bytes) {
+        this.width = width;
+        this.height = height;
+        this.format = format;
+        this.mimeType = mimeType;
+        this.fileName = fileName;
+        this.bytes = bytes;
+    }
+    
+    // Getters and Setters
+    public Integer getWidth() {
+        return width;
+    }
+    
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+    
+    public Integer getHeight() {
+        return height;
+    }
+    
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
+    
+    public String getFormat() {
+        return format;
+    }
+    
+    public void setFormat(String format) {
+        this.format = format;
+    }
+    
+    public String getMimeType() {
+        return mimeType;
+    }
+    
+    public void setMimeType(String mimeType) {
+        this.mimeType = mimeType;
+    }
+    
+    public String getFileName() {
+        return fileName;
+    }
+    
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+    
+    public Long getBytes() {
+        return bytes;
+    }
+    
+    public void setBytes(Long bytes) {
+        this.bytes = bytes;
+    }
+    
+    @Override
+    public String toString() {
+        return "ImageVariant{" +
+                "width=" + width +
+                ", height=" + height +
+                ", format='" + format + '\'' +
+                ", fileName='" + fileName + '\'' +
+                ", bytes=" + bytes +
+                '}';
+    }
+}
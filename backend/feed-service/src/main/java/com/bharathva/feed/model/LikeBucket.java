@@ -0,0 +1,82 @@
+package com.bharathva.feed.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size bucket of user IDs that liked a feed.
+ * A feed's likes are spread over buckets numbered 0..n so no single document grows without bound.
+ */
+@Document(collection = "feed_like_buckets")
+public class LikeBucket {
+    
+    @Id
+    private String id;
+    
+    @Field("feedId")
+    private String feedId;
+    
+    @Field("bucket")
+    private int bucket;
+    
+    @Field("userIds")
+    private List<String> userIds = new ArrayList<>();
+    
+    @Field("count")
+    private int count;
+    
+    // Constructors
+    public LikeBucket() {}
+    
+    public LikeBucket(String feedId, int bucket, List<String> userIds) {
+        this.feedId = feedId;
+        this.bucket = bucket;
+        this.userIds = userIds != null ? userIds : new ArrayList<>();
+        this.count = this.userIds.size();
+    }
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getFeedId() {
+        return feedId;
+    }
+    
+    public void setFeedId(String feedId) {
+        this.feedId = feedId;
+    }
+    
+    public int getBucket() {
+        return bucket;
+    }
+    
+    public void setBucket(int bucket) {
+        this.bucket = bucket;
+    }
+    
+    public List<String> getUserIds() {
+        return userIds != null ? userIds : new ArrayList<>();
+    }
+    
+    public void setUserIds(List<String> userIds) {
+        this.userIds = userIds;
+    }
+    
+    public int getCount() {
+        return count;
+    }
+    
+    public void setCount(int count) {
+        this.count = count;
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Notification model for BharathVA
@@ -23,10 +24,20 @@ import java.time.LocalDateTime;
  * Additional UI Enhancement Fields:
  * - actorUsername, actorFullName, actorProfileImageUrl: For quick display without fetching
  * - feedImageUrl: Thumbnail for the post
+ * 
+ * Aggregated LIKE notifications ("X and 12 others liked your post"):
+ * - aggregationKey: Post and time window the likes are collapsed into
+ * - actorCount, actorIds: How many people liked, and a sample of the latest ones
+ * 
+ * Retention:
+ * - readAt: When the notification was read; a TTL index expires read notifications
+ * - Old per-actor LIKE/COMMENT notifications are folded into daily digests, keyed "DIGEST:{type}:{day}"
  */
 @Document(collection = "notifications")
 public class Notification {
     
+    public static final String DIGEST_KEY_PREFIX = "DIGEST:";
+    
     @Id
     private String id;
     
@@ -89,6 +100,22 @@ public class Notification {
     @Field("commentId")
     private String commentId; // ID/index of the comment being replied to (for REPLY type notifications)
     
+    // Aggregation Fields (for LIKE notifications collapsed per post and time window)
+    @Field("aggregationKey")
+    private String aggregationKey; // "LIKE:{postId}:{windowStart}", unique per receiver
+    
+    @Field("actorCount")
+    private Integer actorCount; // Number of distinct actors collapsed into this notification
+    
+    @Field("actorIds")
+    private List<String> actorIds; // Most recent actors, newest last (bounded sample)
+    
+    @Field("readAt")
+    private LocalDateTime readAt; // Set when read; expired by the read-notification TTL index
+    
+    @Field("foldedThrough")
+    private LocalDateTime foldedThrough; // Digests only: newest original already counted into it
+    
     @Field("updatedAt")
     private LocalDateTime updatedAt;
     
@@ -302,6 +329,30 @@ public class Notification {
         isRead = read;
     }
     
+    public String getAggregationKey() {
+        return aggregationKey;
+    }
+    
+    public void setAggregationKey(String aggregationKey) {
+        this.aggregationKey = aggregationKey;
+    }
+    
+    public Integer getActorCount() {
+        return actorCount;
+    }
+    
+    public void setActorCount(Integer actorCount) {
+        this.actorCount = actorCount;
+    }
+    
+    public List<String> getActorIds() {
+        return actorIds;
+    }
+    
+    public void setActorIds(List<String> actorIds) {
+        this.actorIds = actorIds;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -310,6 +361,26 @@ public class Notification {
         this.createdAt = createdAt;
     }
     
+    public LocalDateTime getReadAt() {
+        return readAt;
+    }
+    
+    public void setReadAt(LocalDateTime readAt) {
+        this.readAt = readAt;
+    }
+    
+    public boolean isDigest() {
+        return aggregationKey != null && aggregationKey.startsWith(DIGEST_KEY_PREFIX);
+    }
+    
+    public LocalDateTime getFoldedThrough() {
+        return foldedThrough;
+    }
+    
+    public void setFoldedThrough(LocalDateTime foldedThrough) {
+        this.foldedThrough = foldedThrough;
+    }
+    
     public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
@@ -0,0 +1,59 @@
+package com.bharathva.feed.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+/**
+ * Materialized unread notification count for one user. The document id is the user id.
+ * Kept current with atomic {@code $inc} on every notification write or read, and
+ * periodically reconciled against the notifications collection.
+ */
+@Document(collection = "notification_counters")
+public class NotificationCounter {
+    
+    @Id
+    private String userId;
+    
+    @Field("unread")
+    private long unread;
+    
+    @Field("updatedAt")
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public NotificationCounter() {}
+    
+    public NotificationCounter(String userId, long unread) {
+        this.userId = userId;
+        this.unread = unread;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public String getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+    
+    public long getUnread() {
+        return unread;
+    }
+    
+    public void setUnread(long unread) {
+        this.unread = unread;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,101 @@
+package com.bharathva.feed.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+/**
+ * One actor counted in an aggregated LIKE notification.
+ * The id is "{aggregationKey}:{actorId}", so an actor is recorded, and counted, once per
+ * notification however many actors it has; the notification's own actorIds only keeps a
+ * bounded sample for display.
+ */
+@Document(collection = "notification_like_actors")
+public class NotificationLikeActor {
+    
+    @Id
+    private String id;
+    
+    @Field("receiverId")
+    private String receiverId;
+    
+    @Field("postId")
+    private String postId;
+    
+    @Field("aggregationKey")
+    private String aggregationKey;
+    
+    @Field("actorId")
+    private String actorId;
+    
+    @Field("createdAt")
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public NotificationLikeActor() {}
+    
+    public NotificationLikeActor(String receiverId, String postId, String aggregationKey, String actorId,
+                                 LocalDateTime createdAt) {
+        this.id = idOf(aggregationKey, actorId);
+        this.receiverId = receiverId;
+        this.postId = postId;
+        this.aggregationKey = aggregationKey;
+        this.actorId = actorId;
+        this.createdAt = createdAt;
+    }
+    
+    public static String idOf(String aggregationKey, String actorId) {
+        return aggregationKey + ":" + actorId;
+    }
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getReceiverId() {
+        return receiverId;
+    }
+    
+    public void setReceiverId(String receiverId) {
+        this.receiverId = receiverId;
+    }
+    
+    public String getPostId() {
+        return postId;
+    }
+    
+    public void setPostId(String postId) {
+        this.postId = postId;
+    }
+    
+    public String getAggregationKey() {
+        return aggregationKey;
+    }
+    
+    public void setAggregationKey(String aggregationKey) {
+        this.aggregationKey = aggregationKey;
+    }
+    
+    public String getActorId() {
+        return actorId;
+    }
+    
+    public void setActorId(String actorId) {
+        this.actorId = actorId;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
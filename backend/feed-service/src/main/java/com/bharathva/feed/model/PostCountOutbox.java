@@ -0,0 +1,94 @@
+package com.bharathva.feed.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox entry for a user's post count. Every feed insert or delete bumps {@code seq} and
+ * marks the entry pending; the relay pushes the current count to auth-service with that
+ * sequence and clears {@code pending} only if no newer change arrived in the meantime.
+ * The document id is the user id, so entries coalesce per user.
+ */
+@Document(collection = "post_count_outbox")
+public class PostCountOutbox {
+    
+    @Id
+    private String userId;
+    
+    @Field("seq")
+    private long seq;
+    
+    @Field("pending")
+    private boolean pending;
+    
+    @Field("attempts")
+    private int attempts;
+    
+    @Field("lastError")
+    private String lastError;
+    
+    @Field("updatedAt")
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public PostCountOutbox() {}
+    
+    public PostCountOutbox(String userId, long seq) {
+        this.userId = userId;
+        this.seq = seq;
+        this.pending = true;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public String getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+    
+    public long getSeq() {
+        return seq;
+    }
+    
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+    
+    public boolean isPending() {
+        return pending;
+    }
+    
+    public void setPending(boolean pending) {
+        this.pending = pending;
+    }
+    
+    public int getAttempts() {
+        return attempts;
+    }
+    
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+    
+    public String getLastError() {
+        return lastError;
+    }
+    
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,60 @@
+package com.bharathva.feed.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+/**
+ * Author whose follower count exceeds the fan-out threshold.
+ * Posts by these authors are not pushed into follower timelines; they are merged in on read.
+ */
+@Document(collection = "timeline_pull_authors")
+public class PullModeAuthor {
+    
+    @Id
+    private String userId;
+    
+    @Field("followerCount")
+    private long followerCount;
+    
+    @Field("updatedAt")
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public PullModeAuthor() {
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    public PullModeAuthor(String userId, long followerCount) {
+        this();
+        this.userId = userId;
+        this.followerCount = followerCount;
+    }
+    
+    // Getters and Setters
+    public String getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+    
+    public long getFollowerCount() {
+        return followerCount;
+    }
+    
+    public void setFollowerCount(long followerCount) {
+        this.followerCount = followerCount;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -34,19 +34,7 @@ public interface FeedRepository extends MongoRepository<Feed, String> {
     // Count feeds by user
     long countByUserId(String userId);
     
-    // Find feeds by message content (search)
-    @Query("{ 'message': { $regex: ?0, $options: 'i' } }")
-    Page<Feed> findByMessageContainingIgnoreCase(String message, Pageable pageable);
-    
     // Find feeds created after a specific date
     @Query("{ 'createdAt': { $gt: ?0 } }")
     Page<Feed> findByCreatedAtAfter(LocalDateTime dateTime, Pageable pageable);
-    
-    // Count distinct users
-    @Query(value = "{}", fields = "{ 'userId': 1 }")
-    long countDistinctUsers();
-    
-    // Count feeds with images
-    @Query("{ 'imageUrls': { $exists: true, $ne: null, $not: { $size: 0 } } }")
-    long countByImageUrlsIsNotNull();
 }
\ No newline at end of file
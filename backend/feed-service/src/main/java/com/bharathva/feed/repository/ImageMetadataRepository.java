@@ -33,6 +33,16 @@ public interface ImageMetadataRepository extends MongoRepository<ImageMetadata,
      */
     ImageMetadata findByCloudinaryPublicId(String cloudinaryPublicId);
     
+    /**
+     * Find an image with the same content whose derivatives are in the given state
+     */
+    ImageMetadata findFirstByContentHashAndDerivativeStatus(String contentHash, String derivativeStatus);
+    
+    /**
+     * Count images sharing one stored file
+     */
+    long countByContentHash(String contentHash);
+    
     /**
      * Find images that are uploaded to Cloudinary
      */
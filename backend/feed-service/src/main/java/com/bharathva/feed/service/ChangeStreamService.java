@@ -1,12 +1,27 @@
 package com.bharathva.feed.service;
 
+import com.mongodb.MongoServerException;
 import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOptions;
 import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
 import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,17 +30,42 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Service for monitoring MongoDB Change Streams to detect real-time database changes
+ * Service for monitoring MongoDB Change Streams to detect real-time database changes.
+ *
+ * One reader thread tails the feeds change stream and hands events to a pool of workers,
+ * partitioned by document key so events for the same feed are processed in order. Worker
+ * queues are bounded: when they fill up the reader stops pulling from the cursor.
+ * The resume token of the last event whose predecessors have all been processed is saved
+ * periodically, so a restart (or a cursor error, retried with backoff) continues where the
+ * stream left off instead of losing events. Delivery is at-least-once.
  */
 @Service
 public class ChangeStreamService implements CommandLineRunner {
     
     private static final Logger log = LoggerFactory.getLogger(ChangeStreamService.class);
     
+    private static final String CHECKPOINT_COLLECTION = "change_stream_checkpoints";
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    // Fields whose change is worth a FEED_UPDATED event; everything else is counters
+    private static final Set<String> CONTENT_FIELDS = Set.of("message", "imageUrls");
+    
     @Autowired
     private MongoClient mongoClient;
     
@@ -33,16 +73,58 @@ public class ChangeStreamService implements CommandLineRunner {
     private WebSocketService webSocketService;
     
     @Autowired
-    private PostCountSyncService postCountSyncService;
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private FeedStatsService feedStatsService;
     
     @Value("${spring.data.mongodb.database:bharathva_feed}")
     private String databaseName;
     
+    @Value("${feed.change-stream.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${feed.change-stream.consumer-id:feed-service}")
+    private String consumerId;
+    
+    @Value("${feed.change-stream.workers:4}")
+    private int workerCount;
+    
+    @Value("${feed.change-stream.queue-capacity:1000}")
+    private int queueCapacity;
+    
+    @Value("${feed.change-stream.checkpoint-interval-ms:1000}")
+    private long checkpointIntervalMs;
+    
+    @Value("${feed.change-stream.initial-backoff-ms:500}")
+    private long initialBackoffMs;
+    
+    @Value("${feed.change-stream.max-backoff-ms:30000}")
+    private long maxBackoffMs;
+    
     private ExecutorService executorService;
+    private ExecutorService workerPool;
     private volatile boolean running = false;
     
+    private final List<BlockingQueue<PendingEvent>> partitions = new ArrayList<>();
+    
+    // Resume tokens of dispatched events not yet covered by a checkpoint, by dispatch order
+    private final ConcurrentSkipListMap<Long, BsonDocument> inFlightTokens = new ConcurrentSkipListMap<>();
+    private final Set<Long> completedEvents = ConcurrentHashMap.newKeySet();
+    private final AtomicLong dispatchSequence = new AtomicLong();
+    private BsonDocument lastSavedToken;
+    
+    // Metrics
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Map<OperationType, Counter> eventCounters = new ConcurrentHashMap<>();
+    private Counter restartCounter;
+    
     @Override
     public void run(String... args) throws Exception {
+        if (!enabled) {
+            log.info("⏸️ MongoDB Change Streams monitoring disabled");
+            return;
+        }
         log.info("🚀 Starting MongoDB Change Streams monitoring...");
         startChangeStreamMonitoring();
     }
@@ -50,41 +132,243 @@ public class ChangeStreamService implements CommandLineRunner {
     /**
      * Start monitoring MongoDB Change Streams for the feeds collection
      */
-    public void startChangeStreamMonitoring() {
+    public synchronized void startChangeStreamMonitoring() {
         if (running) {
             log.warn("⚠️ Change stream monitoring is already running");
             return;
         }
+        running = true;
+        registerMetrics();
+        
+        partitions.clear();
+        for (int i = 0; i < workerCount; i++) {
+            partitions.add(new ArrayBlockingQueue<>(queueCapacity));
+        }
+        
+        workerPool = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread t = new Thread(r, "change-stream-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            BlockingQueue<PendingEvent> queue = partitions.get(i);
+            workerPool.submit(() -> runWorker(queue));
+        }
         
         executorService = Executors.newSingleThreadExecutor(r -> {
             Thread t = new Thread(r, "change-stream-monitor");
             t.setDaemon(true);
             return t;
         });
+        executorService.submit(this::runReader);
+    }
+    
+    /**
+     * Reader loop: (re)opens the change stream from the last checkpoint and keeps it open,
+     * backing off exponentially while MongoDB is unavailable.
+     */
+    private void runReader() {
+        MongoCollection<Document> checkpoints = mongoClient.getDatabase(databaseName).getCollection(CHECKPOINT_COLLECTION);
+        long backoffMs = initialBackoffMs;
         
-        executorService.submit(() -> {
-            try {
-                running = true;
-                log.info("📡 Starting change stream monitoring for database: {}", databaseName);
-                
-                MongoDatabase database = mongoClient.getDatabase(databaseName);
-                MongoCollection<Document> feedsCollection = database.getCollection("feeds");
-                
-                // Create change stream to monitor all operations
-                ChangeStreamIterable<Document> changeStream = feedsCollection.watch();
-                
-                log.info("✅ Change stream monitoring started successfully");
+        while (running) {
+            BsonDocument resumeToken = loadCheckpoint(checkpoints);
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = openCursor(resumeToken)) {
+                log.info("✅ Change stream monitoring started for database: {} ({})", databaseName,
+                    resumeToken != null ? "resuming from checkpoint" : "starting from now");
+                backoffMs = initialBackoffMs;
+                long lastCheckpointAt = System.currentTimeMillis();
                 
-                // Process change stream events
-                for (ChangeStreamDocument<Document> change : changeStream) {
-                    processChangeEvent(change);
+                while (running) {
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    if (change != null) {
+                        dispatch(change);
+                    } else if (getQueueDepth() == 0) {
+                        // Caught up with the server and every worker is idle
+                        feedStatsService.onStreamProgress(Instant.now());
+                    }
+                    if (System.currentTimeMillis() - lastCheckpointAt >= checkpointIntervalMs) {
+                        checkpoint(checkpoints, cursor.getResumeToken());
+                        lastCheckpointAt = System.currentTimeMillis();
+                    }
                 }
+                checkpoint(checkpoints, cursor.getResumeToken());
                 
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (MongoServerException e) {
+                if (e.getCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    // The checkpoint fell off the oplog; events in between cannot be replayed
+                    log.warn("⚠️ Change stream checkpoint is no longer in the oplog, restarting from now");
+                    checkpoints.deleteOne(Filters.eq("_id", consumerId));
+                    lastSavedToken = null;
+                    continue;
+                }
+                backoffMs = backOff(e, backoffMs);
             } catch (Exception e) {
-                log.error("❌ Error in change stream monitoring: {}", e.getMessage(), e);
-                running = false;
+                if (!running) {
+                    break;
+                }
+                backoffMs = backOff(e, backoffMs);
             }
-        });
+        }
+        log.info("🛑 Change stream reader stopped");
+    }
+    
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> openCursor(BsonDocument resumeToken) {
+        MongoDatabase database = mongoClient.getDatabase(databaseName);
+        MongoCollection<Document> feedsCollection = database.getCollection("feeds");
+        
+        // Handlers only need ids, the author, the message and image URLs (for statistics) and
+        // whether an update touched content; leave likes and comments on the server
+        List<Bson> pipeline = List.of(
+            Aggregates.match(Filters.in("operationType", "insert", "update", "replace", "delete")),
+            Aggregates.project(Projections.include(
+                "operationType", "documentKey", "clusterTime", "ns",
+                "fullDocument._id", "fullDocument.userId", "fullDocument.message", "fullDocument.imageUrls",
+                "fullDocumentBeforeChange.userId", "fullDocumentBeforeChange.imageUrls",
+                "updateDescription.updatedFields.message", "updateDescription.updatedFields.imageUrls",
+                "updateDescription.removedFields")));
+        
+        ChangeStreamIterable<Document> changeStream = feedsCollection.watch(pipeline)
+            .fullDocument(FullDocument.UPDATE_LOOKUP)
+            .fullDocumentBeforeChange(FullDocumentBeforeChange.WHEN_AVAILABLE)
+            .maxAwaitTime(1, TimeUnit.SECONDS);
+        if (resumeToken != null) {
+            changeStream = changeStream.resumeAfter(resumeToken);
+        }
+        return changeStream.cursor();
+    }
+    
+    private long backOff(Exception e, long backoffMs) {
+        restartCounter.increment();
+        log.error("❌ Error in change stream monitoring, restarting in {} ms: {}", backoffMs, e.getMessage(), e);
+        try {
+            Thread.sleep(backoffMs);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+        return Math.min(backoffMs * 2, maxBackoffMs);
+    }
+    
+    /**
+     * Queue an event on its feed's partition; blocks while that partition is full.
+     */
+    private void dispatch(ChangeStreamDocument<Document> change) throws InterruptedException {
+        long sequence = dispatchSequence.incrementAndGet();
+        inFlightTokens.put(sequence, change.getResumeToken());
+        int partition = Math.floorMod(change.getDocumentKey().hashCode(), partitions.size());
+        partitions.get(partition).put(new PendingEvent(sequence, change));
+    }
+    
+    private void runWorker(BlockingQueue<PendingEvent> queue) {
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingEvent event = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (event == null) {
+                    continue;
+                }
+                try {
+                    processChangeEvent(event.change);
+                    recordProcessed(event.change);
+                } finally {
+                    completedEvents.add(event.sequence);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Save the resume token of the newest event with no unprocessed events before it.
+     * When nothing is in flight the cursor's own token is safe, which also moves the
+     * checkpoint forward while the collection is idle.
+     */
+    private void checkpoint(MongoCollection<Document> checkpoints, BsonDocument cursorToken) {
+        BsonDocument safeToken = null;
+        Map.Entry<Long, BsonDocument> oldest;
+        while ((oldest = inFlightTokens.firstEntry()) != null && completedEvents.remove(oldest.getKey())) {
+            safeToken = oldest.getValue();
+            inFlightTokens.remove(oldest.getKey());
+        }
+        if (inFlightTokens.isEmpty() && cursorToken != null) {
+            safeToken = cursorToken;
+        }
+        if (safeToken == null || safeToken.equals(lastSavedToken)) {
+            return;
+        }
+        try {
+            checkpoints.replaceOne(Filters.eq("_id", consumerId),
+                new Document("_id", consumerId).append("resumeToken", safeToken).append("updatedAt", new Date()),
+                new ReplaceOptions().upsert(true));
+            lastSavedToken = safeToken;
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to save change stream checkpoint: {}", e.getMessage());
+        }
+    }
+    
+    private BsonDocument loadCheckpoint(MongoCollection<Document> checkpoints) {
+        try {
+            Document checkpoint = checkpoints.find(Filters.eq("_id", consumerId)).first();
+            if (checkpoint != null && checkpoint.get("resumeToken") instanceof Document token) {
+                return BsonDocument.parse(token.toJson());
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to load change stream checkpoint: {}", e.getMessage());
+        }
+        return null;
+    }
+    
+    private void registerMetrics() {
+        if (restartCounter != null) {
+            return;
+        }
+        restartCounter = meterRegistry.counter("feed.changestream.restarts");
+        Gauge.builder("feed.changestream.lag", lagMillis, AtomicLong::get)
+            .description("Wall clock minus cluster time of the last processed event")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+        Gauge.builder("feed.changestream.queue.depth", this, ChangeStreamService::getQueueDepth)
+            .description("Events waiting in worker partitions")
+            .register(meterRegistry);
+    }
+    
+    private void recordProcessed(ChangeStreamDocument<Document> change) {
+        eventCounters.computeIfAbsent(change.getOperationType(), operation ->
+            meterRegistry.counter("feed.changestream.events", "operation", operation.getValue()))
+            .increment();
+        BsonTimestamp clusterTime = change.getClusterTime();
+        if (clusterTime != null) {
+            lagMillis.set(Math.max(0, System.currentTimeMillis() - clusterTime.getTime() * 1000L));
+            if (getQueueDepth() == 0) {
+                feedStatsService.onStreamProgress(Instant.ofEpochSecond(clusterTime.getTime()));
+            }
+        }
+    }
+    
+    public int getQueueDepth() {
+        int depth = 0;
+        for (BlockingQueue<PendingEvent> queue : partitions) {
+            depth += queue.size();
+        }
+        return depth;
+    }
+    
+    /**
+     * Current consumer state, for diagnostics
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("running", running);
+        status.put("queueDepth", getQueueDepth());
+        status.put("inFlight", inFlightTokens.size());
+        status.put("lagMillis", lagMillis.get());
+        status.put("dispatched", dispatchSequence.get());
+        return status;
     }
     
     /**
@@ -127,7 +411,8 @@ public class ChangeStreamService implements CommandLineRunner {
     }
     
     /**
-     * Handle INSERT events
+     * Handle INSERT events. FeedService.createFeed already pushes FEED_CREATED, so the
+     * stream only keeps the statistics in step.
      */
     private void handleInsertEvent(ChangeStreamDocument<Document> change) {
         try {
@@ -143,24 +428,11 @@ public class ChangeStreamService implements CommandLineRunner {
                 }
                 
                 String userId = fullDocument.getString("userId");
-                String message = fullDocument.getString("message");
                 
                 log.info("➕ Feed created: {} by user: {}", feedId, userId);
                 
-                // Notify WebSocket clients
-                webSocketService.notifyFeedCreated(userId, feedId, message);
-                
-                // CRITICAL: Sync post count to NeonDB in real-time
-                if (userId != null && !userId.trim().isEmpty()) {
-                    log.info("🔄 [ChangeStream] Syncing post count for user: {} after INSERT", userId);
-                    try {
-                        postCountSyncService.syncUserPostCount(userId);
-                        log.info("✅ [ChangeStream] Post count synced successfully for user: {}", userId);
-                    } catch (Exception syncError) {
-                        log.error("❌ [ChangeStream] Failed to sync post count for user: {} - {}", 
-                            userId, syncError.getMessage());
-                    }
-                }
+                List<?> imageUrls = fullDocument.getList("imageUrls", Object.class);
+                feedStatsService.onFeedInserted(userId, imageUrls != null ? imageUrls.size() : 0);
             }
         } catch (Exception e) {
             log.error("❌ Error handling insert event: {}", e.getMessage(), e);
@@ -168,7 +440,8 @@ public class ChangeStreamService implements CommandLineRunner {
     }
     
     /**
-     * Handle DELETE events
+     * Handle DELETE events. FeedService.deleteFeed already pushes FEED_DELETED with the
+     * author; the stream only keeps the statistics in step.
      */
     private void handleDeleteEvent(ChangeStreamDocument<Document> change) {
         try {
@@ -183,44 +456,36 @@ public class ChangeStreamService implements CommandLineRunner {
                 feedId = idObject.toString();
             }
             
-            // For delete operations, we need to get the userId from the before state
+            // Requested when available; missing if pre-images are off or expired before the event was read
             Document beforeDocument = change.getFullDocumentBeforeChange();
             String userId = null;
+            Integer imageCount = null;
             
             if (beforeDocument != null) {
                 userId = beforeDocument.getString("userId");
+                List<?> imageUrls = beforeDocument.getList("imageUrls", Object.class);
+                imageCount = imageUrls != null ? imageUrls.size() : 0;
             }
             
             log.info("🗑️ Feed deleted: {} by user: {}", feedId, userId);
-            
-            if (userId != null) {
-                webSocketService.notifyFeedDeleted(userId, feedId);
-                
-                // CRITICAL: Sync post count to NeonDB in real-time
-                log.info("🔄 [ChangeStream] Syncing post count for user: {} after DELETE", userId);
-                try {
-                    postCountSyncService.syncUserPostCount(userId);
-                    log.info("✅ [ChangeStream] Post count synced successfully for user: {}", userId);
-                } catch (Exception syncError) {
-                    log.error("❌ [ChangeStream] Failed to sync post count for user: {} - {}", 
-                        userId, syncError.getMessage());
-                }
-            } else {
-                // If we can't determine the user, send to all clients
-                webSocketService.notifyFeedDeleted("unknown", feedId);
-                log.warn("⚠️ [ChangeStream] Could not determine userId for deleted feed: {}", feedId);
-            }
-            
+            feedStatsService.onFeedDeleted(userId, imageCount);
         } catch (Exception e) {
             log.error("❌ Error handling delete event: {}", e.getMessage(), e);
         }
     }
     
     /**
-     * Handle UPDATE/REPLACE events
+     * Handle UPDATE/REPLACE events. Likes and comments only move counters, which
+     * FeedDeltaService already sends as compact deltas; FEED_UPDATED is reserved for changes
+     * to the post's content.
      */
     private void handleUpdateEvent(ChangeStreamDocument<Document> change) {
         try {
+            if (change.getOperationType() == OperationType.UPDATE && !touchesContent(change.getUpdateDescription())) {
+                log.debug("📝 Skipping counter-only update for feed: {}", change.getDocumentKey());
+                return;
+            }
+            
             Document fullDocument = change.getFullDocument();
             if (fullDocument != null) {
                 // Handle ObjectId conversion properly
@@ -243,16 +508,45 @@ public class ChangeStreamService implements CommandLineRunner {
         }
     }
     
+    static boolean touchesContent(UpdateDescription updateDescription) {
+        if (updateDescription == null) {
+            return false;
+        }
+        BsonDocument updatedFields = updateDescription.getUpdatedFields();
+        if (updatedFields != null) {
+            for (String field : CONTENT_FIELDS) {
+                if (updatedFields.containsKey(field)) {
+                    return true;
+                }
+            }
+        }
+        List<String> removedFields = updateDescription.getRemovedFields();
+        return removedFields != null && removedFields.stream().anyMatch(CONTENT_FIELDS::contains);
+    }
+    
     /**
      * Stop change stream monitoring
      */
-    public void stopChangeStreamMonitoring() {
+    public synchronized void stopChangeStreamMonitoring() {
         log.info("🛑 Stopping change stream monitoring...");
         running = false;
         
         if (executorService != null && !executorService.isShutdown()) {
             executorService.shutdown();
         }
+        if (workerPool != null && !workerPool.isShutdown()) {
+            workerPool.shutdown();
+        }
+        try {
+            if (executorService != null) {
+                executorService.awaitTermination(5, TimeUnit.SECONDS);
+            }
+            if (workerPool != null) {
+                workerPool.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
         
         log.info("✅ Change stream monitoring stopped");
     }
@@ -261,4 +555,14 @@ public class ChangeStreamService implements CommandLineRunner {
     public void cleanup() {
         stopChangeStreamMonitoring();
     }
+    
+    private static final class PendingEvent {
+        private final long sequence;
+        private final ChangeStreamDocument<Document> change;
+        
+        private PendingEvent(long sequence, ChangeStreamDocument<Document> change) {
+            this.sequence = sequence;
+            this.change = change;
+        }
+    }
 }
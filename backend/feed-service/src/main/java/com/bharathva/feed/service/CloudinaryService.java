@@ -9,10 +9,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Service for handling Cloudinary image uploads
@@ -22,6 +24,10 @@ public class CloudinaryService {
     
     private static final Logger log = LoggerFactory.getLogger(CloudinaryService.class);
     
+    private static final Set<String> ALLOWED_TYPES = Set.of(
+        "image/jpeg", "image/png", "image/gif", "image/webp", "image/bmp", "image/tiff",
+        "image/heic", "image/heif", "image/avif", "image/svg+xml");
+    
     @Value("${cloudinary.cloud-name}")
     private String cloudName;
     
@@ -31,6 +37,13 @@ public class CloudinaryService {
     @Value("${cloudinary.api-secret}")
     private String apiSecret;
     
+    @Value("${feed.upload.max-file-size-bytes:52428800}")
+    private long maxFileSize = 52428800L;
+    
+    // Cloudinary takes chunks of at least 5MB; one chunk is the only part of a file held in heap
+    @Value("${feed.upload.chunk-size-bytes:6291456}")
+    private int chunkSize = 6291456;
+    
     private Cloudinary cloudinary;
     
     /**
@@ -71,21 +84,33 @@ public class CloudinaryService {
         // Validate file
         validateFile(file);
         
-        try {
-            // Upload to Cloudinary with basic optimization
+        Map<String, Object> uploadOptions = new HashMap<>();
+        uploadOptions.put("folder", "bharathva/feeds/" + userId);
+        uploadOptions.put("public_id", generatePublicId(file.getOriginalFilename()));
+        uploadOptions.put("quality", "auto:good");
+        uploadOptions.put("fetch_format", "auto");
+        
+        return uploadStream(file, uploadOptions);
+    }
+    
+    /**
+     * Stream a validated file to Cloudinary in chunks.
+     *
+     * The multipart part is read from its spool file, sniffed and size-checked on the way through,
+     * and sent with Cloudinary's chunked upload, so heap per upload is one chunk whatever the file size.
+     */
+    private Map<String, Object> uploadStream(MultipartFile file, Map<String, Object> uploadOptions) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            ImageStreams.Checked checked = ImageStreams.check(in, maxFileSize, ALLOWED_TYPES);
+            
+            // Only images pass the sniffing above, so the upload never needs "auto" detection
+            uploadOptions.put("resource_type", "image");
+            uploadOptions.put("chunk_size", chunkSize);
+            
             @SuppressWarnings("unchecked")
-            Map<String, Object> uploadResult = getCloudinary().uploader().upload(
-                file.getBytes(),
-                ObjectUtils.asMap(
-                    "folder", "bharathva/feeds/" + userId,
-                    "public_id", generatePublicId(file.getOriginalFilename()),
-                    "resource_type", "auto",
-                    "quality", "auto:good",
-                    "fetch_format", "auto"
-                )
-            );
+            Map<String, Object> uploadResult = getCloudinary().uploader().uploadLarge(checked.getStream(), uploadOptions);
             
-            log.info("Image uploaded successfully to Cloudinary: {}", uploadResult.get("public_id"));
+            log.info("Image uploaded successfully to Cloudinary: {} ({} bytes)", uploadResult.get("public_id"), checked.getBytesRead());
             
             // Return simplified response
             Map<String, Object> response = new HashMap<>();
@@ -94,13 +119,19 @@ public class CloudinaryService {
             response.put("url", uploadResult.get("secure_url"));
             response.put("imageUrl", uploadResult.get("secure_url")); // Add imageUrl for mobile compatibility
             response.put("originalFileName", file.getOriginalFilename());
-            response.put("fileSize", file.getSize());
-            response.put("mimeType", file.getContentType());
+            response.put("fileSize", checked.getBytesRead());
+            response.put("mimeType", checked.getContentType());
             response.put("width", uploadResult.get("width"));
             response.put("height", uploadResult.get("height"));
+            response.put("format", uploadResult.get("format"));
+            response.put("bytes", uploadResult.get("bytes"));
             
             return response;
             
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (ImageStreams.SizeLimitExceededException e) {
+            throw new IllegalArgumentException(e.getMessage());
         } catch (Exception e) {
             log.error("Error uploading image to Cloudinary: {}", e.getMessage(), e);
             throw new IOException("Failed to upload image to Cloudinary: " + e.getMessage(), e);
@@ -165,39 +196,20 @@ public class CloudinaryService {
             throw new IllegalArgumentException("File is empty");
         }
         
-        // Check file size (50MB limit)
-        long maxFileSize = 50 * 1024 * 1024; // 50MB
+        // Cheap check on the declared size; the stream itself is capped during upload
         if (file.getSize() > maxFileSize) {
-            throw new IllegalArgumentException("File size exceeds maximum allowed size: 50MB");
+            throw new IllegalArgumentException("File size exceeds maximum allowed size: " + maxFileSize + " bytes");
         }
         
-        // Check file type
+        // The declared type is only a hint; the real type is sniffed from the content during upload
         String contentType = file.getContentType();
-        if (contentType == null || !isAllowedContentType(contentType)) {
+        if (contentType != null && !contentType.startsWith("image/") && !contentType.equals("application/octet-stream")) {
             String supportedTypes = "JPEG, JPG, PNG, GIF, WebP, BMP, TIFF, HEIC, HEIF, AVIF, SVG";
             throw new IllegalArgumentException("File type not supported: " + contentType + 
                 ". Supported formats: " + supportedTypes);
         }
     }
     
-    /**
-     * Check if content type is allowed
-     */
-    private boolean isAllowedContentType(String contentType) {
-        String[] allowedTypes = {
-            "image/jpeg", "image/jpg", "image/png", "image/gif", 
-            "image/webp", "image/bmp", "image/tiff", "image/heic", 
-            "image/heif", "image/avif", "image/svg+xml"
-        };
-        
-        for (String allowedType : allowedTypes) {
-            if (contentType.equals(allowedType)) {
-                return true;
-            }
-        }
-        return false;
-    }
-    
     /**
      * Normalize content type for better compatibility
      */
@@ -239,52 +251,22 @@ public class CloudinaryService {
         // Validate file
         validateFile(file);
         
-        try {
-            // Merge default transformations with custom ones
-            Map<String, Object> uploadOptions = new HashMap<>();
-            uploadOptions.put("folder", "bharathva/feeds/" + userId);
-            uploadOptions.put("public_id", generatePublicId(file.getOriginalFilename()));
-            uploadOptions.put("resource_type", "auto");
-            uploadOptions.put("quality", "auto");
-            uploadOptions.put("fetch_format", "auto");
-            
-            // Add custom transformations if provided
-            if (transformations != null && !transformations.isEmpty()) {
-                // Apply transformations as individual parameters
-                for (Map.Entry<String, Object> entry : transformations.entrySet()) {
-                    uploadOptions.put(entry.getKey(), entry.getValue());
-                }
+        // Merge default transformations with custom ones
+        Map<String, Object> uploadOptions = new HashMap<>();
+        uploadOptions.put("folder", "bharathva/feeds/" + userId);
+        uploadOptions.put("public_id", generatePublicId(file.getOriginalFilename()));
+        uploadOptions.put("quality", "auto");
+        uploadOptions.put("fetch_format", "auto");
+        
+        // Add custom transformations if provided
+        if (transformations != null && !transformations.isEmpty()) {
+            // Apply transformations as individual parameters
+            for (Map.Entry<String, Object> entry : transformations.entrySet()) {
+                uploadOptions.put(entry.getKey(), entry.getValue());
             }
-            
-            // Upload to Cloudinary
-            @SuppressWarnings("unchecked")
-            Map<String, Object> uploadResult = getCloudinary().uploader().upload(
-                file.getBytes(),
-                uploadOptions
-            );
-            
-            log.info("Image uploaded successfully to Cloudinary: {}", uploadResult.get("public_id"));
-            
-            // Return simplified response
-            Map<String, Object> response = new HashMap<>();
-            response.put("publicId", uploadResult.get("public_id"));
-            response.put("imageId", uploadResult.get("public_id")); // Add imageId for mobile compatibility
-            response.put("url", uploadResult.get("secure_url"));
-            response.put("imageUrl", uploadResult.get("secure_url")); // Add imageUrl for mobile compatibility
-            response.put("originalFileName", file.getOriginalFilename());
-            response.put("fileSize", file.getSize());
-            response.put("mimeType", file.getContentType());
-            response.put("width", uploadResult.get("width"));
-            response.put("height", uploadResult.get("height"));
-            response.put("format", uploadResult.get("format"));
-            response.put("bytes", uploadResult.get("bytes"));
-            
-            return response;
-            
-        } catch (Exception e) {
-            log.error("Error uploading image to Cloudinary: {}", e.getMessage(), e);
-            throw new IOException("Failed to upload image to Cloudinary: " + e.getMessage(), e);
         }
+        
+        return uploadStream(file, uploadOptions);
     }
     
     /**
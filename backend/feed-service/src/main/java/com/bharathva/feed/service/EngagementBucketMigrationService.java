@@ -0,0 +1,177 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.model.Comment;
+import com.bharathva.feed.model.CommentBucket;
+import com.bharathva.feed.model.Feed;
+import com.bharathva.feed.model.FeedLike;
+import com.bharathva.feed.model.LikeBucket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Migrates feeds from embedded likes/comments arrays to bucketed storage.
+ * Runs at startup when {@code feed.engagement.migrate-on-startup} is enabled, after making
+ * sure the counters it relies on are backfilled by {@link LikesMigrationService}.
+ */
+@Service
+public class EngagementBucketMigrationService implements CommandLineRunner {
+    
+    private static final Logger log = LoggerFactory.getLogger(EngagementBucketMigrationService.class);
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private FeedEngagementService feedEngagementService;
+    
+    @Autowired
+    private LikesMigrationService likesMigrationService;
+    
+    @Value("${feed.engagement.migrate-on-startup:false}")
+    private boolean migrateOnStartup;
+    
+    @Value("${feed.engagement.migration-batch-size:100}")
+    private int batchSize;
+    
+    @Override
+    public void run(String... args) {
+        if (migrateOnStartup) {
+            log.info("🚀 Running engagement bucket migration...");
+            likesMigrationService.backfillCounters();
+            migrateAll();
+        }
+    }
+    
+    /**
+     * Migrate every feed still using embedded arrays, in batches.
+     */
+    public Map<String, Object> migrateAll() {
+        int migrated = 0;
+        int skipped = 0;
+        List<String> failed = new ArrayList<>();
+        String lastId = null;
+        
+        while (true) {
+            Criteria criteria = Criteria.where("engagementBucketed").ne(true);
+            if (lastId != null) {
+                criteria = criteria.and("_id").gt(lastId);
+            }
+            Query query = new Query(criteria).limit(batchSize);
+            query.with(org.springframework.data.domain.Sort.by("_id"));
+            query.fields().include("_id");
+            List<Feed> batch = mongoTemplate.find(query, Feed.class);
+            if (batch.isEmpty()) {
+                break;
+            }
+            
+            for (Feed feed : batch) {
+                try {
+                    if (migrateFeed(feed.getId())) {
+                        migrated++;
+                    } else {
+                        skipped++;
+                    }
+                } catch (Exception e) {
+                    log.error("❌ Failed to migrate feed {} to buckets: {}", feed.getId(), e.getMessage());
+                    failed.add(feed.getId());
+                }
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+        
+        log.info("✅ Engagement bucket migration finished - migrated: {}, skipped: {}, failed: {}", 
+            migrated, skipped, failed.size());
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("migratedFeeds", migrated);
+        result.put("skippedFeeds", skipped);
+        result.put("failedFeedIds", failed);
+        return result;
+    }
+    
+    /**
+     * Copy one feed's likes and comments into buckets, along with a {@link FeedLike} marker
+     * per liker, then flip the feed to bucketed mode. The flip is conditional on the feed's
+     * eventSeq being unchanged: every like, unlike, comment and comment deletion bumps it, so
+     * a like and an unlike that leave the counts equal still count as a change. If anything
+     * raced with the copy, the buckets are discarded and the feed is left for the next run.
+     *
+     * @return true if the feed was migrated
+     */
+    public boolean migrateFeed(String feedId) {
+        Feed feed = mongoTemplate.findById(feedId, Feed.class);
+        if (feed == null || feed.isEngagementBucketed()) {
+            return false;
+        }
+        
+        int bucketSize = feedEngagementService.getBucketSize();
+        List<String> likes = feed.getLikes();
+        List<Comment> comments = feed.getComments();
+        
+        // Start from a clean slate in case a previous attempt left partial buckets behind
+        feedEngagementService.deleteAllForFeed(feedId);
+        
+        for (int start = 0, bucket = 0; start < likes.size(); start += bucketSize, bucket++) {
+            List<String> chunk = new ArrayList<>(likes.subList(start, Math.min(start + bucketSize, likes.size())));
+            mongoTemplate.insert(new LikeBucket(feedId, bucket, chunk));
+        }
+        
+        if (!likes.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            List<FeedLike> markers = new ArrayList<>();
+            for (String userId : new LinkedHashSet<>(likes)) {
+                markers.add(new FeedLike(feedId, userId, now));
+            }
+            mongoTemplate.insert(markers, FeedLike.class);
+        }
+        
+        for (int start = 0, bucket = 0; start < comments.size(); start += bucketSize, bucket++) {
+            List<Comment> chunk = new ArrayList<>();
+            for (int i = start; i < Math.min(start + bucketSize, comments.size()); i++) {
+                Comment comment = comments.get(i);
+                comment.setSeq(i);
+                chunk.add(comment);
+            }
+            mongoTemplate.insert(new CommentBucket(feedId, bucket, chunk));
+        }
+        
+        Criteria unchangedCriteria = Criteria.where("_id").is(feedId).and("engagementBucketed").ne(true);
+        if (feed.getEventSeq() == 0) {
+            // Feeds untouched since eventSeq was introduced have no such field yet
+            unchangedCriteria = unchangedCriteria.and("eventSeq").in(0L, null);
+        } else {
+            unchangedCriteria = unchangedCriteria.and("eventSeq").is(feed.getEventSeq());
+        }
+        Query unchanged = new Query(unchangedCriteria);
+        Update flip = new Update()
+            .set("engagementBucketed", true)
+            .set("likeSeq", (long) likes.size())
+            .set("commentSeq", (long) comments.size())
+            .unset("likes")
+            .unset("comments");
+        
+        if (mongoTemplate.updateFirst(unchanged, flip, Feed.class).getModifiedCount() == 0) {
+            log.warn("⚠️ Feed {} changed during migration, discarding buckets", feedId);
+            feedEngagementService.deleteAllForFeed(feedId);
+            return false;
+        }
+        
+        log.info("✅ Migrated feed {} to buckets ({} likes, {} comments)", feedId, likes.size(), comments.size());
+        return true;
+    }
+}
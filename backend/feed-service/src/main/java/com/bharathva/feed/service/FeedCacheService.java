@@ -0,0 +1,297 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.model.Comment;
+import com.bharathva.feed.model.Feed;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded in-memory cache for feed documents and feed pages.
+ *
+ * Feeds are cached one entry per feed ID, weighed by their approximate size so a few viral
+ * posts cannot crowd out everything else. Pages only cache the ordered feed IDs and total
+ * count, and are resolved through the feed entries on every hit. Page keys embed a version
+ * stamp (global for global/recent/search pages, per author for profile pages) that is bumped
+ * when a feed is created or deleted, so a like or comment only invalidates its own feed entry
+ * and a new post only makes the pages that can contain it unreachable; stale page entries
+ * simply age out.
+ *
+ * Feeds loaded from MongoDB outside the cache are only kept if no eviction for them happened
+ * while they were being read (tracked with striped invalidation counters), so a load racing a
+ * like or comment cannot put the old document back after {@link #evictFeed}.
+ */
+@Service
+public class FeedCacheService {
+    
+    private static final Logger log = LoggerFactory.getLogger(FeedCacheService.class);
+    
+    private static final int INVALIDATION_STRIPES = 1024;
+    
+    @Value("${feed.cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${feed.cache.max-weight-bytes:67108864}")
+    private long maxWeightBytes;
+    
+    @Value("${feed.cache.feed-ttl-seconds:600}")
+    private long feedTtlSeconds;
+    
+    @Value("${feed.cache.max-pages:5000}")
+    private long maxPages;
+    
+    @Value("${feed.cache.page-ttl-seconds:120}")
+    private long pageTtlSeconds;
+    
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final AtomicLong globalVersion = new AtomicLong();
+    private final AtomicLongArray invalidations = new AtomicLongArray(INVALIDATION_STRIPES);
+    
+    private Cache<String, Feed> feeds;
+    private Cache<String, CachedPage> pages;
+    private Cache<String, Long> userVersions;
+    
+    @PostConstruct
+    public void init() {
+        feeds = Caffeine.newBuilder()
+            .maximumWeight(maxWeightBytes)
+            .weigher((String feedId, Feed feed) -> estimateWeight(feed))
+            .expireAfterWrite(Duration.ofSeconds(feedTtlSeconds))
+            .build();
+        pages = Caffeine.newBuilder()
+            .maximumSize(maxPages)
+            .expireAfterWrite(Duration.ofSeconds(pageTtlSeconds))
+            .build();
+        // Evicting a user's version is safe: a fresh one is drawn from the same sequence,
+        // so it can never collide with a page key built from an older version
+        userVersions = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterAccess(Duration.ofSeconds(Math.max(feedTtlSeconds, pageTtlSeconds)))
+            .build();
+        
+        log.info("✅ Feed cache {} (max weight: {} bytes, feed TTL: {}s, max pages: {}, page TTL: {}s)",
+            enabled ? "enabled" : "disabled", maxWeightBytes, feedTtlSeconds, maxPages, pageTtlSeconds);
+    }
+    
+    // ---------------------------------------------------------------- feeds
+    
+    /**
+     * Cached feed by ID, loading it on a miss. Returns null (and caches nothing) if the
+     * loader does not find the feed.
+     */
+    public Feed getFeed(String feedId, Function<String, Feed> loader) {
+        if (!enabled) {
+            return loader.apply(feedId);
+        }
+        return feeds.get(feedId, loader);
+    }
+    
+    /**
+     * Cached feeds for the given IDs in the same order, loading all misses with one call.
+     * IDs that no longer exist are skipped.
+     */
+    public List<Feed> getFeeds(List<String> feedIds, Function<Collection<String>, Iterable<Feed>> bulkLoader) {
+        Map<String, Feed> found = new HashMap<>();
+        List<String> missing = feedIds;
+        if (enabled) {
+            found.putAll(feeds.getAllPresent(feedIds));
+            missing = feedIds.stream().filter(id -> !found.containsKey(id)).collect(Collectors.toList());
+        }
+        
+        if (!missing.isEmpty()) {
+            long[] stamps = enabled ? invalidationStamps() : null;
+            for (Feed feed : bulkLoader.apply(missing)) {
+                found.put(feed.getId(), feed);
+                if (enabled) {
+                    cacheLoaded(feed, stamps);
+                }
+            }
+        }
+        
+        List<Feed> result = new ArrayList<>(feedIds.size());
+        for (String feedId : feedIds) {
+            Feed feed = found.get(feedId);
+            if (feed != null) {
+                result.add(feed);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Drop a single feed entry after its likes, comments or content changed.
+     */
+    public void evictFeed(String feedId) {
+        if (enabled && feedId != null) {
+            // Count first, so a concurrent load either sees the new count or is invalidated after
+            invalidations.incrementAndGet(stripe(feedId));
+            feeds.invalidate(feedId);
+        }
+    }
+    
+    // ---------------------------------------------------------------- pages
+    
+    /**
+     * One page of feeds. On a hit the cached ID list is resolved through the feed entries
+     * (only missing feeds go to MongoDB); on a miss the query runs and both the page and its
+     * feeds are cached.
+     */
+    public Page<Feed> getPage(String pageKey, Pageable pageable, Supplier<Page<Feed>> query,
+                              Function<Collection<String>, Iterable<Feed>> bulkLoader) {
+        if (!enabled) {
+            return query.get();
+        }
+        
+        CachedPage cached = pages.getIfPresent(pageKey);
+        if (cached != null) {
+            log.debug("Feed page cache hit: {}", pageKey);
+            return new PageImpl<>(getFeeds(cached.feedIds, bulkLoader), pageable, cached.totalElements);
+        }
+        
+        long[] stamps = invalidationStamps();
+        Page<Feed> result = query.get();
+        List<String> feedIds = new ArrayList<>(result.getNumberOfElements());
+        for (Feed feed : result.getContent()) {
+            cacheLoaded(feed, stamps);
+            feedIds.add(feed.getId());
+        }
+        pages.put(pageKey, new CachedPage(feedIds, result.getTotalElements()));
+        return result;
+    }
+    
+    /**
+     * Key for a page that can contain any user's feeds (global, recent, search).
+     */
+    public String globalPageKey(String scope, Object... parts) {
+        return scope + ":" + globalVersion.get() + ":" + join(parts);
+    }
+    
+    /**
+     * Key for a page that only contains feeds authored by {@code userId}.
+     */
+    public String userPageKey(String userId, Object... parts) {
+        return "user:" + userId + ":" + userVersion(userId) + ":" + join(parts);
+    }
+    
+    /**
+     * A feed was created: pages that could contain it get new version stamps.
+     */
+    public void onFeedCreated(String authorId) {
+        bumpVersions(authorId);
+    }
+    
+    /**
+     * A feed was deleted: drop its entry and re-version the pages that could contain it.
+     */
+    public void onFeedDeleted(String feedId, String authorId) {
+        evictFeed(feedId);
+        bumpVersions(authorId);
+    }
+    
+    // ---------------------------------------------------------------- helpers
+    
+    /**
+     * Snapshot of the invalidation counters, taken before reading feeds from MongoDB.
+     */
+    private long[] invalidationStamps() {
+        long[] stamps = new long[INVALIDATION_STRIPES];
+        for (int i = 0; i < INVALIDATION_STRIPES; i++) {
+            stamps[i] = invalidations.get(i);
+        }
+        return stamps;
+    }
+    
+    /**
+     * Cache a feed read after {@code stamps} was taken, unless it may have been evicted since:
+     * the entry is put first and dropped again if its stripe moved, which also covers an
+     * eviction landing between the check and the put.
+     */
+    private void cacheLoaded(Feed feed, long[] stamps) {
+        int stripe = stripe(feed.getId());
+        feeds.put(feed.getId(), feed);
+        if (invalidations.get(stripe) != stamps[stripe]) {
+            feeds.invalidate(feed.getId());
+        }
+    }
+    
+    private static int stripe(String feedId) {
+        return Math.floorMod(feedId.hashCode(), INVALIDATION_STRIPES);
+    }
+    
+    private void bumpVersions(String authorId) {
+        globalVersion.set(versionSequence.incrementAndGet());
+        if (authorId != null) {
+            userVersions.put(authorId, versionSequence.incrementAndGet());
+        }
+    }
+    
+    private long userVersion(String userId) {
+        return userVersions.get(userId, id -> versionSequence.incrementAndGet());
+    }
+    
+    private static String join(Object... parts) {
+        StringBuilder key = new StringBuilder();
+        for (Object part : parts) {
+            if (key.length() > 0) {
+                key.append('_');
+            }
+            key.append(part);
+        }
+        return key.toString();
+    }
+    
+    /**
+     * Rough retained size of a feed in bytes, used as the cache weight.
+     */
+    static int estimateWeight(Feed feed) {
+        long bytes = 256; // object headers, IDs, counters and timestamps
+        bytes += textWeight(feed.getMessage());
+        if (feed.getImageUrls() != null) {
+            for (String url : feed.getImageUrls()) {
+                bytes += 40 + textWeight(url);
+            }
+        }
+        if (feed.getLikes() != null) {
+            bytes += 64L * feed.getLikes().size();
+        }
+        if (feed.getComments() != null) {
+            for (Comment comment : feed.getComments()) {
+                bytes += 128 + textWeight(comment.getText());
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+    
+    private static long textWeight(String text) {
+        return text != null ? 40 + 2L * text.length() : 0;
+    }
+    
+    private static class CachedPage {
+        private final List<String> feedIds;
+        private final long totalElements;
+        
+        CachedPage(List<String> feedIds, long totalElements) {
+            this.feedIds = feedIds;
+            this.totalElements = totalElements;
+        }
+    }
+}
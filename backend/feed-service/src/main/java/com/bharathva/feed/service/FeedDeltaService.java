@@ -0,0 +1,131 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.dto.CommentResponse;
+import com.bharathva.feed.dto.FeedDeltaPage;
+import com.bharathva.feed.dto.FeedEvent;
+import com.bharathva.feed.model.Comment;
+import com.bharathva.feed.model.Feed;
+import com.bharathva.feed.model.FeedDelta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delta events for feed engagement.
+ *
+ * Every like, unlike, comment and comment deletion bumps the feed's {@code eventSeq} in the
+ * same write that changes the counters, so the sequence and the counters it carries always
+ * belong together. The delta is stored for catch-up and then pushed on the feed's topic.
+ * Sequences can skip a value (e.g. a compensated bucketed like); clients treat the
+ * catch-up response's {@code latestSeq} as authoritative rather than expecting every value.
+ */
+@Service
+public class FeedDeltaService {
+    
+    private static final Logger log = LoggerFactory.getLogger(FeedDeltaService.class);
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private WebSocketService webSocketService;
+    
+    @Value("${feed.deltas.max-page-size:200}")
+    private int maxPageSize = 200;
+    
+    /**
+     * Record and publish a delta.
+     *
+     * @param feed the feed as returned by the write, with counters and {@code eventSeq}
+     */
+    public FeedEvent publish(String type, Feed feed, String userId, Comment comment, Integer commentIndex) {
+        FeedDelta delta = new FeedDelta(feed.getId(), feed.getEventSeq(), type, userId);
+        delta.setLikesCount(feed.getLikesCount());
+        delta.setCommentsCount(feed.getCommentsCount());
+        delta.setComment(comment);
+        delta.setCommentIndex(commentIndex);
+        
+        try {
+            mongoTemplate.insert(delta);
+        } catch (DuplicateKeyException e) {
+            log.debug("Delta {} of feed {} already recorded", delta.getSeq(), delta.getFeedId());
+        } catch (Exception e) {
+            // The live event still goes out; a client missing it reloads via resync
+            log.warn("⚠️ Failed to record delta {} of feed {}: {}", delta.getSeq(), delta.getFeedId(), e.getMessage());
+        }
+        
+        FeedEvent event = toEvent(delta);
+        webSocketService.notifyFeedDelta(event);
+        return event;
+    }
+    
+    /**
+     * Deltas of a feed with a sequence above {@code sinceSeq}, oldest first.
+     */
+    public FeedDeltaPage getDeltasSince(String feedId, long sinceSeq, int limit) {
+        if (feedId == null || feedId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Feed ID cannot be null or empty");
+        }
+        if (sinceSeq < 0) {
+            throw new IllegalArgumentException("Sequence cannot be negative");
+        }
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        
+        Query feedQuery = new Query(Criteria.where("_id").is(feedId));
+        feedQuery.fields().include("eventSeq");
+        Feed feed = mongoTemplate.findOne(feedQuery, Feed.class);
+        if (feed == null) {
+            throw new RuntimeException("Feed not found with ID: " + feedId);
+        }
+        long latestSeq = feed.getEventSeq();
+        if (sinceSeq >= latestSeq) {
+            return new FeedDeltaPage(feedId, List.of(), latestSeq, false, false);
+        }
+        
+        Query deltaQuery = new Query(Criteria.where("feedId").is(feedId).and("seq").gt(sinceSeq))
+                .with(Sort.by(Sort.Direction.ASC, "seq"))
+                .limit(pageSize + 1);
+        List<FeedDelta> deltas = mongoTemplate.find(deltaQuery, FeedDelta.class);
+        boolean hasMore = deltas.size() > pageSize;
+        if (hasMore) {
+            deltas = deltas.subList(0, pageSize);
+        }
+        
+        // A gap is fine if it is a skipped sequence; it means expired deltas only when nothing at
+        // or before the client's position is retained, since the TTL removes the oldest first
+        boolean contiguous = !deltas.isEmpty() && deltas.get(0).getSeq() == sinceSeq + 1;
+        boolean resyncRequired = !contiguous && !mongoTemplate.exists(
+                new Query(Criteria.where("feedId").is(feedId).and("seq").lte(sinceSeq)), FeedDelta.class);
+        
+        List<FeedEvent> events = new ArrayList<>(deltas.size());
+        for (FeedDelta delta : deltas) {
+            events.add(toEvent(delta));
+        }
+        return new FeedDeltaPage(feedId, events, latestSeq, hasMore, resyncRequired);
+    }
+    
+    FeedEvent toEvent(FeedDelta delta) {
+        // COMMENT_DELETED keeps the index in message for clients that predate delta fields
+        String message = delta.getCommentIndex() != null ? String.valueOf(delta.getCommentIndex()) : null;
+        FeedEvent event = new FeedEvent(delta.getType(), delta.getFeedId(), delta.getUserId(), message);
+        event.setSeq(delta.getSeq());
+        event.setLikesCount(delta.getLikesCount());
+        event.setCommentsCount(delta.getCommentsCount());
+        if (delta.getComment() != null) {
+            event.setComment(new CommentResponse(delta.getComment()));
+        }
+        event.setCommentIndex(delta.getCommentIndex());
+        event.setTimestamp(delta.getCreatedAt());
+        return event;
+    }
+}
@@ -0,0 +1,366 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.dto.CommentResponse;
+import com.bharathva.feed.dto.CursorPage;
+import com.bharathva.feed.dto.FeedResponse;
+import com.bharathva.feed.model.Comment;
+import com.bharathva.feed.model.CommentBucket;
+import com.bharathva.feed.model.Feed;
+import com.bharathva.feed.model.FeedLike;
+import com.bharathva.feed.model.LikeBucket;
+import com.mongodb.client.result.UpdateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Likes and comments for feeds stored in bucketed collections.
+ *
+ * Bucketed feeds keep only denormalized likesCount/commentsCount on the feed document; the
+ * liker IDs and comment bodies live in fixed-size buckets ({@link LikeBucket},
+ * {@link CommentBucket}) so a viral post can never approach the 16 MB document limit and
+ * timeline pages never ship liker IDs. Feeds still using the embedded arrays are handled by
+ * {@link FeedService} directly; {@link EngagementBucketMigrationService} moves them over.
+ */
+@Service
+public class FeedEngagementService {
+    
+    private static final Logger log = LoggerFactory.getLogger(FeedEngagementService.class);
+    
+    // A like marker this old without a bucket entry was left by an interrupted request
+    private static final long STALE_LIKE_MARKER_SECONDS = 30;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${feed.engagement.storage:embedded}")
+    private String storageMode;
+    
+    @Value("${feed.engagement.bucket-size:500}")
+    private int bucketSize;
+    
+    /**
+     * Whether newly created feeds should store likes/comments in buckets.
+     */
+    public boolean isBucketedMode() {
+        return "bucketed".equalsIgnoreCase(storageMode);
+    }
+    
+    public int getBucketSize() {
+        return bucketSize;
+    }
+    
+    // ---------------------------------------------------------------- likes
+    
+    /**
+     * Toggle a like on a bucketed feed: pull the user from whichever bucket holds them,
+     * otherwise append them to the bucket selected by the feed's like sequence. A new like
+     * first claims the user's {@link FeedLike} marker, so concurrent requests from the same
+     * user count it once even when the sequence would put them in different buckets.
+     */
+    public LikeResult toggleLike(String feedId, String userId) {
+        UpdateResult removed = mongoTemplate.updateMulti(
+            new Query(Criteria.where("feedId").is(feedId).and("userIds").is(userId)),
+            new Update().pull("userIds", userId).inc("count", -1),
+            LikeBucket.class);
+        
+        if (removed.getModifiedCount() > 0) {
+            mongoTemplate.remove(new Query(Criteria.where("feedId").is(feedId).and("userId").is(userId)), FeedLike.class);
+            Feed feed = updateCounters(feedId, new Update().inc("likesCount", -(int) removed.getModifiedCount()));
+            return new LikeResult(feed, false);
+        }
+        
+        if (!claimLike(feedId, userId)) {
+            // Another request from this user is adding (or already added) the like
+            return new LikeResult(findCounters(feedId), true);
+        }
+        
+        Feed feed = updateCounters(feedId, new Update().inc("likeSeq", 1).inc("likesCount", 1));
+        int bucket = (int) ((feed.getLikeSeq() - 1) / bucketSize);
+        
+        Query bucketQuery = new Query(Criteria.where("feedId").is(feedId).and("bucket").is(bucket)
+            .and("userIds").ne(userId));
+        Update push = new Update().push("userIds", userId).inc("count", 1);
+        if (!upsertBucket(bucketQuery, push, LikeBucket.class)) {
+            // A concurrent request from the same user already added the like to this bucket
+            feed = updateCounters(feedId, new Update().inc("likesCount", -1));
+        }
+        return new LikeResult(feed, true);
+    }
+    
+    public boolean hasLiked(String feedId, String userId) {
+        return mongoTemplate.exists(
+            new Query(Criteria.where("feedId").is(feedId).and("userIds").is(userId)), LikeBucket.class);
+    }
+    
+    /**
+     * Set userLiked on responses for bucketed feeds with a single query over all their buckets.
+     * Embedded feeds already carry userLiked from their likes array and are left untouched.
+     */
+    public void markUserLiked(Collection<Feed> feeds, List<FeedResponse> responses, String userId) {
+        if (userId == null || userId.trim().isEmpty()) {
+            return;
+        }
+        List<String> bucketedIds = feeds.stream()
+            .filter(Feed::isEngagementBucketed)
+            .map(Feed::getId)
+            .collect(Collectors.toList());
+        if (bucketedIds.isEmpty()) {
+            return;
+        }
+        
+        Query query = new Query(Criteria.where("feedId").in(bucketedIds).and("userIds").is(userId));
+        query.fields().include("feedId");
+        Set<String> likedFeedIds = mongoTemplate.find(query, LikeBucket.class).stream()
+            .map(LikeBucket::getFeedId)
+            .collect(Collectors.toSet());
+        
+        for (FeedResponse response : responses) {
+            if (likedFeedIds.contains(response.getId())) {
+                response.setUserLiked(true);
+            }
+        }
+    }
+    
+    // ---------------------------------------------------------------- comments
+    
+    /**
+     * Append a comment to a bucketed feed. The comment's seq (its stable index) comes from
+     * the feed's comment sequence and decides the bucket it is stored in.
+     */
+    public Feed addComment(String feedId, Comment comment) {
+        Feed feed = updateCounters(feedId, new Update().inc("commentSeq", 1).inc("commentsCount", 1));
+        int seq = (int) (feed.getCommentSeq() - 1);
+        comment.setSeq(seq);
+        
+        Query bucketQuery = new Query(Criteria.where("feedId").is(feedId).and("bucket").is(seq / bucketSize));
+        upsertBucket(bucketQuery, new Update().push("comments", comment).inc("count", 1), CommentBucket.class);
+        return feed;
+    }
+    
+    /**
+     * Comment with the given stable index, or null if it does not exist (or was deleted).
+     */
+    public Comment findComment(String feedId, int index) {
+        if (index < 0) {
+            return null;
+        }
+        CommentBucket bucket = mongoTemplate.findOne(
+            new Query(Criteria.where("feedId").is(feedId).and("bucket").is(index / bucketSize)),
+            CommentBucket.class);
+        if (bucket == null) {
+            return null;
+        }
+        return bucket.getComments().stream()
+            .filter(comment -> comment.getSeq() != null && comment.getSeq() == index)
+            .findFirst()
+            .orElse(null);
+    }
+    
+    /**
+     * Delete a comment from a bucketed feed by its stable index.
+     */
+    public Feed deleteComment(String feedId, String userId, int index) {
+        Comment comment = findComment(feedId, index);
+        if (comment == null) {
+            log.warn("Invalid comment index: {} for bucketed feed {}", index, feedId);
+            throw new IllegalArgumentException("Invalid comment index");
+        }
+        if (!comment.getUserId().equals(userId)) {
+            log.warn("User {} attempted to delete comment owned by {}", userId, comment.getUserId());
+            throw new RuntimeException("User " + userId + " is not authorized to delete this comment");
+        }
+        
+        UpdateResult result = mongoTemplate.updateFirst(
+            new Query(Criteria.where("feedId").is(feedId).and("bucket").is(index / bucketSize)
+                .and("comments.seq").is(index)),
+            new Update().pull("comments", new org.bson.Document("seq", index)).inc("count", -1),
+            CommentBucket.class);
+        
+        int removed = (int) result.getModifiedCount();
+        return updateCounters(feedId, new Update().inc("commentsCount", -removed));
+    }
+    
+    /**
+     * One page of comments in chronological order, after the comment index in {@code cursor}.
+     * Works for both embedded and bucketed feeds; each returned comment carries the index to
+     * use for replies and deletion.
+     */
+    public CursorPage<CommentResponse> getComments(String feedId, String cursor, int size) {
+        if (size <= 0 || size > 100) {
+            throw new IllegalArgumentException("Page size must be between 1 and 100");
+        }
+        int startIndex = parseCursor(cursor) + 1;
+        
+        Query probe = new Query(Criteria.where("_id").is(feedId));
+        probe.fields().include("engagementBucketed");
+        Feed feed = mongoTemplate.findOne(probe, Feed.class);
+        if (feed == null) {
+            throw new RuntimeException("Feed not found with ID: " + feedId);
+        }
+        
+        List<CommentResponse> page = new ArrayList<>();
+        if (feed.isEngagementBucketed()) {
+            int bucket = startIndex / bucketSize;
+            while (page.size() <= size) {
+                List<CommentBucket> buckets = mongoTemplate.find(
+                    new Query(Criteria.where("feedId").is(feedId).and("bucket").gte(bucket))
+                        .with(Sort.by(Sort.Direction.ASC, "bucket"))
+                        .limit(2),
+                    CommentBucket.class);
+                if (buckets.isEmpty()) {
+                    break;
+                }
+                for (CommentBucket commentBucket : buckets) {
+                    commentBucket.getComments().stream()
+                        .filter(comment -> comment.getSeq() != null && comment.getSeq() >= startIndex)
+                        .sorted(Comparator.comparing(Comment::getSeq))
+                        .limit(size + 1L - page.size())
+                        .forEach(comment -> page.add(new CommentResponse(comment)));
+                    bucket = commentBucket.getBucket() + 1;
+                }
+            }
+        } else {
+            Query sliceQuery = new Query(Criteria.where("_id").is(feedId));
+            sliceQuery.fields().slice("comments", startIndex, size + 1);
+            Feed sliced = mongoTemplate.findOne(sliceQuery, Feed.class);
+            List<Comment> comments = sliced != null ? sliced.getComments() : List.of();
+            for (int i = 0; i < comments.size(); i++) {
+                page.add(new CommentResponse(comments.get(i), startIndex + i));
+            }
+        }
+        
+        boolean hasNext = page.size() > size;
+        List<CommentResponse> content = hasNext ? page.subList(0, size) : page;
+        String nextCursor = hasNext ? String.valueOf(content.get(content.size() - 1).getIndex()) : null;
+        return new CursorPage<>(new ArrayList<>(content), nextCursor);
+    }
+    
+    /**
+     * Remove all like and comment buckets of a deleted feed.
+     */
+    public void deleteAllForFeed(String feedId) {
+        Query byFeed = new Query(Criteria.where("feedId").is(feedId));
+        mongoTemplate.remove(byFeed, LikeBucket.class);
+        mongoTemplate.remove(byFeed, FeedLike.class);
+        mongoTemplate.remove(byFeed, CommentBucket.class);
+    }
+    
+    // ---------------------------------------------------------------- helpers
+    
+    /**
+     * Insert the user's like marker; false if one already exists. A marker with no bucket
+     * entry that is older than {@link #STALE_LIKE_MARKER_SECONDS} belongs to a request that
+     * never finished and is replaced.
+     */
+    private boolean claimLike(String feedId, String userId) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                mongoTemplate.insert(new FeedLike(feedId, userId, LocalDateTime.now()));
+                return true;
+            } catch (DuplicateKeyException e) {
+                if (attempt > 0 || hasLiked(feedId, userId)) {
+                    return false;
+                }
+                Query stale = new Query(Criteria.where("feedId").is(feedId).and("userId").is(userId)
+                    .and("createdAt").lt(LocalDateTime.now().minusSeconds(STALE_LIKE_MARKER_SECONDS)));
+                if (mongoTemplate.remove(stale, FeedLike.class).getDeletedCount() == 0) {
+                    return false;
+                }
+                log.debug("Replaced stale like marker for feed {} and user {}", feedId, userId);
+            }
+        }
+        return false;
+    }
+    
+    private Feed updateCounters(String feedId, Update update) {
+        // Every counter change gets its own event sequence for the delta it produces
+        Feed feed = mongoTemplate.findAndModify(counterQuery(feedId), update.inc("eventSeq", 1).set("updatedAt", LocalDateTime.now()),
+            FindAndModifyOptions.options().returnNew(true), Feed.class);
+        if (feed == null) {
+            throw new RuntimeException("Feed not found with ID: " + feedId);
+        }
+        return feed;
+    }
+    
+    private Feed findCounters(String feedId) {
+        Feed feed = mongoTemplate.findOne(counterQuery(feedId), Feed.class);
+        if (feed == null) {
+            throw new RuntimeException("Feed not found with ID: " + feedId);
+        }
+        return feed;
+    }
+    
+    private Query counterQuery(String feedId) {
+        Query query = new Query(Criteria.where("_id").is(feedId));
+        query.fields().include("userId", "likesCount", "commentsCount", "likeSeq", "commentSeq", "eventSeq",
+            "engagementBucketed", "createdAt", "updatedAt");
+        return query;
+    }
+    
+    /**
+     * Upsert into a bucket. Two requests creating the same bucket race on the unique
+     * (feedId, bucket) index; the loser retries as a plain update. Returns false if the
+     * update's guard (e.g. "user not already in bucket") rejected it.
+     */
+    private boolean upsertBucket(Query query, Update update, Class<?> bucketClass) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                mongoTemplate.upsert(query, update, bucketClass);
+                return true;
+            } catch (DuplicateKeyException e) {
+                log.debug("Bucket upsert raced for {}, retrying", query);
+            }
+        }
+        return false;
+    }
+    
+    private int parseCursor(String cursor) {
+        if (cursor == null || cursor.trim().isEmpty()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(cursor.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+    
+    /**
+     * Result of a like toggle: the feed's updated counters and whether the user now likes it.
+     */
+    public static class LikeResult {
+        private final Feed feed;
+        private final boolean liked;
+        
+        public LikeResult(Feed feed, boolean liked) {
+            this.feed = feed;
+            this.liked = liked;
+        }
+        
+        public Feed getFeed() {
+            return feed;
+        }
+        
+        public boolean isLiked() {
+            return liked;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.dto.CursorPage;
+import com.bharathva.feed.dto.SearchCursor;
+import com.bharathva.feed.model.Feed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Post search over the {@code searchTerms}, {@code hashtags} and {@code mentions} arrays that
+ * SearchTokenizer derives from each message, instead of an unanchored regex over every message.
+ *
+ * Whole words are equality lookups on the multikey indexes and the word being typed is an
+ * anchored prefix, so both are index range scans. Matches are read newest first up to
+ * {@code feed.search.max-candidates}, then ranked: each relevance point (a word that is also
+ * a hashtag of the post, an exact rather than prefix match) is worth
+ * {@code feed.search.relevance-weight-hours} of recency. The rank depends only on the post and
+ * the query, so results can be paged with a {@code (rank, _id)} keyset cursor.
+ */
+@Service
+public class FeedSearchService {
+    
+    private static final Logger log = LoggerFactory.getLogger(FeedSearchService.class);
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${feed.search.max-candidates:2000}")
+    private int maxCandidates = 2000;
+    
+    @Value("${feed.search.relevance-weight-hours:24}")
+    private double relevanceWeightHours = 24;
+    
+    @Value("${feed.search.backfill.enabled:true}")
+    private boolean backfillEnabled = true;
+    
+    @Value("${feed.search.backfill.batch-size:500}")
+    private int backfillBatchSize = 500;
+    
+    private volatile boolean backfillDone = false;
+    
+    /**
+     * Derive the search fields of a feed from its message; called before the feed is saved.
+     */
+    public static void applySearchFields(Feed feed) {
+        String message = feed.getMessage();
+        feed.setSearchTerms(SearchTokenizer.terms(message));
+        feed.setHashtags(SearchTokenizer.hashtags(message));
+        feed.setMentions(SearchTokenizer.mentions(message));
+    }
+    
+    /**
+     * Search feeds ordered by relevance and recency, one keyset page at a time.
+     */
+    public CursorPage<Feed> search(String query, String cursor, int size) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new IllegalArgumentException("Search query cannot be null or empty");
+        }
+        if (size <= 0 || size > 1000) {
+            throw new IllegalArgumentException("Page size must be between 1 and 1000");
+        }
+        SearchCursor after = SearchCursor.decode(cursor);
+        
+        SearchTokenizer.ParsedQuery parsed = SearchTokenizer.parseQuery(query);
+        if (parsed.isEmpty()) {
+            return new CursorPage<>(new ArrayList<>(), null);
+        }
+        
+        Query candidatesQuery = new Query(toCriteria(parsed))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "_id")))
+                .limit(maxCandidates);
+        candidatesQuery.fields().include("createdAt", "searchTerms", "hashtags");
+        List<Feed> candidates = mongoTemplate.find(candidatesQuery, Feed.class);
+        
+        List<RankedFeed> ranked = new ArrayList<>(candidates.size());
+        for (Feed candidate : candidates) {
+            double rank = rank(candidate, parsed);
+            if (after == null || after.isFollowedBy(rank, candidate.getId())) {
+                ranked.add(new RankedFeed(candidate.getId(), rank));
+            }
+        }
+        ranked.sort(Comparator.comparingDouble((RankedFeed r) -> r.rank).reversed()
+                .thenComparing((RankedFeed r) -> r.id, Comparator.reverseOrder()));
+        
+        boolean hasNext = ranked.size() > size;
+        if (hasNext) {
+            ranked = ranked.subList(0, size);
+        }
+        
+        // Load the full documents of this page only, then restore the ranked order
+        List<String> ids = new ArrayList<>(ranked.size());
+        for (RankedFeed r : ranked) {
+            ids.add(r.id);
+        }
+        Map<String, Feed> byId = new HashMap<>();
+        for (Feed feed : mongoTemplate.find(new Query(Criteria.where("_id").in(ids)), Feed.class)) {
+            byId.put(feed.getId(), feed);
+        }
+        List<Feed> page = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Feed feed = byId.get(id);
+            if (feed != null) {
+                page.add(feed);
+            }
+        }
+        
+        String nextCursor = null;
+        if (hasNext) {
+            RankedFeed last = ranked.get(ranked.size() - 1);
+            nextCursor = new SearchCursor(last.rank, last.id).encode();
+        }
+        log.info("Search '{}' matched {} candidates, returning {}, hasNext: {}", query, candidates.size(), page.size(), hasNext);
+        return new CursorPage<>(page, nextCursor);
+    }
+    
+    /**
+     * Offset page of matches, newest first; backs the page-numbered search endpoint.
+     */
+    public Page<Feed> searchPage(String query, Pageable pageable) {
+        SearchTokenizer.ParsedQuery parsed = SearchTokenizer.parseQuery(query);
+        if (parsed.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        Criteria criteria = toCriteria(parsed);
+        List<Feed> feeds = mongoTemplate.find(new Query(criteria).with(pageable), Feed.class);
+        return PageableExecutionUtils.getPage(feeds, pageable, () -> mongoTemplate.count(new Query(criteria), Feed.class));
+    }
+    
+    Criteria toCriteria(SearchTokenizer.ParsedQuery parsed) {
+        List<Criteria> parts = new ArrayList<>();
+        if (!parsed.getTerms().isEmpty()) {
+            parts.add(Criteria.where("searchTerms").all(parsed.getTerms()));
+        }
+        if (parsed.getPrefix() != null) {
+            // Anchored and literal, so MongoDB turns it into index bounds instead of a scan
+            parts.add(Criteria.where("searchTerms").regex("^" + escapeRegex(parsed.getPrefix())));
+        }
+        if (!parsed.getHashtags().isEmpty()) {
+            parts.add(Criteria.where("hashtags").all(parsed.getHashtags()));
+        }
+        if (!parsed.getMentions().isEmpty()) {
+            parts.add(Criteria.where("mentions").all(parsed.getMentions()));
+        }
+        return parts.size() == 1 ? parts.get(0) : new Criteria().andOperator(parts);
+    }
+    
+    double rank(Feed feed, SearchTokenizer.ParsedQuery parsed) {
+        List<String> terms = feed.getSearchTerms() != null ? feed.getSearchTerms() : List.of();
+        List<String> hashtags = feed.getHashtags() != null ? feed.getHashtags() : List.of();
+        
+        double relevance = 0;
+        for (String term : parsed.getTerms()) {
+            relevance += hashtags.contains(term) ? 2 : 1;
+        }
+        String prefix = parsed.getPrefix();
+        if (prefix != null) {
+            if (hashtags.contains(prefix)) {
+                relevance += 2;
+            } else {
+                relevance += terms.contains(prefix) ? 1 : 0.5;
+            }
+        }
+        
+        double createdAtHours = feed.getCreatedAt() != null
+                ? feed.getCreatedAt().toEpochSecond(ZoneOffset.UTC) / 3600.0 : 0;
+        return relevance * relevanceWeightHours + createdAtHours;
+    }
+    
+    /**
+     * Fill in search fields on feeds written before they existed, one batch per run.
+     */
+    @Scheduled(fixedDelayString = "${feed.search.backfill.interval-ms:2000}")
+    public void backfillSearchFields() {
+        if (!backfillEnabled || backfillDone) {
+            return;
+        }
+        try {
+            Query query = new Query(Criteria.where("searchTerms").exists(false)).limit(backfillBatchSize);
+            query.fields().include("message");
+            List<Feed> feeds = mongoTemplate.find(query, Feed.class);
+            if (feeds.isEmpty()) {
+                backfillDone = true;
+                log.info("✅ Search fields present on all feeds");
+                return;
+            }
+            
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Feed.class);
+            for (Feed feed : feeds) {
+                applySearchFields(feed);
+                bulk.updateOne(new Query(Criteria.where("_id").is(feed.getId())), new Update()
+                        .set("searchTerms", feed.getSearchTerms())
+                        .set("hashtags", feed.getHashtags())
+                        .set("mentions", feed.getMentions()));
+            }
+            bulk.execute();
+            log.info("🔄 Backfilled search fields on {} feeds", feeds.size());
+        } catch (Exception e) {
+            log.warn("⚠️ Search field backfill failed, will retry: {}", e.getMessage());
+        }
+    }
+    
+    private static String escapeRegex(String value) {
+        return value.replaceAll("[\\\\^$.|?*+()\\[\\]{}]", "\\\\$0");
+    }
+    
+    private static final class RankedFeed {
+        private final String id;
+        private final double rank;
+        
+        private RankedFeed(String id, double rank) {
+            this.id = id;
+            this.rank = rank;
+        }
+    }
+}
@@ -1,30 +1,35 @@
 package com.bharathva.feed.service;
 
+import com.bharathva.feed.dto.CommentResponse;
 import com.bharathva.feed.dto.CreateCommentRequest;
 import com.bharathva.feed.dto.CreateFeedRequest;
+import com.bharathva.feed.dto.CursorPage;
 import com.bharathva.feed.dto.FeedResponse;
+import com.bharathva.feed.dto.PageCursor;
 import com.bharathva.feed.model.Comment;
 import com.bharathva.feed.model.Feed;
 import com.bharathva.feed.repository.FeedRepository;
+import org.bson.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -54,11 +59,33 @@ public class FeedService {
     private PostCountSyncService postCountSyncService;
     
     @Autowired
-    private RealTimePostCountSyncService realTimePostCountSyncService;
+    private PostCountOutboxService postCountOutboxService;
+    
+    @Autowired
+    private TimelineService timelineService;
+    
+    @Autowired
+    private FeedEngagementService feedEngagementService;
+    
+    @Autowired
+    private FeedCacheService feedCacheService;
+    
+    @Autowired
+    private UserProfileLoader userProfileLoader;
+    
+    @Autowired
+    private FeedStatsService feedStatsService;
+    
+    @Autowired
+    private FeedDeltaService feedDeltaService;
+    
+    @Autowired
+    private FeedSearchService feedSearchService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
     
     // Create a new feed message
-    @Transactional
-    @CacheEvict(value = "feedCache", allEntries = true)
     public FeedResponse createFeed(CreateFeedRequest request, String authenticatedUserId) {
         log.info("Creating feed for user: {}", authenticatedUserId);
         
@@ -77,30 +104,28 @@ public class FeedService {
         
         // Set creation timestamp
         feed.setCreatedAt(LocalDateTime.now());
+        FeedSearchService.applySearchFields(feed);
         
-        Feed savedFeed = feedRepository.save(feed);
-        log.info("Feed {} saved to MongoDB successfully for user: {}", savedFeed.getId(), savedFeed.getUserId());
-        
-        // CRITICAL: Sync post count in real-time using dedicated service
-        // This ensures MongoDB and NeonDB are always in sync
-        String userId = savedFeed.getUserId();
+        if (feedEngagementService.isBucketedMode()) {
+            feed.setEngagementBucketed(true);
+            feed.setLikeSeq(0L);
+            feed.setCommentSeq(0L);
+        }
         
-        // Sync synchronously first to ensure immediate consistency
-        boolean syncSuccess = realTimePostCountSyncService.syncUserPostCount(userId);
+        // The insert and its post count outbox entry commit together; the relay pushes it to NeonDB
+        Feed savedFeed = new TransactionTemplate(transactionManager).execute(status -> {
+            Feed inserted = feedRepository.save(feed);
+            postCountOutboxService.record(inserted.getUserId());
+            return inserted;
+        });
+        log.info("Feed {} saved to MongoDB successfully for user: {}", savedFeed.getId(), savedFeed.getUserId());
+        feedCacheService.onFeedCreated(savedFeed.getUserId());
         
-        if (!syncSuccess) {
-            log.warn("⚠️ Initial post count sync failed, but feed was created successfully.");
-            log.warn("   ChangeStream will attempt to sync automatically.");
-            
-            // Also trigger async sync as backup
-            realTimePostCountSyncService.syncUserPostCountAsync(userId)
-                .thenAccept(success -> {
-                    if (success) {
-                        log.info("✅ Backup async sync completed successfully for user: {}", userId);
-                } else {
-                        log.warn("⚠️ Backup async sync failed for user: {}", userId);
-                    }
-                });
+        // Push the feed into followers' home timelines in the background
+        try {
+            timelineService.fanOutFeedAsync(savedFeed.getUserId(), savedFeed.getId());
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to schedule timeline fan-out for feed {}: {}", savedFeed.getId(), e.getMessage());
         }
         
         // Notify WebSocket clients about the new feed
@@ -173,7 +198,7 @@ public class FeedService {
     }
     
     // Get all feeds (global feed)
-    @Cacheable(value = "feedCache", key = "'global_' + #page + '_' + #size + (#currentUserId != null ? '_' + #currentUserId : '')")
+    // The page itself is shared by all users; userLiked is applied per request
     public Page<FeedResponse> getAllFeeds(int page, int size, String currentUserId) {
         log.info("Getting all feeds, page: {}, size: {}, currentUserId: {}", page, size, currentUserId);
         
@@ -186,14 +211,16 @@ public class FeedService {
         }
         
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Feed> feeds = feedRepository.findAll(pageable);
+        Page<Feed> feeds = feedCacheService.getPage(
+            feedCacheService.globalPageKey("global", page, size), pageable,
+            () -> feedRepository.findAll(pageable), feedRepository::findAllById);
         
-        log.info("Retrieved {} feeds from database", feeds.getTotalElements());
+        log.info("Retrieved {} feeds", feeds.getTotalElements());
         
         // Map feeds to FeedResponse with userLiked status if currentUserId is provided
         // Explicitly set commentsCount to ensure it's included in JSON response
         if (currentUserId != null && !currentUserId.trim().isEmpty()) {
-            return feeds.map(feed -> {
+            Page<FeedResponse> responses = feeds.map(feed -> {
                 FeedResponse response = new FeedResponse(feed, currentUserId);
                 response.setCommentsCount(feed.getCommentsCount());
                 log.debug("Feed {} - commentsCount: {}, comments array size: {}", 
@@ -201,17 +228,18 @@ public class FeedService {
                     feed.getComments() != null ? feed.getComments().size() : 0);
                 return response;
             });
+            feedEngagementService.markUserLiked(feeds.getContent(), responses.getContent(), currentUserId);
+            return withAuthors(responses);
         } else {
-            return feeds.map(feed -> {
+            return withAuthors(feeds.map(feed -> {
                 FeedResponse response = new FeedResponse(feed);
                 response.setCommentsCount(feed.getCommentsCount());
                 return response;
-            });
+            }));
         }
     }
     
     // Get user feeds
-    @Cacheable(value = "feedCache", key = "#userId + '_' + #page + '_' + #size")
     public Page<FeedResponse> getUserFeeds(String userId, int page, int size) {
         log.info("Getting feeds for user: {}, page: {}, size: {}", userId, page, size);
         
@@ -227,21 +255,22 @@ public class FeedService {
         }
         
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Feed> feeds = feedRepository.findByUserId(userId, pageable);
+        Page<Feed> feeds = feedCacheService.getPage(
+            feedCacheService.userPageKey(userId, "page", page, size), pageable,
+            () -> feedRepository.findByUserId(userId, pageable), feedRepository::findAllById);
         
-        log.info("Retrieved {} feeds for user {} from database", feeds.getTotalElements(), userId);
+        log.info("Retrieved {} feeds for user {}", feeds.getTotalElements(), userId);
         
         // Map feeds to responses and ensure commentsCount is explicitly set
-        return feeds.map(feed -> {
+        return withAuthors(feeds.map(feed -> {
             FeedResponse response = new FeedResponse(feed);
             // Explicitly set commentsCount to ensure it's included in JSON response
             response.setCommentsCount(feed.getCommentsCount());
             return response;
-        });
+        }));
     }
     
     // Get user feeds as list (for profile)
-    @Cacheable(value = "feedCache", key = "#userId + '_list'")
     public List<FeedResponse> getUserFeedsList(String userId) {
         log.info("Getting feeds list for user: {}", userId);
         
@@ -250,19 +279,21 @@ public class FeedService {
             throw new IllegalArgumentException("User ID cannot be null or empty");
         }
         
-        List<Feed> feeds = feedRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        log.info("Retrieved {} feeds for user {} from database", feeds.size(), userId);
+        List<Feed> feeds = feedCacheService.getPage(
+            feedCacheService.userPageKey(userId, "list"), Pageable.unpaged(),
+            () -> new PageImpl<>(feedRepository.findByUserIdOrderByCreatedAtDesc(userId)),
+            feedRepository::findAllById).getContent();
+        log.info("Retrieved {} feeds for user {}", feeds.size(), userId);
         
         // Map feeds to responses and ensure commentsCount is explicitly set
-        return feeds.stream().map(feed -> {
+        return withAuthors(feeds.stream().map(feed -> {
             FeedResponse response = new FeedResponse(feed);
             response.setCommentsCount(feed.getCommentsCount());
             return response;
-        }).collect(Collectors.toList());
+        }).collect(Collectors.toList()));
     }
     
     // Get feed by ID
-    @Cacheable(value = "feedCache", key = "#feedId")
     public FeedResponse getFeedById(String feedId) {
         log.info("Getting feed by ID: {}", feedId);
         
@@ -271,22 +302,25 @@ public class FeedService {
             throw new IllegalArgumentException("Feed ID cannot be null or empty");
         }
         
-        Optional<Feed> feedOptional = feedRepository.findById(feedId);
-        if (feedOptional.isEmpty()) {
+        Feed feed = feedCacheService.getFeed(feedId, id -> feedRepository.findById(id).orElse(null));
+        if (feed == null) {
             log.warn("Feed not found with ID: {}", feedId);
             throw new RuntimeException("Feed not found with ID: " + feedId);
         }
         
-        Feed feed = feedOptional.get();
         log.info("Retrieved feed with ID: {} for user: {}", feedId, feed.getUserId());
         FeedResponse response = new FeedResponse(feed);
         // Explicitly set commentsCount to ensure it's included in JSON response
         response.setCommentsCount(feed.getCommentsCount());
+        if (feed.isEngagementBucketed()) {
+            // Comments live in buckets; include the first page for the comments view
+            response.setComments(feedEngagementService.getComments(feedId, null, 100).getContent());
+        }
+        userProfileLoader.hydrateFeeds(List.of(response));
         return response;
     }
     
     // Search feeds
-    @Cacheable(value = "feedCache", key = "'search_' + #query + '_' + #page + '_' + #size")
     public Page<FeedResponse> searchFeeds(String query, int page, int size) {
         log.info("Searching feeds with query: {}, page: {}, size: {}", query, page, size);
         
@@ -302,16 +336,28 @@ public class FeedService {
         }
         
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Feed> feeds = feedRepository.findByMessageContainingIgnoreCase(query.trim(), pageable);
+        String normalizedQuery = query.trim();
+        Page<Feed> feeds = feedCacheService.getPage(
+            feedCacheService.globalPageKey("search", normalizedQuery.toLowerCase(), page, size), pageable,
+            () -> feedSearchService.searchPage(normalizedQuery, pageable),
+            feedRepository::findAllById);
         
         log.info("Found {} feeds matching query: {}", feeds.getTotalElements(), query);
         
         // Map feeds to responses and ensure commentsCount is explicitly set
-        return feeds.map(feed -> {
+        return withAuthors(feeds.map(feed -> {
             FeedResponse response = new FeedResponse(feed);
             response.setCommentsCount(feed.getCommentsCount());
             return response;
-        });
+        }));
+    }
+    
+    // Search feeds by relevance and recency using a keyset cursor
+    public CursorPage<FeedResponse> searchFeedsByCursor(String query, String cursor, int size, String currentUserId) {
+        log.info("Searching feeds by cursor with query: {}, size: {}", query, size);
+        
+        CursorPage<Feed> feeds = feedSearchService.search(query, cursor, size);
+        return new CursorPage<>(toResponses(feeds.getContent(), currentUserId), feeds.getNextCursor());
     }
     
     // Count feeds by user
@@ -339,8 +385,6 @@ public class FeedService {
     }
     
     // Delete feed
-    @Transactional
-    @CacheEvict(value = "feedCache", allEntries = true)
     public void deleteFeed(String feedId, String userId) {
         log.info("Deleting feed: {} for user: {}", feedId, userId);
         
@@ -370,28 +414,16 @@ public class FeedService {
         // Store the userId before deletion for post count update
         log.info("Preparing to delete feed {} owned by user {}", feedId, feedOwnerId);
         
-        // Delete feed from MongoDB
-        feedRepository.delete(feed);
-        log.info("Feed {} deleted from MongoDB successfully", feedId);
-        
-        // CRITICAL: Sync post count in real-time using dedicated service
-        // This ensures MongoDB and NeonDB are always in sync
-        boolean syncSuccess = realTimePostCountSyncService.syncUserPostCount(feedOwnerId);
-        
-        if (!syncSuccess) {
-            log.warn("⚠️ Initial post count sync failed, but feed was deleted successfully.");
-            log.warn("   ChangeStream will attempt to sync automatically.");
-            
-            // Also trigger async sync as backup
-            realTimePostCountSyncService.syncUserPostCountAsync(feedOwnerId)
-                .thenAccept(success -> {
-                    if (success) {
-                        log.info("✅ Backup async sync completed successfully for user: {}", feedOwnerId);
-                } else {
-                        log.warn("⚠️ Backup async sync failed for user: {}", feedOwnerId);
-                    }
-                });
+        // Delete feed from MongoDB and record the post count change for the outbox relay, in one transaction
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            feedRepository.delete(feed);
+            postCountOutboxService.record(feedOwnerId);
+        });
+        if (feed.isEngagementBucketed()) {
+            feedEngagementService.deleteAllForFeed(feedId);
         }
+        feedCacheService.onFeedDeleted(feedId, feedOwnerId);
+        log.info("Feed {} deleted from MongoDB successfully", feedId);
         
         // Notify WebSocket clients about the feed deletion
         try {
@@ -404,7 +436,6 @@ public class FeedService {
     }
     
     // Get recent feeds (last 24 hours)
-    @Cacheable(value = "feedCache", key = "'recent_' + #page + '_' + #size")
     public Page<FeedResponse> getRecentFeeds(int page, int size) {
         log.info("Getting recent feeds, page: {}, size: {}", page, size);
         
@@ -418,35 +449,118 @@ public class FeedService {
         
         LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Feed> feeds = feedRepository.findByCreatedAtAfter(yesterday, pageable);
+        // The 24 hour window moves, so recent pages rely on the short page TTL as well
+        Page<Feed> feeds = feedCacheService.getPage(
+            feedCacheService.globalPageKey("recent", page, size), pageable,
+            () -> feedRepository.findByCreatedAtAfter(yesterday, pageable), feedRepository::findAllById);
         
-        log.info("Retrieved {} recent feeds from database", feeds.getTotalElements());
+        log.info("Retrieved {} recent feeds", feeds.getTotalElements());
         
         // Map feeds to responses and ensure commentsCount is explicitly set
-        return feeds.map(feed -> {
+        return withAuthors(feeds.map(feed -> {
             FeedResponse response = new FeedResponse(feed);
             response.setCommentsCount(feed.getCommentsCount());
             return response;
-        });
+        }));
+    }
+    
+    // Get all feeds (global feed) using a keyset cursor instead of skip/count
+    public CursorPage<FeedResponse> getAllFeedsByCursor(String cursor, int size, String currentUserId) {
+        log.info("Getting all feeds by cursor, size: {}, currentUserId: {}", size, currentUserId);
+        return findFeedsByCursor(new Criteria(), cursor, size, currentUserId);
+    }
+    
+    // Get user feeds using a keyset cursor
+    public CursorPage<FeedResponse> getUserFeedsByCursor(String userId, String cursor, int size) {
+        log.info("Getting feeds by cursor for user: {}, size: {}", userId, size);
+        
+        if (userId == null || userId.trim().isEmpty()) {
+            throw new IllegalArgumentException("User ID cannot be null or empty");
+        }
+        
+        return findFeedsByCursor(Criteria.where("userId").is(userId), cursor, size, null);
+    }
+    
+    // Get recent feeds (last 24 hours) using a keyset cursor
+    public CursorPage<FeedResponse> getRecentFeedsByCursor(String cursor, int size) {
+        log.info("Getting recent feeds by cursor, size: {}", size);
+        
+        LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
+        return findFeedsByCursor(Criteria.where("createdAt").gt(yesterday), cursor, size, null);
+    }
+    
+    /**
+     * Fetch one keyset page: filter AND (createdAt, _id) after the cursor, sorted descending,
+     * reading size + 1 documents to learn whether another page exists without a count().
+     */
+    private CursorPage<FeedResponse> findFeedsByCursor(Criteria filter, String cursor, int size, String currentUserId) {
+        if (size <= 0 || size > 1000) {
+            throw new IllegalArgumentException("Page size must be between 1 and 1000");
+        }
+        
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        Criteria criteria = pageCursor != null ? new Criteria().andOperator(filter, pageCursor.toCriteria()) : filter;
+        
+        Query query = new Query(criteria).with(PageCursor.SORT).limit(size + 1);
+        List<Feed> feeds = mongoTemplate.find(query, Feed.class);
+        
+        boolean hasNext = feeds.size() > size;
+        if (hasNext) {
+            feeds = feeds.subList(0, size);
+        }
+        
+        String nextCursor = null;
+        if (hasNext) {
+            Feed last = feeds.get(feeds.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        
+        List<FeedResponse> content = toResponses(feeds, currentUserId);
+        log.info("Retrieved {} feeds by cursor, hasNext: {}", content.size(), hasNext);
+        return new CursorPage<>(content, nextCursor);
+    }
+    
+    /**
+     * Map feeds to responses with like state for the current user (if any) and author profiles.
+     */
+    private List<FeedResponse> toResponses(List<Feed> feeds, String currentUserId) {
+        boolean withUserContext = currentUserId != null && !currentUserId.trim().isEmpty();
+        List<FeedResponse> content = feeds.stream().map(feed -> {
+            FeedResponse response = withUserContext ? new FeedResponse(feed, currentUserId) : new FeedResponse(feed);
+            response.setCommentsCount(feed.getCommentsCount());
+            return response;
+        }).collect(Collectors.toList());
+        
+        if (withUserContext) {
+            feedEngagementService.markUserLiked(feeds, content, currentUserId);
+        }
+        userProfileLoader.hydrateFeeds(content);
+        return content;
+    }
+    
+    // Fill author details for a whole page with one batched profile lookup
+    private Page<FeedResponse> withAuthors(Page<FeedResponse> responses) {
+        userProfileLoader.hydrateFeeds(responses.getContent());
+        return responses;
+    }
+    
+    private List<FeedResponse> withAuthors(List<FeedResponse> responses) {
+        userProfileLoader.hydrateFeeds(responses);
+        return responses;
     }
     
     // Get feed statistics
     public Map<String, Object> getFeedStatistics() {
         log.info("Getting feed statistics");
         
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("totalFeeds", feedRepository.count());
-        stats.put("totalUsers", feedRepository.countDistinctUsers());
-        stats.put("feedsWithImages", feedRepository.countByImageUrlsIsNotNull());
-        stats.put("averageFeedsPerUser", feedRepository.count() / Math.max(1, feedRepository.countDistinctUsers()));
+        // Served from counters kept up to date by the change stream; no collection scan per request
+        Map<String, Object> stats = feedStatsService.getSnapshot();
         
         log.info("Feed statistics: {}", stats);
         return stats;
     }
     
     // Toggle like on a feed
-    @Transactional
-    @CacheEvict(value = "feedCache", allEntries = true)
     public FeedResponse toggleLike(String feedId, String userId) {
         log.info("Toggling like for feed: {} by user: {}", feedId, userId);
         
@@ -458,116 +572,115 @@ public class FeedService {
             throw new IllegalArgumentException("User ID cannot be null or empty");
         }
         
-        // Find feed
-        Optional<Feed> feedOptional = feedRepository.findById(feedId);
-        if (feedOptional.isEmpty()) {
-            log.warn("Feed not found with ID: {}", feedId);
-            throw new RuntimeException("Feed not found with ID: " + feedId);
-        }
-        
-        Feed feed = feedOptional.get();
-        boolean wasLiked = feed.hasLiked(userId);
-        
-        // Toggle like
-        if (wasLiked) {
-            feed.removeLike(userId);
-            log.info("User {} unliked feed {}", userId, feedId);
-        } else {
-            feed.addLike(userId);
-            log.info("User {} liked feed {}", userId, feedId);
-        }
-        
-        // Update timestamp
-        feed.updateTimestamp();
-        
-        // Save feed
-        Feed savedFeed = feedRepository.save(feed);
-        
-        // Verify the save was successful
-        if (savedFeed == null) {
-            log.error("❌ Failed to save feed - save returned null");
-            throw new RuntimeException("Failed to save feed after like toggle");
+        // Each attempt is a single server-side findAndModify: like if the user is not in the
+        // likes array, otherwise unlike. Only one of the two guarded updates can match, so
+        // concurrent toggles never lose an update. A retry is only needed if another request
+        // for the same user flipped the state between the two attempts.
+        Feed updatedFeed = null;
+        boolean liked = false;
+        for (int attempt = 0; attempt < 3 && updatedFeed == null; attempt++) {
+            updatedFeed = mongoTemplate.findAndModify(
+                counterQuery(Criteria.where("_id").is(feedId).and("engagementBucketed").ne(true).and("likes").ne(userId)),
+                new Update().addToSet("likes", userId).inc("likesCount", 1).inc("eventSeq", 1).set("updatedAt", LocalDateTime.now()),
+                counterUpdateOptions(),
+                Feed.class);
+            if (updatedFeed != null) {
+                liked = true;
+                break;
+            }
+            
+            updatedFeed = mongoTemplate.findAndModify(
+                counterQuery(Criteria.where("_id").is(feedId).and("engagementBucketed").ne(true).and("likes").is(userId)),
+                new Update().pull("likes", userId).inc("likesCount", -1).inc("eventSeq", 1).set("updatedAt", LocalDateTime.now()),
+                counterUpdateOptions(),
+                Feed.class);
+            
+            if (updatedFeed == null) {
+                Feed probe = findStorageMode(feedId);
+                if (probe.isEngagementBucketed()) {
+                    FeedEngagementService.LikeResult result = feedEngagementService.toggleLike(feedId, userId);
+                    updatedFeed = result.getFeed();
+                    liked = result.isLiked();
+                }
+            }
         }
         
-        // Double-check by reloading from database
-        Optional<Feed> verifyOptional = feedRepository.findById(feedId);
-        if (verifyOptional.isEmpty()) {
-            log.error("❌ Feed not found after save - persistence issue");
-            throw new RuntimeException("Feed not found after save");
+        if (updatedFeed == null) {
+            log.error("❌ Like toggle for feed {} by user {} did not converge", feedId, userId);
+            throw new RuntimeException("Failed to toggle like for feed " + feedId);
         }
+        feedCacheService.evictFeed(feedId);
         
-        Feed verifiedFeed = verifyOptional.get();
-        List<String> verifiedLikes = verifiedFeed.getLikes();
-        boolean verifiedUserLiked = verifiedFeed.hasLiked(userId);
-        
-        log.info("✅ Like toggle verified:");
-        log.info("   - Feed ID: {}", feedId);
-        log.info("   - User ID: {}", userId);
-        log.info("   - Likes count: {}", verifiedFeed.getLikesCount());
-        log.info("   - User liked: {}", verifiedUserLiked);
-        log.info("   - Likes list: {}", verifiedLikes);
-        
-        if (wasLiked && verifiedFeed.hasLiked(userId)) {
-            log.error("❌ CRITICAL: User {} should have been removed from likes but still present!", userId);
-            throw new RuntimeException("Like removal failed - user still in likes list");
-        } else if (!wasLiked && !verifiedFeed.hasLiked(userId)) {
-            log.error("❌ CRITICAL: User {} should have been added to likes but not present!", userId);
-            throw new RuntimeException("Like addition failed - user not in likes list");
-        }
+        log.info("User {} {} feed {} - likes count: {}", userId, liked ? "liked" : "unliked", feedId, updatedFeed.getLikesCount());
         
         // Create or delete notification based on like action
-        // This is done asynchronously to not block the like action
         try {
-            if (wasLiked) {
+            if (!liked) {
                 // User unliked - delete notification
-                log.info("🔔 User {} unliked feed {}, deleting notification", userId, feedId);
                 notificationService.deleteLikeNotification(feedId, userId);
-                webSocketService.notifyFeedUnliked(userId, feedId);
-                log.info("✅ Notification deletion completed for feed: {} by user: {}", feedId, userId);
+                feedDeltaService.publish("FEED_UNLIKED", updatedFeed, userId, null, null);
             } else {
-                // User liked - create notification
-                log.info("🔔 User {} liked feed {}, creating notification", userId, feedId);
-                log.info("🔔 Feed owner userId: {}", verifiedFeed.getUserId());
-                log.info("🔔 Actor userId: {}", userId);
-                
                 // Check if user is liking their own post
-                if (userId.equals(verifiedFeed.getUserId())) {
+                if (userId.equals(updatedFeed.getUserId())) {
                     log.info("ℹ️ User {} liked their own post {}, skipping notification creation", userId, feedId);
                 } else {
                     notificationService.createLikeNotification(feedId, userId);
-                    log.info("✅ Notification creation initiated for feed: {} by user: {}", feedId, userId);
                 }
-                webSocketService.notifyFeedLiked(userId, feedId);
+                feedDeltaService.publish("FEED_LIKED", updatedFeed, userId, null, null);
             }
-            log.info("✅ Notification handling completed successfully for feed: {} by user: {}", feedId, userId);
         } catch (Exception e) {
-            log.error("❌ CRITICAL: Failed to create/delete notification for like toggle - feed: {}, user: {}, error: {}", 
+            log.error("❌ Failed to create/delete notification for like toggle - feed: {}, user: {}, error: {}", 
                 feedId, userId, e.getMessage(), e);
-            log.error("❌ Exception stack trace:", e);
-            // Don't break like functionality if notification fails, but log the error
-            // The like action itself succeeded, so we continue
+            // Don't break like functionality if notification fails
         }
         
-        log.info("Like toggled successfully. Feed {} now has {} likes", feedId, verifiedFeed.getLikesCount());
-        FeedResponse feedResponse = new FeedResponse(verifiedFeed, userId);
-        
-        // Ensure commentsCount is explicitly set in response
-        feedResponse.setCommentsCount(verifiedFeed.getCommentsCount());
-        
-        // Ensure likes array is set correctly - explicitly set it from verified feed
-        // The constructor should already set it, but we'll double-check and ensure it's not null
-        List<String> feedLikes = verifiedFeed.getLikes();
-        if (feedLikes == null) {
-            feedLikes = new ArrayList<>();
+        return toCounterResponse(updatedFeed, liked);
+    }
+    
+    /**
+     * Query for like/comment findAndModify calls, projected to the fields the response needs
+     * so the likes and comments arrays never travel back over the wire.
+     */
+    private Query counterQuery(Criteria criteria) {
+        Query query = new Query(criteria);
+        query.fields().include("userId", "likesCount", "commentsCount", "eventSeq", "engagementBucketed", "createdAt", "updatedAt");
+        return query;
+    }
+    
+    private FindAndModifyOptions counterUpdateOptions() {
+        return FindAndModifyOptions.options().returnNew(true);
+    }
+    
+    /**
+     * Load only the storage flag of a feed, throwing if the feed does not exist.
+     */
+    private Feed findStorageMode(String feedId) {
+        Query query = new Query(Criteria.where("_id").is(feedId));
+        query.fields().include("engagementBucketed");
+        Feed feed = mongoTemplate.findOne(query, Feed.class);
+        if (feed == null) {
+            log.warn("Feed not found with ID: {}", feedId);
+            throw new RuntimeException("Feed not found with ID: " + feedId);
         }
-        // Always set a copy to ensure it's included in JSON serialization
-        feedResponse.setLikes(new ArrayList<>(feedLikes));
-        
-        // Log the response to verify likes array is included
-        log.info("FeedResponse created with {} likes: {}", feedResponse.getLikesCount(), feedResponse.getLikes());
-        log.info("FeedResponse JSON will include likes array with {} elements", feedResponse.getLikes().size());
-        
-        return feedResponse;
+        return feed;
+    }
+    
+    /**
+     * Lightweight response for like/comment mutations. The likes and comments arrays are left
+     * null so clients fall back to the counters instead of receiving every liker's ID.
+     */
+    private FeedResponse toCounterResponse(Feed feed, boolean userLiked) {
+        FeedResponse response = new FeedResponse();
+        response.setId(feed.getId());
+        response.setUserId(feed.getUserId());
+        response.setLikesCount(feed.getLikesCount());
+        response.setCommentsCount(feed.getCommentsCount());
+        response.setUserLiked(userLiked);
+        response.setCreatedAt(feed.getCreatedAt());
+        response.setUpdatedAt(feed.getUpdatedAt());
+        response.setLikes(null);
+        response.setComments(null);
+        return response;
     }
     
     // Check if user has liked a feed
@@ -582,19 +695,23 @@ public class FeedService {
             throw new IllegalArgumentException("User ID cannot be null or empty");
         }
         
-        Optional<Feed> feedOptional = feedRepository.findById(feedId);
-        if (feedOptional.isEmpty()) {
+        // Membership check on the server instead of loading the whole likes array
+        if (mongoTemplate.exists(new Query(Criteria.where("_id").is(feedId).and("likes").is(userId)), Feed.class)) {
+            return true;
+        }
+        
+        Query probe = new Query(Criteria.where("_id").is(feedId));
+        probe.fields().include("engagementBucketed");
+        Feed feed = mongoTemplate.findOne(probe, Feed.class);
+        if (feed == null) {
             log.warn("Feed not found with ID: {}", feedId);
             return false;
         }
         
-        Feed feed = feedOptional.get();
-        return feed.hasLiked(userId);
+        return feed.isEngagementBucketed() && feedEngagementService.hasLiked(feedId, userId);
     }
     
     // Add comment to a feed
-    @Transactional
-    @CacheEvict(value = "feedCache", key = "#feedId")
     public FeedResponse addComment(String feedId, String userId, CreateCommentRequest request) {
         log.info("Adding comment to feed: {} by user: {}", feedId, userId);
         
@@ -609,117 +726,68 @@ public class FeedService {
             throw new IllegalArgumentException("Comment text cannot be empty");
         }
         
-        // Find feed
-        Optional<Feed> feedOptional = feedRepository.findById(feedId);
-        if (feedOptional.isEmpty()) {
-            log.warn("Feed not found with ID: {}", feedId);
-            throw new RuntimeException("Feed not found with ID: " + feedId);
-        }
-        
-        Feed feed = feedOptional.get();
-        
-        // Store original comment info BEFORE adding new comment (to avoid index issues)
-        Comment originalComment = null;
+        // Validate the reply target with a projected read of just that comment
         String originalCommentText = null;
         String repliedToUserId = null;
-        
-        // Validate replyToCommentIndex if provided and get original comment BEFORE adding new one
+        boolean bucketed = false;
         if (request.getReplyToCommentIndex() != null) {
             int replyIndex = request.getReplyToCommentIndex();
-            if (replyIndex < 0 || replyIndex >= feed.getCommentsCount()) {
-                log.warn("Invalid replyToCommentIndex: {} for feed with {} comments", replyIndex, feed.getCommentsCount());
+            if (replyIndex < 0) {
+                throw new IllegalArgumentException("Invalid comment index for reply");
+            }
+            
+            Query replyQuery = new Query(Criteria.where("_id").is(feedId));
+            replyQuery.fields().include("userId", "engagementBucketed").slice("comments", replyIndex, 1);
+            Feed replyTarget = mongoTemplate.findOne(replyQuery, Feed.class);
+            if (replyTarget == null) {
+                log.warn("Feed not found with ID: {}", feedId);
+                throw new RuntimeException("Feed not found with ID: " + feedId);
+            }
+            
+            bucketed = replyTarget.isEngagementBucketed();
+            Comment originalComment = bucketed
+                ? feedEngagementService.findComment(feedId, replyIndex)
+                : (replyTarget.getComments().isEmpty() ? null : replyTarget.getComments().get(0));
+            if (originalComment == null) {
+                log.warn("Invalid replyToCommentIndex: {} for feed {}", replyIndex, feedId);
                 throw new IllegalArgumentException("Invalid comment index for reply");
             }
             
-            // Get original comment BEFORE adding the new reply comment
-            originalComment = feed.getComments().get(replyIndex);
             repliedToUserId = originalComment.getUserId();
             originalCommentText = originalComment.getText();
-            log.info("📌 Retrieved original comment at index {}: userId={}, text={}", 
-                replyIndex, repliedToUserId, originalCommentText);
         }
         
         // Create comment (with optional replyToCommentIndex)
-        Comment comment;
-        if (request.getReplyToCommentIndex() != null) {
-            comment = new Comment(userId, request.getText().trim(), request.getReplyToCommentIndex());
-            log.info("📝 Creating REPLY comment - replyToCommentIndex: {}, text: '{}'", 
-                request.getReplyToCommentIndex(), request.getText().trim());
-        } else {
-            comment = new Comment(userId, request.getText().trim());
-            // CRITICAL: Explicitly set replyToCommentIndex to null to ensure MongoDB stores it
-            comment.setReplyToCommentIndex(null);
-            log.info("📝 Creating TOP-LEVEL comment - replyToCommentIndex: null, text: '{}'", 
-                request.getText().trim());
-        }
-        
-        // CRITICAL: Log the comment state before saving
-        log.info("💾 Comment state before save: userId={}, text='{}', replyToCommentIndex={}, isReply={}", 
-            comment.getUserId(), 
-            comment.getText(), 
-            comment.getReplyToCommentIndex(), 
-            comment.isReply());
-        
-        feed.addComment(comment);
-        feed.updateTimestamp();
+        Comment comment = request.getReplyToCommentIndex() != null
+            ? new Comment(userId, request.getText().trim(), request.getReplyToCommentIndex())
+            : new Comment(userId, request.getText().trim());
         
-        // CRITICAL: Save using repository - MongoDB Spring Data will serialize Comment with all fields
-        // The Comment object has replyToCommentIndex set (even if null), so it should be saved
-        Feed savedFeed = feedRepository.save(feed);
-        
-        if (savedFeed == null) {
-            log.error("❌ Failed to save feed - save returned null");
-            throw new RuntimeException("Failed to save feed after adding comment");
-        }
-        
-        log.info("✅ Comment added via repository save");
-        
-        // Reload feed to verify the save
-        Optional<Feed> verifyOptional = feedRepository.findById(feedId);
-        if (verifyOptional.isEmpty()) {
-            log.error("❌ Feed not found after save - persistence issue");
-            throw new RuntimeException("Feed not found after save");
+        // Single atomic $push + $inc; the returned document is projected to the counters only
+        Feed verifiedFeed = null;
+        if (!bucketed) {
+            verifiedFeed = mongoTemplate.findAndModify(
+                counterQuery(Criteria.where("_id").is(feedId).and("engagementBucketed").ne(true)),
+                new Update().push("comments", comment).inc("commentsCount", 1).inc("eventSeq", 1).set("updatedAt", LocalDateTime.now()),
+                counterUpdateOptions(),
+                Feed.class);
         }
         
-        Feed verifiedFeed = verifyOptional.get();
-        
-        // Verify the save was successful
         if (verifiedFeed == null) {
-            log.error("❌ Failed to save feed - save returned null");
-            throw new RuntimeException("Failed to save feed after adding comment");
-        }
-        int actualCommentsCount = verifiedFeed.getCommentsCount();
-        log.info("✅ Comment added successfully. Feed {} now has {} comments (verified from DB)", feedId, actualCommentsCount);
-        
-        // CRITICAL: Verify replyToCommentIndex was saved correctly
-        List<Comment> savedComments = verifiedFeed.getComments();
-        if (!savedComments.isEmpty()) {
-            Comment lastComment = savedComments.get(savedComments.size() - 1);
-            log.info("🔍 Verification - Last saved comment: userId={}, text='{}', replyToCommentIndex={}, isReply={}", 
-                lastComment.getUserId(), 
-                lastComment.getText(), 
-                lastComment.getReplyToCommentIndex(), 
-                lastComment.isReply());
-            
-            if (request.getReplyToCommentIndex() != null && lastComment.getReplyToCommentIndex() == null) {
-                log.error("❌ CRITICAL: replyToCommentIndex was NOT saved to MongoDB! Expected: {}, Got: null", 
-                    request.getReplyToCommentIndex());
-            } else if (request.getReplyToCommentIndex() == null && lastComment.getReplyToCommentIndex() != null) {
-                log.warn("⚠️ Unexpected: replyToCommentIndex is set but should be null for top-level comment");
+            // Either a bucketed feed or a missing one; findStorageMode throws for the latter
+            if (bucketed || findStorageMode(feedId).isEngagementBucketed()) {
+                verifiedFeed = feedEngagementService.addComment(feedId, comment);
             } else {
-                log.info("✅ replyToCommentIndex correctly saved: {}", lastComment.getReplyToCommentIndex());
+                throw new RuntimeException("Failed to add comment to feed " + feedId);
             }
         }
+        feedCacheService.evictFeed(feedId);
         
-        // Log detailed comment count information for debugging
-        log.info("📊 Comment count details - Feed: {}, Comments array size: {}, CommentsCount method: {}", 
-            feedId, 
-            verifiedFeed.getComments() != null ? verifiedFeed.getComments().size() : 0,
-            actualCommentsCount);
+        int actualCommentsCount = verifiedFeed.getCommentsCount();
+        log.info("✅ Comment added successfully. Feed {} now has {} comments", feedId, actualCommentsCount);
         
         // Create notification for comment or reply
         try {
-            if (request.getReplyToCommentIndex() != null && originalComment != null) {
+            if (request.getReplyToCommentIndex() != null && repliedToUserId != null) {
                 // This is a reply to a comment - use the original comment info we stored BEFORE adding
                 int replyToIndex = request.getReplyToCommentIndex();
                 
@@ -754,7 +822,7 @@ public class FeedService {
                     log.info("ℹ️ User {} commented on their own post {}, skipping notification", userId, feedId);
                 }
             }
-            webSocketService.notifyFeedCommented(userId, feedId);
+            feedDeltaService.publish("FEED_COMMENTED", verifiedFeed, userId, comment, null);
         } catch (Exception e) {
             log.error("❌ CRITICAL: Failed to create notification for comment/reply - feed: {}, user: {}, error: {}", 
                 feedId, userId, e.getMessage(), e);
@@ -764,16 +832,23 @@ public class FeedService {
             // The comment is already saved, so we continue
         }
         
-        FeedResponse feedResponse = new FeedResponse(verifiedFeed, userId);
-        // Ensure commentsCount is explicitly set in response
-        feedResponse.setCommentsCount(actualCommentsCount);
-        log.info("📤 Returning FeedResponse with commentsCount: {} for feed: {}", feedResponse.getCommentsCount(), feedId);
+        FeedResponse feedResponse = toCounterResponse(verifiedFeed, false);
+        feedResponse.setComments(List.of(new CommentResponse(comment)));
         return feedResponse;
     }
     
+    // Get comments of a feed, one page at a time in chronological order
+    public CursorPage<CommentResponse> getComments(String feedId, String cursor, int size) {
+        log.info("Getting comments for feed: {}, cursor: {}, size: {}", feedId, cursor, size);
+        
+        if (feedId == null || feedId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Feed ID cannot be null or empty");
+        }
+        
+        return feedEngagementService.getComments(feedId, cursor, size);
+    }
+    
     // Delete comment from a feed
-    @Transactional
-    @CacheEvict(value = "feedCache", key = "#feedId")
     public FeedResponse deleteComment(String feedId, String userId, int commentIndex) {
         log.info("Deleting comment at index {} from feed: {} by user: {}", commentIndex, feedId, userId);
         
@@ -788,95 +863,51 @@ public class FeedService {
             throw new IllegalArgumentException("Comment index cannot be negative");
         }
         
-        // Find feed
-        Optional<Feed> feedOptional = feedRepository.findById(feedId);
-        if (feedOptional.isEmpty()) {
+        // Projected read of just the addressed comment and the storage flag
+        Query commentQuery = new Query(Criteria.where("_id").is(feedId));
+        commentQuery.fields().include("userId", "engagementBucketed").slice("comments", commentIndex, 1);
+        Feed feed = mongoTemplate.findOne(commentQuery, Feed.class);
+        if (feed == null) {
             log.warn("Feed not found with ID: {}", feedId);
             throw new RuntimeException("Feed not found with ID: " + feedId);
         }
         
-        Feed feed = feedOptional.get();
+        // Bucketed feeds address comments by their stable index
+        if (feed.isEngagementBucketed()) {
+            return deleteBucketedComment(feedId, userId, commentIndex);
+        }
         
         // Check if comment exists
-        if (feed.getComments().size() <= commentIndex) {
-            log.warn("Comment index {} out of bounds for feed {} with {} comments", commentIndex, feedId, feed.getCommentsCount());
+        if (feed.getComments().isEmpty()) {
+            log.warn("Comment index {} out of bounds for feed {}", commentIndex, feedId);
             throw new RuntimeException("Comment not found at index " + commentIndex);
         }
         
         // Check if user owns the comment
-        Comment comment = feed.getComments().get(commentIndex);
+        Comment comment = feed.getComments().get(0);
         if (!comment.getUserId().equals(userId)) {
             log.warn("User {} attempted to delete comment owned by {}", userId, comment.getUserId());
             throw new RuntimeException("User " + userId + " is not authorized to delete this comment");
         }
         
-        // Use MongoDB native update to remove comment from array by index
-        // This ensures the deletion is persisted correctly
-        log.info("🔄 Removing comment at index {} from feed {} using MongoDB native update", commentIndex, feedId);
+        // Single guarded update: the filter only matches while that comment is still at the
+        // index, so a concurrent delete or a migration to buckets cannot remove the wrong one
+        Criteria guard = Criteria.where("_id").is(feedId)
+            .and("engagementBucketed").ne(true)
+            .and("comments." + commentIndex + ".userId").is(userId)
+            .and("comments." + commentIndex + ".createdAt").is(comment.getCreatedAt());
+        Feed verifiedFeed = mongoTemplate.findAndModify(
+            counterQuery(guard), removeCommentAt(commentIndex, LocalDateTime.now()), counterUpdateOptions(), Feed.class);
         
-        try {
-            // Build query to find the feed
-            Query query = new Query(Criteria.where("_id").is(feedId));
-            
-            // Use $unset to remove the element at the specific index
-            // MongoDB doesn't directly support removing by index, so we need to:
-            // 1. Get the current comments array
-            // 2. Remove the element at the index
-            // 3. Set the new array
-            
-            // First, remove comment from in-memory object
-            feed.removeComment(commentIndex);
-            feed.updateTimestamp();
-            
-            // Use $set to update the entire comments array and updatedAt
-            Update update = new Update();
-            update.set("comments", feed.getComments());
-            update.set("updatedAt", feed.getUpdatedAt());
-            
-            // Execute the update
-            com.mongodb.client.result.UpdateResult updateResult = mongoTemplate.updateFirst(
-                query,
-                update,
-                Feed.class
-            );
-            
-            long modifiedCount = updateResult.getModifiedCount();
-            long matchedCount = updateResult.getMatchedCount();
-            
-            log.info("📊 MongoDB update result - Matched: {}, Modified: {}", matchedCount, modifiedCount);
-            
-            if (matchedCount == 0) {
-                log.error("❌ Feed not found in MongoDB for deletion: {}", feedId);
-                throw new RuntimeException("Feed not found in MongoDB");
-            }
-            
-            if (modifiedCount == 0) {
-                log.warn("⚠️ Feed matched but not modified - comment may already be deleted or array unchanged");
-                // Continue anyway - reload to verify
+        if (verifiedFeed == null) {
+            if (findStorageMode(feedId).isEngagementBucketed()) {
+                return deleteBucketedComment(feedId, userId, commentIndex);
             }
-            
-        } catch (Exception e) {
-            log.error("❌ Error performing MongoDB update for comment deletion: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to delete comment from MongoDB: " + e.getMessage(), e);
-        }
-        
-        // Reload from database to verify the deletion
-        Optional<Feed> verifyOptional = feedRepository.findById(feedId);
-        if (verifyOptional.isEmpty()) {
-            log.error("❌ Feed not found after update - persistence issue");
-            throw new RuntimeException("Feed not found after update");
-        }
-        
-        Feed verifiedFeed = verifyOptional.get();
-        int actualCommentsCount = verifiedFeed.getCommentsCount();
-        log.info("✅ Comment deleted successfully. Feed {} now has {} comments (expected: {})", 
-            feedId, actualCommentsCount, feed.getCommentsCount());
-        
-        // Verify the comment was actually removed
-        if (actualCommentsCount != feed.getCommentsCount()) {
-            log.warn("⚠️ Comment count mismatch: expected {}, actual {}. This may indicate a persistence issue.", 
-                feed.getCommentsCount(), actualCommentsCount);
+            log.warn("Comment at index {} of feed {} changed before it could be deleted", commentIndex, feedId);
+            throw new RuntimeException("Comment not found at index " + commentIndex);
         }
+        feedCacheService.evictFeed(feedId);
+        log.info("✅ Comment deleted successfully. Feed {} now has {} comments", feedId, verifiedFeed.getCommentsCount());
         
         // Delete associated comment notification
         try {
@@ -889,16 +920,39 @@ public class FeedService {
         
         // Notify WebSocket clients about the comment deletion
         try {
-            webSocketService.notifyCommentDeleted(userId, feedId, commentIndex);
+            feedDeltaService.publish("COMMENT_DELETED", verifiedFeed, userId, null, commentIndex);
         } catch (Exception e) {
             log.warn("⚠️ Failed to send WebSocket notification for comment deletion: {}", e.getMessage());
         }
         
-        FeedResponse feedResponse = new FeedResponse(verifiedFeed, userId);
-        // Ensure commentsCount is explicitly set in response after deletion
-        feedResponse.setCommentsCount(verifiedFeed.getCommentsCount());
-        log.info("📤 Returning FeedResponse with commentsCount: {} for feed: {} (after deletion)", 
-            feedResponse.getCommentsCount(), feedId);
-        return feedResponse;
+        return toCounterResponse(verifiedFeed, false);
+    }
+    
+    /**
+     * Remove exactly the embedded comment at {@code index} and lower commentsCount by one.
+     * Embedded comments have no id, so this slices the array around the index instead of
+     * pulling by value, which would also remove identical comments (a double-tapped submit).
+     */
+    static AggregationUpdate removeCommentAt(int index, LocalDateTime now) {
+        Document remaining = new Document("$concatArrays", List.of(
+            new Document("$slice", List.of("$comments", index)),
+            new Document("$slice", List.of("$comments", index + 1, new Document("$size", "$comments")))));
+        return AggregationUpdate.from(List.of(context -> new Document("$set", new Document("comments", remaining)
+            .append("commentsCount", new Document("$subtract", List.of(
+                new Document("$ifNull", List.of("$commentsCount", new Document("$size", "$comments"))), 1)))
+            .append("eventSeq", new Document("$add", List.of(new Document("$ifNull", List.of("$eventSeq", 0)), 1)))
+            .append("updatedAt", now))));
+    }
+    
+    private FeedResponse deleteBucketedComment(String feedId, String userId, int commentIndex) {
+        Feed updatedFeed = feedEngagementService.deleteComment(feedId, userId, commentIndex);
+        feedCacheService.evictFeed(feedId);
+        try {
+            notificationService.deleteCommentNotification(feedId, userId);
+            feedDeltaService.publish("COMMENT_DELETED", updatedFeed, userId, null, commentIndex);
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to clean up after comment deletion: {}", e.getMessage());
+        }
+        return toCounterResponse(updatedFeed, false);
     }
 }
\ No newline at end of file
@@ -0,0 +1,216 @@
+package com.bharathva.feed.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Feed statistics served from running counters instead of counting the collection per request.
+ *
+ * ChangeStreamService applies every insert and delete to the counters as it happens. Deletes
+ * are read with their pre-image (the migration enables pre-images on the feeds collection) to
+ * get the author and images; a delete without one only lowers the feed total, and the author
+ * and image counts are flagged {@code stale} until the next recompute. Drift (missing
+ * pre-images, events replayed after a restart) is bounded two ways: {@code estimatedDocumentCount} resets the feed total
+ * every {@code feed.stats.refresh-interval-ms} from collection metadata, and one {@code $group}
+ * pass recomputes everything exactly every {@code feed.stats.recompute-interval-ms}.
+ *
+ * A snapshot reports {@code asOf}, the point its numbers are known to be current to. When the
+ * change stream stops advancing and that falls behind {@code feed.stats.max-staleness-ms}, the
+ * feed total is refreshed on the read, at most once per max staleness whether or not the
+ * refresh succeeds; author and image counts then stay as of the last recompute and the
+ * snapshot is flagged {@code stale}. Requests never run the recompute themselves: until the
+ * scheduler's first one finishes, the snapshot has zero author and image counts and is stale.
+ */
+@Service
+public class FeedStatsService {
+    
+    private static final Logger log = LoggerFactory.getLogger(FeedStatsService.class);
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${feed.stats.max-staleness-ms:30000}")
+    private long maxStalenessMs = 30000;
+    
+    private final AtomicLong totalFeeds = new AtomicLong();
+    private final AtomicLong totalUsers = new AtomicLong();
+    private final AtomicLong feedsWithImages = new AtomicLong();
+    
+    private volatile Instant recomputedAt;
+    private volatile Instant refreshAttemptedAt;
+    private volatile Instant streamAsOf;
+    
+    // First delete since the last recompute whose author and images were unknown
+    private final AtomicReference<Instant> unattributedDeleteAt = new AtomicReference<>();
+    
+    private final ReentrantLock recomputeLock = new ReentrantLock();
+    
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("feed.stats.staleness", this, service -> service.stalenessMillis(Instant.now()))
+            .description("Age of the data behind the feed statistics snapshot")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Apply an inserted feed. The author check is an indexed count capped at two documents.
+     */
+    public void onFeedInserted(String userId, int imageCount) {
+        totalFeeds.incrementAndGet();
+        if (imageCount > 0) {
+            feedsWithImages.incrementAndGet();
+        }
+        if (userId != null && countFeedsOf(userId) == 1) {
+            totalUsers.incrementAndGet();
+        }
+    }
+    
+    /**
+     * Apply a deleted feed; author and image count are null when the event has no pre-image.
+     */
+    public void onFeedDeleted(String userId, Integer imageCount) {
+        totalFeeds.updateAndGet(value -> Math.max(0, value - 1));
+        if (userId == null || imageCount == null) {
+            unattributedDeleteAt.compareAndSet(null, Instant.now());
+        }
+        if (imageCount != null && imageCount > 0) {
+            feedsWithImages.updateAndGet(value -> Math.max(0, value - 1));
+        }
+        if (userId != null && countFeedsOf(userId) == 0) {
+            totalUsers.updateAndGet(value -> Math.max(0, value - 1));
+        }
+    }
+    
+    /**
+     * The change stream has applied everything up to this time.
+     */
+    public void onStreamProgress(Instant asOf) {
+        Instant current = streamAsOf;
+        if (current == null || asOf.isAfter(current)) {
+            streamAsOf = asOf;
+        }
+    }
+    
+    /**
+     * Current statistics with the time they are known to be accurate to.
+     */
+    public Map<String, Object> getSnapshot() {
+        Instant now = Instant.now();
+        if (stalenessMillis(now) > maxStalenessMs && isOlderThan(refreshAttemptedAt, now, maxStalenessMs)) {
+            refreshTotals();
+        }
+        
+        long feeds = totalFeeds.get();
+        long users = totalUsers.get();
+        Instant asOf = latest(streamAsOf, recomputedAt);
+        
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalFeeds", feeds);
+        stats.put("totalUsers", users);
+        stats.put("feedsWithImages", feedsWithImages.get());
+        stats.put("averageFeedsPerUser", feeds / Math.max(1, users));
+        stats.put("asOf", asOf != null ? asOf.toString() : null);
+        stats.put("recomputedAt", recomputedAt != null ? recomputedAt.toString() : null);
+        stats.put("stale", stalenessMillis(now) > maxStalenessMs || unattributedDeleteAt.get() != null);
+        return stats;
+    }
+    
+    /**
+     * Reset the feed total from collection metadata; O(1), no scan.
+     */
+    @Scheduled(fixedDelayString = "${feed.stats.refresh-interval-ms:60000}",
+               initialDelayString = "${feed.stats.refresh-interval-ms:60000}")
+    public void refreshTotals() {
+        // Set before the call, so an unreachable database is not retried by every request
+        refreshAttemptedAt = Instant.now();
+        try {
+            totalFeeds.set(mongoTemplate.getCollection("feeds").estimatedDocumentCount());
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to refresh feed total: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Recompute every counter exactly in one grouped pass over the feeds.
+     */
+    @Scheduled(fixedDelayString = "${feed.stats.recompute-interval-ms:900000}",
+               initialDelayString = "${feed.stats.initial-delay-ms:5000}")
+    public void recompute() {
+        if (!recomputeLock.tryLock()) {
+            // Another thread is already recomputing; callers use the counters as they are
+            return;
+        }
+        try {
+            Instant startedAt = Instant.now();
+            List<Document> pipeline = List.of(
+                Document.parse("{'$project': {'userId': 1, 'hasImages': "
+                    + "{'$gt': [{'$size': {'$ifNull': ['$imageUrls', []]}}, 0]}}}"),
+                Document.parse("{'$group': {'_id': '$userId', 'feeds': {'$sum': 1}, "
+                    + "'withImages': {'$sum': {'$cond': ['$hasImages', 1, 0]}}}}"),
+                Document.parse("{'$group': {'_id': null, 'users': {'$sum': 1}, "
+                    + "'feeds': {'$sum': '$feeds'}, 'withImages': {'$sum': '$withImages'}}}"));
+            Document result = mongoTemplate.getCollection("feeds").aggregate(pipeline).allowDiskUse(true).first();
+            
+            long feeds = result != null ? ((Number) result.get("feeds")).longValue() : 0;
+            long users = result != null ? ((Number) result.get("users")).longValue() : 0;
+            long images = result != null ? ((Number) result.get("withImages")).longValue() : 0;
+            long driftFeeds = totalFeeds.getAndSet(feeds) - feeds;
+            totalUsers.set(users);
+            feedsWithImages.set(images);
+            recomputedAt = startedAt;
+            refreshAttemptedAt = startedAt;
+            // Deletes seen after the pass started may not be reflected in it
+            unattributedDeleteAt.updateAndGet(at -> at != null && at.isBefore(startedAt) ? null : at);
+            
+            log.info("📊 Recomputed feed statistics in {} ms: {} feeds, {} users, {} with images (feed drift {})",
+                Instant.now().toEpochMilli() - startedAt.toEpochMilli(), feeds, users, images, driftFeeds);
+        } catch (Exception e) {
+            log.error("❌ Failed to recompute feed statistics: {}", e.getMessage(), e);
+        } finally {
+            recomputeLock.unlock();
+        }
+    }
+    
+    long stalenessMillis(Instant now) {
+        Instant asOf = latest(streamAsOf, recomputedAt);
+        return asOf != null ? Math.max(0, now.toEpochMilli() - asOf.toEpochMilli()) : Long.MAX_VALUE;
+    }
+    
+    private long countFeedsOf(String userId) {
+        return mongoTemplate.count(new Query(Criteria.where("userId").is(userId)).limit(2), "feeds");
+    }
+    
+    private static boolean isOlderThan(Instant time, Instant now, long millis) {
+        return time == null || now.toEpochMilli() - time.toEpochMilli() > millis;
+    }
+    
+    private static Instant latest(Instant a, Instant b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.isAfter(b) ? a : b;
+    }
+}
@@ -10,16 +10,34 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
- * Service for handling file storage operations
+ * Service for handling file storage operations.
+ *
+ * Files are stored content-addressed: {@code <upload-dir>/ab/cd/<sha256>/original.<ext>}, with
+ * the variants from ImageDerivativeService alongside. An upload whose bytes are already stored
+ * (by any user) gets its own ImageMetadata but shares the file, and the file is removed with the
+ * last metadata that points at it. Metadata is saved before the stored file is checked and
+ * references are counted again before a directory is removed, so an upload racing the delete of
+ * the same content never ends up pointing at a missing file.
  */
 @Service
 public class FileStorageService {
@@ -35,9 +53,18 @@ public class FileStorageService {
     @Value("${app.file.allowed-types:image/jpeg,image/png,image/gif,image/webp}")
     private String allowedTypes;
     
+    private static final Map<String, String> EXTENSIONS = Map.ofEntries(
+        Map.entry("image/jpeg", ".jpg"), Map.entry("image/png", ".png"), Map.entry("image/gif", ".gif"),
+        Map.entry("image/webp", ".webp"), Map.entry("image/bmp", ".bmp"), Map.entry("image/tiff", ".tif"),
+        Map.entry("image/heic", ".heic"), Map.entry("image/heif", ".heif"), Map.entry("image/avif", ".avif"),
+        Map.entry("image/svg+xml", ".svg"));
+    
     @Autowired
     private ImageMetadataRepository imageMetadataRepository;
     
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+    
     /**
      * Store a single file and return image metadata
      */
@@ -54,29 +81,77 @@ public class FileStorageService {
             log.info("Created upload directory: {}", uploadPath.toAbsolutePath());
         }
         
-        // Generate unique filename
         String originalFilename = file.getOriginalFilename();
-        String fileExtension = getFileExtension(originalFilename);
-        String storedFilename = UUID.randomUUID().toString() + fileExtension;
         
-        // Store file
-        Path targetLocation = uploadPath.resolve(storedFilename);
-        Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+        // Stream into a temp file, sniffing the type, counting bytes and hashing on the way;
+        // only a complete, valid file is moved into its content directory
+        Path partial = uploadPath.resolve(UUID.randomUUID() + ".part");
+        ImageStreams.Checked checked;
+        MessageDigest digest = sha256();
+        try (InputStream in = file.getInputStream()) {
+            checked = ImageStreams.check(in, maxFileSize, allowedTypeSet());
+            Files.copy(new DigestInputStream(checked.getStream(), digest), partial, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IllegalArgumentException | ImageStreams.SizeLimitExceededException e) {
+            Files.deleteIfExists(partial);
+            throw new RuntimeException(e.getMessage(), e);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
         
-        log.info("File stored successfully: {}", targetLocation.toAbsolutePath());
+        String contentHash = HexFormat.of().formatHex(digest.digest());
+        Path targetLocation = contentDirectory(contentHash).resolve("original" + extensionFor(checked.getContentType(), originalFilename));
         
-        // Create and save image metadata
+        // Create and save image metadata before looking at the stored file, so a concurrent
+        // delete of the last other image with this content sees this one and keeps the file
         ImageMetadata imageMetadata = new ImageMetadata();
         imageMetadata.setUserId(userId);
         imageMetadata.setOriginalFileName(originalFilename);
-        imageMetadata.setStoredFileName(storedFilename);
+        imageMetadata.setStoredFileName(contentHash + getFileExtension(targetLocation.getFileName().toString()));
         imageMetadata.setFilePath(targetLocation.toString());
-        imageMetadata.setFileSize(file.getSize());
-        imageMetadata.setMimeType(file.getContentType());
-        
+        imageMetadata.setFileSize(checked.getBytesRead());
+        imageMetadata.setMimeType(checked.getContentType());
+        imageMetadata.setContentHash(contentHash);
+        imageMetadata.setDerivativeStatus(ImageDerivativeService.STATUS_PENDING);
         ImageMetadata savedMetadata = imageMetadataRepository.save(imageMetadata);
         log.info("Image metadata saved with ID: {}", savedMetadata.getId());
         
+        boolean duplicate;
+        try {
+            duplicate = Files.exists(targetLocation);
+            if (!duplicate) {
+                Files.createDirectories(targetLocation.getParent());
+                Files.move(partial, targetLocation, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException | RuntimeException e) {
+            imageMetadataRepository.delete(savedMetadata);
+            throw e;
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+        log.info("File stored successfully: {} ({}, {} bytes{})", targetLocation.toAbsolutePath(),
+                checked.getContentType(), checked.getBytesRead(), duplicate ? ", already stored" : "");
+        
+        // A duplicate reuses the variants already generated for the same content
+        ImageMetadata ready = duplicate
+                ? imageMetadataRepository.findFirstByContentHashAndDerivativeStatus(contentHash, ImageDerivativeService.STATUS_READY)
+                : null;
+        if (ready != null) {
+            savedMetadata.setWidth(ready.getWidth());
+            savedMetadata.setHeight(ready.getHeight());
+            savedMetadata.setVariants(ready.getVariants());
+            savedMetadata.setPlaceholder(ready.getPlaceholder());
+            savedMetadata.setDerivativeStatus(ImageDerivativeService.STATUS_READY);
+            savedMetadata = imageMetadataRepository.save(savedMetadata);
+        } else {
+            // Saved first so the generated variants are recorded on this metadata too
+            try {
+                imageDerivativeService.generateAsync(contentHash, targetLocation.toString());
+            } catch (Exception e) {
+                log.warn("⚠️ Could not queue variants for image {}, leaving it for the retry: {}", contentHash, e.getMessage());
+            }
+        }
+        
         return savedMetadata;
     }
     
@@ -130,13 +205,20 @@ public class FileStorageService {
         }
         
         try {
-            // Delete physical file
-            Path filePath = Paths.get(imageMetadata.getFilePath());
-            Files.deleteIfExists(filePath);
-            
             // Delete metadata
             imageMetadataRepository.delete(imageMetadata);
             
+            // Delete physical files once nothing else points at them
+            Path filePath = Paths.get(imageMetadata.getFilePath());
+            String contentHash = imageMetadata.getContentHash();
+            if (contentHash == null) {
+                Files.deleteIfExists(filePath);
+            } else if (imageMetadataRepository.countByContentHash(contentHash) == 0) {
+                deleteUnreferenced(contentHash, filePath.getParent());
+            } else {
+                log.info("Keeping stored file {} for other images with the same content", contentHash);
+            }
+            
             log.info("Image deleted successfully: {}", imageId);
         } catch (IOException e) {
             log.error("Error deleting image file: {}", e.getMessage(), e);
@@ -170,6 +252,74 @@ public class FileStorageService {
         }
     }
     
+    /**
+     * Directory holding the original and variants of one content hash
+     */
+    Path contentDirectory(String contentHash) {
+        return Paths.get(uploadDir, contentHash.substring(0, 2), contentHash.substring(2, 4), contentHash);
+    }
+    
+    /**
+     * Remove the content directory of an image nothing points at any more. The directory is
+     * first moved aside and the references counted again: an upload of the same bytes saves its
+     * metadata before checking for the stored file, so if one registered in between, the files
+     * are moved back (next to anything it has written meanwhile) instead of deleted.
+     */
+    void deleteUnreferenced(String contentHash, Path directory) throws IOException {
+        Path tombstone = directory.resolveSibling(directory.getFileName() + ".deleting-" + UUID.randomUUID());
+        try {
+            Files.move(directory, tombstone, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            return;
+        }
+        
+        if (imageMetadataRepository.countByContentHash(contentHash) > 0) {
+            log.info("Image {} was uploaded again while being deleted, keeping its files", contentHash);
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(tombstone)) {
+                for (Path path : (Iterable<Path>) files::iterator) {
+                    Path restored = directory.resolve(path.getFileName());
+                    if (!Files.exists(restored)) {
+                        Files.move(path, restored, StandardCopyOption.ATOMIC_MOVE);
+                    }
+                }
+            }
+        }
+        deleteDirectory(tombstone);
+    }
+    
+    private void deleteDirectory(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+    
+    private String extensionFor(String contentType, String originalFilename) {
+        String extension = EXTENSIONS.get(contentType);
+        return extension != null ? extension : getFileExtension(originalFilename);
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private Set<String> allowedTypeSet() {
+        Set<String> types = new HashSet<>();
+        for (String allowedType : allowedTypes.split(",")) {
+            types.add(allowedType.trim());
+        }
+        return types;
+    }
+    
     /**
      * Check if content type is allowed
      */
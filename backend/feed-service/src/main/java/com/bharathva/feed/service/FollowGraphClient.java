@@ -0,0 +1,136 @@
+package com.bharathva.feed.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Client for the follow graph held by auth-service.
+ * Used by the home timeline to fan posts out to followers and to resolve who a reader follows.
+ */
+@Service
+public class FollowGraphClient {
+    
+    private static final Logger log = LoggerFactory.getLogger(FollowGraphClient.class);
+    
+    @Autowired
+    private WebClient authServiceWebClient;
+    
+    @Autowired
+    private OutboundCallGuard outboundCallGuard;
+    
+    @Value("${gateway.url:http://localhost:8080}")
+    private String gatewayUrl;
+    
+    @Value("${internal.service-token:}")
+    private String internalServiceToken;
+    
+    /**
+     * Follower IDs of a user. When the follower count exceeds {@code limit}, auth-service
+     * returns no IDs and {@link FollowerIds#isTruncated()} is true.
+     */
+    public FollowerIds getFollowerIds(String userId, long limit) {
+        String endpoint = gatewayUrl != null && !gatewayUrl.trim().isEmpty()
+            ? "/api/auth/follow/{userId}/followers/ids?limit={limit}"
+            : "/auth/follow/{userId}/followers/ids?limit={limit}";
+        
+        Map<String, Object> data = fetchData(endpoint, "follower IDs", userId, limit);
+        long count = data.get("count") instanceof Number ? ((Number) data.get("count")).longValue() : 0L;
+        boolean truncated = Boolean.TRUE.equals(data.get("truncated"));
+        return new FollowerIds(toStringList(data.get("followerIds")), count, truncated);
+    }
+    
+    /**
+     * IDs of the users that {@code userId} follows.
+     */
+    public List<String> getFollowingIds(String userId) {
+        String endpoint = gatewayUrl != null && !gatewayUrl.trim().isEmpty()
+            ? "/api/auth/follow/{userId}/following/ids"
+            : "/auth/follow/{userId}/following/ids";
+        
+        Map<String, Object> data = fetchData(endpoint, "following IDs", userId);
+        return toStringList(data.get("followingIds"));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> fetchData(String endpoint, String what, Object... uriVariables) {
+        try {
+            Map<String, Object> response = outboundCallGuard.guard("auth-follow", authServiceWebClient
+                    .get()
+                    .uri(endpoint, uriVariables)
+                    .header("X-Internal-Token", internalServiceToken)
+                    .retrieve()
+                    .onStatus(status -> status.isError(), clientResponse ->
+                        clientResponse.bodyToMono(String.class)
+                            .doOnNext(body -> log.error("Error body: {}", body))
+                            .then(Mono.error(new RuntimeException("HTTP " + clientResponse.statusCode()))))
+                    .bodyToMono(Map.class))
+                    .block();
+            
+            if (response == null || !Boolean.TRUE.equals(response.get("success"))) {
+                String message = response != null ? (String) response.get("message") : "null response";
+                throw new RuntimeException("Failed to fetch " + what + ": " + message);
+            }
+            
+            Map<String, Object> data = (Map<String, Object>) response.get("data");
+            return data != null ? data : Collections.emptyMap();
+        } catch (WebClientResponseException e) {
+            log.error("HTTP error fetching {} for {} - HTTP {}", what, uriVariables[0], e.getStatusCode());
+            throw new RuntimeException("HTTP error fetching " + what + ": " + e.getStatusCode(), e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error fetching {} for {}: {}", what, uriVariables[0], e.getMessage(), e);
+            throw new RuntimeException("Error fetching " + what + ": " + e.getMessage(), e);
+        }
+    }
+    
+    private List<String> toStringList(Object value) {
+        List<String> ids = new ArrayList<>();
+        if (value instanceof List) {
+            for (Object id : (List<?>) value) {
+                if (id != null) {
+                    ids.add(id.toString());
+                }
+            }
+        }
+        return ids;
+    }
+    
+    /**
+     * Follower ID listing returned by auth-service.
+     */
+    public static class FollowerIds {
+        private final List<String> ids;
+        private final long count;
+        private final boolean truncated;
+        
+        public FollowerIds(List<String> ids, long count, boolean truncated) {
+            this.ids = ids;
+            this.count = count;
+            this.truncated = truncated;
+        }
+        
+        public List<String> getIds() {
+            return ids;
+        }
+        
+        public long getCount() {
+            return count;
+        }
+        
+        public boolean isTruncated() {
+            return truncated;
+        }
+    }
+}
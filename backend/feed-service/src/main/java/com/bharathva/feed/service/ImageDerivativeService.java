@@ -0,0 +1,231 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.model.ImageMetadata;
+import com.bharathva.feed.model.ImageVariant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Builds the responsive variants and the BlurHash placeholder for locally stored images.
+ *
+ * Runs on the bounded imageDerivativeExecutor, off the upload request. Each content hash is
+ * processed once: the variants are written next to the original in its content directory and
+ * recorded on every ImageMetadata with that hash, so a duplicate upload gets them for free.
+ * Decoding is subsampled to about twice the widest variant, which keeps the decoded bitmap
+ * small even for camera-sized originals.
+ */
+@Service
+public class ImageDerivativeService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ImageDerivativeService.class);
+    
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_READY = "READY";
+    public static final String STATUS_UNSUPPORTED = "UNSUPPORTED";
+    public static final String STATUS_FAILED = "FAILED";
+    
+    private static final int PLACEHOLDER_WIDTH = 32;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${feed.media.variant-widths:320,640,1080}")
+    private int[] variantWidths = {320, 640, 1080};
+    
+    @Value("${feed.media.quality:0.82}")
+    private float quality = 0.82f;
+    
+    // Larger images are kept as uploaded, without variants
+    @Value("${feed.media.max-pixels:40000000}")
+    private long maxPixels = 40_000_000L;
+    
+    @Value("${feed.media.retry-after-minutes:10}")
+    private long retryAfterMinutes = 10;
+    
+    @Async("imageDerivativeExecutor")
+    public CompletableFuture<String> generateAsync(String contentHash, String originalPath) {
+        return CompletableFuture.completedFuture(generate(contentHash, Paths.get(originalPath)));
+    }
+    
+    /**
+     * Generate variants for one stored original and record them; returns the resulting status.
+     */
+    public String generate(String contentHash, Path original) {
+        ImageMetadata done = findReady(contentHash);
+        if (done != null) {
+            // Another upload of the same content already has them
+            record(contentHash, done.getWidth(), done.getHeight(), done.getVariants(), done.getPlaceholder(), STATUS_READY);
+            return STATUS_READY;
+        }
+        
+        long startedAt = System.currentTimeMillis();
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                // No decoder in this JVM (HEIC, AVIF, SVG...): serve the original as is
+                log.info("Image {} has no decoder, keeping the original only", contentHash);
+                record(contentHash, null, null, List.of(), null, STATUS_UNSUPPORTED);
+                return STATUS_UNSUPPORTED;
+            }
+            
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    log.warn("⚠️ Image {} is {}x{}, above the {} pixel limit for variants", contentHash, width, height, maxPixels);
+                    record(contentHash, width, height, List.of(), null, STATUS_UNSUPPORTED);
+                    return STATUS_UNSUPPORTED;
+                }
+                
+                int[] targets = targetWidths(width);
+                int decodeWidth = targets.length > 0 ? targets[targets.length - 1] : PLACEHOLDER_WIDTH;
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, width / (decodeWidth * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+                
+                List<ImageVariant> variants = new ArrayList<>();
+                Path directory = original.getParent();
+                for (int target : targets) {
+                    int targetHeight = Math.max(1, (int) Math.round((double) height * target / width));
+                    BufferedImage resized = resize(decoded, target, targetHeight);
+                    variants.add(write(resized, directory, "jpeg", "jpg", "image/jpeg"));
+                    if (ImageIO.getImageWritersByFormatName("webp").hasNext()) {
+                        variants.add(write(resized, directory, "webp", "webp", "image/webp"));
+                    }
+                }
+                
+                int placeholderHeight = Math.max(1, (int) Math.round((double) height * PLACEHOLDER_WIDTH / width));
+                String placeholder = BlurHash.encode(resize(decoded, PLACEHOLDER_WIDTH, placeholderHeight), 4, 3);
+                
+                record(contentHash, width, height, variants, placeholder, STATUS_READY);
+                log.info("🖼️ Generated {} variants for image {} ({}x{}) in {} ms", variants.size(), contentHash,
+                        width, height, System.currentTimeMillis() - startedAt);
+                return STATUS_READY;
+            } finally {
+                reader.dispose();
+            }
+        } catch (Exception e) {
+            log.error("❌ Failed to generate variants for image {}: {}", contentHash, e.getMessage());
+            record(contentHash, null, null, List.of(), null, STATUS_FAILED);
+            return STATUS_FAILED;
+        }
+    }
+    
+    /**
+     * Pick up images left PENDING, e.g. when the worker queue was full or the node restarted.
+     */
+    @Scheduled(fixedDelayString = "${feed.media.retry-interval-ms:300000}",
+               initialDelayString = "${feed.media.retry-interval-ms:300000}")
+    public void retryPending() {
+        Query query = new Query(Criteria.where("derivativeStatus").is(STATUS_PENDING)
+                .and("updatedAt").lt(LocalDateTime.now().minusMinutes(retryAfterMinutes)))
+                .limit(50);
+        query.fields().include("contentHash", "filePath");
+        for (ImageMetadata pending : mongoTemplate.find(query, ImageMetadata.class)) {
+            if (pending.getContentHash() != null && pending.getFilePath() != null) {
+                generate(pending.getContentHash(), Paths.get(pending.getFilePath()));
+            }
+        }
+    }
+    
+    int[] targetWidths(int width) {
+        // Only downscale; an image narrower than a target is served as its original
+        return Arrays.stream(variantWidths).filter(target -> target < width).sorted().toArray();
+    }
+    
+    private ImageMetadata findReady(String contentHash) {
+        Query query = new Query(Criteria.where("contentHash").is(contentHash).and("derivativeStatus").is(STATUS_READY));
+        return mongoTemplate.findOne(query, ImageMetadata.class);
+    }
+    
+    private void record(String contentHash, Integer width, Integer height, List<ImageVariant> variants,
+                        String placeholder, String status) {
+        Update update = new Update()
+                .set("variants", variants)
+                .set("derivativeStatus", status)
+                .set("updatedAt", LocalDateTime.now());
+        if (width != null) {
+            update.set("width", width).set("height", height);
+        }
+        if (placeholder != null) {
+            update.set("placeholder", placeholder);
+        }
+        mongoTemplate.updateMulti(new Query(Criteria.where("contentHash").is(contentHash)), update, ImageMetadata.class);
+    }
+    
+    private static BufferedImage resize(BufferedImage source, int width, int height) {
+        // Flatten onto white: JPEG has no alpha channel
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+    
+    private ImageVariant write(BufferedImage image, Path directory, String format, String extension, String mimeType)
+            throws IOException {
+        String fileName = "w" + image.getWidth() + "." + extension;
+        Path target = directory.resolve(fileName);
+        Path partial = directory.resolve(fileName + ".part");
+        
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(partial.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionTypes() != null && param.getCompressionType() == null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(quality);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        
+        return new ImageVariant(image.getWidth(), image.getHeight(), format, mimeType, fileName, Files.size(target));
+    }
+}
@@ -0,0 +1,198 @@
+package com.bharathva.feed.service;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Checks uploaded images on the byte stream instead of trusting the client.
+ *
+ * The content type comes from the file's magic bytes, read through a small mark/reset buffer, and
+ * the size is counted as bytes go past, so neither check needs the whole file in memory.
+ */
+public final class ImageStreams {
+    
+    // Enough for every signature below, including an SVG root after an XML prolog
+    static final int SNIFF_BYTES = 512;
+    
+    private static final int BUFFER_SIZE = 8192;
+    
+    private ImageStreams() {
+    }
+    
+    /**
+     * Wrap an upload stream: sniff its type and cap it at {@code maxBytes}.
+     *
+     * @throws IllegalArgumentException when the content is not one of {@code allowedTypes}
+     */
+    public static Checked check(InputStream in, long maxBytes, Set<String> allowedTypes) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        buffered.mark(SNIFF_BYTES);
+        byte[] header = buffered.readNBytes(SNIFF_BYTES);
+        buffered.reset();
+        
+        if (header.length == 0) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        String contentType = sniff(header, header.length);
+        if (contentType == null || !allowedTypes.contains(contentType)) {
+            throw new IllegalArgumentException("File content is not a supported image"
+                + (contentType != null ? ": " + contentType : ""));
+        }
+        return new Checked(contentType, new LimitedInputStream(buffered, maxBytes));
+    }
+    
+    /**
+     * Image type from the leading bytes, or {@code null} when they match no known image format.
+     */
+    public static String sniff(byte[] header, int length) {
+        if (startsWith(header, length, 0, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(header, length, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(header, length, 0, 'G', 'I', 'F', '8', '7', 'a')
+                || startsWith(header, length, 0, 'G', 'I', 'F', '8', '9', 'a')) {
+            return "image/gif";
+        }
+        if (startsWith(header, length, 0, 'R', 'I', 'F', 'F') && startsWith(header, length, 8, 'W', 'E', 'B', 'P')) {
+            return "image/webp";
+        }
+        if (startsWith(header, length, 0, 'B', 'M')) {
+            return "image/bmp";
+        }
+        if (startsWith(header, length, 0, 'I', 'I', 0x2A, 0x00) || startsWith(header, length, 0, 'M', 'M', 0x00, 0x2A)) {
+            return "image/tiff";
+        }
+        if (startsWith(header, length, 4, 'f', 't', 'y', 'p') && length >= 12) {
+            // ISO base media file: the major brand tells HEIC, HEIF and AVIF apart
+            String brand = new String(header, 8, 4, StandardCharsets.US_ASCII);
+            switch (brand) {
+                case "heic": case "heix": case "hevc": case "hevx": case "heim": case "heis":
+                    return "image/heic";
+                case "mif1": case "msf1":
+                    return "image/heif";
+                case "avif": case "avis":
+                    return "image/avif";
+                default:
+                    return null;
+            }
+        }
+        String text = new String(header, 0, length, StandardCharsets.UTF_8).stripLeading().toLowerCase(Locale.ROOT);
+        if (text.startsWith("\uFEFF")) {
+            text = text.substring(1).stripLeading();
+        }
+        if ((text.startsWith("<?xml") || text.startsWith("<svg")) && text.contains("<svg")) {
+            return "image/svg+xml";
+        }
+        return null;
+    }
+    
+    private static boolean startsWith(byte[] data, int length, int offset, int... signature) {
+        if (length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((data[offset + i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * A sniffed upload: its real content type and the size-capped stream to read it from.
+     */
+    public static final class Checked {
+        
+        private final String contentType;
+        private final LimitedInputStream stream;
+        
+        Checked(String contentType, LimitedInputStream stream) {
+            this.contentType = contentType;
+            this.stream = stream;
+        }
+        
+        public String getContentType() {
+            return contentType;
+        }
+        
+        public InputStream getStream() {
+            return stream;
+        }
+        
+        /**
+         * Bytes read from the stream so far; the file size once it has been consumed.
+         */
+        public long getBytesRead() {
+            return stream.count;
+        }
+    }
+    
+    /**
+     * Fails the read that takes the stream past the limit, so an upload whose declared size
+     * understates the real one is cut off instead of copied through.
+     */
+    static final class LimitedInputStream extends FilterInputStream {
+        
+        private final long limit;
+        private long count;
+        
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                advance(1);
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                advance(n);
+            }
+            return n;
+        }
+        
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            advance(skipped);
+            return skipped;
+        }
+        
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+        
+        private void advance(long n) throws IOException {
+            count += n;
+            if (count > limit) {
+                throw new SizeLimitExceededException(limit);
+            }
+        }
+    }
+    
+    /**
+     * Raised from inside a read once the size cap is passed.
+     */
+    public static final class SizeLimitExceededException extends IOException {
+        
+        public SizeLimitExceededException(long limit) {
+            super("File size exceeds maximum allowed size: " + limit + " bytes");
+        }
+    }
+}
@@ -5,14 +5,21 @@ import com.bharathva.feed.repository.ImageMetadataRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Service for handling image uploads to Cloudinary and storing metadata in MongoDB
@@ -28,13 +35,27 @@ public class ImageUploadService {
     @Autowired
     private ImageMetadataRepository imageMetadataRepository;
     
+    @Autowired
+    private FileStorageService fileStorageService;
+    
+    @Autowired
+    @Qualifier("imageUploadExecutor")
+    private Executor imageUploadExecutor;
+    
+    // cloudinary: upload to Cloudinary; local: content-addressed local store with generated variants
+    @Value("${feed.media.storage:cloudinary}")
+    private String storage = "cloudinary";
+    
     /**
      * Upload a single image to Cloudinary and store metadata in MongoDB
      */
-    @Transactional
     public ImageMetadata uploadAndStoreImage(MultipartFile file, String userId) throws IOException {
         log.info("Uploading and storing image for user: {}, filename: {}", userId, file.getOriginalFilename());
         
+        if ("local".equals(storage)) {
+            return fileStorageService.storeFile(file, userId);
+        }
+        
         // Upload to Cloudinary
         Map<String, Object> cloudinaryResult = cloudinaryService.uploadImage(file, userId);
         
@@ -44,15 +65,17 @@ public class ImageUploadService {
         imageMetadata.setOriginalFileName(file.getOriginalFilename());
         imageMetadata.setStoredFileName(file.getOriginalFilename()); // Keep original name for Cloudinary
         imageMetadata.setFilePath("cloudinary://" + cloudinaryResult.get("publicId")); // Virtual path
-        imageMetadata.setFileSize(file.getSize());
-        imageMetadata.setMimeType(file.getContentType());
+        imageMetadata.setFileSize(((Number) cloudinaryResult.get("fileSize")).longValue());
+        imageMetadata.setMimeType((String) cloudinaryResult.get("mimeType"));
         
         // Set Cloudinary-specific fields
         imageMetadata.setCloudinaryPublicId((String) cloudinaryResult.get("publicId"));
         imageMetadata.setCloudinaryUrl((String) cloudinaryResult.get("url"));
         imageMetadata.setCloudinarySecureUrl((String) cloudinaryResult.get("imageUrl"));
         imageMetadata.setCloudinaryFormat((String) cloudinaryResult.get("format"));
-        imageMetadata.setCloudinaryBytes((Long) cloudinaryResult.get("bytes"));
+        if (cloudinaryResult.get("bytes") != null) {
+            imageMetadata.setCloudinaryBytes(((Number) cloudinaryResult.get("bytes")).longValue());
+        }
         imageMetadata.setCloudinaryFolder("bharathva/feeds/" + userId);
         imageMetadata.setIsCloudinaryUploaded(true);
         
@@ -74,21 +97,62 @@ public class ImageUploadService {
     }
     
     /**
-     * Upload multiple images to Cloudinary and store metadata in MongoDB
+     * Upload multiple images to Cloudinary and store metadata in MongoDB.
+     *
+     * Files upload in parallel on the shared imageUploadExecutor and come back in request order.
+     * If any file fails, the ones that made it are deleted again so a post never gets half its images.
+     * That includes the executor rejecting a file because its queue is full: nothing more is
+     * submitted and the uploads already running are waited for and removed.
      */
-    @Transactional
     public List<ImageMetadata> uploadAndStoreImages(MultipartFile[] files, String userId) throws IOException {
         log.info("Uploading and storing {} images for user: {}", files.length, userId);
         
-        List<ImageMetadata> savedImages = new ArrayList<>();
-        
+        List<CompletableFuture<ImageMetadata>> uploads = new ArrayList<>();
+        Throwable failure = null;
         for (MultipartFile file : files) {
             if (!file.isEmpty()) {
-                ImageMetadata imageMetadata = uploadAndStoreImage(file, userId);
-                savedImages.add(imageMetadata);
+                try {
+                    uploads.add(CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return uploadAndStoreImage(file, userId);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, imageUploadExecutor));
+                } catch (RejectedExecutionException e) {
+                    log.warn("⚠️ Image upload queue is full, rejecting upload of {} images for user: {}", files.length, userId);
+                    failure = e;
+                    break;
+                }
             }
         }
         
+        // Wait for every upload, not just the first failure, so cleanup sees all of them
+        List<ImageMetadata> savedImages = new ArrayList<>();
+        for (CompletableFuture<ImageMetadata> upload : uploads) {
+            try {
+                savedImages.add(upload.join());
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+        
+        if (failure != null) {
+            log.error("❌ Image upload failed for user: {}, removing {} uploaded images", userId, savedImages.size());
+            for (ImageMetadata saved : savedImages) {
+                deleteImage(saved.getId());
+            }
+            if (failure instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) failure).getCause();
+            }
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            throw new IOException("Failed to upload images: " + failure.getMessage(), failure);
+        }
+        
         log.info("Successfully uploaded and stored {} images for user: {}", savedImages.size(), userId);
         return savedImages;
     }
@@ -110,7 +174,6 @@ public class ImageUploadService {
     /**
      * Delete image from both Cloudinary and MongoDB
      */
-    @Transactional
     public boolean deleteImage(String imageId) {
         try {
             ImageMetadata imageMetadata = imageMetadataRepository.findById(imageId).orElse(null);
@@ -125,6 +188,12 @@ public class ImageUploadService {
                 log.info("Image deleted from Cloudinary: {}", imageMetadata.getCloudinaryPublicId());
             }
             
+            // Local files are shared by content; the storage service removes them with the last reference
+            if (!Boolean.TRUE.equals(imageMetadata.getIsCloudinaryUploaded()) && imageMetadata.getContentHash() != null) {
+                fileStorageService.deleteImage(imageId, imageMetadata.getUserId());
+                return true;
+            }
+            
             // Delete from MongoDB
             imageMetadataRepository.deleteById(imageId);
             log.info("Image metadata deleted from MongoDB: {}", imageId);
@@ -29,6 +29,7 @@ public class LikesMigrationService implements CommandLineRunner {
         if (mongoClient != null) {
             log.info("🚀 Running Likes Migration Service...");
             migrateLikesFieldDirectly();
+            backfillCounters();
         } else {
             log.warn("⚠️  MongoClient not available, skipping likes migration");
         }
@@ -119,5 +120,34 @@ public class LikesMigrationService implements CommandLineRunner {
             throw new RuntimeException("Likes migration failed: " + e.getMessage(), e);
         }
     }
+    
+    /**
+     * Backfill denormalized likesCount/commentsCount on feeds written before the counters existed.
+     * Like and comment writes $inc these fields, so they must start from the real array sizes.
+     */
+    public void backfillCounters() {
+        if (mongoClient == null) {
+            log.warn("⚠️  MongoClient not available, skipping counter backfill");
+            return;
+        }
+        try {
+            var feedsCollection = mongoClient.getDatabase(databaseName).getCollection("feeds");
+            
+            var likesFilter = org.bson.Document.parse("{\"likesCount\": {\"$exists\": false}}");
+            var likesResult = feedsCollection.updateMany(likesFilter, java.util.List.of(org.bson.Document.parse(
+                "{\"$set\": {\"likesCount\": {\"$cond\": [{\"$isArray\": \"$likes\"}, {\"$size\": \"$likes\"}, 0]}}}"
+            )));
+            
+            var commentsFilter = org.bson.Document.parse("{\"commentsCount\": {\"$exists\": false}}");
+            var commentsResult = feedsCollection.updateMany(commentsFilter, java.util.List.of(org.bson.Document.parse(
+                "{\"$set\": {\"commentsCount\": {\"$cond\": [{\"$isArray\": \"$comments\"}, {\"$size\": \"$comments\"}, 0]}}}"
+            )));
+            
+            log.info("✅ Counter backfill - likesCount set on {} feeds, commentsCount set on {} feeds", 
+                likesResult.getModifiedCount(), commentsResult.getModifiedCount());
+        } catch (Exception e) {
+            log.error("❌ Counter backfill failed: {}", e.getMessage(), e);
+            throw new RuntimeException("Counter backfill failed: " + e.getMessage(), e);
+        }
+    }
 }
-
@@ -0,0 +1,155 @@
+package com.bharathva.feed.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves files in the content-addressed store for serving, and keeps the hot small ones
+ * (thumbnails and the narrow variants) in memory.
+ *
+ * A media file is named by its content hash and file name, so its bytes never change: the
+ * in-memory copy never needs revalidating, only a bound on how long a deleted file can still
+ * be served from it (feed.media.serve.hot-ttl-seconds).
+ */
+@Service
+public class MediaFileService {
+    
+    private static final Logger log = LoggerFactory.getLogger(MediaFileService.class);
+    
+    // Only names the store writes itself, which also rules out path traversal
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern FILE_NAME = Pattern.compile("(original|w[0-9]{1,5})\\.[a-z]{3,4}");
+    
+    private static final Map<String, String> CONTENT_TYPES = Map.ofEntries(
+        Map.entry("jpg", "image/jpeg"), Map.entry("png", "image/png"), Map.entry("gif", "image/gif"),
+        Map.entry("webp", "image/webp"), Map.entry("bmp", "image/bmp"), Map.entry("tif", "image/tiff"),
+        Map.entry("heic", "image/heic"), Map.entry("heif", "image/heif"), Map.entry("avif", "image/avif"),
+        Map.entry("svg", "image/svg+xml"));
+    
+    @Autowired
+    private FileStorageService fileStorageService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${feed.media.serve.hot-cache-bytes:67108864}")
+    private long hotCacheBytes = 64L * 1024 * 1024;
+    
+    @Value("${feed.media.serve.hot-file-max-bytes:65536}")
+    private long hotFileMaxBytes = 64 * 1024;
+    
+    @Value("${feed.media.serve.hot-ttl-seconds:600}")
+    private long hotTtlSeconds = 600;
+    
+    private Cache<String, byte[]> hotFiles;
+    
+    @PostConstruct
+    public void init() {
+        hotFiles = Caffeine.newBuilder()
+            .maximumWeight(hotCacheBytes)
+            .weigher((String key, byte[] content) -> content.length)
+            .expireAfterWrite(Duration.ofSeconds(hotTtlSeconds))
+            .recordStats()
+            .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, hotFiles, "feed.media.hot");
+        }
+        
+        log.info("✅ Media hot cache: {} bytes for files up to {} bytes, TTL {}s", hotCacheBytes, hotFileMaxBytes, hotTtlSeconds);
+    }
+    
+    /**
+     * The stored file for a content hash and file name, or null if the name is not one the
+     * store writes or there is no such file.
+     */
+    public MediaFile resolve(String contentHash, String fileName) throws IOException {
+        if (contentHash == null || fileName == null
+                || !HASH.matcher(contentHash).matches() || !FILE_NAME.matcher(fileName).matches()) {
+            return null;
+        }
+        String contentType = CONTENT_TYPES.get(fileName.substring(fileName.indexOf('.') + 1));
+        if (contentType == null) {
+            return null;
+        }
+        
+        String key = contentHash + "/" + fileName;
+        Path path = fileStorageService.contentDirectory(contentHash).resolve(fileName);
+        byte[] content = hotFiles.getIfPresent(key);
+        if (content != null) {
+            return new MediaFile(path, content.length, contentType, "\"" + contentHash + "-" + fileName + "\"", content);
+        }
+        
+        long size;
+        try {
+            size = Files.size(path);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (size <= hotFileMaxBytes) {
+            content = Files.readAllBytes(path);
+            hotFiles.put(key, content);
+            size = content.length;
+        }
+        return new MediaFile(path, size, contentType, "\"" + contentHash + "-" + fileName + "\"", content);
+    }
+    
+    /**
+     * A stored file ready to serve. The ETag is derived from the content hash, so it is strong
+     * and the same on every node.
+     */
+    public static final class MediaFile {
+        
+        private final Path path;
+        private final long size;
+        private final String contentType;
+        private final String etag;
+        private final byte[] content;
+        
+        public MediaFile(Path path, long size, String contentType, String etag, byte[] content) {
+            this.path = path;
+            this.size = size;
+            this.contentType = contentType;
+            this.etag = etag;
+            this.content = content;
+        }
+        
+        public Path getPath() {
+            return path;
+        }
+        
+        public long getSize() {
+            return size;
+        }
+        
+        public String getContentType() {
+            return contentType;
+        }
+        
+        public String getEtag() {
+            return etag;
+        }
+        
+        /**
+         * The bytes when held in memory, else null and the file is streamed from disk
+         */
+        public byte[] getContent() {
+            return content;
+        }
+    }
+}
@@ -0,0 +1,640 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.dto.NotificationResponse;
+import com.bharathva.feed.model.Feed;
+import com.bharathva.feed.model.Notification;
+import com.bharathva.feed.model.NotificationLikeActor;
+import com.bharathva.feed.model.UserInfo;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Asynchronous, batched notification writer.
+ *
+ * Like, comment and reply handlers only enqueue a command; a scheduled flush drains the
+ * queue and writes each batch with bulk operations. Post owners, thumbnails and actor
+ * profiles are loaded once per batch instead of once per notification, and the receivers'
+ * unread counters are adjusted together in one bulk write.
+ *
+ * Likes are collapsed into one notification per (receiver, post, time window), upserted
+ * against a unique (receiverId, aggregationKey) index. Each counted actor is recorded as a
+ * NotificationLikeActor keyed by notification and actor, so a repeated like fails on that
+ * record and is not counted twice, and an unlike decrements exactly the notifications that
+ * counted the actor. The notification's actorIds is only a bounded sample for display.
+ *
+ * On shutdown new commands are refused and whatever is still queued is written out.
+ */
+@Service
+public class NotificationPipeline {
+    
+    private static final Logger log = LoggerFactory.getLogger(NotificationPipeline.class);
+    
+    private static final int DUPLICATE_KEY = 11000;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+    
+    @Autowired
+    private UserProfileLoader userProfileLoader;
+    
+    @Autowired
+    private WebSocketService webSocketService;
+    
+    @Value("${feed.notifications.pipeline.async:true}")
+    private boolean async = true;
+    
+    @Value("${feed.notifications.pipeline.queue-capacity:10000}")
+    private int queueCapacity = 10000;
+    
+    @Value("${feed.notifications.pipeline.batch-size:500}")
+    private int batchSize = 500;
+    
+    @Value("${feed.notifications.like-window-minutes:60}")
+    private long likeWindowMinutes = 60;
+    
+    @Value("${feed.notifications.max-tracked-actors:50}")
+    private int maxTrackedActors = 50;
+    
+    private BlockingQueue<Command> queue;
+    
+    private volatile boolean accepting = true;
+    
+    @PostConstruct
+    public void init() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        accepting = false;
+        int pending = queue.size();
+        flush();
+        log.info("✅ Notification pipeline stopped, flushed {} queued commands", pending);
+    }
+    
+    /**
+     * Queue a notification command. Never blocks: when the queue is full the command is
+     * dropped, since a missing notification must not fail the like or comment itself.
+     */
+    public void submit(Command command) {
+        if (!async) {
+            process(List.of(command));
+            return;
+        }
+        if (!accepting) {
+            log.warn("⚠️ Notification pipeline is shutting down, dropping {} notification for post {} by user {}",
+                command.kind, command.feedId, command.actorId);
+            return;
+        }
+        if (!queue.offer(command)) {
+            log.warn("⚠️ Notification queue full, dropping {} notification for post {} by user {}",
+                command.kind, command.feedId, command.actorId);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${feed.notifications.pipeline.flush-interval-ms:200}")
+    public void flush() {
+        List<Command> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                process(batch);
+            } catch (Exception e) {
+                log.error("❌ Failed to write notification batch of {}: {}", batch.size(), e.getMessage(), e);
+            }
+            batch.clear();
+        }
+    }
+    
+    public int getQueueDepth() {
+        return queue.size();
+    }
+    
+    /**
+     * Write one batch of commands and push the resulting notifications to their receivers.
+     */
+    void process(List<Command> commands) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Feed> feeds = loadFeeds(commands);
+        
+        // Only the last like/unlike per (post, actor) in a batch matters
+        Map<String, Command> likeActions = new LinkedHashMap<>();
+        List<Command> others = new ArrayList<>();
+        Set<String> actorIds = new HashSet<>();
+        for (Command command : commands) {
+            if (command.kind == Kind.LIKE || command.kind == Kind.UNLIKE) {
+                String key = command.feedId + ":" + command.actorId;
+                likeActions.remove(key);
+                likeActions.put(key, command);
+            } else {
+                others.add(command);
+            }
+            if (command.kind != Kind.UNLIKE && command.kind != Kind.DELETE_COMMENT) {
+                actorIds.add(command.actorId);
+            }
+        }
+        Map<String, UserInfo> actors = userProfileLoader.loadAll(actorIds);
+        
+        List<Notification> created = new ArrayList<>();
+        Map<String, Set<String>> likeKeysByReceiver = new HashMap<>();
+        Map<String, Long> unreadDeltas = new HashMap<>();
+        writeLikes(likeActions.values(), feeds, actors, now, likeKeysByReceiver, unreadDeltas);
+        writeOthers(others, feeds, actors, created, unreadDeltas);
+        unreadCounterService.adjustAll(unreadDeltas);
+        
+        publish(created, likeKeysByReceiver);
+    }
+    
+    private void writeLikes(Iterable<Command> actions, Map<String, Feed> feeds, Map<String, UserInfo> actors,
+                            LocalDateTime now, Map<String, Set<String>> likeKeysByReceiver,
+                            Map<String, Long> unreadDeltas) {
+        List<Command> unlikes = new ArrayList<>();
+        List<NotificationLikeActor> likes = new ArrayList<>();
+        for (Command action : actions) {
+            if (action.kind == Kind.UNLIKE) {
+                unlikes.add(action);
+                continue;
+            }
+            Feed feed = feeds.get(action.feedId);
+            if (feed == null || feed.getUserId() == null || action.actorId.equals(feed.getUserId())) {
+                continue;
+            }
+            likes.add(new NotificationLikeActor(feed.getUserId(), action.feedId,
+                likeAggregationKey(action.feedId, now), action.actorId, now));
+        }
+        
+        if (!unlikes.isEmpty()) {
+            removeUnlikedActors(unlikes);
+            cleanUpAfterUnlikes(unlikes, unreadDeltas);
+        }
+        List<NotificationLikeActor> counted = likes.isEmpty() ? likes : recordLikeActors(likes);
+        if (counted.isEmpty()) {
+            return;
+        }
+        
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class);
+        // receiverId|aggregationKey of every notification gaining an actor
+        Set<String> aggregates = new HashSet<>();
+        for (NotificationLikeActor like : counted) {
+            String receiverId = like.getReceiverId();
+            String aggregationKey = like.getAggregationKey();
+            UserInfo actor = actors.get(like.getActorId());
+            
+            Update update = new Update()
+                .inc("actorCount", 1)
+                .set("senderId", like.getActorId())
+                .set("actorUserId", like.getActorId())
+                .set("message", actorName(actor) + " liked your post")
+                .set("actorUsername", actor != null ? actor.getUsername() : null)
+                .set("actorFullName", actor != null ? actor.getFullName() : null)
+                .set("actorProfileImageUrl", actor != null ? actor.getAvatarUrl() : null)
+                .set("isRead", false)
+                .unset("readAt")
+                .set("createdAt", now)
+                .set("updatedAt", now)
+                .setOnInsert("postId", like.getPostId())
+                .setOnInsert("feedId", like.getPostId())
+                .setOnInsert("recipientUserId", receiverId)
+                .setOnInsert("type", Notification.NotificationType.LIKE)
+                .setOnInsert("feedImageUrl", firstImage(feeds.get(like.getPostId())));
+            // Display sample only; who is counted lives in notification_like_actors
+            update.push("actorIds").slice(-maxTrackedActors).each(like.getActorId());
+            
+            // Equality on exactly the unique index fields, so the server retries an upsert that
+            // loses an insert race with another instance instead of failing it
+            bulk.upsert(
+                Query.query(Criteria.where("receiverId").is(receiverId).and("aggregationKey").is(aggregationKey)),
+                update);
+            likeKeysByReceiver.computeIfAbsent(receiverId, k -> new HashSet<>()).add(aggregationKey);
+            aggregates.add(receiverId + "|" + aggregationKey);
+        }
+        
+        countNewlyUnreadLikes(likeKeysByReceiver, aggregates, unreadDeltas);
+        bulk.execute();
+    }
+    
+    /**
+     * Record each like's actor against its notification. Returns the likes recorded now;
+     * the rest were already counted and hit the record's id.
+     */
+    private List<NotificationLikeActor> recordLikeActors(List<NotificationLikeActor> likes) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NotificationLikeActor.class);
+        bulk.insert(likes);
+        try {
+            bulk.execute();
+            return likes;
+        } catch (BulkOperationException e) {
+            Set<Integer> duplicates = new HashSet<>();
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+                duplicates.add(error.getIndex());
+            }
+            log.debug("Skipped {} likes already counted in their notification", duplicates.size());
+            List<NotificationLikeActor> recorded = new ArrayList<>(likes.size() - duplicates.size());
+            for (int i = 0; i < likes.size(); i++) {
+                if (!duplicates.contains(i)) {
+                    recorded.add(likes.get(i));
+                }
+            }
+            return recorded;
+        }
+    }
+    
+    /**
+     * Take each unliking actor out of the notifications that counted them. The actor's
+     * record is removed before the count is decremented, so an unlike processed twice only
+     * decrements once.
+     */
+    private void removeUnlikedActors(List<Command> unlikes) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class);
+        int operations = 0;
+        for (Command unlike : unlikes) {
+            Query query = Query.query(Criteria.where("postId").is(unlike.feedId).and("actorId").is(unlike.actorId));
+            NotificationLikeActor removed;
+            while ((removed = mongoTemplate.findAndRemove(query, NotificationLikeActor.class)) != null) {
+                bulk.updateOne(
+                    Query.query(Criteria.where("receiverId").is(removed.getReceiverId())
+                        .and("aggregationKey").is(removed.getAggregationKey())),
+                    new Update().pull("actorIds", unlike.actorId).inc("actorCount", -1));
+                operations++;
+            }
+        }
+        if (operations > 0) {
+            bulk.execute();
+        }
+    }
+    
+    /**
+     * An aggregated like adds one unread notification when it is created, or when a new
+     * actor re-opens one the receiver has already read. Read before the bulk write so the
+     * counters can be adjusted with the same batch.
+     */
+    private void countNewlyUnreadLikes(Map<String, Set<String>> likeKeysByReceiver,
+                                       Set<String> aggregates, Map<String, Long> unreadDeltas) {
+        Set<String> keys = new HashSet<>();
+        likeKeysByReceiver.values().forEach(keys::addAll);
+        Query query = Query.query(Criteria.where("receiverId").in(likeKeysByReceiver.keySet())
+            .and("aggregationKey").in(keys));
+        query.fields().include("receiverId").include("aggregationKey").include("isRead");
+        
+        Map<String, Notification> existing = new HashMap<>();
+        for (Notification notification : mongoTemplate.find(query, Notification.class)) {
+            existing.put(notification.getReceiverId() + "|" + notification.getAggregationKey(), notification);
+        }
+        
+        // Every actor here was newly counted, so an existing notification they land in turns unread
+        for (String aggregate : aggregates) {
+            Notification notification = existing.get(aggregate);
+            if (notification == null || notification.isRead()) {
+                unreadDeltas.merge(aggregate.substring(0, aggregate.indexOf('|')), 1L, Long::sum);
+            }
+        }
+    }
+    
+    /**
+     * Drop aggregated likes that lost their last actor, along with per-actor like documents
+     * written before aggregation, and re-point the rest at their most recent remaining
+     * actor when the one who unliked was shown as the sender.
+     */
+    private void cleanUpAfterUnlikes(List<Command> unlikes, Map<String, Long> unreadDeltas) {
+        Set<String> feedIds = new HashSet<>();
+        Set<String> unlikingActors = new HashSet<>();
+        List<Criteria> legacy = new ArrayList<>();
+        for (Command unlike : unlikes) {
+            feedIds.add(unlike.feedId);
+            unlikingActors.add(unlike.actorId);
+            legacy.add(Criteria.where("senderId").is(unlike.actorId).and("postId").is(unlike.feedId));
+        }
+        
+        List<Criteria> removable = new ArrayList<>();
+        removable.add(Criteria.where("postId").in(feedIds).and("actorCount").lte(0));
+        removable.add(Criteria.where("aggregationKey").exists(false)
+            .orOperator(legacy.toArray(new Criteria[0])));
+        removeAndCount(Query.query(Criteria.where("type").is(Notification.NotificationType.LIKE)
+            .orOperator(removable.toArray(new Criteria[0]))), unreadDeltas);
+        
+        // Daily digests only show their last actor and summarize everyone else's likes; leave them be
+        Query stale = Query.query(Criteria.where("postId").in(feedIds)
+            .and("type").is(Notification.NotificationType.LIKE)
+            .and("aggregationKey").exists(true).not().regex("^" + Notification.DIGEST_KEY_PREFIX)
+            .and("senderId").in(unlikingActors));
+        stale.fields().include("actorIds");
+        List<Notification> toRepoint = mongoTemplate.find(stale, Notification.class);
+        if (toRepoint.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class);
+        for (Notification notification : toRepoint) {
+            List<String> remaining = notification.getActorIds();
+            if (remaining == null || remaining.isEmpty()) {
+                continue;
+            }
+            String latest = remaining.get(remaining.size() - 1);
+            bulk.updateOne(Query.query(Criteria.where("_id").is(notification.getId())),
+                new Update().set("senderId", latest).set("actorUserId", latest));
+        }
+        bulk.execute();
+    }
+    
+    private void writeOthers(List<Command> commands, Map<String, Feed> feeds, Map<String, UserInfo> actors,
+                             List<Notification> created, Map<String, Long> unreadDeltas) {
+        if (commands.isEmpty()) {
+            return;
+        }
+        List<Criteria> deletions = new ArrayList<>();
+        
+        for (Command command : commands) {
+            if (command.kind == Kind.DELETE_COMMENT) {
+                // Drop a comment notification queued earlier in this batch before it is ever written
+                created.removeIf(n -> n.getType() == Notification.NotificationType.COMMENT
+                    && command.actorId.equals(n.getSenderId()) && command.feedId.equals(n.getPostId()));
+                deletions.add(Criteria.where("senderId").is(command.actorId).and("postId").is(command.feedId)
+                    .and("aggregationKey").exists(false));
+                continue;
+            }
+            
+            Feed feed = feeds.get(command.feedId);
+            Notification notification = command.kind == Kind.REPLY
+                ? buildReply(command, feed, actors.get(command.actorId))
+                : buildComment(command, feed, actors.get(command.actorId));
+            if (notification == null) {
+                continue;
+            }
+            notification.setId(new ObjectId().toHexString());
+            created.add(notification);
+        }
+        
+        if (!deletions.isEmpty()) {
+            removeAndCount(Query.query(Criteria.where("type").is(Notification.NotificationType.COMMENT)
+                .orOperator(deletions.toArray(new Criteria[0]))), unreadDeltas);
+        }
+        if (!created.isEmpty()) {
+            mongoTemplate.insert(created, Notification.class);
+            for (Notification notification : created) {
+                unreadDeltas.merge(notification.getReceiverId(), 1L, Long::sum);
+            }
+        }
+    }
+    
+    /**
+     * Remove the matching notifications and record how many unread ones each receiver lost
+     */
+    private void removeAndCount(Query query, Map<String, Long> unreadDeltas) {
+        query.fields().include("receiverId").include("isRead");
+        List<Notification> doomed = mongoTemplate.find(query, Notification.class);
+        if (doomed.isEmpty()) {
+            return;
+        }
+        List<String> ids = new ArrayList<>(doomed.size());
+        for (Notification notification : doomed) {
+            ids.add(notification.getId());
+            if (!notification.isRead()) {
+                unreadDeltas.merge(notification.getReceiverId(), -1L, Long::sum);
+            }
+        }
+        mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)), Notification.class);
+    }
+    
+    private Notification buildComment(Command command, Feed feed, UserInfo actor) {
+        if (feed == null || feed.getUserId() == null || command.actorId.equals(feed.getUserId())) {
+            return null;
+        }
+        Notification notification = new Notification(
+            command.actorId,       // senderId: who commented
+            feed.getUserId(),      // receiverId: post owner
+            command.feedId,        // postId: which post
+            Notification.NotificationType.COMMENT
+        );
+        notification.setMessage(actorName(actor) + " commented on your post");
+        if (command.text != null && !command.text.trim().isEmpty()) {
+            notification.setCommentText(command.text.trim());
+        }
+        applyActor(notification, actor);
+        notification.setFeedImageUrl(firstImage(feed));
+        notification.setRead(false);
+        return notification;
+    }
+    
+    private Notification buildReply(Command command, Feed feed, UserInfo actor) {
+        Notification notification = new Notification(
+            command.actorId,       // senderId: who replied
+            command.receiverId,    // receiverId: comment author
+            command.feedId,        // postId: which post
+            Notification.NotificationType.REPLY
+        );
+        notification.setMessage(replyMessage(actor, command.text));
+        if (command.text != null && !command.text.trim().isEmpty()) {
+            notification.setCommentText(command.text.trim());
+        }
+        if (command.originalText != null && !command.originalText.trim().isEmpty()) {
+            notification.setOriginalCommentText(command.originalText.trim());
+        }
+        if (command.commentId != null && !command.commentId.trim().isEmpty()) {
+            notification.setCommentId(command.commentId.trim());
+        }
+        applyActor(notification, actor);
+        notification.setFeedImageUrl(firstImage(feed));
+        notification.setRead(false);
+        return notification;
+    }
+    
+    /**
+     * Push new and updated notifications over WebSocket, with one unread count per receiver.
+     */
+    private void publish(List<Notification> created, Map<String, Set<String>> likeKeysByReceiver) {
+        List<NotificationResponse> responses = new ArrayList<>();
+        for (Notification notification : created) {
+            responses.add(new NotificationResponse(notification));
+        }
+        if (!likeKeysByReceiver.isEmpty()) {
+            Set<String> keys = new HashSet<>();
+            likeKeysByReceiver.values().forEach(keys::addAll);
+            Query query = Query.query(Criteria.where("receiverId").in(likeKeysByReceiver.keySet())
+                .and("aggregationKey").in(keys));
+            for (Notification notification : mongoTemplate.find(query, Notification.class)) {
+                Set<String> receiverKeys = likeKeysByReceiver.get(notification.getReceiverId());
+                if (receiverKeys != null && receiverKeys.contains(notification.getAggregationKey())) {
+                    responses.add(new NotificationResponse(notification));
+                }
+            }
+        }
+        if (responses.isEmpty()) {
+            return;
+        }
+        
+        userProfileLoader.hydrateNotifications(responses);
+        Map<String, Long> unreadCounts = new HashMap<>();
+        for (NotificationResponse response : responses) {
+            try {
+                long unreadCount = unreadCounts.computeIfAbsent(response.getReceiverId(),
+                    unreadCounterService::get);
+                webSocketService.notifyNotificationCreated(response, unreadCount);
+            } catch (Exception e) {
+                log.warn("⚠️ Failed to send WebSocket notification (non-critical): {}", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Owner and first image of every post in the batch, in one query
+     */
+    private Map<String, Feed> loadFeeds(List<Command> commands) {
+        Set<String> feedIds = new HashSet<>();
+        for (Command command : commands) {
+            if (command.kind != Kind.UNLIKE && command.kind != Kind.DELETE_COMMENT) {
+                feedIds.add(command.feedId);
+            }
+        }
+        Map<String, Feed> feeds = new HashMap<>();
+        if (feedIds.isEmpty()) {
+            return feeds;
+        }
+        Query query = Query.query(Criteria.where("_id").in(feedIds));
+        query.fields().include("userId").slice("imageUrls", 1);
+        for (Feed feed : mongoTemplate.find(query, Feed.class)) {
+            feeds.put(feed.getId(), feed);
+        }
+        return feeds;
+    }
+    
+    String likeAggregationKey(String feedId, LocalDateTime at) {
+        long window = at.toEpochSecond(ZoneOffset.UTC) / (likeWindowMinutes * 60);
+        return "LIKE:" + feedId + ":" + window;
+    }
+    
+    private static String firstImage(Feed feed) {
+        if (feed != null && feed.getImageUrls() != null && !feed.getImageUrls().isEmpty()) {
+            return feed.getImageUrls().get(0);
+        }
+        return null;
+    }
+    
+    private static void applyActor(Notification notification, UserInfo actor) {
+        if (actor != null) {
+            notification.setActorUsername(actor.getUsername());
+            notification.setActorFullName(actor.getFullName());
+            String profileImageUrl = actor.getAvatarUrl();
+            if (profileImageUrl != null && !profileImageUrl.trim().isEmpty()) {
+                notification.setActorProfileImageUrl(profileImageUrl.trim());
+            }
+        }
+    }
+    
+    private static String actorName(UserInfo actor) {
+        if (actor != null) {
+            if (actor.getFullName() != null && !actor.getFullName().trim().isEmpty()) {
+                return actor.getFullName().trim();
+            } else if (actor.getUsername() != null && !actor.getUsername().trim().isEmpty()) {
+                return actor.getUsername().trim();
+            }
+        }
+        return "Someone";
+    }
+    
+    /**
+     * Format: "{User1 name} replied to your comment: {comment message}"
+     */
+    private static String replyMessage(UserInfo actor, String replyText) {
+        // Truncate reply text if too long (max 100 chars for message)
+        String displayText = replyText;
+        if (displayText != null && displayText.length() > 100) {
+            displayText = displayText.substring(0, 97) + "...";
+        }
+        return actorName(actor) + " replied to your comment: " + (displayText != null ? displayText : "");
+    }
+    
+    public enum Kind {
+        LIKE,
+        UNLIKE,
+        COMMENT,
+        REPLY,
+        DELETE_COMMENT
+    }
+    
+    /**
+     * A queued notification change
+     */
+    public static final class Command {
+        private final Kind kind;
+        private final String feedId;
+        private final String actorId;
+        private final String receiverId;
+        private final String text;
+        private final String originalText;
+        private final String commentId;
+        
+        private Command(Kind kind, String feedId, String actorId, String receiverId,
+                        String text, String originalText, String commentId) {
+            this.kind = kind;
+            this.feedId = feedId;
+            this.actorId = actorId;
+            this.receiverId = receiverId;
+            this.text = text;
+            this.originalText = originalText;
+            this.commentId = commentId;
+        }
+        
+        public static Command like(String feedId, String actorId) {
+            return new Command(Kind.LIKE, feedId, actorId, null, null, null, null);
+        }
+        
+        public static Command unlike(String feedId, String actorId) {
+            return new Command(Kind.UNLIKE, feedId, actorId, null, null, null, null);
+        }
+        
+        public static Command comment(String feedId, String actorId, String text) {
+            return new Command(Kind.COMMENT, feedId, actorId, null, text, null, null);
+        }
+        
+        public static Command reply(String feedId, String actorId, String commentAuthorId,
+                                    String text, String originalText, String commentId) {
+            return new Command(Kind.REPLY, feedId, actorId, commentAuthorId, text, originalText, commentId);
+        }
+        
+        public static Command deleteComment(String feedId, String actorId) {
+            return new Command(Kind.DELETE_COMMENT, feedId, actorId, null, null, null, null);
+        }
+        
+        public Kind getKind() {
+            return kind;
+        }
+        
+        public String getFeedId() {
+            return feedId;
+        }
+        
+        public String getActorId() {
+            return actorId;
+        }
+    }
+}
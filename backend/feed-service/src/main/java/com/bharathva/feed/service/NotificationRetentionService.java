@@ -0,0 +1,386 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.model.Notification;
+import com.mongodb.client.result.DeleteResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the notifications collection, and every index on it, from growing without bound.
+ *
+ * - Read notifications expire through the TTL index on {@code readAt} (see MongoMigrationConfig).
+ * - Each user keeps at most {@code max-per-user} notifications; older ones are deleted.
+ * - Per-actor LIKE and COMMENT notifications older than {@code digest-after-days} are folded
+ *   into one digest per (receiver, type, day) and the originals deleted.
+ *
+ * Deletes run in batches of {@code delete-batch-size} by id, throttled to
+ * {@code max-deletes-per-second}, so a compaction run never competes with foreground traffic
+ * for long. Unread notifications removed here are taken off the receivers' unread counters.
+ */
+@Service
+public class NotificationRetentionService {
+    
+    private static final Logger log = LoggerFactory.getLogger(NotificationRetentionService.class);
+    
+    private static final String COLLECTION = "notifications";
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${feed.notifications.retention.enabled:true}")
+    private boolean enabled = true;
+    
+    @Value("${feed.notifications.retention.max-per-user:500}")
+    private int maxPerUser = 500;
+    
+    @Value("${feed.notifications.retention.digest-after-days:7}")
+    private int digestAfterDays = 7;
+    
+    @Value("${feed.notifications.retention.delete-batch-size:500}")
+    private int deleteBatchSize = 500;
+    
+    @Value("${feed.notifications.retention.max-deletes-per-second:2000}")
+    private int maxDeletesPerSecond = 2000;
+    
+    @Value("${feed.notifications.max-tracked-actors:50}")
+    private int maxTrackedActors = 50;
+    
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong collectionBytes = new AtomicLong();
+    private final AtomicLong collectionCount = new AtomicLong();
+    private volatile double averageDocumentBytes;
+    private volatile LocalDateTime lastRunAt;
+    private volatile Map<String, Object> lastRun = new HashMap<>();
+    
+    private Counter cappedCounter;
+    private Counter digestedCounter;
+    private Counter reclaimedBytesCounter;
+    
+    @PostConstruct
+    public void registerMetrics() {
+        cappedCounter = meterRegistry.counter("feed.notifications.retention.deleted", "reason", "cap");
+        digestedCounter = meterRegistry.counter("feed.notifications.retention.deleted", "reason", "digest");
+        reclaimedBytesCounter = Counter.builder("feed.notifications.retention.reclaimed")
+            .description("Estimated bytes of notification documents removed by retention")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("feed.notifications.collection.size", collectionBytes, AtomicLong::get)
+            .description("Uncompressed size of the notifications collection at the last retention check")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("feed.notifications.collection.count", collectionCount, AtomicLong::get)
+            .description("Documents in the notifications collection at the last retention check")
+            .register(meterRegistry);
+    }
+    
+    @Scheduled(cron = "${feed.notifications.retention.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            run();
+        } catch (Exception e) {
+            log.error("❌ Notification retention run failed: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Enforce per-user caps, then fold old notifications into digests
+     */
+    public Map<String, Object> run() {
+        Map<String, Object> result = new HashMap<>();
+        if (!running.compareAndSet(false, true)) {
+            log.warn("⚠️ Notification retention already running, skipping");
+            result.put("success", false);
+            result.put("error", "Notification retention already running");
+            return result;
+        }
+        
+        try {
+            long startNanos = System.nanoTime();
+            refreshCollectionStats();
+            long bytesBefore = collectionBytes.get();
+            
+            long capped = enforceUserCaps();
+            long digested = compactIntoDigests();
+            
+            long reclaimed = Math.round((capped + digested) * averageDocumentBytes);
+            reclaimedBytesCounter.increment(reclaimed);
+            refreshCollectionStats();
+            
+            result.put("success", true);
+            result.put("cappedDeleted", capped);
+            result.put("digestedDeleted", digested);
+            result.put("estimatedReclaimedBytes", reclaimed);
+            result.put("collectionBytesBefore", bytesBefore);
+            result.put("collectionBytesAfter", collectionBytes.get());
+            result.put("collectionCount", collectionCount.get());
+            result.put("durationMs", (System.nanoTime() - startNanos) / 1_000_000);
+            log.info("🧹 Notification retention removed {} over-cap and {} digested notifications (~{} bytes)",
+                capped, digested, reclaimed);
+        } finally {
+            lastRunAt = LocalDateTime.now();
+            lastRun = result;
+            running.set(false);
+        }
+        return result;
+    }
+    
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>(lastRun);
+        status.put("running", running.get());
+        status.put("lastRunAt", lastRunAt);
+        return status;
+    }
+    
+    /**
+     * Delete everything older than each user's newest {@code maxPerUser} notifications.
+     * Users over the cap are found with one streamed {@code $group}.
+     */
+    long enforceUserCaps() {
+        Aggregation overCap = Aggregation.newAggregation(
+                Aggregation.group("receiverId").count().as("count"),
+                Aggregation.match(Criteria.where("count").gt(maxPerUser)))
+            .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        
+        long deleted = 0;
+        try (Stream<Document> users = mongoTemplate.aggregateStream(overCap, COLLECTION, Document.class)) {
+            Iterator<Document> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                String receiverId = iterator.next().getString("_id");
+                if (receiverId == null) {
+                    continue;
+                }
+                // Newest notification that falls outside the cap
+                Query boundaryQuery = Query.query(Criteria.where("receiverId").is(receiverId))
+                    .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                    .skip(maxPerUser)
+                    .limit(1);
+                boundaryQuery.fields().include("createdAt");
+                Notification boundary = mongoTemplate.findOne(boundaryQuery, Notification.class);
+                if (boundary == null || boundary.getCreatedAt() == null) {
+                    continue;
+                }
+                deleted += deleteInBatches(atOrAfterInCapOrder(receiverId, boundary), cappedCounter);
+            }
+        }
+        return deleted;
+    }
+    
+    /**
+     * The boundary and everything after it in (createdAt DESC, _id DESC) order. Ties on
+     * createdAt are broken by id so notifications that share the boundary's timestamp but
+     * rank inside the cap are kept.
+     */
+    Criteria atOrAfterInCapOrder(String receiverId, Notification boundary) {
+        return Criteria.where("receiverId").is(receiverId).orOperator(
+            Criteria.where("createdAt").lt(boundary.getCreatedAt()),
+            Criteria.where("createdAt").is(boundary.getCreatedAt()).and("_id").lte(boundary.getId()));
+    }
+    
+    /**
+     * Fold per-actor LIKE and COMMENT notifications from whole days older than
+     * {@code digestAfterDays} into one digest per (receiver, type, day).
+     */
+    long compactIntoDigests() {
+        LocalDateTime cutoff = LocalDate.now().minusDays(digestAfterDays).atStartOfDay();
+        Criteria candidates = Criteria.where("aggregationKey").exists(false)
+            .and("type").in(Notification.NotificationType.LIKE.name(), Notification.NotificationType.COMMENT.name())
+            .and("createdAt").lt(cutoff);
+        
+        Aggregation byDay = Aggregation.newAggregation(
+                Aggregation.match(candidates),
+                Aggregation.sort(Sort.by(Sort.Direction.ASC, "createdAt")),
+                Aggregation.project("receiverId", "type", "senderId", "postId", "isRead", "createdAt",
+                        "actorUsername", "actorFullName", "actorProfileImageUrl", "feedImageUrl")
+                    .and(DateOperators.DateToString.dateOf("createdAt").toString("%Y-%m-%d")).as("day"),
+                Aggregation.group("receiverId", "type", "day")
+                    .addToSet("senderId").as("actors")
+                    .sum(ConditionalOperators.when(Criteria.where("isRead").is(false)).then(1).otherwise(0)).as("unread")
+                    .last("senderId").as("senderId")
+                    .last("actorUsername").as("actorUsername")
+                    .last("actorFullName").as("actorFullName")
+                    .last("actorProfileImageUrl").as("actorProfileImageUrl")
+                    .last("postId").as("postId")
+                    .last("feedImageUrl").as("feedImageUrl")
+                    .min("createdAt").as("firstCreatedAt")
+                    .max("createdAt").as("lastCreatedAt"))
+            .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        
+        long deleted = 0;
+        try (Stream<Document> days = mongoTemplate.aggregateStream(byDay, COLLECTION, Document.class)) {
+            Iterator<Document> iterator = days.iterator();
+            while (iterator.hasNext()) {
+                deleted += foldDay(iterator.next());
+            }
+        }
+        return deleted;
+    }
+    
+    /**
+     * Upsert the digest for one (receiver, type, day) group, then delete the originals.
+     *
+     * The digest records the newest original it has counted in {@code foldedThrough}. If an
+     * earlier run counted part of this group and then stopped before deleting it, only those
+     * leftovers are deleted; the rest is counted by the next run, so a rerun never counts an
+     * original twice.
+     */
+    long foldDay(Document group) {
+        Document id = group.get("_id", Document.class);
+        String receiverId = id.getString("receiverId");
+        String type = id.getString("type");
+        String aggregationKey = Notification.DIGEST_KEY_PREFIX + type + ":" + id.getString("day");
+        List<String> actors = new ArrayList<>(group.getList("actors", String.class, List.of()));
+        if (actors.size() > maxTrackedActors) {
+            actors = actors.subList(actors.size() - maxTrackedActors, actors.size());
+        }
+        long unread = ((Number) group.get("unread")).longValue();
+        Date firstCreatedAt = group.getDate("firstCreatedAt");
+        Date lastCreatedAt = group.getDate("lastCreatedAt");
+        
+        Query existingQuery = Query.query(Criteria.where("receiverId").is(receiverId).and("aggregationKey").is(aggregationKey));
+        existingQuery.fields().include("isRead").include("foldedThrough");
+        Notification existing = mongoTemplate.findOne(existingQuery, Notification.class);
+        
+        Criteria originals = Criteria.where("receiverId").is(receiverId)
+            .and("type").is(type)
+            .and("aggregationKey").exists(false);
+        if (existing != null && existing.getFoldedThrough() != null) {
+            Date foldedThrough = Date.from(existing.getFoldedThrough().atZone(ZoneId.systemDefault()).toInstant());
+            if (!firstCreatedAt.after(foldedThrough)) {
+                return deleteInBatches(originals.and("createdAt").gte(firstCreatedAt).lte(foldedThrough), digestedCounter);
+            }
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        String postId = group.getString("postId");
+        Update update = new Update()
+            .inc("actorCount", group.getList("actors", String.class, List.of()).size())
+            .set("senderId", group.getString("senderId"))
+            .set("actorUserId", group.getString("senderId"))
+            .set("actorUsername", group.getString("actorUsername"))
+            .set("actorFullName", group.getString("actorFullName"))
+            .set("actorProfileImageUrl", group.getString("actorProfileImageUrl"))
+            .set("postId", postId)
+            .set("feedId", postId)
+            .set("feedImageUrl", group.getString("feedImageUrl"))
+            .set("updatedAt", now)
+            .max("foldedThrough", lastCreatedAt)
+            .setOnInsert("type", type)
+            .setOnInsert("recipientUserId", receiverId)
+            .setOnInsert("message", Notification.NotificationType.LIKE.name().equals(type)
+                ? "People liked your posts" : "People commented on your posts")
+            .setOnInsert("createdAt", lastCreatedAt);
+        update.push("actorIds").slice(-maxTrackedActors).each(actors.toArray());
+        boolean becomesUnread = unread > 0 && (existing == null || existing.isRead());
+        if (unread > 0) {
+            update.set("isRead", false).unset("readAt");
+        } else if (existing == null) {
+            update.setOnInsert("isRead", true).setOnInsert("readAt", now);
+        }
+        mongoTemplate.upsert(
+            Query.query(Criteria.where("receiverId").is(receiverId).and("aggregationKey").is(aggregationKey)),
+            update, Notification.class);
+        if (becomesUnread) {
+            unreadCounterService.adjust(receiverId, 1);
+        }
+        
+        return deleteInBatches(originals.and("createdAt").gte(firstCreatedAt).lte(lastCreatedAt), digestedCounter);
+    }
+    
+    /**
+     * Delete matching notifications by id in throttled batches, taking removed unread
+     * notifications off their receivers' counters.
+     */
+    long deleteInBatches(Criteria criteria, Counter metric) {
+        long total = 0;
+        while (true) {
+            Query batchQuery = new Query(criteria).limit(deleteBatchSize);
+            batchQuery.fields().include("receiverId").include("isRead");
+            List<Notification> batch = mongoTemplate.find(batchQuery, Notification.class);
+            if (batch.isEmpty()) {
+                break;
+            }
+            
+            List<String> ids = new ArrayList<>(batch.size());
+            Map<String, Long> unreadDeltas = new HashMap<>();
+            for (Notification notification : batch) {
+                ids.add(notification.getId());
+                if (!notification.isRead()) {
+                    unreadDeltas.merge(notification.getReceiverId(), -1L, Long::sum);
+                }
+            }
+            DeleteResult result = mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)), Notification.class);
+            unreadCounterService.adjustAll(unreadDeltas);
+            total += result.getDeletedCount();
+            metric.increment(result.getDeletedCount());
+            
+            if (batch.size() < deleteBatchSize || !throttle(batch.size())) {
+                break;
+            }
+        }
+        return total;
+    }
+    
+    private boolean throttle(int deleted) {
+        if (maxDeletesPerSecond <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(deleted * 1000L / maxDeletesPerSecond);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    private void refreshCollectionStats() {
+        try {
+            Document stats = mongoTemplate.executeCommand(new Document("collStats", COLLECTION));
+            collectionBytes.set(((Number) stats.getOrDefault("size", 0)).longValue());
+            collectionCount.set(((Number) stats.getOrDefault("count", 0)).longValue());
+            averageDocumentBytes = ((Number) stats.getOrDefault("avgObjSize", 0)).doubleValue();
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to read notifications collection stats: {}", e.getMessage());
+        }
+    }
+}
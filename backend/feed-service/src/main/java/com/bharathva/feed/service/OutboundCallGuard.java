@@ -0,0 +1,120 @@
+package com.bharathva.feed.service;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Timeouts, bulkheads and circuit breakers for feed-service's calls to auth-service.
+ *
+ * Each dependency ("auth-users", "auth-stats", "auth-follow") gets its own bulkhead and
+ * breaker, so a slow stats endpoint cannot use up the capacity profile lookups need. Calls
+ * still block the caller, but at most {@code max-concurrent} threads per dependency ever wait
+ * on auth-service and only for {@code timeout-ms}; everything beyond that, and every call
+ * while the breaker is open, fails immediately and the clients fall back as before.
+ * Breaker states are reported under /actuator/health.
+ */
+@Service
+public class OutboundCallGuard implements HealthIndicator {
+    
+    private static final Logger log = LoggerFactory.getLogger(OutboundCallGuard.class);
+    
+    @Value("${feed.outbound.timeout-ms:2000}")
+    private long timeoutMs;
+    
+    @Value("${feed.outbound.bulkhead.max-concurrent:20}")
+    private int maxConcurrentCalls;
+    
+    @Value("${feed.outbound.circuit-breaker.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+    
+    @Value("${feed.outbound.circuit-breaker.sliding-window-size:20}")
+    private int slidingWindowSize;
+    
+    @Value("${feed.outbound.circuit-breaker.open-state-seconds:10}")
+    private long openStateSeconds;
+    
+    private CircuitBreakerRegistry circuitBreakers;
+    private BulkheadRegistry bulkheads;
+    
+    @PostConstruct
+    public void init() {
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+            .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+            .slidingWindowSize(slidingWindowSize)
+            .minimumNumberOfCalls(Math.min(10, slidingWindowSize))
+            .failureRateThreshold(failureRateThreshold)
+            // Calls close to the timeout count as slow so a degrading auth-service opens the breaker too
+            .slowCallDurationThreshold(Duration.ofMillis(Math.max(1, timeoutMs * 3 / 4)))
+            .slowCallRateThreshold(80)
+            .waitDurationInOpenState(Duration.ofSeconds(openStateSeconds))
+            .permittedNumberOfCallsInHalfOpenState(3)
+            // A 404 is an answer, and a full bulkhead says nothing about auth-service's health
+            .ignoreExceptions(WebClientResponseException.NotFound.class, BulkheadFullException.class)
+            .build();
+        circuitBreakers = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        
+        BulkheadConfig bulkheadConfig = BulkheadConfig.custom()
+            .maxConcurrentCalls(maxConcurrentCalls)
+            .maxWaitDuration(Duration.ZERO)
+            .build();
+        bulkheads = BulkheadRegistry.of(bulkheadConfig);
+        
+        log.info("✅ Outbound call guard configured (timeout: {}ms, bulkhead: {}, breaker window: {})",
+            timeoutMs, maxConcurrentCalls, slidingWindowSize);
+    }
+    
+    /**
+     * Apply the per-call timeout, the dependency's bulkhead and its circuit breaker to a call.
+     */
+    public <T> Mono<T> guard(String dependency, Mono<T> call) {
+        CircuitBreaker circuitBreaker = circuitBreakers.circuitBreaker(dependency);
+        Bulkhead bulkhead = bulkheads.bulkhead(dependency);
+        return call
+            .timeout(Duration.ofMillis(timeoutMs))
+            .transformDeferred(BulkheadOperator.of(bulkhead))
+            .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+    
+    /**
+     * Feed-service stays UP with auth-service down (callers fall back), so this only reports
+     * each dependency's breaker state and bulkhead headroom.
+     */
+    @Override
+    public Health health() {
+        return Health.up().withDetails(getStatus()).build();
+    }
+    
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        circuitBreakers.getAllCircuitBreakers().forEach(circuitBreaker -> {
+            Map<String, Object> dependency = new HashMap<>();
+            dependency.put("circuitBreaker", circuitBreaker.getState().name());
+            dependency.put("failureRate", circuitBreaker.getMetrics().getFailureRate());
+            dependency.put("slowCallRate", circuitBreaker.getMetrics().getSlowCallRate());
+            dependency.put("availableConcurrentCalls",
+                bulkheads.bulkhead(circuitBreaker.getName()).getMetrics().getAvailableConcurrentCalls());
+            status.put(circuitBreaker.getName(), dependency);
+        });
+        return status;
+    }
+}
@@ -0,0 +1,135 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.model.PostCountOutbox;
+import com.bharathva.feed.repository.FeedRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Durable outbox for post counts. Feed writes record a per-user change in MongoDB in the
+ * same transaction as the feed itself; a background relay later pushes one coalesced count
+ * per user to auth-service.
+ *
+ * Delivery is at-least-once: an entry stays pending until auth-service acknowledges it,
+ * and auth-service ignores any sequence it has already applied ({@code userId:seq} is the
+ * idempotency key), so retries and concurrent relays are harmless.
+ */
+@Service
+public class PostCountOutboxService {
+    
+    private static final Logger log = LoggerFactory.getLogger(PostCountOutboxService.class);
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private FeedRepository feedRepository;
+    
+    @Autowired
+    private PostStatsClient postStatsClient;
+    
+    @Value("${feed.outbox.enabled:true}")
+    private boolean enabled = true;
+    
+    @Value("${feed.outbox.batch-size:500}")
+    private int batchSize = 500;
+    
+    /**
+     * Record that a user's post count changed. Called inside the transaction of the feed
+     * insert or delete, so the entry commits with it; a failure here fails (and rolls back)
+     * the feed write rather than losing the change.
+     */
+    public void record(String userId) {
+        if (userId == null || userId.trim().isEmpty()) {
+            return;
+        }
+        mongoTemplate.upsert(
+                Query.query(Criteria.where("_id").is(userId)),
+                new Update()
+                        .inc("seq", 1)
+                        .set("pending", true)
+                        .set("updatedAt", LocalDateTime.now()),
+                PostCountOutbox.class);
+    }
+    
+    @Scheduled(fixedDelayString = "${feed.outbox.flush-interval-ms:2000}",
+               initialDelayString = "${feed.outbox.flush-interval-ms:2000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int delivered = relayPending();
+            if (delivered > 0) {
+                log.info("📤 Relayed post counts for {} users", delivered);
+            }
+        } catch (Exception e) {
+            log.error("❌ Post count relay failed: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Push the current post count of up to one batch of pending users in a single call.
+     * Counts are read after the pending sequence, so each pushed count reflects at least
+     * every change up to that sequence.
+     *
+     * @return number of entries acknowledged and cleared
+     */
+    public int relayPending() {
+        Query pendingQuery = Query.query(Criteria.where("pending").is(true))
+                .with(Sort.by(Sort.Direction.ASC, "updatedAt"))
+                .limit(batchSize);
+        List<PostCountOutbox> entries = mongoTemplate.find(pendingQuery, PostCountOutbox.class);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        
+        List<Map<String, Object>> updates = new ArrayList<>(entries.size());
+        List<String> userIds = new ArrayList<>(entries.size());
+        for (PostCountOutbox entry : entries) {
+            Map<String, Object> update = new HashMap<>();
+            update.put("userId", entry.getUserId());
+            update.put("count", (int) feedRepository.countByUserId(entry.getUserId()));
+            update.put("seq", entry.getSeq());
+            updates.add(update);
+            userIds.add(entry.getUserId());
+        }
+        
+        try {
+            postStatsClient.applyPostCounts(updates);
+        } catch (Exception e) {
+            log.warn("⚠️ Post count relay for {} users failed, will retry: {}", entries.size(), e.getMessage());
+            mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("_id").in(userIds)),
+                    new Update().inc("attempts", 1).set("lastError", e.getMessage()),
+                    PostCountOutbox.class);
+            return 0;
+        }
+        
+        // Clear only entries whose sequence is unchanged; newer changes stay pending for the next flush
+        BulkOperations ack = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PostCountOutbox.class);
+        for (PostCountOutbox entry : entries) {
+            ack.updateOne(
+                    Query.query(Criteria.where("_id").is(entry.getUserId()).and("seq").is(entry.getSeq())),
+                    new Update().set("pending", false).set("attempts", 0).unset("lastError"));
+        }
+        ack.execute();
+        return entries.size();
+    }
+}
@@ -1,172 +1,178 @@
 package com.bharathva.feed.service;
 
-import com.bharathva.feed.model.Feed;
+import com.bharathva.feed.model.PostCountOutbox;
 import com.bharathva.feed.repository.FeedRepository;
+import org.bson.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
+/**
+ * Full reconciliation of post counts from MongoDB to NeonDB. This is the safety net
+ * behind the post count outbox: it recounts every user's posts with a single streaming
+ * {@code $group} aggregation and pushes the counts to auth-service in bulk batches.
+ * Users with no posts left do not appear in the {@code $group}; the outbox knows every user
+ * whose count ever changed, so those of its users without posts are reconciled to zero.
+ */
 @Service
 public class PostCountSyncService {
     
     private static final Logger log = LoggerFactory.getLogger(PostCountSyncService.class);
     
+    private static final int PROGRESS_LOG_INTERVAL_BATCHES = 20;
+    
     @Autowired
     private FeedRepository feedRepository;
     
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
     @Autowired
     private PostStatsClient postStatsClient;
     
+    @Autowired
+    private PostCountOutboxService postCountOutboxService;
+    
+    @Value("${feed.post-count-sync.batch-size:500}")
+    private int batchSize = 500;
+    
+    @Value("${feed.post-count-sync.parallelism:4}")
+    private int parallelism = 4;
+    
+    @Value("${feed.post-count-sync.timeout-minutes:10}")
+    private long timeoutMinutes = 10;
+    
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    
+    // Progress of the current (or last) reconciliation
+    private final AtomicLong usersProcessed = new AtomicLong();
+    private final AtomicLong postsCounted = new AtomicLong();
+    private final AtomicLong usersApplied = new AtomicLong();
+    private final AtomicLong usersUnchanged = new AtomicLong();
+    private final AtomicLong usersSkipped = new AtomicLong();
+    private final AtomicLong usersFailed = new AtomicLong();
+    private final AtomicLong usersWithoutPosts = new AtomicLong();
+    private final AtomicInteger batchesCompleted = new AtomicInteger();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    
+    /**
+     * Recount and push every user's post count. Memory stays bounded by
+     * {@code parallelism} batches in flight, whatever the number of posts or users.
+     */
     public Map<String, Object> syncAllPostCounts() {
-        log.info("========================================");
-        log.info("STARTING COMPREHENSIVE POST COUNT SYNC");
-        log.info("MongoDB -> NeonDB");
-        log.info("========================================");
+        if (!running.compareAndSet(false, true)) {
+            log.warn("⚠️ Post count reconciliation already running, skipping");
+            Map<String, Object> result = getProgress();
+            result.put("success", false);
+            result.put("error", "Post count reconciliation already running");
+            return result;
+        }
         
-        Map<String, Object> result = new HashMap<>();
-        int syncedUsers = 0;
-        int failedUsers = 0;
-        long totalPosts = 0;
-        Map<String, Integer> syncDetails = new HashMap<>();
+        resetProgress();
+        LocalDateTime runStartedAt = LocalDateTime.now();
+        startedAt = runStartedAt;
+        long startNanos = System.nanoTime();
+        log.info("🔄 Starting post count reconciliation MongoDB -> NeonDB (batch size {}, parallelism {})",
+            batchSize, parallelism);
+        
+        Map<String, Object> result;
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "post-count-reconcile");
+            t.setDaemon(true);
+            return t;
+        });
+        Semaphore inFlight = new Semaphore(parallelism);
         
         try {
-            // Get all feeds from MongoDB
-            List<Feed> allFeeds = feedRepository.findAll();
-            log.info("Retrieved {} total feeds from MongoDB", allFeeds.size());
-            
-            // Count posts per user
-            Map<String, Long> userPostCounts = new HashMap<>();
-            for (Feed feed : allFeeds) {
-                String userId = feed.getUserId();
-                if (userId != null && !userId.trim().isEmpty()) {
-                    userPostCounts.put(userId, userPostCounts.getOrDefault(userId, 0L) + 1);
+            try (Stream<Document> userCounts = mongoTemplate.aggregateStream(
+                    postCountsByUser(), "feeds", Document.class)) {
+                Iterator<Document> iterator = userCounts.iterator();
+                List<Document> batch = new ArrayList<>(batchSize);
+                while (iterator.hasNext()) {
+                    batch.add(iterator.next());
+                    if (batch.size() >= batchSize) {
+                        submitBatch(executor, inFlight, batch, runStartedAt);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    submitBatch(executor, inFlight, batch, runStartedAt);
                 }
             }
+            submitUsersWithoutPosts(executor, inFlight, runStartedAt);
             
-            log.info("Found {} unique users with posts in MongoDB", userPostCounts.size());
+            executor.shutdown();
+            boolean completed = executor.awaitTermination(timeoutMinutes, TimeUnit.MINUTES);
             
-            // Sync each user's post count to NeonDB
-            for (Map.Entry<String, Long> entry : userPostCounts.entrySet()) {
-                String userId = entry.getKey();
-                Long postCount = entry.getValue();
-                
-                try {
-                    log.info("Syncing user: {} - MongoDB count: {}", userId, postCount);
-                    
-                    // Retry logic for reliability
-                    boolean success = false;
-                    int retries = 3;
-                    Exception lastException = null;
-                    
-                    for (int attempt = 1; attempt <= retries; attempt++) {
-                        try {
-                            postStatsClient.setPostCount(userId, postCount.intValue());
-                            success = true;
-                            break;
-                        } catch (Exception e) {
-                            lastException = e;
-                            log.warn("Attempt {} failed for user {}: {}", attempt, userId, e.getMessage());
-                            if (attempt < retries) {
-                                Thread.sleep(500 * attempt); // Exponential backoff
-                            }
-                        }
-                    }
-                    
-                    if (success) {
-                        syncedUsers++;
-                        totalPosts += postCount;
-                        syncDetails.put(userId, postCount.intValue());
-                        log.info("✅ Successfully synced user: {} with {} posts", userId, postCount);
-                    } else {
-                        failedUsers++;
-                        log.error("❌ Failed to sync user: {} after {} retries - {}", 
-                            userId, retries, lastException != null ? lastException.getMessage() : "Unknown error");
-                    }
-                } catch (Exception e) {
-                    failedUsers++;
-                    log.error("❌ Error syncing user: {} - {}", userId, e.getMessage(), e);
-                }
+            result = getProgress();
+            result.put("success", completed);
+            if (!completed) {
+                result.put("error", "Reconciliation timed out after " + timeoutMinutes + " minutes");
             }
-            
-            result.put("success", true);
-            result.put("syncedUsers", syncedUsers);
-            result.put("failedUsers", failedUsers);
-            result.put("totalPosts", totalPosts);
-            result.put("totalUsersInMongoDB", userPostCounts.size());
-            result.put("syncDetails", syncDetails);
             result.put("message", String.format(
-                "Synced post counts for %d users (%d failed). Total posts: %d", 
-                syncedUsers, failedUsers, totalPosts));
-            
-            log.info("========================================");
-            log.info("SYNC COMPLETED");
-            log.info("Synced users: {}", syncedUsers);
-            log.info("Failed users: {}", failedUsers);
-            log.info("Total posts: {}", totalPosts);
-            log.info("========================================");
+                "Reconciled post counts for %d users (%d updated, %d unchanged, %d deferred to outbox, %d failed, %d without posts). Total posts: %d",
+                usersProcessed.get(), usersApplied.get(), usersUnchanged.get(), usersSkipped.get(),
+                usersFailed.get(), usersWithoutPosts.get(), postsCounted.get()));
             
+            log.info("✅ Post count reconciliation finished in {} ms: {}",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), result.get("message"));
+        
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = failure(e);
         } catch (Exception e) {
-            log.error("========================================");
-            log.error("SYNC FAILED WITH ERROR");
-            log.error("Error: {}", e.getMessage(), e);
-            log.error("========================================");
-            result.put("success", false);
-            result.put("error", e.getMessage());
-            result.put("syncedUsers", syncedUsers);
-            result.put("failedUsers", failedUsers);
+            result = failure(e);
+        } finally {
+            executor.shutdownNow();
+            finishedAt = LocalDateTime.now();
+            running.set(false);
         }
         
         return result;
     }
     
+    /**
+     * Queue a single user's post count through the outbox; the relay pushes it on its next flush.
+     */
     public Map<String, Object> syncUserPostCount(String userId) {
         log.info("Syncing post count for single user: {}", userId);
         
         Map<String, Object> result = new HashMap<>();
         
         try {
-            // Count posts for this user in MongoDB
             long mongoCount = feedRepository.countByUserId(userId);
-            log.info("MongoDB post count for user {}: {}", userId, mongoCount);
-            
-            // Sync to NeonDB with retry
-            boolean success = false;
-            int retries = 3;
-            Exception lastException = null;
-            
-            for (int attempt = 1; attempt <= retries; attempt++) {
-                try {
-                    postStatsClient.setPostCount(userId, (int) mongoCount);
-                    success = true;
-                    break;
-                } catch (Exception e) {
-                    lastException = e;
-                    log.warn("Attempt {} failed for user {}: {}", attempt, userId, e.getMessage());
-                    if (attempt < retries) {
-                        Thread.sleep(500 * attempt);
-                    }
-                }
-            }
-            
-            if (success) {
-                result.put("success", true);
-                result.put("userId", userId);
-                result.put("mongoCount", mongoCount);
-                result.put("message", "Successfully synced post count");
-                log.info("✅ Successfully synced user: {} with {} posts", userId, mongoCount);
-            } else {
-                result.put("success", false);
-                result.put("userId", userId);
-                result.put("mongoCount", mongoCount);
-                result.put("error", lastException != null ? lastException.getMessage() : "Unknown error");
-                log.error("❌ Failed to sync user: {} after {} retries", userId, retries);
-            }
+            postCountOutboxService.record(userId);
             
+            result.put("success", true);
+            result.put("userId", userId);
+            result.put("mongoCount", mongoCount);
+            result.put("message", "Post count queued for sync");
+            log.info("✅ Queued post count sync for user: {} with {} posts", userId, mongoCount);
         } catch (Exception e) {
             log.error("Error syncing user post count: {}", e.getMessage(), e);
             result.put("success", false);
@@ -175,6 +181,175 @@ public class PostCountSyncService {
         
         return result;
     }
+    
+    /**
+     * Progress of the running reconciliation, or the result of the last one
+     */
+    public Map<String, Object> getProgress() {
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("running", running.get());
+        progress.put("startedAt", startedAt);
+        progress.put("finishedAt", finishedAt);
+        progress.put("batchesCompleted", batchesCompleted.get());
+        progress.put("totalUsersInMongoDB", usersProcessed.get());
+        progress.put("totalPosts", postsCounted.get());
+        progress.put("syncedUsers", usersApplied.get() + usersUnchanged.get());
+        progress.put("updatedUsers", usersApplied.get());
+        progress.put("deferredUsers", usersSkipped.get());
+        progress.put("failedUsers", usersFailed.get());
+        progress.put("usersWithoutPosts", usersWithoutPosts.get());
+        return progress;
+    }
+    
+    /**
+     * Posts per user, grouped in MongoDB: only {@code userId} is read from each feed,
+     * and results are streamed through a cursor instead of materialised.
+     */
+    private Aggregation postCountsByUser() {
+        return Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("userId").nin(null, "")),
+                Aggregation.project("userId").andExclude("_id"),
+                Aggregation.group("userId").count().as("count"))
+            .withOptions(AggregationOptions.builder()
+                .allowDiskUse(true)
+                .cursorBatchSize(batchSize)
+                .build());
+    }
+    
+    /**
+     * Reconcile to zero the outbox users that no longer have any post. Only entries settled
+     * before the run are read (reconcileBatch defers the others anyway), in batches checked
+     * against the feeds collection with one distinct query each.
+     */
+    private void submitUsersWithoutPosts(ExecutorService executor, Semaphore inFlight,
+                                         LocalDateTime runStartedAt) throws InterruptedException {
+        Query settled = Query.query(Criteria.where("pending").is(false).and("updatedAt").lt(runStartedAt));
+        settled.fields().include("_id");
+        settled.cursorBatchSize(batchSize);
+        try (Stream<PostCountOutbox> entries = mongoTemplate.stream(settled, PostCountOutbox.class)) {
+            Iterator<PostCountOutbox> iterator = entries.iterator();
+            List<String> userIds = new ArrayList<>(batchSize);
+            while (iterator.hasNext()) {
+                userIds.add(iterator.next().getUserId());
+                if (userIds.size() >= batchSize || !iterator.hasNext()) {
+                    List<Document> zeroCounts = withoutPosts(userIds);
+                    if (!zeroCounts.isEmpty()) {
+                        usersWithoutPosts.addAndGet(zeroCounts.size());
+                        submitBatch(executor, inFlight, zeroCounts, runStartedAt);
+                    }
+                    userIds = new ArrayList<>(batchSize);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Zero counts, shaped like the {@code $group} output, for the given users that have no posts
+     */
+    List<Document> withoutPosts(List<String> userIds) {
+        Set<String> withPosts = new HashSet<>(mongoTemplate.findDistinct(
+                Query.query(Criteria.where("userId").in(userIds)), "userId", "feeds", String.class));
+        List<Document> zeroCounts = new ArrayList<>();
+        for (String userId : userIds) {
+            if (!withPosts.contains(userId)) {
+                zeroCounts.add(new Document("_id", userId).append("count", 0));
+            }
+        }
+        return zeroCounts;
+    }
+    
+    private void submitBatch(ExecutorService executor, Semaphore inFlight, List<Document> batch,
+                             LocalDateTime runStartedAt) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            executor.execute(() -> {
+                try {
+                    reconcileBatch(batch, runStartedAt);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+    
+    /**
+     * Push one batch of recounted users. Users whose outbox entry is pending or changed
+     * since the run started are left to the outbox relay, which sends a fresher count;
+     * the others carry their last outbox sequence so a newer relayed count always wins.
+     */
+    void reconcileBatch(List<Document> batch, LocalDateTime runStartedAt) {
+        List<String> userIds = new ArrayList<>(batch.size());
+        long batchPosts = 0;
+        for (Document userCount : batch) {
+            userIds.add(userCount.getString("_id"));
+            batchPosts += ((Number) userCount.get("count")).longValue();
+        }
+        
+        Map<String, PostCountOutbox> outboxEntries = new HashMap<>();
+        for (PostCountOutbox entry : mongoTemplate.find(
+                Query.query(Criteria.where("_id").in(userIds)), PostCountOutbox.class)) {
+            outboxEntries.put(entry.getUserId(), entry);
+        }
+        
+        List<Map<String, Object>> updates = new ArrayList<>(batch.size());
+        for (Document userCount : batch) {
+            String userId = userCount.getString("_id");
+            PostCountOutbox entry = outboxEntries.get(userId);
+            if (entry != null && (entry.isPending()
+                    || entry.getUpdatedAt() == null || !entry.getUpdatedAt().isBefore(runStartedAt))) {
+                usersSkipped.incrementAndGet();
+                continue;
+            }
+            Map<String, Object> update = new HashMap<>();
+            update.put("userId", userId);
+            update.put("count", ((Number) userCount.get("count")).intValue());
+            update.put("seq", entry != null ? entry.getSeq() : 0L);
+            updates.add(update);
+        }
+        
+        if (!updates.isEmpty()) {
+            try {
+                Map<String, Object> applied = postStatsClient.applyPostCounts(updates, true);
+                int rejected = applied != null && applied.get("rejected") instanceof List
+                    ? ((List<?>) applied.get("rejected")).size() : 0;
+                usersApplied.addAndGet(applied != null ? ((Number) applied.getOrDefault("applied", 0)).longValue() : 0);
+                usersUnchanged.addAndGet(applied != null ? ((Number) applied.getOrDefault("stale", 0)).longValue() : 0);
+                usersFailed.addAndGet(rejected);
+            } catch (Exception e) {
+                usersFailed.addAndGet(updates.size());
+                log.warn("⚠️ Failed to reconcile post counts for {} users: {}", updates.size(), e.getMessage());
+            }
+        }
+        
+        usersProcessed.addAndGet(batch.size());
+        postsCounted.addAndGet(batchPosts);
+        int completed = batchesCompleted.incrementAndGet();
+        if (completed % PROGRESS_LOG_INTERVAL_BATCHES == 0) {
+            log.info("📊 Post count reconciliation progress: {} users, {} posts, {} updated, {} failed",
+                usersProcessed.get(), postsCounted.get(), usersApplied.get(), usersFailed.get());
+        }
+    }
+    
+    private void resetProgress() {
+        usersProcessed.set(0);
+        postsCounted.set(0);
+        usersApplied.set(0);
+        usersUnchanged.set(0);
+        usersSkipped.set(0);
+        usersFailed.set(0);
+        usersWithoutPosts.set(0);
+        batchesCompleted.set(0);
+        finishedAt = null;
+    }
+    
+    private Map<String, Object> failure(Exception e) {
+        log.error("❌ Post count reconciliation failed: {}", e.getMessage(), e);
+        Map<String, Object> result = getProgress();
+        result.put("success", false);
+        result.put("error", e.getMessage());
+        return result;
+    }
 }
-
-
@@ -9,6 +9,7 @@ import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -19,9 +20,58 @@ public class PostStatsClient {
     @Autowired
     private WebClient authServiceWebClient;
     
+    @Autowired
+    private OutboundCallGuard outboundCallGuard;
+    
     @Value("${gateway.url:http://localhost:8080}")
     private String gatewayUrl;
     
+    @Value("${internal.service-token:}")
+    private String internalServiceToken;
+    
+    /**
+     * Push a batch of coalesced post counts ({@code userId}, {@code count}, {@code seq}) in one call.
+     * auth-service applies each entry only if its sequence is newer than the stored one.
+     */
+    public Map<String, Object> applyPostCounts(List<Map<String, Object>> updates) {
+        return applyPostCounts(updates, false);
+    }
+    
+    /**
+     * Push a batch of post counts; {@code reconcile} marks counts from a full recount, which
+     * auth-service applies unless a newer outbox sequence has already been applied.
+     */
+    public Map<String, Object> applyPostCounts(List<Map<String, Object>> updates, boolean reconcile) {
+        String endpoint = gatewayUrl != null && !gatewayUrl.trim().isEmpty() 
+            ? "/api/auth/stats/posts/bulk" 
+            : "/auth/stats/posts/bulk";
+        
+        log.debug("Pushing {} post counts via endpoint: {}", updates.size(), endpoint);
+        
+        Map<String, Object> response = outboundCallGuard.guard("auth-stats", authServiceWebClient
+                .post()
+                .uri(endpoint)
+                .header("X-Internal-Token", internalServiceToken)
+                .bodyValue(Map.of("updates", updates, "reconcile", reconcile))
+                .retrieve()
+                .onStatus(status -> status.isError(), clientResponse -> 
+                    clientResponse.bodyToMono(String.class)
+                        .defaultIfEmpty("")
+                        .flatMap(body -> Mono.error(new RuntimeException(
+                            "HTTP " + clientResponse.statusCode() + " " + body))))
+                .bodyToMono(Map.class))
+                .block();
+        
+        if (response == null || !Boolean.TRUE.equals(response.get("success"))) {
+            String message = response != null ? (String) response.get("message") : "Null response";
+            throw new RuntimeException("Failed to apply post counts: " + message);
+        }
+        
+        Map<String, Object> data = (Map<String, Object>) response.get("data");
+        log.debug("Post count batch result: {}", data);
+        return data;
+    }
+    
     public void incrementPostCount(String userId) {
         try {
             String endpoint = gatewayUrl != null && !gatewayUrl.trim().isEmpty() 
@@ -30,7 +80,7 @@ public class PostStatsClient {
             
             log.info("Incrementing post count for user: {} via endpoint: {}", userId, endpoint);
             
-            Map<String, Object> response = authServiceWebClient
+            Map<String, Object> response = outboundCallGuard.guard("auth-stats", authServiceWebClient
                     .post()
                     .uri(endpoint, userId)
                     .retrieve()
@@ -41,7 +91,7 @@ public class PostStatsClient {
                             .doOnNext(body -> log.error("Error body: {}", body))
                             .then(Mono.error(new RuntimeException("HTTP " + clientResponse.statusCode())));
                     })
-                    .bodyToMono(Map.class)
+                    .bodyToMono(Map.class))
                     .block();
             
             if (response != null) {
@@ -81,7 +131,7 @@ public class PostStatsClient {
             
             log.info("Decrementing post count for user: {} via endpoint: {}", userId, endpoint);
             
-            Map<String, Object> response = authServiceWebClient
+            Map<String, Object> response = outboundCallGuard.guard("auth-stats", authServiceWebClient
                     .post()
                     .uri(endpoint, userId)
                     .retrieve()
@@ -92,7 +142,7 @@ public class PostStatsClient {
                             .doOnNext(body -> log.error("Error body: {}", body))
                             .then(Mono.error(new RuntimeException("HTTP " + clientResponse.statusCode())));
                     })
-                    .bodyToMono(Map.class)
+                    .bodyToMono(Map.class))
                     .block();
             
             if (response != null) {
@@ -134,7 +184,7 @@ public class PostStatsClient {
             
             Map<String, Object> requestBody = Map.of("count", count);
             
-            Map<String, Object> response = authServiceWebClient
+            Map<String, Object> response = outboundCallGuard.guard("auth-stats", authServiceWebClient
                     .post()
                     .uri(endpoint, userId)
                     .bodyValue(requestBody)
@@ -146,7 +196,7 @@ public class PostStatsClient {
                             .doOnNext(body -> log.error("Error body: {}", body))
                             .then(Mono.error(new RuntimeException("HTTP " + clientResponse.statusCode())));
                     })
-                    .bodyToMono(Map.class)
+                    .bodyToMono(Map.class))
                     .block();
             
             if (response != null) {
@@ -0,0 +1,217 @@
+package com.bharathva.feed.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits post text into the terms, hashtags and mentions stored on each feed for search.
+ *
+ * A term is a run of letters, combining marks and digits, so Devanagari, Tamil, Bengali and
+ * other Indic words keep their vowel signs and viramas instead of being cut at every mark
+ * the way ASCII word splitting would. Text is NFKC-normalized and lower-cased, and the
+ * invisible joiners (ZWJ/ZWNJ) are dropped so the same word typed on different keyboards
+ * produces the same term. Terms never contain regex metacharacters.
+ */
+public final class SearchTokenizer {
+    
+    /** Longest term kept; longer runs are truncated so prefix lookups still hit them. */
+    static final int MAX_TERM_LENGTH = 64;
+    
+    /** Most distinct terms stored per post. */
+    static final int MAX_TERMS = 200;
+    
+    private static final int ZWNJ = 0x200C;
+    private static final int ZWJ = 0x200D;
+    
+    private SearchTokenizer() {}
+    
+    /**
+     * Distinct terms of a text, hashtag and mention bodies included, in order of appearance.
+     */
+    public static List<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (Token token : tokenize(text)) {
+            if (terms.size() >= MAX_TERMS) {
+                break;
+            }
+            terms.add(token.text);
+        }
+        return new ArrayList<>(terms);
+    }
+    
+    /**
+     * Distinct hashtags of a text without the leading {@code #}.
+     */
+    public static List<String> hashtags(String text) {
+        return marked(text, '#');
+    }
+    
+    /**
+     * Distinct mentioned usernames of a text without the leading {@code @}.
+     */
+    public static List<String> mentions(String text) {
+        return marked(text, '@');
+    }
+    
+    /**
+     * Parse a search query. {@code #tag} and {@code @user} become filters, every other word
+     * must match a term, and the last word is matched as a prefix unless the query ends in
+     * whitespace (the user has finished typing it).
+     */
+    public static ParsedQuery parseQuery(String query) {
+        ParsedQuery parsed = new ParsedQuery();
+        List<Token> tokens = tokenize(query);
+        boolean lastIsOpen = query != null && !query.isEmpty()
+            && !Character.isWhitespace(query.charAt(query.length() - 1));
+        
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            if (token.marker == '#') {
+                addDistinct(parsed.hashtags, token.text);
+            } else if (token.marker == '@') {
+                addDistinct(parsed.mentions, token.text);
+            } else if (i == tokens.size() - 1 && lastIsOpen) {
+                parsed.prefix = token.text;
+            } else {
+                addDistinct(parsed.terms, token.text);
+            }
+        }
+        // A finished word that was also typed earlier adds nothing to the prefix
+        if (parsed.prefix != null && parsed.terms.contains(parsed.prefix)) {
+            parsed.prefix = null;
+        }
+        return parsed;
+    }
+    
+    private static List<String> marked(String text, char marker) {
+        List<String> values = new ArrayList<>();
+        for (Token token : tokenize(text)) {
+            if (token.marker == marker) {
+                addDistinct(values, token.text);
+            }
+        }
+        return values;
+    }
+    
+    private static void addDistinct(List<String> values, String value) {
+        if (!values.contains(value)) {
+            values.add(value);
+        }
+    }
+    
+    private static List<Token> tokenize(String text) {
+        List<Token> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        
+        StringBuilder current = new StringBuilder();
+        char marker = 0;
+        int previous = 0;
+        int beforePrevious = 0;
+        int i = 0;
+        while (i < normalized.length()) {
+            int codePoint = normalized.codePointAt(i);
+            i += Character.charCount(codePoint);
+            
+            if (codePoint == ZWJ || codePoint == ZWNJ) {
+                continue;
+            }
+            if (isTermChar(codePoint) || (marker == '@' && isUsernameSeparator(codePoint) && current.length() > 0)) {
+                // '#' and '@' only mark a tag at the start of a word, so "a@b.com" is not a mention
+                if (current.length() == 0 && (previous == '#' || previous == '@') && !isTermChar(beforePrevious)) {
+                    marker = (char) previous;
+                }
+                if (current.length() < MAX_TERM_LENGTH) {
+                    current.appendCodePoint(codePoint);
+                }
+            } else {
+                flush(tokens, current, marker);
+                marker = 0;
+            }
+            beforePrevious = previous;
+            previous = codePoint;
+        }
+        flush(tokens, current, marker);
+        return tokens;
+    }
+    
+    private static void flush(List<Token> tokens, StringBuilder current, char marker) {
+        // Usernames may contain dots and underscores but not end with them ("@ravi." ends a sentence)
+        int end = current.length();
+        while (end > 0 && isUsernameSeparator(current.charAt(end - 1))) {
+            end--;
+        }
+        if (end > 0) {
+            tokens.add(new Token(current.substring(0, end), marker));
+        }
+        current.setLength(0);
+    }
+    
+    private static boolean isTermChar(int codePoint) {
+        switch (Character.getType(codePoint)) {
+            case Character.UPPERCASE_LETTER:
+            case Character.LOWERCASE_LETTER:
+            case Character.TITLECASE_LETTER:
+            case Character.MODIFIER_LETTER:
+            case Character.OTHER_LETTER:
+            case Character.NON_SPACING_MARK:
+            case Character.COMBINING_SPACING_MARK:
+            case Character.ENCLOSING_MARK:
+            case Character.DECIMAL_DIGIT_NUMBER:
+            case Character.OTHER_NUMBER:
+                return true;
+            default:
+                return codePoint == '_';
+        }
+    }
+    
+    private static boolean isUsernameSeparator(int codePoint) {
+        return codePoint == '.' || codePoint == '_';
+    }
+    
+    private static final class Token {
+        private final String text;
+        private final char marker;
+        
+        private Token(String text, char marker) {
+            this.text = text;
+            this.marker = marker;
+        }
+    }
+    
+    /**
+     * A tokenized search query.
+     */
+    public static final class ParsedQuery {
+        private final List<String> terms = new ArrayList<>();
+        private final List<String> hashtags = new ArrayList<>();
+        private final List<String> mentions = new ArrayList<>();
+        private String prefix;
+        
+        public List<String> getTerms() {
+            return terms;
+        }
+        
+        public List<String> getHashtags() {
+            return hashtags;
+        }
+        
+        public List<String> getMentions() {
+            return mentions;
+        }
+        
+        public String getPrefix() {
+            return prefix;
+        }
+        
+        public boolean isEmpty() {
+            return terms.isEmpty() && hashtags.isEmpty() && mentions.isEmpty() && prefix == null;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.dto.FeedResponse;
+import com.bharathva.feed.model.Feed;
+import com.bharathva.feed.model.HomeTimeline;
+import com.bharathva.feed.model.PullModeAuthor;
+import com.bharathva.feed.repository.FeedRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Per-user home timelines built with fan-out-on-write.
+ *
+ * When a feed is created its ID is pushed to the front of every follower's bounded
+ * {@link HomeTimeline} with one {@code updateMulti} per batch of followers. Authors above the fan-out threshold are recorded as
+ * {@link PullModeAuthor}s instead and their posts are merged in at read time, so a
+ * single post never triggers millions of writes. Reading a timeline is one key lookup
+ * plus one batched {@code $in} fetch of the referenced feeds.
+ */
+@Service
+public class TimelineService {
+    
+    private static final Logger log = LoggerFactory.getLogger(TimelineService.class);
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private FeedRepository feedRepository;
+    
+    @Autowired
+    private FollowGraphClient followGraphClient;
+    
+    @Autowired
+    private FeedEngagementService feedEngagementService;
+    
+    @Autowired
+    private FeedCacheService feedCacheService;
+    
+    @Autowired
+    private UserProfileLoader userProfileLoader;
+    
+    @Autowired
+    private WebSocketService webSocketService;
+    
+    @Value("${feed.timeline.capacity:800}")
+    private int capacity;
+    
+    @Value("${feed.timeline.fanout-threshold:10000}")
+    private long fanoutThreshold;
+    
+    @Value("${feed.timeline.fanout-batch-size:500}")
+    private int fanoutBatchSize;
+    
+    /**
+     * Fan a newly created feed out to its author's followers without blocking the create request.
+     */
+    @Async("timelineFanoutExecutor")
+    public CompletableFuture<Integer> fanOutFeedAsync(String authorId, String feedId) {
+        try {
+            return CompletableFuture.completedFuture(fanOutFeed(authorId, feedId));
+        } catch (Exception e) {
+            log.error("❌ Timeline fan-out failed for feed {} by user {}: {}", feedId, authorId, e.getMessage(), e);
+            return CompletableFuture.completedFuture(0);
+        }
+    }
+    
+    /**
+     * Push a feed ID into the author's own timeline and, unless the author is above the
+     * fan-out threshold, into every follower's timeline.
+     *
+     * @return number of followers the feed was fanned out to
+     */
+    public int fanOutFeed(String authorId, String feedId) {
+        if (authorId == null || authorId.trim().isEmpty() || feedId == null || feedId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Author ID and feed ID are required for fan-out");
+        }
+        
+        // Only existing timelines are updated; a user without one gets it rebuilt on first read,
+        // which also backfills history an upsert of a single ID would lose
+        Update update = pushFeedId(feedId);
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(authorId)), update, HomeTimeline.class);
+        
+        FollowGraphClient.FollowerIds followers = followGraphClient.getFollowerIds(authorId, fanoutThreshold);
+        if (followers.isTruncated()) {
+            mongoTemplate.save(new PullModeAuthor(authorId, followers.getCount()));
+            log.info("📣 User {} has {} followers, feed {} will be merged on read instead of fanned out", 
+                    authorId, followers.getCount(), feedId);
+            return 0;
+        }
+        // Back under the threshold (unfollows): stop merging this author on read
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(authorId)), PullModeAuthor.class);
+        
+        List<String> followerIds = followers.getIds();
+        for (int start = 0; start < followerIds.size(); start += fanoutBatchSize) {
+            List<String> batch = followerIds.subList(start, Math.min(start + fanoutBatchSize, followerIds.size()));
+            mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(batch)), update, HomeTimeline.class);
+        }
+        // Live push to the same followers; authors above the threshold are only on their author topic
+        webSocketService.notifyFollowersFeedCreated(authorId, feedId, followerIds);
+        
+        log.info("✅ Fanned out feed {} by user {} to {} follower timelines", feedId, authorId, followerIds.size());
+        return followerIds.size();
+    }
+    
+    /**
+     * Read a page of a user's home timeline, newest first.
+     */
+    public Slice<FeedResponse> getHomeTimeline(String userId, int page, int size) {
+        log.info("Getting home timeline for user: {}, page: {}, size: {}", userId, page, size);
+        
+        if (userId == null || userId.trim().isEmpty()) {
+            throw new IllegalArgumentException("User ID cannot be null or empty");
+        }
+        if (page < 0) {
+            throw new IllegalArgumentException("Page number cannot be negative");
+        }
+        if (size <= 0 || size > 100) {
+            throw new IllegalArgumentException("Page size must be between 1 and 100");
+        }
+        
+        int offset = page * size;
+        // One extra entry tells us whether another page exists
+        int window = offset + size + 1;
+        
+        Query timelineQuery = new Query(Criteria.where("_id").is(userId));
+        timelineQuery.fields().slice("feedIds", 0, window);
+        HomeTimeline timeline = mongoTemplate.findOne(timelineQuery, HomeTimeline.class);
+        
+        List<String> feedIds;
+        if (timeline == null) {
+            feedIds = rebuildTimeline(userId);
+            feedIds = feedIds.subList(0, Math.min(window, feedIds.size()));
+        } else {
+            feedIds = timeline.getFeedIds() != null ? timeline.getFeedIds() : Collections.emptyList();
+        }
+        
+        // Served from the feed cache; misses are one batched $in fetch. Timeline order is
+        // preserved and deleted feeds simply drop out
+        List<Feed> merged = feedCacheService.getFeeds(feedIds, feedRepository::findAllById);
+        
+        List<Feed> pulled = fetchPullModeFeeds(userId, window);
+        if (!pulled.isEmpty()) {
+            Map<String, Feed> byId = new HashMap<>();
+            for (Feed feed : merged) {
+                byId.put(feed.getId(), feed);
+            }
+            for (Feed feed : pulled) {
+                byId.putIfAbsent(feed.getId(), feed);
+            }
+            merged = new ArrayList<>(byId.values());
+            merged.sort(Comparator.comparing(Feed::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+        }
+        
+        boolean hasNext = merged.size() > offset + size;
+        List<Feed> pageFeeds = merged.stream()
+                .skip(offset)
+                .limit(size)
+                .collect(Collectors.toList());
+        List<FeedResponse> content = pageFeeds.stream()
+                .map(feed -> {
+                    FeedResponse response = new FeedResponse(feed, userId);
+                    response.setCommentsCount(feed.getCommentsCount());
+                    return response;
+                })
+                .collect(Collectors.toList());
+        feedEngagementService.markUserLiked(pageFeeds, content, userId);
+        userProfileLoader.hydrateFeeds(content);
+        
+        log.info("Retrieved {} home timeline entries for user {}", content.size(), userId);
+        return new SliceImpl<>(content, PageRequest.of(page, size), hasNext);
+    }
+    
+    /**
+     * Recent feeds from followed authors that are in pull mode, newest first.
+     * Only consults the follow graph when at least one pull-mode author exists.
+     */
+    private List<Feed> fetchPullModeFeeds(String userId, int limit) {
+        try {
+            if (!mongoTemplate.exists(new Query(), PullModeAuthor.class)) {
+                return Collections.emptyList();
+            }
+            
+            List<String> followingIds = followGraphClient.getFollowingIds(userId);
+            if (followingIds.isEmpty()) {
+                return Collections.emptyList();
+            }
+            
+            Query authorQuery = new Query(Criteria.where("_id").in(followingIds));
+            authorQuery.fields().include("_id");
+            List<String> pullAuthorIds = mongoTemplate.find(authorQuery, PullModeAuthor.class).stream()
+                    .map(PullModeAuthor::getUserId)
+                    .collect(Collectors.toList());
+            if (pullAuthorIds.isEmpty()) {
+                return Collections.emptyList();
+            }
+            
+            Query feedQuery = new Query(Criteria.where("userId").in(pullAuthorIds))
+                    .with(Sort.by(Sort.Direction.DESC, "createdAt"))
+                    .limit(limit);
+            return mongoTemplate.find(feedQuery, Feed.class);
+        } catch (Exception e) {
+            log.warn("⚠️ Could not merge pull-mode feeds into timeline for user {}: {}", userId, e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+    
+    /**
+     * Build a timeline for a user who has none yet by reading the recent feeds of
+     * everyone they follow (plus their own) and materialising the result. If the
+     * following list cannot be loaded the own-posts-only result is served but not saved,
+     * so the next read tries again instead of keeping the partial timeline for good.
+     */
+    private List<String> rebuildTimeline(String userId) {
+        List<String> authorIds = new ArrayList<>();
+        authorIds.add(userId);
+        boolean complete = true;
+        try {
+            authorIds.addAll(followGraphClient.getFollowingIds(userId));
+        } catch (Exception e) {
+            complete = false;
+            log.warn("⚠️ Could not load following list for user {}, serving own posts only: {}", 
+                    userId, e.getMessage());
+        }
+        
+        Query feedQuery = new Query(Criteria.where("userId").in(authorIds))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt"))
+                .limit(capacity);
+        feedQuery.fields().include("_id");
+        List<String> feedIds = mongoTemplate.find(feedQuery, Feed.class).stream()
+                .map(Feed::getId)
+                .collect(Collectors.toList());
+        
+        if (!complete) {
+            return feedIds;
+        }
+        mongoTemplate.save(new HomeTimeline(userId, feedIds));
+        log.info("🔄 Rebuilt home timeline for user {} with {} entries", userId, feedIds.size());
+        return feedIds;
+    }
+    
+    private Update pushFeedId(String feedId) {
+        return new Update()
+                .push("feedIds").atPosition(0).slice(capacity).each(feedId)
+                .set("updatedAt", LocalDateTime.now());
+    }
+}
@@ -0,0 +1,195 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.model.Notification;
+import com.bharathva.feed.model.NotificationCounter;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-user unread notification counters, so badge polls and WebSocket pushes read one
+ * document instead of counting a user's unread backlog.
+ *
+ * Writers apply the change to the notifications first and then {@code $inc} the counter.
+ * Increments never create a counter: a missing counter is seeded from the real count on
+ * first read. A periodic reconciliation recounts in pages and corrects any drift with a
+ * compare-and-set, so a counter that moved while it was being checked is left alone.
+ */
+@Service
+public class UnreadCounterService {
+    
+    private static final Logger log = LoggerFactory.getLogger(UnreadCounterService.class);
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${feed.notifications.unread-counter.reconcile-enabled:true}")
+    private boolean reconcileEnabled = true;
+    
+    @Value("${feed.notifications.unread-counter.reconcile-batch-size:500}")
+    private int reconcileBatchSize = 500;
+    
+    /**
+     * Current unread count for a user
+     */
+    public long get(String userId) {
+        NotificationCounter counter = mongoTemplate.findById(userId, NotificationCounter.class);
+        if (counter != null) {
+            // Can dip below zero briefly when a read lands before the matching increment
+            return Math.max(0, counter.getUnread());
+        }
+        long unread = countUnread(userId);
+        mongoTemplate.upsert(
+                Query.query(Criteria.where("_id").is(userId)),
+                new Update()
+                        .setOnInsert("unread", unread)
+                        .setOnInsert("updatedAt", LocalDateTime.now()),
+                NotificationCounter.class);
+        return unread;
+    }
+    
+    /**
+     * Apply a change to one user's counter
+     */
+    public void adjust(String userId, long delta) {
+        if (userId == null || delta == 0) {
+            return;
+        }
+        try {
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(userId)),
+                    new Update().inc("unread", delta).set("updatedAt", LocalDateTime.now()),
+                    NotificationCounter.class);
+        } catch (Exception e) {
+            // The periodic reconciliation repairs any counter missed here
+            log.warn("⚠️ Failed to adjust unread counter for user {}: {}", userId, e.getMessage());
+        }
+    }
+    
+    /**
+     * Apply the changes of one notification batch in a single bulk write
+     */
+    public void adjustAll(Map<String, Long> deltas) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NotificationCounter.class);
+        LocalDateTime now = LocalDateTime.now();
+        int operations = 0;
+        for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+            if (delta.getKey() == null || delta.getValue() == null || delta.getValue() == 0) {
+                continue;
+            }
+            bulk.updateOne(Query.query(Criteria.where("_id").is(delta.getKey())),
+                    new Update().inc("unread", delta.getValue()).set("updatedAt", now));
+            operations++;
+        }
+        if (operations == 0) {
+            return;
+        }
+        try {
+            bulk.execute();
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to adjust {} unread counters: {}", operations, e.getMessage());
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${feed.notifications.unread-counter.reconcile-interval-ms:3600000}",
+               initialDelayString = "${feed.notifications.unread-counter.reconcile-interval-ms:3600000}")
+    public void scheduledReconcile() {
+        if (!reconcileEnabled) {
+            return;
+        }
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("❌ Unread counter reconciliation failed: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Recount every counter against the notifications collection, one page of users at a time.
+     * @return number of counters corrected
+     */
+    public int reconcile() {
+        int corrected = 0;
+        int checked = 0;
+        String lastUserId = null;
+        
+        while (true) {
+            Query page = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(reconcileBatchSize);
+            if (lastUserId != null) {
+                page.addCriteria(Criteria.where("_id").gt(lastUserId));
+            }
+            List<NotificationCounter> counters = mongoTemplate.find(page, NotificationCounter.class);
+            if (counters.isEmpty()) {
+                break;
+            }
+            corrected += reconcilePage(counters);
+            checked += counters.size();
+            lastUserId = counters.get(counters.size() - 1).getUserId();
+            if (counters.size() < reconcileBatchSize) {
+                break;
+            }
+        }
+        
+        if (corrected > 0) {
+            log.info("🔄 Unread counter reconciliation corrected {} of {} counters", corrected, checked);
+        }
+        return corrected;
+    }
+    
+    int reconcilePage(List<NotificationCounter> counters) {
+        List<String> userIds = new ArrayList<>(counters.size());
+        for (NotificationCounter counter : counters) {
+            userIds.add(counter.getUserId());
+        }
+        
+        Map<String, Long> actual = new HashMap<>();
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("receiverId").in(userIds).and("isRead").is(false)),
+                Aggregation.group("receiverId").count().as("count"));
+        for (Document row : mongoTemplate.aggregate(aggregation, Notification.class, Document.class).getMappedResults()) {
+            actual.put(row.getString("_id"), ((Number) row.get("count")).longValue());
+        }
+        
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NotificationCounter.class);
+        LocalDateTime now = LocalDateTime.now();
+        int corrections = 0;
+        for (NotificationCounter counter : counters) {
+            long real = actual.getOrDefault(counter.getUserId(), 0L);
+            if (counter.getUnread() == real) {
+                continue;
+            }
+            // Only overwrite the value we read; a concurrent $inc means the recount may be stale
+            bulk.updateOne(
+                    Query.query(Criteria.where("_id").is(counter.getUserId()).and("unread").is(counter.getUnread())),
+                    new Update().set("unread", real).set("updatedAt", now));
+            corrections++;
+        }
+        if (corrections > 0) {
+            bulk.execute();
+        }
+        return corrections;
+    }
+    
+    private long countUnread(String userId) {
+        return mongoTemplate.count(
+                Query.query(Criteria.where("receiverId").is(userId).and("isRead").is(false)),
+                Notification.class);
+    }
+}
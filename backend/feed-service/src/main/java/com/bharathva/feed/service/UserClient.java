@@ -10,6 +10,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -20,12 +24,18 @@ public class UserClient {
     @Autowired
     private WebClient authServiceWebClient;
     
+    @Autowired
+    private OutboundCallGuard outboundCallGuard;
+    
     @Value("${auth.service.url:http://localhost:8080}")
     private String authServiceUrl;
     
     @Value("${gateway.url:http://localhost:8080}")
     private String gatewayUrl;
     
+    @Value("${internal.service-token:}")
+    private String internalServiceToken;
+    
     @Cacheable(value = "userCache", key = "#userId")
     public UserInfo getUserInfo(String userId) {
         try {
@@ -44,11 +54,11 @@ public class UserClient {
             
             Map<String, Object> response = null;
             try {
-                response = authServiceWebClient
+                response = outboundCallGuard.guard("auth-users", authServiceWebClient
                         .get()
                         .uri(endpoint, userId)
                         .retrieve()
-                        .bodyToMono(Map.class)
+                        .bodyToMono(Map.class))
                         .block();
                 
                 log.info("✅ Auth service response for userId {}: {}", userId, response != null ? "received" : "null");
@@ -65,18 +75,7 @@ public class UserClient {
             
             if (response != null && response.containsKey("data")) {
                 Map<String, Object> userData = (Map<String, Object>) response.get("data");
-                
-                UserInfo userInfo = new UserInfo();
-                userInfo.setId(userData.get("id") != null ? userData.get("id").toString() : null);
-                userInfo.setUsername(userData.get("username") != null ? userData.get("username").toString() : null);
-                userInfo.setFullName(userData.get("fullName") != null ? userData.get("fullName").toString() : null);
-                userInfo.setEmail(userData.get("email") != null ? userData.get("email").toString() : null);
-                // Map profileImageUrl from backend response to avatarUrl in UserInfo
-                String profileImageUrl = userData.get("profileImageUrl") != null 
-                    ? userData.get("profileImageUrl").toString() 
-                    : (userData.get("avatarUrl") != null ? userData.get("avatarUrl").toString() : null);
-                userInfo.setAvatarUrl(profileImageUrl);
-                userInfo.setVerified(userData.get("verified") != null ? (Boolean) userData.get("verified") : false);
+                UserInfo userInfo = toUserInfo(userData);
                 
                 log.debug("Successfully fetched user info for userId: {}", userId);
                 return userInfo;
@@ -94,17 +93,58 @@ public class UserClient {
         }
     }
     
+    /**
+     * Profile summaries for many users with one call to auth-service's bulk endpoint.
+     * Users that do not exist are absent from the result; a failed call throws.
+     */
+    public Map<String, UserInfo> getUserInfos(Collection<String> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        
+        String endpoint = gatewayUrl != null && !gatewayUrl.trim().isEmpty() 
+            ? "/api/auth/user/batch" 
+            : "/auth/user/batch";
+        
+        log.debug("🌐 Fetching {} user profiles in one batch: endpoint={}", userIds.size(), endpoint);
+        
+        Map<String, Object> request = new HashMap<>();
+        request.put("userIds", new ArrayList<>(userIds));
+        
+        Map<String, Object> response = outboundCallGuard.guard("auth-users", authServiceWebClient
+                .post()
+                .uri(endpoint)
+                .header("X-Internal-Token", internalServiceToken)
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(Map.class))
+                .block();
+        
+        Map<String, UserInfo> users = new HashMap<>();
+        if (response != null && response.get("data") instanceof Map) {
+            Map<String, Object> data = (Map<String, Object>) response.get("data");
+            for (Map.Entry<String, Object> entry : data.entrySet()) {
+                if (entry.getValue() instanceof Map) {
+                    users.put(entry.getKey(), toUserInfo((Map<String, Object>) entry.getValue()));
+                }
+            }
+        }
+        
+        log.debug("Fetched {}/{} user profiles", users.size(), userIds.size());
+        return users;
+    }
+    
     public boolean validateUser(String userId) {
         try {
             log.info("Validating user existence for userId: {} via Auth Service", userId);
             log.info("Auth Service URL: {}", authServiceUrl);
             
             // Use the username endpoint which doesn't require authentication
-            Map<String, Object> response = authServiceWebClient
+            Map<String, Object> response = outboundCallGuard.guard("auth-users", authServiceWebClient
                     .get()
                     .uri(authServiceUrl + "/auth/user/username/{username}", "temp_" + userId)
                     .retrieve()
-                    .bodyToMono(Map.class)
+                    .bodyToMono(Map.class))
                     .block();
             
             log.info("Auth Service response for userId {}: {}", userId, response);
@@ -138,27 +178,16 @@ public class UserClient {
             
             String endpoint = "/api/auth/user/username/{username}";
             
-            Map<String, Object> response = authServiceWebClient
+            Map<String, Object> response = outboundCallGuard.guard("auth-users", authServiceWebClient
                     .get()
                     .uri(endpoint, username)
                     .retrieve()
-                    .bodyToMono(Map.class)
+                    .bodyToMono(Map.class))
                     .block();
             
             if (response != null && response.containsKey("data")) {
                 Map<String, Object> userData = (Map<String, Object>) response.get("data");
-                
-                UserInfo userInfo = new UserInfo();
-                userInfo.setId(userData.get("id") != null ? userData.get("id").toString() : null);
-                userInfo.setUsername(userData.get("username") != null ? userData.get("username").toString() : null);
-                userInfo.setFullName(userData.get("fullName") != null ? userData.get("fullName").toString() : null);
-                userInfo.setEmail(userData.get("email") != null ? userData.get("email").toString() : null);
-                // Map profileImageUrl from backend response to avatarUrl in UserInfo
-                String profileImageUrl = userData.get("profileImageUrl") != null 
-                    ? userData.get("profileImageUrl").toString() 
-                    : (userData.get("avatarUrl") != null ? userData.get("avatarUrl").toString() : null);
-                userInfo.setAvatarUrl(profileImageUrl);
-                userInfo.setVerified(userData.get("verified") != null ? (Boolean) userData.get("verified") : false);
+                UserInfo userInfo = toUserInfo(userData);
                 
                 log.debug("Successfully fetched user info for username: {}", username);
                 return userInfo;
@@ -176,16 +205,34 @@ public class UserClient {
         }
     }
     
+    /**
+     * Map an auth-service user payload, as sent by both the single-user and batch endpoints
+     */
+    UserInfo toUserInfo(Map<String, Object> userData) {
+        UserInfo userInfo = new UserInfo();
+        userInfo.setId(userData.get("id") != null ? userData.get("id").toString() : null);
+        userInfo.setUsername(userData.get("username") != null ? userData.get("username").toString() : null);
+        userInfo.setFullName(userData.get("fullName") != null ? userData.get("fullName").toString() : null);
+        userInfo.setEmail(userData.get("email") != null ? userData.get("email").toString() : null);
+        // Map profileImageUrl from backend response to avatarUrl in UserInfo
+        String profileImageUrl = userData.get("profileImageUrl") != null 
+            ? userData.get("profileImageUrl").toString() 
+            : (userData.get("avatarUrl") != null ? userData.get("avatarUrl").toString() : null);
+        userInfo.setAvatarUrl(profileImageUrl);
+        userInfo.setVerified(Boolean.TRUE.equals(userData.get("isEmailVerified")));
+        return userInfo;
+    }
+    
     public boolean validateToken(String token) {
         try {
             log.debug("Validating token with auth service");
             
-            Map<String, Object> response = authServiceWebClient
+            Map<String, Object> response = outboundCallGuard.guard("auth-users", authServiceWebClient
                     .post()
                     .uri(authServiceUrl + "/api/auth/validate")
                     .header("Authorization", "Bearer " + token)
                     .retrieve()
-                    .bodyToMono(Map.class)
+                    .bodyToMono(Map.class))
                     .block();
             
             if (response != null && response.containsKey("data")) {
@@ -0,0 +1,153 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.dto.FeedResponse;
+import com.bharathva.feed.dto.NotificationResponse;
+import com.bharathva.feed.model.UserInfo;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Batched user-profile hydration for feed and notification pages.
+ *
+ * A page collects every user ID it needs and resolves them in one pass: hits come from a
+ * local near-cache with a TTL, and all misses go to auth-service's bulk endpoint in a single
+ * call (chunked at the endpoint's limit). Users that do not exist are remembered for the same
+ * TTL so they do not cause a lookup on every page. If auth-service is unavailable the page is
+ * returned with whatever profiles were cached.
+ */
+@Service
+public class UserProfileLoader {
+    
+    private static final Logger log = LoggerFactory.getLogger(UserProfileLoader.class);
+    
+    // auth-service rejects larger batches
+    private static final int MAX_BATCH_SIZE = 100;
+    
+    // Near-cache marker for users auth-service does not know about
+    private static final UserInfo MISSING = new UserInfo();
+    
+    @Autowired
+    private UserClient userClient;
+    
+    @Value("${feed.user-profiles.cache-ttl-seconds:300}")
+    private long cacheTtlSeconds;
+    
+    @Value("${feed.user-profiles.cache-max-size:50000}")
+    private long cacheMaxSize;
+    
+    private Cache<String, UserInfo> profiles;
+    
+    @PostConstruct
+    public void init() {
+        profiles = Caffeine.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+            .build();
+    }
+    
+    /**
+     * Profiles for the given user IDs, keyed by ID. Unknown users are absent from the result.
+     */
+    public Map<String, UserInfo> loadAll(Collection<String> userIds) {
+        Set<String> wanted = new LinkedHashSet<>();
+        for (String userId : userIds) {
+            if (userId != null && !userId.trim().isEmpty()) {
+                wanted.add(userId);
+            }
+        }
+        
+        Map<String, UserInfo> result = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String userId : wanted) {
+            UserInfo cached = profiles.getIfPresent(userId);
+            if (cached == null) {
+                misses.add(userId);
+            } else if (cached != MISSING) {
+                result.put(userId, cached);
+            }
+        }
+        
+        for (int from = 0; from < misses.size(); from += MAX_BATCH_SIZE) {
+            List<String> batch = misses.subList(from, Math.min(from + MAX_BATCH_SIZE, misses.size()));
+            try {
+                Map<String, UserInfo> fetched = userClient.getUserInfos(batch);
+                for (String userId : batch) {
+                    UserInfo userInfo = fetched.get(userId);
+                    profiles.put(userId, userInfo != null ? userInfo : MISSING);
+                    if (userInfo != null) {
+                        result.put(userId, userInfo);
+                    }
+                }
+            } catch (Exception e) {
+                // Not cached as missing: the next page retries these users
+                log.warn("⚠️ Failed to load {} user profiles from auth service: {}", batch.size(), e.getMessage());
+            }
+        }
+        
+        log.debug("Resolved {}/{} user profiles ({} fetched)", result.size(), wanted.size(), misses.size());
+        return result;
+    }
+    
+    /**
+     * Fill author details on a page of feeds with one batched lookup.
+     */
+    public void hydrateFeeds(List<FeedResponse> feeds) {
+        if (feeds == null || feeds.isEmpty()) {
+            return;
+        }
+        List<String> authorIds = new ArrayList<>(feeds.size());
+        for (FeedResponse feed : feeds) {
+            authorIds.add(feed.getUserId());
+        }
+        
+        Map<String, UserInfo> authors = loadAll(authorIds);
+        for (FeedResponse feed : feeds) {
+            UserInfo author = authors.get(feed.getUserId());
+            if (author != null) {
+                feed.setAuthorUsername(author.getUsername());
+                feed.setAuthorFullName(author.getFullName());
+                feed.setAuthorProfileImageUrl(author.getAvatarUrl());
+            }
+        }
+    }
+    
+    /**
+     * Refresh actor details on a page of notifications with one batched lookup. Details stored
+     * on the notification when it was created are kept if the actor cannot be resolved.
+     */
+    public void hydrateNotifications(List<NotificationResponse> notifications) {
+        if (notifications == null || notifications.isEmpty()) {
+            return;
+        }
+        List<String> actorIds = new ArrayList<>(notifications.size());
+        for (NotificationResponse notification : notifications) {
+            actorIds.add(notification.getActorUserId());
+        }
+        
+        Map<String, UserInfo> actors = loadAll(actorIds);
+        for (NotificationResponse notification : notifications) {
+            UserInfo actor = actors.get(notification.getActorUserId());
+            if (actor != null) {
+                notification.setActorUsername(actor.getUsername());
+                notification.setActorFullName(actor.getFullName());
+                notification.setActorProfileImageUrl(actor.getAvatarUrl());
+                notification.describeAggregate();
+            }
+        }
+    }
+}
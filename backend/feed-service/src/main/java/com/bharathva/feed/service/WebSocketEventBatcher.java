@@ -0,0 +1,194 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.dto.FeedEvent;
+import com.bharathva.feed.dto.FeedEventBatch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces outbound feed events per destination before they reach the broker.
+ *
+ * Events for the same destination are held for one flush interval. Exact repeats of an
+ * event (same type, feed, user and payload) collapse into the latest one, and whatever is left goes out
+ * as a single frame: the bare event when only one remains, otherwise a {@link FeedEventBatch}.
+ * A user destination reaches every session of that user, so this bounds the frames each
+ * session receives per interval no matter how busy the feeds it follows are.
+ */
+@Service
+public class WebSocketEventBatcher {
+    
+    private static final Logger log = LoggerFactory.getLogger(WebSocketEventBatcher.class);
+    
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${feed.websocket.batching.enabled:true}")
+    private boolean enabled = true;
+    
+    @Value("${feed.websocket.batching.max-events-per-flush:50}")
+    private int maxEventsPerFlush = 50;
+    
+    @Value("${feed.websocket.batching.max-pending-destinations:100000}")
+    private int maxPendingDestinations = 100000;
+    
+    private final Map<Target, Pending> pending = new ConcurrentHashMap<>();
+    
+    private Counter enqueuedCounter;
+    private Counter coalescedCounter;
+    private Counter framesCounter;
+    
+    @PostConstruct
+    void registerMetrics() {
+        enqueuedCounter = meterRegistry.counter("feed.websocket.events.enqueued");
+        coalescedCounter = meterRegistry.counter("feed.websocket.events.coalesced");
+        framesCounter = meterRegistry.counter("feed.websocket.frames.sent");
+        Gauge.builder("feed.websocket.pending.destinations", pending, Map::size)
+                .description("Destinations with feed events waiting for the next flush")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Queue an event for every session of one user
+     */
+    public void sendToUser(String userId, String destination, FeedEvent event) {
+        enqueue(new Target(userId, destination), event);
+    }
+    
+    /**
+     * Queue an event for a broker destination shared by many sessions
+     */
+    public void sendToTopic(String destination, FeedEvent event) {
+        enqueue(new Target(null, destination), event);
+    }
+    
+    @Scheduled(fixedDelayString = "${feed.websocket.batching.flush-interval-ms:100}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        for (Target target : new ArrayList<>(pending.keySet())) {
+            flush(target);
+        }
+    }
+    
+    public int getPendingDestinations() {
+        return pending.size();
+    }
+    
+    private void enqueue(Target target, FeedEvent event) {
+        enqueuedCounter.increment();
+        if (!enabled || (pending.size() >= maxPendingDestinations && !pending.containsKey(target))) {
+            // Batching off, or too many destinations waiting: send now rather than grow without bound
+            send(target, List.of(event));
+            return;
+        }
+        
+        while (true) {
+            Pending batch = pending.computeIfAbsent(target, key -> new Pending());
+            int size;
+            synchronized (batch) {
+                if (batch.closed) {
+                    // Drained by a concurrent flush after we looked it up; start a new batch
+                    continue;
+                }
+                String key = event.getType() + ":" + event.getFeedId() + ":" + event.getUserId() + ":" + event.getMessage()
+                        + ":" + event.getSeq();
+                // Re-insert so the surviving event keeps the position of the latest change
+                if (batch.events.remove(key) != null) {
+                    coalescedCounter.increment();
+                }
+                batch.events.put(key, event);
+                size = batch.events.size();
+            }
+            if (size >= maxEventsPerFlush) {
+                flush(target);
+            }
+            return;
+        }
+    }
+    
+    private void flush(Target target) {
+        Pending batch = pending.remove(target);
+        if (batch == null) {
+            return;
+        }
+        List<FeedEvent> events;
+        synchronized (batch) {
+            batch.closed = true;
+            events = new ArrayList<>(batch.events.values());
+        }
+        if (!events.isEmpty()) {
+            send(target, events);
+        }
+    }
+    
+    private void send(Target target, List<FeedEvent> events) {
+        Object payload = events.size() == 1 ? events.get(0) : new FeedEventBatch(events);
+        try {
+            if (target.userId != null) {
+                messagingTemplate.convertAndSendToUser(target.userId, target.destination, payload);
+            } else {
+                messagingTemplate.convertAndSend(target.destination, payload);
+            }
+            framesCounter.increment();
+        } catch (Exception e) {
+            log.error("❌ Error sending {} feed event(s) to {}: {}", events.size(), target, e.getMessage(), e);
+        }
+    }
+    
+    private static final class Target {
+        private final String userId;
+        private final String destination;
+        
+        private Target(String userId, String destination) {
+            this.userId = userId;
+            this.destination = destination;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Target)) {
+                return false;
+            }
+            Target other = (Target) o;
+            return Objects.equals(userId, other.userId) && destination.equals(other.destination);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, destination);
+        }
+        
+        @Override
+        public String toString() {
+            return userId != null ? "user " + userId + " " + destination : destination;
+        }
+    }
+    
+    private static final class Pending {
+        private final LinkedHashMap<String, FeedEvent> events = new LinkedHashMap<>();
+        private boolean closed;
+    }
+}
@@ -6,27 +6,65 @@ import com.bharathva.feed.dto.NotificationResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+
 /**
  * Service for handling WebSocket communications for real-time feed updates
+ *
+ * Events are routed by interest rather than broadcast: new posts go to the author's
+ * followers through their user queues, and engagement on a post goes to that post's own
+ * topic, which clients subscribe to while the post is on screen. Notifications go only to
+ * their recipient. The shared {@code /topic/feeds} and {@code /topic/notifications}
+ * broadcasts are kept behind {@code feed.websocket.legacy-broadcast} for older clients.
  */
 @Service
 public class WebSocketService {
     
     private static final Logger log = LoggerFactory.getLogger(WebSocketService.class);
     
+    public static final String FEED_QUEUE = "/queue/feeds";
+    public static final String NOTIFICATION_QUEUE = "/queue/notifications";
+    public static final String LEGACY_FEED_TOPIC = "/topic/feeds";
+    public static final String LEGACY_NOTIFICATION_TOPIC = "/topic/notifications";
+    
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
     
+    @Autowired
+    private WebSocketEventBatcher eventBatcher;
+    
+    @Value("${feed.websocket.legacy-broadcast:false}")
+    private boolean legacyBroadcast;
+    
+    /**
+     * Topic carrying engagement events for one feed
+     */
+    public static String feedTopic(String feedId) {
+        return "/topic/feeds/" + feedId;
+    }
+    
+    /**
+     * Topic carrying new posts of one author, for profile viewers and followers of
+     * authors too large to fan out to
+     */
+    public static String authorTopic(String authorId) {
+        return "/topic/users/" + authorId + "/feeds";
+    }
+    
     /**
-     * Send feed creation event to all connected clients
+     * Send feed creation event to the author's sessions and author topic.
+     * Followers are reached by {@link #notifyFollowersFeedCreated} once the fan-out has resolved them.
      */
     public void notifyFeedCreated(String userId, String feedId, String message) {
         try {
             FeedEvent event = new FeedEvent("FEED_CREATED", feedId, userId, message);
-            messagingTemplate.convertAndSend("/topic/feeds", event);
+            eventBatcher.sendToUser(userId, FEED_QUEUE, event);
+            eventBatcher.sendToTopic(authorTopic(userId), event);
+            broadcastLegacy(LEGACY_FEED_TOPIC, event);
             log.info("📤 Sent feed creation event for user: {}, feed: {}", userId, feedId);
         } catch (Exception e) {
             log.error("❌ Error sending feed creation event: {}", e.getMessage(), e);
@@ -34,12 +72,29 @@ public class WebSocketService {
     }
     
     /**
-     * Send feed deletion event to all connected clients
+     * Send feed creation event to each follower's sessions
+     */
+    public void notifyFollowersFeedCreated(String authorId, String feedId, Collection<String> followerIds) {
+        try {
+            FeedEvent event = new FeedEvent("FEED_CREATED", feedId, authorId, null);
+            for (String followerId : followerIds) {
+                eventBatcher.sendToUser(followerId, FEED_QUEUE, event);
+            }
+            log.info("📤 Sent feed creation event for feed: {} to {} followers of user: {}", feedId, followerIds.size(), authorId);
+        } catch (Exception e) {
+            log.error("❌ Error sending feed creation event to followers: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Send feed deletion event to the feed's subscribers and the author's sessions
      */
     public void notifyFeedDeleted(String userId, String feedId) {
         try {
             FeedEvent event = new FeedEvent("FEED_DELETED", feedId, userId, null);
-            messagingTemplate.convertAndSend("/topic/feeds", event);
+            eventBatcher.sendToTopic(feedTopic(feedId), event);
+            eventBatcher.sendToUser(userId, FEED_QUEUE, event);
+            broadcastLegacy(LEGACY_FEED_TOPIC, event);
             log.info("📤 Sent feed deletion event for user: {}, feed: {}", userId, feedId);
         } catch (Exception e) {
             log.error("❌ Error sending feed deletion event: {}", e.getMessage(), e);
@@ -47,12 +102,14 @@ public class WebSocketService {
     }
     
     /**
-     * Send feed update event to all connected clients
+     * Send feed update event to the feed's subscribers and the author's sessions
      */
     public void notifyFeedUpdated(String userId, String feedId, String message) {
         try {
             FeedEvent event = new FeedEvent("FEED_UPDATED", feedId, userId, message);
-            messagingTemplate.convertAndSend("/topic/feeds", event);
+            eventBatcher.sendToTopic(feedTopic(feedId), event);
+            eventBatcher.sendToUser(userId, FEED_QUEUE, event);
+            broadcastLegacy(LEGACY_FEED_TOPIC, event);
             log.info("📤 Sent feed update event for user: {}, feed: {}", userId, feedId);
         } catch (Exception e) {
             log.error("❌ Error sending feed update event: {}", e.getMessage(), e);
@@ -64,7 +121,7 @@ public class WebSocketService {
      */
     public void notifyUserFeedEvent(String userId, FeedEvent event) {
         try {
-            messagingTemplate.convertAndSendToUser(userId, "/queue/feeds", event);
+            messagingTemplate.convertAndSendToUser(userId, FEED_QUEUE, event);
             log.info("📤 Sent user-specific feed event to user: {}, type: {}", userId, event.getType());
         } catch (Exception e) {
             log.error("❌ Error sending user-specific feed event: {}", e.getMessage(), e);
@@ -72,60 +129,20 @@ public class WebSocketService {
     }
     
     /**
-     * Send feed liked event to all connected clients
+     * Send an engagement delta (like, unlike, comment, comment deletion) to the feed's subscribers
      */
-    public void notifyFeedLiked(String userId, String feedId) {
+    public void notifyFeedDelta(FeedEvent event) {
         try {
-            FeedEvent event = new FeedEvent("FEED_LIKED", feedId, userId, null);
-            messagingTemplate.convertAndSend("/topic/feeds", event);
-            log.info("📤 Sent feed liked event for user: {}, feed: {}", userId, feedId);
+            eventBatcher.sendToTopic(feedTopic(event.getFeedId()), event);
+            broadcastLegacy(LEGACY_FEED_TOPIC, event);
+            log.info("📤 Sent {} delta for feed: {}, seq: {}", event.getType(), event.getFeedId(), event.getSeq());
         } catch (Exception e) {
-            log.error("❌ Error sending feed liked event: {}", e.getMessage(), e);
-        }
-    }
-    
-    /**
-     * Send feed unliked event to all connected clients
-     */
-    public void notifyFeedUnliked(String userId, String feedId) {
-        try {
-            FeedEvent event = new FeedEvent("FEED_UNLIKED", feedId, userId, null);
-            messagingTemplate.convertAndSend("/topic/feeds", event);
-            log.info("📤 Sent feed unliked event for user: {}, feed: {}", userId, feedId);
-        } catch (Exception e) {
-            log.error("❌ Error sending feed unliked event: {}", e.getMessage(), e);
-        }
-    }
-    
-    /**
-     * Notify WebSocket clients when a feed is commented
-     */
-    public void notifyFeedCommented(String userId, String feedId) {
-        try {
-            FeedEvent event = new FeedEvent("FEED_COMMENTED", feedId, userId, null);
-            messagingTemplate.convertAndSend("/topic/feeds", event);
-            log.info("📤 Sent feed commented event for user: {}, feed: {}", userId, feedId);
-        } catch (Exception e) {
-            log.error("❌ Error sending feed commented event: {}", e.getMessage(), e);
-        }
-    }
-    
-    /**
-     * Notify WebSocket clients when a comment is deleted
-     */
-    public void notifyCommentDeleted(String userId, String feedId, int commentIndex) {
-        try {
-            FeedEvent event = new FeedEvent("COMMENT_DELETED", feedId, userId, String.valueOf(commentIndex));
-            messagingTemplate.convertAndSend("/topic/feeds", event);
-            log.info("📤 Sent comment deletion event for user: {}, feed: {}, commentIndex: {}", userId, feedId, commentIndex);
-        } catch (Exception e) {
-            log.error("❌ Error sending comment deletion event: {}", e.getMessage(), e);
+            log.error("❌ Error sending {} delta: {}", event.getType(), e.getMessage(), e);
         }
     }
     
     /**
      * Send notification creation event to specific user
-     * Uses topic-based approach with recipientUserId in the event for frontend filtering
      */
     public void notifyNotificationCreated(String notificationId, String recipientUserId, String senderId, String postId, String notificationType, Long unreadCount) {
         try {
@@ -135,9 +152,8 @@ public class WebSocketService {
             }
             
             NotificationEvent event = NotificationEvent.created(notificationId, recipientUserId, senderId, postId, notificationType, unreadCount);
-            // Send to topic - frontend will filter by recipientUserId
-            messagingTemplate.convertAndSend("/topic/notifications", event);
-            log.info("📤 Sent notification created event to topic: recipientUserId={}, notificationId: {}, type: {}, unreadCount: {}", 
+            sendNotification(recipientUserId, event);
+            log.info("📤 Sent notification created event to user: {}, notificationId: {}, type: {}, unreadCount: {}", 
                 recipientUserId, notificationId, notificationType, unreadCount);
         } catch (Exception e) {
             log.error("❌ Error sending notification created event: {}", e.getMessage(), e);
@@ -146,8 +162,6 @@ public class WebSocketService {
     
     /**
      * Send notification creation event with full notification data for instant display
-     * Uses topic-based approach with recipientUserId in the event for frontend filtering
-     * This works even if WebSocket authentication isn't fully configured
      */
     public void notifyNotificationCreated(NotificationResponse notification, Long unreadCount) {
         try {
@@ -158,10 +172,8 @@ public class WebSocketService {
             }
             
             NotificationEvent event = NotificationEvent.created(notification, unreadCount);
-            // Send to topic - frontend will filter by recipientUserId
-            // This is more reliable than user-specific queues which require WebSocket authentication
-            messagingTemplate.convertAndSend("/topic/notifications", event);
-            log.info("📤 Sent notification created event to topic: recipientUserId={}, notificationId: {}, type: {}, unreadCount: {}", 
+            sendNotification(recipientUserId, event);
+            log.info("📤 Sent notification created event to user: {}, notificationId: {}, type: {}, unreadCount: {}", 
                 recipientUserId,
                 notification.getId(),
                 notification.getType(),
@@ -173,7 +185,6 @@ public class WebSocketService {
     
     /**
      * Send notification count update to specific user
-     * Uses topic-based approach with recipientUserId in the event for frontend filtering
      */
     public void notifyNotificationCountUpdated(String recipientUserId, Long unreadCount) {
         try {
@@ -183,11 +194,21 @@ public class WebSocketService {
             }
             
             NotificationEvent event = NotificationEvent.countUpdated(recipientUserId, unreadCount);
-            // Send to topic - frontend will filter by recipientUserId
-            messagingTemplate.convertAndSend("/topic/notifications", event);
-            log.info("📤 Sent notification count update to topic: recipientUserId={}, unreadCount: {}", recipientUserId, unreadCount);
+            sendNotification(recipientUserId, event);
+            log.info("📤 Sent notification count update to user: {}, unreadCount: {}", recipientUserId, unreadCount);
         } catch (Exception e) {
             log.error("❌ Error sending notification count update: {}", e.getMessage(), e);
         }
     }
+    
+    private void sendNotification(String recipientUserId, NotificationEvent event) {
+        messagingTemplate.convertAndSendToUser(recipientUserId, NOTIFICATION_QUEUE, event);
+        broadcastLegacy(LEGACY_NOTIFICATION_TOPIC, event);
+    }
+    
+    private void broadcastLegacy(String topic, Object event) {
+        if (legacyBroadcast) {
+            messagingTemplate.convertAndSend(topic, event);
+        }
+    }
 }
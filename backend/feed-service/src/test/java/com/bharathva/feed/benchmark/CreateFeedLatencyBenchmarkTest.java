@@ -0,0 +1,211 @@
+package com.bharathva.feed.benchmark;
+
+import com.bharathva.feed.dto.CreateFeedRequest;
+import com.bharathva.feed.model.Feed;
+import com.bharathva.feed.model.PostCountOutbox;
+import com.bharathva.feed.repository.FeedRepository;
+import com.bharathva.feed.service.FeedCacheService;
+import com.bharathva.feed.service.FeedEngagementService;
+import com.bharathva.feed.service.FeedService;
+import com.bharathva.feed.service.NotificationService;
+import com.bharathva.feed.service.OutboundCallGuard;
+import com.bharathva.feed.service.PostCountSyncService;
+import com.bharathva.feed.service.PostCountOutboxService;
+import com.bharathva.feed.service.PostStatsClient;
+import com.bharathva.feed.service.TimelineService;
+import com.bharathva.feed.service.UserProfileLoader;
+import com.bharathva.feed.service.WebSocketService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Latency benchmark for the create path: p99 of FeedService.createFeed must stay flat when
+ * auth-service gets 200 ms slower, because post counts reach it through the outbox relay
+ * and never from the request thread.
+ *
+ * createFeed runs against the real PostCountOutboxService and PostStatsClient; only the
+ * HTTP exchange to auth-service is stubbed, with the added latency, while the relay flushes
+ * on its own thread as the scheduler would.
+ * Opt-in: {@code mvn test -Dtest=CreateFeedLatencyBenchmarkTest -Dcreatefeed.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "createfeed.benchmark", matches = "true")
+@ExtendWith(MockitoExtension.class)
+class CreateFeedLatencyBenchmarkTest {
+
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 1000;
+    private static final long FLUSH_INTERVAL_MS = 20;
+
+    @Mock
+    private FeedRepository feedRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private WebSocketService webSocketService;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private PostCountSyncService postCountSyncService;
+
+    @Mock
+    private TimelineService timelineService;
+
+    @Mock
+    private FeedEngagementService feedEngagementService;
+
+    @Mock
+    private FeedCacheService feedCacheService;
+
+    @Mock
+    private UserProfileLoader userProfileLoader;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private FeedService feedService;
+
+    private final AtomicInteger authCalls = new AtomicInteger();
+
+    private volatile long authLatencyMs;
+
+    private PostCountOutboxService postCountOutboxService;
+
+    @BeforeEach
+    void setUp() {
+        OutboundCallGuard outboundCallGuard = new OutboundCallGuard();
+        ReflectionTestUtils.setField(outboundCallGuard, "timeoutMs", 2000L);
+        ReflectionTestUtils.setField(outboundCallGuard, "maxConcurrentCalls", 20);
+        ReflectionTestUtils.setField(outboundCallGuard, "failureRateThreshold", 50f);
+        ReflectionTestUtils.setField(outboundCallGuard, "slidingWindowSize", 20);
+        ReflectionTestUtils.setField(outboundCallGuard, "openStateSeconds", 10L);
+        outboundCallGuard.init();
+
+        // auth-service answers every bulk post-count call after authLatencyMs
+        WebClient authServiceWebClient = WebClient.builder()
+                .baseUrl("http://auth-service")
+                .exchangeFunction(request -> Mono.delay(Duration.ofMillis(authLatencyMs))
+                        .map(tick -> {
+                            authCalls.incrementAndGet();
+                            return ClientResponse.create(HttpStatus.OK)
+                                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                    .body("{\"success\":true,\"data\":{}}")
+                                    .build();
+                        }))
+                .build();
+
+        PostStatsClient postStatsClient = new PostStatsClient();
+        ReflectionTestUtils.setField(postStatsClient, "authServiceWebClient", authServiceWebClient);
+        ReflectionTestUtils.setField(postStatsClient, "outboundCallGuard", outboundCallGuard);
+        ReflectionTestUtils.setField(postStatsClient, "gatewayUrl", "");
+        ReflectionTestUtils.setField(postStatsClient, "internalServiceToken", "benchmark-token");
+
+        postCountOutboxService = new PostCountOutboxService();
+        ReflectionTestUtils.setField(postCountOutboxService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(postCountOutboxService, "feedRepository", feedRepository);
+        ReflectionTestUtils.setField(postCountOutboxService, "postStatsClient", postStatsClient);
+        ReflectionTestUtils.setField(feedService, "postCountOutboxService", postCountOutboxService);
+    }
+
+    @Test
+    void createFeedP99StaysFlatWhenAuthServiceAdds200ms() throws InterruptedException {
+        when(feedRepository.save(any(Feed.class))).thenAnswer(invocation -> {
+            Feed feed = invocation.getArgument(0);
+            feed.setId(UUID.randomUUID().toString());
+            return feed;
+        });
+        when(mongoTemplate.find(any(Query.class), eq(PostCountOutbox.class)))
+                .thenReturn(List.of(new PostCountOutbox("user-1", 1)));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PostCountOutbox.class))
+                .thenReturn(bulkOperations);
+
+        long baselineP99 = measureP99(0);
+        long slowAuthP99 = measureP99(200);
+
+        System.out.printf("createFeed p99: %.2f ms baseline, %.2f ms with +200 ms auth-service latency%n",
+                baselineP99 / 1_000_000.0, slowAuthP99 / 1_000_000.0);
+
+        assertTrue(slowAuthP99 < 50_000_000L,
+                "p99 with slow auth-service was " + slowAuthP99 / 1_000_000.0 + " ms");
+        assertTrue(slowAuthP99 < baselineP99 + 20_000_000L,
+                "p99 grew from " + baselineP99 / 1_000_000.0 + " ms to " + slowAuthP99 / 1_000_000.0 + " ms");
+    }
+
+    private long measureP99(long latencyMs) throws InterruptedException {
+        authLatencyMs = latencyMs;
+        int callsBefore = authCalls.get();
+
+        // Flush the outbox on another thread, as the scheduler does, while requests come in
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread relay = new Thread(() -> {
+            while (running.get()) {
+                postCountOutboxService.flush();
+                sleep(FLUSH_INTERVAL_MS);
+            }
+        }, "outbox-relay");
+        relay.start();
+
+        long[] samples = new long[ITERATIONS];
+        try {
+            for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+                String userId = "user-" + (i % 50);
+                long start = System.nanoTime();
+                feedService.createFeed(new CreateFeedRequest(userId, "benchmark post " + i), userId);
+                long elapsed = System.nanoTime() - start;
+                if (i >= WARMUP) {
+                    samples[i - WARMUP] = elapsed;
+                }
+            }
+        } finally {
+            running.set(false);
+            relay.join();
+        }
+
+        assertTrue(authCalls.get() > callsBefore, "the relay never reached auth-service");
+        Arrays.sort(samples);
+        return samples[(int) Math.ceil(ITERATIONS * 0.99) - 1];
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.bharathva.feed.benchmark;
+
+import com.bharathva.feed.model.Feed;
+import com.bharathva.feed.service.FeedSearchService;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Search latency against a real MongoDB: the indexed term/prefix search versus the old
+ * case-insensitive regex over every message, on a generated corpus of 1M posts.
+ *
+ * Opt-in because it writes the corpus first (a few minutes on a laptop):
+ * {@code mvn test -Dtest=FeedSearchBenchmarkTest -Dsearch.benchmark=true [-Dsearch.benchmark.posts=1000000]}.
+ * Uses {@code mongodb://localhost:27017} unless {@code search.benchmark.uri} is set, and drops
+ * its database afterwards.
+ */
+@EnabledIfSystemProperty(named = "search.benchmark", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FeedSearchBenchmarkTest {
+
+    private static final String DATABASE = "bharathva_search_benchmark";
+    private static final int POSTS = Integer.getInteger("search.benchmark.posts", 1_000_000);
+    private static final int INSERT_BATCH = 10_000;
+    private static final int REGEX_RUNS = 10;
+    private static final int INDEXED_RUNS = 100;
+
+    private static final String[] COMMON = {
+        "india", "cricket", "today", "people", "work", "new", "great", "city", "time", "home",
+        "भारत", "नमस्ते", "दिल्ली", "खाना", "मौसम", "சென்னை", "வணக்கம்", "কলকাতা"
+    };
+
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+    private FeedSearchService feedSearchService;
+
+    @BeforeAll
+    void loadCorpus() {
+        mongoClient = MongoClients.create(System.getProperty("search.benchmark.uri", "mongodb://localhost:27017"));
+        mongoTemplate = new MongoTemplate(mongoClient, DATABASE);
+        mongoTemplate.getDb().drop();
+
+        feedSearchService = new FeedSearchService();
+        ReflectionTestUtils.setField(feedSearchService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(feedSearchService, "backfillEnabled", false);
+
+        // Same indexes as MongoMigrationConfig
+        var feeds = mongoTemplate.getCollection("feeds");
+        feeds.createIndex(Document.parse("{'createdAt': -1, '_id': -1}"));
+        feeds.createIndex(Document.parse("{'searchTerms': 1, 'createdAt': -1}"));
+        feeds.createIndex(Document.parse("{'hashtags': 1, 'createdAt': -1}"));
+        feeds.createIndex(Document.parse("{'mentions': 1, 'createdAt': -1}"));
+
+        Random random = new Random(7);
+        LocalDateTime start = LocalDateTime.now().minusDays(365);
+        long startNanos = System.nanoTime();
+        List<Feed> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < POSTS; i++) {
+            Feed feed = new Feed("user-" + random.nextInt(50_000), randomMessage(random));
+            feed.setCreatedAt(start.plusSeconds((long) i * 365 * 24 * 3600 / POSTS));
+            FeedSearchService.applySearchFields(feed);
+            batch.add(feed);
+            if (batch.size() == INSERT_BATCH) {
+                mongoTemplate.insert(batch, Feed.class);
+                batch = new ArrayList<>(INSERT_BATCH);
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.insert(batch, Feed.class);
+        }
+        System.out.printf("Loaded %d posts in %.1f s%n", POSTS, (System.nanoTime() - startNanos) / 1e9);
+    }
+
+    @AfterAll
+    void dropCorpus() {
+        if (mongoTemplate != null) {
+            mongoTemplate.getDb().drop();
+        }
+        if (mongoClient != null) {
+            mongoClient.close();
+        }
+    }
+
+    @Test
+    void indexedSearchBeatsRegexScan() {
+        String[] queries = {"cricket ", "w4711 ", "cri", "#tag17", "भारत ", "india cricket ", "@user42"};
+
+        for (String query : queries) {
+            long[] regex = time(REGEX_RUNS, () -> regexSearch(query.trim()));
+            long[] indexed = time(INDEXED_RUNS, () -> feedSearchService.search(query, null, 20));
+            System.out.printf("%-16s regex p50 %8.2f ms p99 %8.2f ms | indexed p50 %6.2f ms p99 %6.2f ms%n",
+                    "'" + query + "'",
+                    percentile(regex, 0.50) / 1e6, percentile(regex, 0.99) / 1e6,
+                    percentile(indexed, 0.50) / 1e6, percentile(indexed, 0.99) / 1e6);
+
+            assertTrue(percentile(indexed, 0.50) < percentile(regex, 0.50),
+                    "indexed search slower than the regex scan for '" + query + "'");
+        }
+    }
+
+    // What /api/feed/search ran before: unanchored, case-insensitive regex over message
+    private void regexSearch(String query) {
+        Query regex = new Query(Criteria.where("message").regex(Pattern.quote(query), "i"))
+                .with(PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt")));
+        mongoTemplate.find(regex, Feed.class);
+        mongoTemplate.count(new Query(Criteria.where("message").regex(Pattern.quote(query), "i")), Feed.class);
+    }
+
+    private static String randomMessage(Random random) {
+        int words = 8 + random.nextInt(20);
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                message.append(' ');
+            }
+            int roll = random.nextInt(100);
+            if (roll < 30) {
+                message.append(COMMON[random.nextInt(COMMON.length)]);
+            } else if (roll < 33) {
+                message.append("#tag").append(random.nextInt(500));
+            } else if (roll < 35) {
+                message.append("@user").append(random.nextInt(50_000));
+            } else {
+                // Long tail: rarer words are picked less often
+                int rank = (int) Math.pow(50_000, random.nextDouble());
+                message.append('w').append(rank);
+            }
+        }
+        return message.toString();
+    }
+
+    private static long[] time(int runs, Runnable search) {
+        search.run(); // warm up caches and the plan cache
+        long[] samples = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            search.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        return samples;
+    }
+
+    private static long percentile(long[] samples, double quantile) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.max(0, (int) Math.ceil(sorted.length * quantile) - 1)];
+    }
+}
@@ -0,0 +1,292 @@
+package com.bharathva.feed.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.bharathva.feed.service.WebSocketEventBatcher;
+import com.bharathva.feed.service.WebSocketService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.AbstractSubscriptionRegistry;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.user.DefaultUserDestinationResolver;
+import org.springframework.messaging.simp.user.UserDestinationMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.messaging.DefaultSimpUserRegistry;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load test for WebSocket fan-out: 50k simulated STOMP sessions on the in-memory broker,
+ * which stands in for the relay here. Like a relay broker it looks destinations up by name;
+ * the default registry scans every subscription on a cache miss, which at this session count
+ * would be all the test measured. New posts are routed to followers' user queues
+ * through the real user-destination resolution, and the same number of sessions is also
+ * driven through the legacy {@code /topic/feeds} broadcast for comparison.
+ *
+ * Latency is measured from the publish call to each session's outbound channel, i.e. the
+ * time the server spends before a frame is handed to that session's transport.
+ *
+ * Opt-in because it holds 50k sessions in memory and takes a while:
+ * {@code mvn test -Dtest=WebSocketFanoutLoadTest -Dwebsocket.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "websocket.benchmark", matches = "true")
+class WebSocketFanoutLoadTest {
+
+    // The broker logs through org.springframework.messaging when that is enabled for a level,
+    // otherwise through the SimpLogging fallback, so both have to be quiet
+    private static final List<String> BROKER_LOGGERS =
+            List.of("org.springframework.messaging", "org.springframework.web.SimpLogging");
+
+    private static final int SESSIONS = 50_000;
+    private static final int POSTS = 100;
+    private static final int FOLLOWERS_PER_AUTHOR = 2_000;
+    private static final int BROADCASTS = 10;
+
+    private final ExecutorSubscribableChannel clientInboundChannel = new ExecutorSubscribableChannel();
+    private final ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+    private final RecordingChannel clientOutboundChannel = new RecordingChannel();
+    private final DefaultSimpUserRegistry userRegistry = new DefaultSimpUserRegistry();
+
+    private SimpleBrokerMessageHandler broker;
+    private UserDestinationMessageHandler userDestinationHandler;
+    private SimpMessagingTemplate messagingTemplate;
+    private WebSocketService webSocketService;
+    private final List<Level> brokerLogLevels = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Per-message debug logging from the broker would dominate the measurement
+        for (String name : BROKER_LOGGERS) {
+            ch.qos.logback.classic.Logger logger = (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(name);
+            brokerLogLevels.add(logger.getLevel());
+            logger.setLevel(Level.WARN);
+        }
+
+        broker = new SimpleBrokerMessageHandler(clientInboundChannel, clientOutboundChannel, brokerChannel,
+                Arrays.asList("/topic", "/queue"));
+        broker.setSubscriptionRegistry(new ExactDestinationRegistry());
+        userDestinationHandler = new UserDestinationMessageHandler(clientInboundChannel, brokerChannel,
+                new DefaultUserDestinationResolver(userRegistry));
+        broker.start();
+        userDestinationHandler.start();
+
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(new ObjectMapper().findAndRegisterModules());
+        messagingTemplate = new SimpMessagingTemplate(brokerChannel);
+        messagingTemplate.setMessageConverter(converter);
+
+        WebSocketEventBatcher eventBatcher = new WebSocketEventBatcher();
+        ReflectionTestUtils.setField(eventBatcher, "messagingTemplate", messagingTemplate);
+        ReflectionTestUtils.setField(eventBatcher, "meterRegistry", new SimpleMeterRegistry());
+        // Measure raw fan-out; with batching on every frame would also wait for the flush interval
+        ReflectionTestUtils.setField(eventBatcher, "enabled", false);
+        ReflectionTestUtils.invokeMethod(eventBatcher, "registerMetrics");
+
+        webSocketService = new WebSocketService();
+        ReflectionTestUtils.setField(webSocketService, "messagingTemplate", messagingTemplate);
+        ReflectionTestUtils.setField(webSocketService, "eventBatcher", eventBatcher);
+        ReflectionTestUtils.setField(webSocketService, "legacyBroadcast", false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userDestinationHandler.stop();
+        broker.stop();
+        for (int i = 0; i < BROKER_LOGGERS.size(); i++) {
+            ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(BROKER_LOGGERS.get(i)))
+                    .setLevel(brokerLogLevels.get(i));
+        }
+    }
+
+    @Test
+    void fanOutToFollowersAcross50kSessions() {
+        for (int i = 0; i < SESSIONS; i++) {
+            connect("session-" + i, "user-" + i);
+        }
+        assertEquals(SESSIONS, userRegistry.getUserCount());
+
+        Random random = new Random(42);
+        List<String> allUsers = new ArrayList<>(SESSIONS);
+        for (int i = 0; i < SESSIONS; i++) {
+            allUsers.add("user-" + i);
+        }
+
+        // Interest-based routing: each post reaches only its author's followers
+        clientOutboundChannel.reset(POSTS * FOLLOWERS_PER_AUTHOR);
+        long[] routedCompletion = new long[POSTS];
+        for (int post = 0; post < POSTS; post++) {
+            Collections.shuffle(allUsers, random);
+            List<String> followers = allUsers.subList(0, FOLLOWERS_PER_AUTHOR);
+            clientOutboundChannel.startEvent();
+            webSocketService.notifyFollowersFeedCreated("author-" + post, "feed-" + post, followers);
+            routedCompletion[post] = System.nanoTime() - clientOutboundChannel.eventStart;
+        }
+        long[] routedDeliveries = clientOutboundChannel.samples();
+        assertEquals((long) POSTS * FOLLOWERS_PER_AUTHOR, routedDeliveries.length);
+
+        // Legacy broadcast: every session receives every post
+        for (int i = 0; i < SESSIONS; i++) {
+            subscribe("session-" + i, "user-" + i, "sub-legacy", "/topic/feeds");
+        }
+        clientOutboundChannel.reset(BROADCASTS * SESSIONS);
+        long[] broadcastCompletion = new long[BROADCASTS];
+        for (int post = 0; post < BROADCASTS; post++) {
+            clientOutboundChannel.startEvent();
+            messagingTemplate.convertAndSend("/topic/feeds", "broadcast-" + post);
+            broadcastCompletion[post] = System.nanoTime() - clientOutboundChannel.eventStart;
+        }
+        long[] broadcastDeliveries = clientOutboundChannel.samples();
+        assertEquals((long) BROADCASTS * SESSIONS, broadcastDeliveries.length);
+
+        report("follower routing  (" + FOLLOWERS_PER_AUTHOR + " of " + SESSIONS + " sessions per post)",
+                routedDeliveries, routedCompletion);
+        report("legacy broadcast  (" + SESSIONS + " of " + SESSIONS + " sessions per post)",
+                broadcastDeliveries, broadcastCompletion);
+
+        // Generous bound for shared CI hardware; the printed percentiles are the real output
+        assertTrue(percentile(routedCompletion, 0.99) < 5_000_000_000L,
+                "p99 fan-out completion was " + percentile(routedCompletion, 0.99) / 1_000_000.0 + " ms");
+    }
+
+    private void connect(String sessionId, String userId) {
+        Principal user = new UsernamePasswordAuthenticationToken(userId, null, Collections.emptyList());
+        // The broker only delivers to sessions it saw CONNECT for
+        SimpMessageHeaderAccessor connect = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+        connect.setSessionId(sessionId);
+        connect.setUser(user);
+        clientInboundChannel.send(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()));
+        // The user registry learns about it from the connected event, as it does behind the endpoint
+        SimpMessageHeaderAccessor connected = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT_ACK);
+        connected.setSessionId(sessionId);
+        connected.setUser(user);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], connected.getMessageHeaders());
+        userRegistry.onApplicationEvent(new SessionConnectedEvent(this, message, user));
+        subscribe(sessionId, userId, "sub-feeds", "/user" + WebSocketService.FEED_QUEUE);
+    }
+
+    private void subscribe(String sessionId, String userId, String subscriptionId, String destination) {
+        SimpMessageHeaderAccessor subscribe = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        subscribe.setSessionId(sessionId);
+        subscribe.setSubscriptionId(subscriptionId);
+        subscribe.setDestination(destination);
+        subscribe.setUser(new UsernamePasswordAuthenticationToken(userId, null, Collections.emptyList()));
+        clientInboundChannel.send(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()));
+    }
+
+    private static void report(String label, long[] deliveries, long[] completions) {
+        Arrays.sort(deliveries);
+        Arrays.sort(completions);
+        System.out.printf("%s: %d frames, per-session latency p50 %.3f ms, p95 %.3f ms, p99 %.3f ms; "
+                        + "per-post completion p50 %.2f ms, p99 %.2f ms%n",
+                label, deliveries.length,
+                percentile(deliveries, 0.50) / 1_000_000.0,
+                percentile(deliveries, 0.95) / 1_000_000.0,
+                percentile(deliveries, 0.99) / 1_000_000.0,
+                percentile(completions, 0.50) / 1_000_000.0,
+                percentile(completions, 0.99) / 1_000_000.0);
+    }
+
+    private static long percentile(long[] samples, double quantile) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.max(0, (int) Math.ceil(sorted.length * quantile) - 1)];
+    }
+
+    /**
+     * Outbound channel standing in for the sessions' transports: records how long after
+     * the publish each frame arrived.
+     */
+    private static class RecordingChannel implements MessageChannel {
+        private long[] samples = new long[0];
+        private int count;
+        private long eventStart;
+
+        void reset(int capacity) {
+            samples = new long[capacity];
+            count = 0;
+        }
+
+        void startEvent() {
+            eventStart = System.nanoTime();
+        }
+
+        long[] samples() {
+            return Arrays.copyOf(samples, count);
+        }
+
+        @Override
+        public boolean send(Message<?> message, long timeout) {
+            if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE
+                    && count < samples.length) {
+                samples[count++] = System.nanoTime() - eventStart;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Subscriptions indexed by exact destination. Enough for this test, which subscribes to
+     * no patterns.
+     */
+    private static class ExactDestinationRegistry extends AbstractSubscriptionRegistry {
+        private final Map<String, LinkedMultiValueMap<String, String>> byDestination = new ConcurrentHashMap<>();
+        private final Map<String, Map<String, String>> bySession = new ConcurrentHashMap<>();
+
+        @Override
+        protected void addSubscriptionInternal(String sessionId, String subscriptionId, String destination,
+                                               Message<?> message) {
+            byDestination.computeIfAbsent(destination, key -> new LinkedMultiValueMap<>())
+                    .add(sessionId, subscriptionId);
+            bySession.computeIfAbsent(sessionId, key -> new ConcurrentHashMap<>()).put(subscriptionId, destination);
+        }
+
+        @Override
+        protected void removeSubscriptionInternal(String sessionId, String subscriptionId, Message<?> message) {
+            Map<String, String> subscriptions = bySession.get(sessionId);
+            String destination = subscriptions != null ? subscriptions.remove(subscriptionId) : null;
+            if (destination != null) {
+                byDestination.get(destination).remove(sessionId);
+            }
+        }
+
+        @Override
+        public void unregisterAllSubscriptions(String sessionId) {
+            Map<String, String> subscriptions = bySession.remove(sessionId);
+            if (subscriptions != null) {
+                subscriptions.values().forEach(destination -> byDestination.get(destination).remove(sessionId));
+            }
+        }
+
+        @Override
+        protected MultiValueMap<String, String> findSubscriptionsInternal(String destination, Message<?> message) {
+            LinkedMultiValueMap<String, String> subscriptions = byDestination.get(destination);
+            return subscriptions != null ? subscriptions : new LinkedMultiValueMap<>();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.bharathva.feed.config;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CustomJwtDecoder
+ */
+class CustomJwtDecoderTest {
+
+    private static final String SECRET = "m7n1lhkmwGNryojEND4kks2nzZypr2S0pGoOAcTqfFIEjXOUByV5BewPKNr0ULNlb7frcStl4MHZO0fNI6g";
+
+    private final CustomJwtDecoder decoder = new CustomJwtDecoder(SECRET, 100, 300);
+
+    @Test
+    void decode_ReturnsTheClaimsAndReusesThemForTheSameToken() {
+        String userId = UUID.randomUUID().toString();
+        String token = token(SECRET, userId, 3_600_000L);
+
+        Jwt first = decoder.decode(token);
+        Jwt second = decoder.decode(token);
+
+        assertEquals(userId, first.getClaimAsString("userId"));
+        assertEquals("access", first.getClaimAsString("type"));
+        assertSame(first, second);
+    }
+
+    @Test
+    void decode_RejectsAForeignSignatureAndExpiredTokens() {
+        String forged = token(SECRET.replace('m', 'q'), UUID.randomUUID().toString(), 3_600_000L);
+        String expired = token(SECRET, UUID.randomUUID().toString(), -1_000L);
+
+        assertThrows(OAuth2AuthenticationException.class, () -> decoder.decode(forged));
+        assertThrows(OAuth2AuthenticationException.class, () -> decoder.decode(expired));
+        assertThrows(OAuth2AuthenticationException.class, () -> decoder.decode("not-a-jwt"));
+    }
+
+    private static String token(String secret, String userId, long expiresInMillis) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject(userId)
+                .claim("userId", userId)
+                .claim("type", "access")
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expiresInMillis))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
@@ -0,0 +1,47 @@
+package com.bharathva.feed.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StompAuthChannelInterceptor
+ */
+class StompAuthChannelInterceptorTest {
+
+    private final StompAuthChannelInterceptor interceptor = new StompAuthChannelInterceptor();
+
+    @Test
+    void preSend_AllowsSubscribingToClientDestinations() {
+        for (String destination : new String[] {
+                "/user/queue/feeds", "/user/queue/notifications", "/topic/feeds/feed-1",
+                "/topic/users/user-1/feeds", "/topic/feeds", "/topic/notifications"}) {
+            Message<byte[]> message = subscribe(destination);
+            assertSame(message, interceptor.preSend(message, null), destination);
+        }
+    }
+
+    @Test
+    void preSend_RejectsRawQueuesAndBrokerInternalTopics() {
+        for (String destination : new String[] {
+                "/queue/feeds", "/queue/feeds-user123", "/topic/unresolved-user-destination",
+                "/topic/simp-user-registry", "/topic/feeds/feed-1/extra", "/topic/anything"}) {
+            assertThrows(MessageDeliveryException.class, () -> interceptor.preSend(subscribe(destination), null),
+                    destination);
+        }
+    }
+
+    private static Message<byte[]> subscribe(String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(destination);
+        accessor.setSubscriptionId("sub-1");
+        accessor.setSessionId("session-1");
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,166 @@
+package com.bharathva.feed.controller;
+
+import com.bharathva.feed.model.ImageMetadata;
+import com.bharathva.feed.model.ImageVariant;
+import com.bharathva.feed.service.ImageUploadService;
+import com.bharathva.feed.service.MediaFileService;
+import com.bharathva.feed.service.MediaFileService.MediaFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MediaController
+ */
+@ExtendWith(MockitoExtension.class)
+class MediaControllerTest {
+
+    private static final String HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+    private static final String ETAG = "\"" + HASH + "-w320.jpg\"";
+
+    @Mock
+    private MediaFileService mediaFileService;
+
+    @Mock
+    private ImageUploadService imageUploadService;
+
+    @InjectMocks
+    private MediaController mediaController;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void getMedia_SendsTheFileWithImmutableCacheHeaders() throws Exception {
+        onDisk("0123456789");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        mediaController.getMedia(HASH, "w320.jpg", new MockHttpServletRequest("GET", "/"), response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", response.getContentAsString());
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals("image/jpeg", response.getContentType());
+        assertEquals(ETAG, response.getHeader("ETag"));
+        assertEquals("public, max-age=31536000, immutable", response.getHeader("Cache-Control"));
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+    }
+
+    @Test
+    void getMedia_AnswersAMatchingETagWithNotModified() throws Exception {
+        onDisk("0123456789");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("If-None-Match", "\"other\", W/" + ETAG);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        mediaController.getMedia(HASH, "w320.jpg", request, response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(ETAG, response.getHeader("ETag"));
+    }
+
+    @Test
+    void getMedia_SendsTheRequestedRange() throws Exception {
+        onDisk("0123456789");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("Range", "bytes=2-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        mediaController.getMedia(HASH, "w320.jpg", request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("2345", response.getContentAsString());
+        assertEquals("bytes 2-5/10", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    void getMedia_HandsLargeFilesToTomcatSendfile() throws Exception {
+        MediaFile file = onDisk("0123456789");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=-3");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        mediaController.getMedia(HASH, "w320.jpg", request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(file.getPath().toAbsolutePath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(7L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(10L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+    }
+
+    @Test
+    void getMedia_ServesHotFilesFromMemory() throws Exception {
+        byte[] content = "cached".getBytes(StandardCharsets.UTF_8);
+        when(mediaFileService.resolve(HASH, "w320.jpg"))
+                .thenReturn(new MediaFile(directory.resolve("gone.jpg"), content.length, "image/jpeg", ETAG, content));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        mediaController.getMedia(HASH, "w320.jpg", new MockHttpServletRequest("GET", "/"), response);
+
+        assertEquals("cached", response.getContentAsString());
+    }
+
+    @Test
+    void getMedia_ReturnsNotFoundForUnknownFiles() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        mediaController.getMedia(HASH, "../../etc/passwd", new MockHttpServletRequest("GET", "/"), response);
+
+        assertEquals(404, response.getStatus());
+    }
+
+    @Test
+    void getImage_RedirectsToTheSmallestVariantThatIsWideEnough() throws Exception {
+        ImageMetadata image = new ImageMetadata();
+        image.setContentHash(HASH);
+        image.setFilePath(directory.resolve("original.jpg").toString());
+        image.setVariants(List.of(
+                new ImageVariant(320, 213, "jpeg", "image/jpeg", "w320.jpg", 1000L),
+                new ImageVariant(640, 427, "jpeg", "image/jpeg", "w640.jpg", 4000L)));
+        when(imageUploadService.getImageMetadata("img-1")).thenReturn(image);
+
+        MockHttpServletResponse small = new MockHttpServletResponse();
+        mediaController.getImage("img-1", 400, new MockHttpServletRequest("GET", "/"), small);
+        MockHttpServletResponse large = new MockHttpServletResponse();
+        mediaController.getImage("img-1", 2000, new MockHttpServletRequest("GET", "/"), large);
+
+        assertEquals("/api/feed/media/" + HASH + "/w640.jpg", small.getRedirectedUrl());
+        assertEquals("/api/feed/media/" + HASH + "/original.jpg", large.getRedirectedUrl());
+    }
+
+    @Test
+    void parseRange_FollowsTheByteRangeRules() {
+        assertArrayEquals(new long[] {0, 9}, MediaController.parseRange("bytes=0-", 10));
+        assertArrayEquals(new long[] {5, 9}, MediaController.parseRange("bytes=5-100", 10));
+        assertArrayEquals(new long[] {0, 9}, MediaController.parseRange("bytes=-20", 10));
+        assertSame(MediaController.UNSATISFIABLE, MediaController.parseRange("bytes=10-", 10));
+        assertSame(MediaController.UNSATISFIABLE, MediaController.parseRange("bytes=-0", 10));
+        assertNull(MediaController.parseRange("bytes=0-1,4-5", 10));
+        assertNull(MediaController.parseRange("bytes=5-2", 10));
+        assertNull(MediaController.parseRange("items=0-1", 10));
+        assertNull(MediaController.parseRange("bytes=a-b", 10));
+    }
+
+    private MediaFile onDisk(String content) throws Exception {
+        Path path = Files.writeString(directory.resolve("w320.jpg"), content);
+        MediaFile file = new MediaFile(path, Files.size(path), "image/jpeg", ETAG, null);
+        when(mediaFileService.resolve(HASH, "w320.jpg")).thenReturn(file);
+        return file;
+    }
+}
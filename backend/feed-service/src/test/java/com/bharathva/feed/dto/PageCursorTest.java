@@ -0,0 +1,36 @@
+package com.bharathva.feed.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PageCursor
+ */
+class PageCursorTest {
+
+    @Test
+    void encodeDecode_RoundTrip() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_000_000);
+        PageCursor cursor = new PageCursor(createdAt, "65f2c0a1b2c3d4e5f6a7b8c9");
+
+        PageCursor decoded = PageCursor.decode(cursor.encode());
+
+        assertEquals(createdAt, decoded.getCreatedAt());
+        assertEquals("65f2c0a1b2c3d4e5f6a7b8c9", decoded.getId());
+    }
+
+    @Test
+    void decode_BlankMeansFirstPage() {
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode("  "));
+    }
+
+    @Test
+    void decode_RejectsTamperedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not-a-cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("Zm9vYmFy")); // "foobar"
+    }
+}
@@ -0,0 +1,97 @@
+package com.bharathva.feed.integration;
+
+import com.bharathva.feed.model.Feed;
+import com.bharathva.feed.repository.FeedRepository;
+import com.bharathva.feed.service.FeedService;
+import com.bharathva.feed.service.NotificationService;
+import com.bharathva.feed.service.WebSocketService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrency test for atomic like toggling.
+ * 1,000 users toggle the same feed in parallel; no like may be lost and the
+ * denormalized likesCount must always equal the size of the likes array.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class ConcurrentLikeToggleTest {
+
+    private static final int TOGGLERS = 1000;
+
+    @Autowired
+    private FeedService feedService;
+
+    @Autowired
+    private FeedRepository feedRepository;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @MockBean
+    private WebSocketService webSocketService;
+
+    private String feedId;
+
+    @BeforeEach
+    void setUp() {
+        Feed feed = feedRepository.save(new Feed("concurrency-author", "Concurrent like test"));
+        feedId = feed.getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        feedRepository.deleteById(feedId);
+    }
+
+    @Test
+    void parallelTogglers_NoLostLikes() throws Exception {
+        runInParallel(TOGGLERS);
+
+        Feed afterLikes = feedRepository.findById(feedId).orElseThrow();
+        assertEquals(TOGGLERS, afterLikes.getLikes().size());
+        assertEquals(TOGGLERS, new HashSet<>(afterLikes.getLikes()).size());
+        assertEquals(TOGGLERS, afterLikes.getLikesCount());
+        // Every toggle took exactly one delta sequence
+        assertEquals(TOGGLERS, afterLikes.getEventSeq());
+
+        // Half of the users toggle again -> exactly half the likes remain
+        runInParallel(TOGGLERS / 2);
+
+        Feed afterUnlikes = feedRepository.findById(feedId).orElseThrow();
+        assertEquals(TOGGLERS / 2, afterUnlikes.getLikes().size());
+        assertEquals(TOGGLERS / 2, afterUnlikes.getLikesCount());
+        assertEquals(TOGGLERS + TOGGLERS / 2, afterUnlikes.getEventSeq());
+    }
+
+    private void runInParallel(int users) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < users; i++) {
+                String userId = "toggler-" + i;
+                futures.add(executor.submit(() -> feedService.toggleLike(feedId, userId)));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
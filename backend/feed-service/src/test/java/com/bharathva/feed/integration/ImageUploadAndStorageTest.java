@@ -284,6 +284,10 @@ class ImageUploadAndStorageTest {
         for (int i = 0; i < size; i++) {
             content[i] = (byte) (i % 256);
         }
+        // JPEG signature, since uploads are sniffed
+        content[0] = (byte) 0xFF;
+        content[1] = (byte) 0xD8;
+        content[2] = (byte) 0xFF;
         return content;
     }
 }
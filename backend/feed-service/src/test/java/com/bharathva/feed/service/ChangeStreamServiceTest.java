@@ -0,0 +1,112 @@
+package com.bharathva.feed.service;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ChangeStreamService checkpointing and event filtering
+ */
+@ExtendWith(MockitoExtension.class)
+class ChangeStreamServiceTest {
+
+    @Mock
+    private MongoCollection<Document> checkpoints;
+
+    @InjectMocks
+    private ChangeStreamService changeStreamService;
+
+    private ConcurrentSkipListMap<Long, BsonDocument> inFlightTokens;
+    private Set<Long> completedEvents;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ReflectionTestUtils.setField(changeStreamService, "consumerId", "feed-service-1");
+        inFlightTokens = (ConcurrentSkipListMap<Long, BsonDocument>) ReflectionTestUtils.getField(changeStreamService, "inFlightTokens");
+        completedEvents = (Set<Long>) ReflectionTestUtils.getField(changeStreamService, "completedEvents");
+        for (long seq = 1; seq <= 3; seq++) {
+            inFlightTokens.put(seq, token(seq));
+        }
+    }
+
+    @Test
+    void checkpoint_WaitsForEarlierEventsOnOtherPartitions() {
+        completedEvents.add(2L);
+        completedEvents.add(3L);
+
+        checkpoint(token(99));
+
+        verify(checkpoints, never()).replaceOne(any(Bson.class), any(Document.class), any(ReplaceOptions.class));
+        assertEquals(3, inFlightTokens.size());
+    }
+
+    @Test
+    void checkpoint_SavesNewestTokenWithAllPredecessorsProcessed() {
+        completedEvents.add(1L);
+        completedEvents.add(2L);
+
+        checkpoint(token(99));
+
+        ArgumentCaptor<Document> saved = ArgumentCaptor.forClass(Document.class);
+        verify(checkpoints).replaceOne(any(Bson.class), saved.capture(), any(ReplaceOptions.class));
+        assertEquals(token(2), saved.getValue().get("resumeToken"));
+        assertEquals(Set.of(3L), inFlightTokens.keySet());
+    }
+
+    @Test
+    void checkpoint_UsesCursorTokenWhenNothingIsInFlight() {
+        completedEvents.addAll(Set.of(1L, 2L, 3L));
+
+        checkpoint(token(99));
+        checkpoint(token(99));
+
+        ArgumentCaptor<Document> saved = ArgumentCaptor.forClass(Document.class);
+        verify(checkpoints, times(1)).replaceOne(any(Bson.class), saved.capture(), any(ReplaceOptions.class));
+        assertEquals(token(99), saved.getValue().get("resumeToken"));
+    }
+
+    @Test
+    void touchesContent_IgnoresCounterOnlyUpdates() {
+        UpdateDescription likeToggle = new UpdateDescription(null,
+                new BsonDocument("likesCount", new BsonInt32(3)).append("eventSeq", new BsonInt64(7)));
+        UpdateDescription edit = new UpdateDescription(null,
+                new BsonDocument("message", new BsonString("edited")).append("eventSeq", new BsonInt64(8)));
+        UpdateDescription imagesRemoved = new UpdateDescription(List.of("imageUrls"), new BsonDocument());
+
+        assertFalse(ChangeStreamService.touchesContent(likeToggle));
+        assertFalse(ChangeStreamService.touchesContent(null));
+        assertTrue(ChangeStreamService.touchesContent(edit));
+        assertTrue(ChangeStreamService.touchesContent(imagesRemoved));
+    }
+
+    private void checkpoint(BsonDocument cursorToken) {
+        ReflectionTestUtils.invokeMethod(changeStreamService, "checkpoint", checkpoints, cursorToken);
+    }
+
+    private static BsonDocument token(long seq) {
+        return new BsonDocument("_data", new BsonString("token-" + seq));
+    }
+}
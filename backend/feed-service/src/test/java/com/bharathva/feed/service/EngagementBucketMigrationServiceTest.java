@@ -0,0 +1,87 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.model.Feed;
+import com.bharathva.feed.model.FeedLike;
+import com.bharathva.feed.model.LikeBucket;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for EngagementBucketMigrationService
+ */
+@ExtendWith(MockitoExtension.class)
+class EngagementBucketMigrationServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private FeedEngagementService feedEngagementService;
+
+    @InjectMocks
+    private EngagementBucketMigrationService migrationService;
+
+    @Test
+    void migrateFeed_WritesLikeMarkersAndFlipsOnlyIfEventSeqIsUnchanged() {
+        Feed feed = embeddedFeed(7L, "user-1", "user-2");
+        when(mongoTemplate.findById("feed-1", Feed.class)).thenReturn(feed);
+        when(feedEngagementService.getBucketSize()).thenReturn(500);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Feed.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertTrue(migrationService.migrateFeed("feed-1"));
+
+        verify(mongoTemplate).insert(any(LikeBucket.class));
+        ArgumentCaptor<List<FeedLike>> markers = ArgumentCaptor.forClass(List.class);
+        verify(mongoTemplate).insert(markers.capture(), eq(FeedLike.class));
+        assertEquals(List.of("user-1", "user-2"), markers.getValue().stream().map(FeedLike::getUserId).toList());
+
+        ArgumentCaptor<Query> guard = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(guard.capture(), any(Update.class), eq(Feed.class));
+        Document guardObject = guard.getValue().getQueryObject();
+        assertEquals(7L, guardObject.get("eventSeq"));
+        assertFalse(guardObject.containsKey("likesCount"));
+    }
+
+    @Test
+    void migrateFeed_DiscardsBucketsWhenALikeAndUnlikeRacedWithTheCopy() {
+        when(mongoTemplate.findById("feed-1", Feed.class)).thenReturn(embeddedFeed(0L, "user-1"));
+        when(feedEngagementService.getBucketSize()).thenReturn(500);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Feed.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertFalse(migrationService.migrateFeed("feed-1"));
+
+        ArgumentCaptor<Query> guard = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(guard.capture(), any(Update.class), eq(Feed.class));
+        assertEquals(new Document("$in", Arrays.asList(0L, null)), guard.getValue().getQueryObject().get("eventSeq"));
+        verify(feedEngagementService, times(2)).deleteAllForFeed("feed-1");
+    }
+
+    private Feed embeddedFeed(long eventSeq, String... likers) {
+        Feed feed = new Feed("owner-1", "message");
+        feed.setId("feed-1");
+        feed.setLikes(new ArrayList<>(List.of(likers)));
+        feed.setLikesCount(likers.length);
+        feed.setEventSeq(eventSeq == 0 ? null : eventSeq);
+        return feed;
+    }
+}
@@ -0,0 +1,146 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.model.Feed;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FeedCacheService
+ */
+class FeedCacheServiceTest {
+
+    private FeedCacheService feedCacheService;
+
+    private final List<Collection<String>> bulkLoads = new ArrayList<>();
+
+    private final Function<Collection<String>, Iterable<Feed>> bulkLoader = ids -> {
+        bulkLoads.add(new ArrayList<>(ids));
+        return ids.stream().map(id -> feed(id, "author")).collect(Collectors.toList());
+    };
+
+    @BeforeEach
+    void setUp() {
+        feedCacheService = new FeedCacheService();
+        ReflectionTestUtils.setField(feedCacheService, "enabled", true);
+        ReflectionTestUtils.setField(feedCacheService, "maxWeightBytes", 1_000_000L);
+        ReflectionTestUtils.setField(feedCacheService, "feedTtlSeconds", 600L);
+        ReflectionTestUtils.setField(feedCacheService, "maxPages", 100L);
+        ReflectionTestUtils.setField(feedCacheService, "pageTtlSeconds", 120L);
+        feedCacheService.init();
+    }
+
+    @Test
+    void getPage_HitIsRebuiltFromCachedFeeds() {
+        Pageable pageable = PageRequest.of(0, 2);
+        AtomicInteger queries = new AtomicInteger();
+        String key = feedCacheService.globalPageKey("global", 0, 2);
+
+        Page<Feed> first = feedCacheService.getPage(key, pageable, () -> {
+            queries.incrementAndGet();
+            return new PageImpl<>(Arrays.asList(feed("f1", "a"), feed("f2", "b")), pageable, 5);
+        }, bulkLoader);
+        Page<Feed> second = feedCacheService.getPage(key, pageable, () -> {
+            queries.incrementAndGet();
+            return Page.empty();
+        }, bulkLoader);
+
+        assertEquals(1, queries.get());
+        assertTrue(bulkLoads.isEmpty());
+        assertEquals(Arrays.asList("f1", "f2"), ids(second));
+        assertEquals(first.getTotalElements(), second.getTotalElements());
+    }
+
+    @Test
+    void evictFeed_OnlyReloadsThatFeed() {
+        Pageable pageable = PageRequest.of(0, 2);
+        String key = feedCacheService.globalPageKey("global", 0, 2);
+        feedCacheService.getPage(key, pageable,
+                () -> new PageImpl<>(Arrays.asList(feed("f1", "a"), feed("f2", "b")), pageable, 2), bulkLoader);
+
+        feedCacheService.evictFeed("f2");
+        Page<Feed> page = feedCacheService.getPage(key, pageable, Page::empty, bulkLoader);
+
+        assertEquals(Arrays.asList("f1", "f2"), ids(page));
+        assertEquals(List.of(List.of("f2")), bulkLoads);
+    }
+
+    @Test
+    void getFeeds_DoesNotCacheAFeedEvictedDuringTheLoad() {
+        Function<Collection<String>, Iterable<Feed>> racingLoader = ids -> {
+            List<Feed> loaded = ids.stream().map(id -> feed(id, "author")).collect(Collectors.toList());
+            // A like lands after the read but before the result is cached
+            feedCacheService.evictFeed("f1");
+            return loaded;
+        };
+
+        feedCacheService.getFeeds(List.of("f1", "f2"), racingLoader);
+        feedCacheService.getFeeds(List.of("f1", "f2"), bulkLoader);
+
+        assertEquals(List.of(List.of("f1")), bulkLoads);
+    }
+
+    @Test
+    void onFeedCreated_ReversionsGlobalAndAuthorPagesOnly() {
+        String globalKey = feedCacheService.globalPageKey("global", 0, 20);
+        String authorKey = feedCacheService.userPageKey("author", "page", 0, 20);
+        String otherKey = feedCacheService.userPageKey("other", "page", 0, 20);
+
+        feedCacheService.onFeedCreated("author");
+
+        assertNotEquals(globalKey, feedCacheService.globalPageKey("global", 0, 20));
+        assertNotEquals(authorKey, feedCacheService.userPageKey("author", "page", 0, 20));
+        assertEquals(otherKey, feedCacheService.userPageKey("other", "page", 0, 20));
+    }
+
+    @Test
+    void getFeed_DoesNotCacheMissingFeed() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertNull(feedCacheService.getFeed("missing", id -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertNull(feedCacheService.getFeed("missing", id -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void estimateWeight_GrowsWithLikes() {
+        Feed small = feed("f1", "author");
+        Feed viral = feed("f2", "author");
+        for (int i = 0; i < 1000; i++) {
+            viral.addLike("user-" + i);
+        }
+
+        assertTrue(FeedCacheService.estimateWeight(viral) > FeedCacheService.estimateWeight(small) + 50_000);
+    }
+
+    private static Feed feed(String id, String userId) {
+        Feed feed = new Feed(userId, "message " + id);
+        feed.setId(id);
+        return feed;
+    }
+
+    private static List<String> ids(Page<Feed> page) {
+        return page.getContent().stream().map(Feed::getId).collect(Collectors.toList());
+    }
+}
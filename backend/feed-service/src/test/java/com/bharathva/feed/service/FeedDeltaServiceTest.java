@@ -0,0 +1,140 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.dto.FeedDeltaPage;
+import com.bharathva.feed.dto.FeedEvent;
+import com.bharathva.feed.model.Comment;
+import com.bharathva.feed.model.Feed;
+import com.bharathva.feed.model.FeedDelta;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FeedDeltaService
+ */
+@ExtendWith(MockitoExtension.class)
+class FeedDeltaServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private WebSocketService webSocketService;
+
+    @InjectMocks
+    private FeedDeltaService feedDeltaService;
+
+    @Test
+    void publish_RecordsTheDeltaAndSendsItWithCountersAndSequence() {
+        Feed feed = feed(7);
+        feed.setLikes(new ArrayList<>(List.of("u-1", "u-2")));
+        Comment comment = new Comment("u-3", "nice");
+
+        FeedEvent event = feedDeltaService.publish("FEED_COMMENTED", feed, "u-3", comment, null);
+
+        ArgumentCaptor<FeedDelta> delta = ArgumentCaptor.forClass(FeedDelta.class);
+        verify(mongoTemplate).insert(delta.capture());
+        assertEquals(7, delta.getValue().getSeq());
+        assertEquals("feed-1", delta.getValue().getFeedId());
+        verify(webSocketService).notifyFeedDelta(event);
+        assertEquals(7L, event.getSeq());
+        assertEquals(feed.getLikesCount(), event.getLikesCount());
+        assertEquals("nice", event.getComment().getText());
+    }
+
+    @Test
+    void publish_StillSendsWhenTheDeltaWasAlreadyRecorded() {
+        when(mongoTemplate.insert(any(FeedDelta.class))).thenThrow(new DuplicateKeyException("dup"));
+
+        FeedEvent event = feedDeltaService.publish("COMMENT_DELETED", feed(3), "u-1", null, 2);
+
+        verify(webSocketService).notifyFeedDelta(event);
+        assertEquals(2, event.getCommentIndex());
+        assertEquals("2", event.getMessage());
+    }
+
+    @Test
+    void getDeltasSince_ReturnsNothingWhenTheClientIsCurrent() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Feed.class))).thenReturn(feed(5));
+
+        FeedDeltaPage page = feedDeltaService.getDeltasSince("feed-1", 5, 100);
+
+        assertTrue(page.getDeltas().isEmpty());
+        assertEquals(5, page.getLatestSeq());
+        assertFalse(page.isResyncRequired());
+        verify(mongoTemplate, never()).find(any(Query.class), eq(FeedDelta.class));
+    }
+
+    @Test
+    void getDeltasSince_ReplaysContiguousDeltasAndReportsMore() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Feed.class))).thenReturn(feed(10));
+        when(mongoTemplate.find(any(Query.class), eq(FeedDelta.class)))
+                .thenReturn(List.of(delta(5), delta(6), delta(7)));
+
+        FeedDeltaPage page = feedDeltaService.getDeltasSince("feed-1", 4, 2);
+
+        assertEquals(2, page.getDeltas().size());
+        assertEquals(5L, page.getDeltas().get(0).getSeq());
+        assertTrue(page.isHasMore());
+        assertFalse(page.isResyncRequired());
+        verify(mongoTemplate, never()).exists(any(Query.class), eq(FeedDelta.class));
+    }
+
+    @Test
+    void getDeltasSince_AcceptsASkippedSequenceWhenOlderDeltasAreRetained() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Feed.class))).thenReturn(feed(8));
+        when(mongoTemplate.find(any(Query.class), eq(FeedDelta.class))).thenReturn(List.of(delta(6), delta(8)));
+        when(mongoTemplate.exists(any(Query.class), eq(FeedDelta.class))).thenReturn(true);
+
+        FeedDeltaPage page = feedDeltaService.getDeltasSince("feed-1", 4, 100);
+
+        assertEquals(2, page.getDeltas().size());
+        assertFalse(page.isResyncRequired());
+    }
+
+    @Test
+    void getDeltasSince_RequiresResyncWhenMissedDeltasExpired() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Feed.class))).thenReturn(feed(40));
+        when(mongoTemplate.find(any(Query.class), eq(FeedDelta.class))).thenReturn(List.of(delta(30)));
+        when(mongoTemplate.exists(any(Query.class), eq(FeedDelta.class))).thenReturn(false);
+
+        FeedDeltaPage page = feedDeltaService.getDeltasSince("feed-1", 4, 100);
+
+        assertTrue(page.isResyncRequired());
+        assertEquals(40, page.getLatestSeq());
+    }
+
+    @Test
+    void getDeltasSince_RejectsUnknownFeedsAndNegativeSequences() {
+        assertThrows(IllegalArgumentException.class, () -> feedDeltaService.getDeltasSince("feed-1", -1, 10));
+        when(mongoTemplate.findOne(any(Query.class), eq(Feed.class))).thenReturn(null);
+        assertThrows(RuntimeException.class, () -> feedDeltaService.getDeltasSince("missing", 0, 10));
+    }
+
+    private static Feed feed(long eventSeq) {
+        Feed feed = new Feed("author", "hello");
+        feed.setId("feed-1");
+        feed.setEventSeq(eventSeq);
+        return feed;
+    }
+
+    private static FeedDelta delta(long seq) {
+        FeedDelta delta = new FeedDelta("feed-1", seq, "FEED_LIKED", "u-" + seq);
+        delta.setLikesCount((int) seq);
+        return delta;
+    }
+}
@@ -0,0 +1,121 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.dto.FeedResponse;
+import com.bharathva.feed.model.Feed;
+import com.bharathva.feed.model.FeedLike;
+import com.bharathva.feed.model.LikeBucket;
+import com.mongodb.client.result.UpdateResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FeedEngagementService
+ */
+@ExtendWith(MockitoExtension.class)
+class FeedEngagementServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private FeedEngagementService feedEngagementService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(feedEngagementService, "bucketSize", 500);
+        ReflectionTestUtils.setField(feedEngagementService, "storageMode", "bucketed");
+    }
+
+    @Test
+    void toggleLike_AppendsToBucketChosenByLikeSequence() {
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(LikeBucket.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        Feed feed = bucketedFeed(1001L, 1001);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Feed.class)))
+                .thenReturn(feed);
+
+        FeedEngagementService.LikeResult result = feedEngagementService.toggleLike("feed-1", "user-1");
+
+        assertTrue(result.isLiked());
+        assertEquals(1001, result.getFeed().getLikesCount());
+        ArgumentCaptor<Query> bucketQuery = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).upsert(bucketQuery.capture(), any(Update.class), eq(LikeBucket.class));
+        // like #1001 -> sequence 1001 -> bucket (1001 - 1) / 500 = 2
+        assertEquals(2, bucketQuery.getValue().getQueryObject().get("bucket"));
+    }
+
+    @Test
+    void toggleLike_CountsAConcurrentDuplicateLikeOnce() {
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(LikeBucket.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        when(mongoTemplate.insert(any(FeedLike.class))).thenThrow(new DuplicateKeyException("feed_likes"));
+        when(mongoTemplate.exists(any(Query.class), eq(LikeBucket.class))).thenReturn(true);
+        when(mongoTemplate.findOne(any(Query.class), eq(Feed.class))).thenReturn(bucketedFeed(5L, 5));
+
+        FeedEngagementService.LikeResult result = feedEngagementService.toggleLike("feed-1", "user-1");
+
+        assertTrue(result.isLiked());
+        assertEquals(5, result.getFeed().getLikesCount());
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Feed.class));
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(LikeBucket.class));
+    }
+
+    @Test
+    void toggleLike_RemovesExistingLike() {
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(LikeBucket.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Feed.class)))
+                .thenReturn(bucketedFeed(10L, 9));
+
+        FeedEngagementService.LikeResult result = feedEngagementService.toggleLike("feed-1", "user-1");
+
+        assertFalse(result.isLiked());
+        assertEquals(9, result.getFeed().getLikesCount());
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(LikeBucket.class));
+    }
+
+    @Test
+    void markUserLiked_SkipsQueryWhenNoFeedIsBucketed() {
+        Feed embedded = new Feed("author", "embedded");
+        embedded.setId("feed-1");
+        FeedResponse response = new FeedResponse(embedded);
+
+        feedEngagementService.markUserLiked(List.of(embedded), List.of(response), "user-1");
+
+        verifyNoInteractions(mongoTemplate);
+        assertFalse(response.isUserLiked());
+    }
+
+    @Test
+    void getComments_RejectsInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> feedEngagementService.getComments("feed-1", "abc", 20));
+        assertThrows(IllegalArgumentException.class, () -> feedEngagementService.getComments("feed-1", null, 0));
+    }
+
+    private Feed bucketedFeed(long likeSeq, int likesCount) {
+        Feed feed = new Feed("author", "bucketed");
+        feed.setId("feed-1");
+        feed.setEngagementBucketed(true);
+        feed.setLikeSeq(likeSeq);
+        feed.setLikesCount(likesCount);
+        return feed;
+    }
+}
@@ -0,0 +1,164 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.dto.CursorPage;
+import com.bharathva.feed.model.Feed;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FeedSearchService
+ */
+@ExtendWith(MockitoExtension.class)
+class FeedSearchServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 1, 12, 0);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private FeedSearchService feedSearchService;
+
+    @Test
+    void applySearchFields_DerivesTermsHashtagsAndMentions() {
+        Feed feed = new Feed("author", "Watching #Cricket with @ravi");
+
+        FeedSearchService.applySearchFields(feed);
+
+        assertEquals(List.of("watching", "cricket", "with", "ravi"), feed.getSearchTerms());
+        assertEquals(List.of("cricket"), feed.getHashtags());
+        assertEquals(List.of("ravi"), feed.getMentions());
+    }
+
+    @Test
+    void search_QueriesTheTermArraysWithAnAnchoredPrefix() {
+        when(mongoTemplate.find(any(Query.class), eq(Feed.class))).thenReturn(new ArrayList<>());
+
+        feedSearchService.search("#ipl world cu", null, 10);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, atLeastOnce()).find(query.capture(), eq(Feed.class));
+        String filter = query.getAllValues().get(0).getQueryObject().toJson();
+        assertTrue(filter.contains("\"searchTerms\": {\"$all\": [\"world\"]}"), filter);
+        assertTrue(filter.contains("\"^cu\""), filter);
+        assertTrue(filter.contains("\"hashtags\": {\"$all\": [\"ipl\"]}"), filter);
+        assertFalse(filter.contains("message"), filter);
+    }
+
+    @Test
+    void search_RanksRelevanceAgainstRecencyAndPagesByCursor() {
+        // A hashtag match is worth a day of recency: the older tagged post outranks the newer plain one
+        Feed newPlain = candidate("f-3", NOW, List.of("cricket"), List.of());
+        Feed olderTagged = candidate("f-2", NOW.minusHours(12), List.of("cricket"), List.of("cricket"));
+        Feed oldPlain = candidate("f-1", NOW.minusDays(3), List.of("cricket"), List.of());
+        List<Feed> candidates = List.of(newPlain, olderTagged, oldPlain);
+        stubSearch(candidates);
+
+        CursorPage<Feed> first = feedSearchService.search("cricket ", null, 2);
+        assertEquals(List.of("f-2", "f-3"), ids(first.getContent()));
+        assertNotNull(first.getNextCursor());
+
+        CursorPage<Feed> second = feedSearchService.search("cricket ", first.getNextCursor(), 2);
+        assertEquals(List.of("f-1"), ids(second.getContent()));
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void search_ExactWordOutranksAPrefixMatchOfTheSameAge() {
+        Feed prefixOnly = candidate("f-2", NOW, List.of("cricketer"), List.of());
+        Feed exact = candidate("f-1", NOW, List.of("cricket"), List.of());
+        stubSearch(List.of(prefixOnly, exact));
+
+        CursorPage<Feed> page = feedSearchService.search("cricket", null, 10);
+
+        assertEquals(List.of("f-1", "f-2"), ids(page.getContent()));
+    }
+
+    @Test
+    void search_ReturnsNothingForQueriesWithoutWords() {
+        CursorPage<Feed> page = feedSearchService.search("?!*", null, 10);
+
+        assertTrue(page.getContent().isEmpty());
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void search_RejectsInvalidCursors() {
+        assertThrows(IllegalArgumentException.class, () -> feedSearchService.search("cricket", "not-a-cursor", 10));
+    }
+
+    @Test
+    void backfill_SetsSearchFieldsOnFeedsWithoutThem() {
+        Feed legacy = new Feed("author", "#Diwali greetings");
+        legacy.setId("f-1");
+        when(mongoTemplate.find(any(Query.class), eq(Feed.class))).thenReturn(List.of(legacy)).thenReturn(List.of());
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Feed.class))).thenReturn(bulk);
+
+        feedSearchService.backfillSearchFields();
+        feedSearchService.backfillSearchFields();
+        feedSearchService.backfillSearchFields();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk).updateOne(any(Query.class), update.capture());
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(List.of("diwali"), set.get("hashtags"));
+        verify(bulk).execute();
+        // Done once a batch comes back empty
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(Feed.class));
+    }
+
+    private void stubSearch(List<Feed> candidates) {
+        when(mongoTemplate.find(any(Query.class), eq(Feed.class))).thenAnswer(invocation -> {
+            Query query = invocation.getArgument(0);
+            Document filter = query.getQueryObject();
+            if (!filter.containsKey("_id")) {
+                return new ArrayList<>(candidates);
+            }
+            // Page load: return in a different order than requested
+            List<?> ids = (List<?>) filter.get("_id", Document.class).get("$in");
+            List<Feed> found = new ArrayList<>();
+            for (Feed candidate : candidates) {
+                if (ids.contains(candidate.getId())) {
+                    found.add(0, candidate);
+                }
+            }
+            return found;
+        });
+    }
+
+    private static Feed candidate(String id, LocalDateTime createdAt, List<String> terms, List<String> hashtags) {
+        Feed feed = new Feed("author", String.join(" ", terms));
+        feed.setId(id);
+        feed.setCreatedAt(createdAt);
+        feed.setSearchTerms(terms);
+        feed.setHashtags(hashtags);
+        return feed;
+    }
+
+    private static List<String> ids(List<Feed> feeds) {
+        List<String> ids = new ArrayList<>();
+        for (Feed feed : feeds) {
+            ids.add(feed.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,32 @@
+package com.bharathva.feed.service;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the embedded comment updates of FeedService
+ */
+class FeedServiceCommentsTest {
+
+    @Test
+    void removeCommentAt_SlicesOutOnlyTheAddressedComment() {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+        List<Document> pipeline = FeedService.removeCommentAt(2, now).toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        assertEquals(1, pipeline.size());
+        Document set = pipeline.get(0).get("$set", Document.class);
+        // Everything before the index plus everything after it, so identical neighbours stay
+        List<Document> parts = set.get("comments", Document.class).getList("$concatArrays", Document.class);
+        assertEquals(List.of("$comments", 2), parts.get(0).get("$slice"));
+        assertEquals(List.of("$comments", 3, new Document("$size", "$comments")), parts.get(1).get("$slice"));
+        assertEquals(1, set.get("commentsCount", Document.class).getList("$subtract", Object.class).get(1));
+        assertEquals(now, set.get("updatedAt"));
+    }
+}
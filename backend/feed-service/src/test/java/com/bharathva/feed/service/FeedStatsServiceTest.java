@@ -0,0 +1,177 @@
+package com.bharathva.feed.service;
+
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.MongoCollection;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FeedStatsService
+ */
+@ExtendWith(MockitoExtension.class)
+class FeedStatsServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MeterRegistry meterRegistry;
+
+    @Mock
+    private MongoCollection<Document> feeds;
+
+    @Mock
+    private AggregateIterable<Document> aggregate;
+
+    @InjectMocks
+    private FeedStatsService feedStatsService;
+
+    @Test
+    void recompute_LoadsEveryCounterFromOneGroupedPass() {
+        stubRecompute(new Document("users", 3).append("feeds", 10).append("withImages", 4));
+
+        feedStatsService.recompute();
+        feedStatsService.onStreamProgress(Instant.now());
+        Map<String, Object> stats = feedStatsService.getSnapshot();
+
+        assertEquals(10L, stats.get("totalFeeds"));
+        assertEquals(3L, stats.get("totalUsers"));
+        assertEquals(4L, stats.get("feedsWithImages"));
+        assertEquals(3L, stats.get("averageFeedsPerUser"));
+        assertEquals(false, stats.get("stale"));
+        verify(aggregate).allowDiskUse(true);
+        verify(mongoTemplate, never()).count(any(Query.class), eq("feeds"));
+    }
+
+    @Test
+    void streamEvents_AdjustTheCountersWithoutRecounting() {
+        stubRecompute(new Document("users", 1).append("feeds", 1).append("withImages", 0));
+        feedStatsService.recompute();
+        // First post of a new author, then a second post by the same author
+        when(mongoTemplate.count(any(Query.class), eq("feeds"))).thenReturn(1L, 2L);
+
+        feedStatsService.onFeedInserted("new-author", 2);
+        feedStatsService.onFeedInserted("new-author", 0);
+        feedStatsService.onStreamProgress(Instant.now());
+        Map<String, Object> stats = feedStatsService.getSnapshot();
+
+        assertEquals(3L, stats.get("totalFeeds"));
+        assertEquals(2L, stats.get("totalUsers"));
+        assertEquals(1L, stats.get("feedsWithImages"));
+    }
+
+    @Test
+    void onFeedDeleted_WithoutAPreImageOnlyLowersTheFeedTotal() {
+        stubRecompute(new Document("users", 2).append("feeds", 5).append("withImages", 2));
+        feedStatsService.recompute();
+
+        feedStatsService.onFeedDeleted(null, null);
+        feedStatsService.onStreamProgress(Instant.now());
+        Map<String, Object> stats = feedStatsService.getSnapshot();
+
+        assertEquals(4L, stats.get("totalFeeds"));
+        assertEquals(2L, stats.get("totalUsers"));
+        assertEquals(2L, stats.get("feedsWithImages"));
+        // Author and image counts may be off until the next recompute
+        assertEquals(true, stats.get("stale"));
+        verify(mongoTemplate, never()).count(any(Query.class), eq("feeds"));
+    }
+
+    @Test
+    void recompute_ClearsTheStaleFlagOfAnEarlierDeleteWithoutAPreImage() {
+        stubRecompute(new Document("users", 2).append("feeds", 5).append("withImages", 2));
+        feedStatsService.onFeedDeleted(null, null);
+        ReflectionTestUtils.setField(feedStatsService, "unattributedDeleteAt",
+                new AtomicReference<>(Instant.now().minusSeconds(1)));
+
+        feedStatsService.recompute();
+        feedStatsService.onStreamProgress(Instant.now());
+
+        assertEquals(false, feedStatsService.getSnapshot().get("stale"));
+    }
+
+    @Test
+    void onFeedDeleted_WithAPreImageKeepsTheSnapshotFresh() {
+        stubRecompute(new Document("users", 2).append("feeds", 5).append("withImages", 2));
+        feedStatsService.recompute();
+        when(mongoTemplate.count(any(Query.class), eq("feeds"))).thenReturn(0L);
+
+        feedStatsService.onFeedDeleted("author", 1);
+        feedStatsService.onStreamProgress(Instant.now());
+        Map<String, Object> stats = feedStatsService.getSnapshot();
+
+        assertEquals(1L, stats.get("totalUsers"));
+        assertEquals(1L, stats.get("feedsWithImages"));
+        assertEquals(false, stats.get("stale"));
+    }
+
+    @Test
+    void getSnapshot_RefreshesTheFeedTotalOnceTheStreamFallsBehind() {
+        stubRecompute(new Document("users", 2).append("feeds", 5).append("withImages", 2));
+        feedStatsService.recompute();
+        feedStatsService.onStreamProgress(Instant.now().minusSeconds(120));
+        // Recompute marks the totals fresh; pretend that was long ago too
+        ReflectionTestUtils.setField(feedStatsService, "recomputedAt", Instant.now().minusSeconds(600));
+        ReflectionTestUtils.setField(feedStatsService, "refreshAttemptedAt", Instant.now().minusSeconds(600));
+        when(feeds.estimatedDocumentCount()).thenReturn(7L);
+
+        Map<String, Object> stats = feedStatsService.getSnapshot();
+
+        assertEquals(7L, stats.get("totalFeeds"));
+        assertEquals(true, stats.get("stale"));
+        assertNotNull(stats.get("asOf"));
+    }
+
+    @Test
+    void getSnapshot_EmptyCollectionHasZeroCounts() {
+        stubRecompute(null);
+        feedStatsService.recompute();
+
+        Map<String, Object> stats = feedStatsService.getSnapshot();
+
+        assertEquals(0L, stats.get("totalFeeds"));
+        assertEquals(0L, stats.get("averageFeedsPerUser"));
+        assertNotNull(stats.get("recomputedAt"));
+    }
+
+    @Test
+    void getSnapshot_BeforeTheFirstRecomputeServesStaleCountsWithoutRecomputing() {
+        when(mongoTemplate.getCollection("feeds")).thenReturn(feeds);
+        when(feeds.estimatedDocumentCount()).thenThrow(new IllegalStateException("connection refused"));
+
+        Map<String, Object> first = feedStatsService.getSnapshot();
+        Map<String, Object> second = feedStatsService.getSnapshot();
+
+        assertEquals(0L, first.get("totalFeeds"));
+        assertEquals(true, first.get("stale"));
+        assertNull(second.get("recomputedAt"));
+        verify(feeds, never()).aggregate(anyList());
+        // The failed refresh backs off instead of hitting MongoDB on every request
+        verify(feeds, times(1)).estimatedDocumentCount();
+    }
+
+    private void stubRecompute(Document result) {
+        when(mongoTemplate.getCollection("feeds")).thenReturn(feeds);
+        when(feeds.aggregate(anyList())).thenReturn(aggregate);
+        when(aggregate.allowDiskUse(true)).thenReturn(aggregate);
+        when(aggregate.first()).thenReturn(result);
+    }
+}
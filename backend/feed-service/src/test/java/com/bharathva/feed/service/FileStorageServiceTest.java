@@ -1,6 +1,7 @@
 package com.bharathva.feed.service;
 
 import com.bharathva.feed.model.ImageMetadata;
+import com.bharathva.feed.model.ImageVariant;
 import com.bharathva.feed.repository.ImageMetadataRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,9 +20,12 @@ import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -33,6 +37,9 @@ class FileStorageServiceTest {
     @Mock
     private ImageMetadataRepository imageMetadataRepository;
 
+    @Mock
+    private ImageDerivativeService imageDerivativeService;
+
     @InjectMocks
     private FileStorageService fileStorageService;
 
@@ -54,7 +61,7 @@ class FileStorageServiceTest {
                 "file",
                 "test-image.jpg",
                 "image/jpeg",
-                "test image content".getBytes()
+                jpeg("test image content")
         );
 
         ImageMetadata expectedMetadata = new ImageMetadata();
@@ -88,14 +95,14 @@ class FileStorageServiceTest {
                 "file1",
                 "test-image-1.jpg",
                 "image/jpeg",
-                "test image content 1".getBytes()
+                jpeg("test image content 1")
         );
 
         MockMultipartFile file2 = new MockMultipartFile(
                 "file2",
                 "test-image-2.jpg",
                 "image/jpeg",
-                "test image content 2".getBytes()
+                jpeg("test image content 2")
         );
 
         MultipartFile[] files = {file1, file2};
@@ -126,6 +133,82 @@ class FileStorageServiceTest {
         verify(imageMetadataRepository, times(2)).save(any(ImageMetadata.class));
     }
 
+    @Test
+    void testStoreFile_DuplicateContentSharesTheStoredFileAndVariants() throws IOException {
+        // Arrange: the same bytes uploaded by two users
+        byte[] content = jpeg("same picture " + System.nanoTime());
+        MockMultipartFile first = new MockMultipartFile("file", "a.jpg", "image/jpeg", content);
+        MockMultipartFile second = new MockMultipartFile("file", "b.jpeg", "image/jpeg", content);
+        when(imageMetadataRepository.save(any(ImageMetadata.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ImageMetadata stored = fileStorageService.storeFile(first, testUserId);
+
+        ImageMetadata ready = new ImageMetadata();
+        ready.setVariants(List.of(new ImageVariant(320, 240, "jpeg", "image/jpeg", "w320.jpg", 100L)));
+        ready.setPlaceholder("LEHV6nWB2yk8pyo0adR*.7kCMdnj");
+        when(imageMetadataRepository.findFirstByContentHashAndDerivativeStatus(stored.getContentHash(), "READY"))
+                .thenReturn(ready);
+
+        // Act
+        ImageMetadata duplicate = fileStorageService.storeFile(second, "other-user");
+
+        // Assert
+        assertEquals(64, stored.getContentHash().length());
+        assertEquals(stored.getFilePath(), duplicate.getFilePath());
+        assertTrue(stored.getFilePath().endsWith("original.jpg"));
+        assertEquals("READY", duplicate.getDerivativeStatus());
+        assertEquals(ready.getVariants(), duplicate.getVariants());
+        verify(imageDerivativeService, times(1)).generateAsync(eq(stored.getContentHash()), anyString());
+
+        // Deleting one keeps the file for the other
+        when(imageMetadataRepository.findById("dup")).thenReturn(Optional.of(duplicate));
+        duplicate.setId("dup");
+        when(imageMetadataRepository.countByContentHash(stored.getContentHash())).thenReturn(1L, 0L);
+        fileStorageService.deleteImage("dup", "other-user");
+        assertTrue(Files.exists(Paths.get(stored.getFilePath())));
+
+        when(imageMetadataRepository.findById("first")).thenReturn(Optional.of(stored));
+        stored.setId("first");
+        fileStorageService.deleteImage("first", testUserId);
+        assertFalse(Files.exists(Paths.get(stored.getFilePath()).getParent()));
+    }
+
+    @Test
+    void testDeleteUnreferenced_KeepsFilesWhenTheContentWasUploadedAgainMeanwhile() throws IOException {
+        // Arrange: the last reference is gone, but an upload of the same bytes registers before the re-count
+        String contentHash = "ab" + System.nanoTime();
+        Path directory = Paths.get(testUploadDir, "race", contentHash);
+        Files.createDirectories(directory);
+        Files.write(directory.resolve("original.jpg"), "original".getBytes());
+        Files.write(directory.resolve("w320.jpg"), "variant".getBytes());
+        when(imageMetadataRepository.countByContentHash(contentHash)).thenReturn(1L);
+
+        // Act
+        fileStorageService.deleteUnreferenced(contentHash, directory);
+
+        // Assert
+        assertTrue(Files.exists(directory.resolve("original.jpg")));
+        assertTrue(Files.exists(directory.resolve("w320.jpg")));
+        try (Stream<Path> siblings = Files.list(directory.getParent())) {
+            assertTrue(siblings.noneMatch(path -> path.getFileName().toString().startsWith(contentHash + ".deleting")));
+        }
+    }
+
+    @Test
+    void testDeleteUnreferenced_RemovesTheDirectoryWhenStillUnreferenced() throws IOException {
+        String contentHash = "cd" + System.nanoTime();
+        Path directory = Paths.get(testUploadDir, "race", contentHash);
+        Files.createDirectories(directory);
+        Files.write(directory.resolve("original.jpg"), "original".getBytes());
+        when(imageMetadataRepository.countByContentHash(contentHash)).thenReturn(0L);
+
+        fileStorageService.deleteUnreferenced(contentHash, directory);
+
+        try (Stream<Path> siblings = Files.list(directory.getParent())) {
+            assertTrue(siblings.noneMatch(path -> path.getFileName().toString().startsWith(contentHash)));
+        }
+    }
+
     @Test
     void testGetImageMetadata_Success() {
         // Arrange
@@ -292,4 +375,15 @@ class FileStorageServiceTest {
 
         verify(imageMetadataRepository, never()).save(any(ImageMetadata.class));
     }
+
+    private static byte[] jpeg(String body) {
+        // Uploads are sniffed, so fixtures need a real JPEG signature in front
+        byte[] content = body.getBytes();
+        byte[] image = new byte[content.length + 3];
+        image[0] = (byte) 0xFF;
+        image[1] = (byte) 0xD8;
+        image[2] = (byte) 0xFF;
+        System.arraycopy(content, 0, image, 3, content.length);
+        return image;
+    }
 }
@@ -0,0 +1,126 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.model.ImageMetadata;
+import com.bharathva.feed.model.ImageVariant;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ImageDerivativeService
+ */
+@ExtendWith(MockitoExtension.class)
+class ImageDerivativeServiceTest {
+
+    private static final String HASH = "ab12cd34";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ImageDerivativeService imageDerivativeService;
+
+    @TempDir
+    Path contentDirectory;
+
+    @Test
+    void generate_WritesDownscaledVariantsAndAPlaceholder() throws IOException {
+        Path original = writePng(1200, 800);
+
+        String status = imageDerivativeService.generate(HASH, original);
+
+        assertEquals(ImageDerivativeService.STATUS_READY, status);
+        Document set = recordedUpdate().get("$set", Document.class);
+        assertEquals(1200, set.get("width"));
+        assertEquals(800, set.get("height"));
+        List<Integer> widths = new ArrayList<>();
+        for (Object value : (List<?>) set.get("variants")) {
+            ImageVariant variant = (ImageVariant) value;
+            if (variant.getFormat().equals("jpeg")) {
+                widths.add(variant.getWidth());
+                assertTrue(Files.size(contentDirectory.resolve(variant.getFileName())) > 0);
+                assertEquals(variant.getWidth() * 2 / 3, variant.getHeight(), 1);
+            }
+        }
+        assertEquals(List.of(320, 640, 1080), widths);
+        // 4x3 components: size flag, maximum, DC (4) and 11 AC values (2 each)
+        assertEquals(28, ((String) set.get("placeholder")).length());
+    }
+
+    @Test
+    void generate_NeverUpscalesSmallImages() throws IOException {
+        Path original = writePng(400, 300);
+
+        imageDerivativeService.generate(HASH, original);
+
+        List<?> variants = (List<?>) recordedUpdate().get("$set", Document.class).get("variants");
+        assertTrue(variants.stream().allMatch(variant -> ((ImageVariant) variant).getWidth() == 320));
+    }
+
+    @Test
+    void generate_ReusesTheVariantsOfTheSameContent() {
+        ImageMetadata done = new ImageMetadata();
+        done.setWidth(1200);
+        done.setHeight(800);
+        done.setVariants(List.of(new ImageVariant(320, 213, "jpeg", "image/jpeg", "w320.jpg", 1000L)));
+        done.setPlaceholder("LEHV6nWB2yk8pyo0adR*.7kCMdnj");
+        when(mongoTemplate.findOne(any(Query.class), eq(ImageMetadata.class))).thenReturn(done);
+
+        String status = imageDerivativeService.generate(HASH, contentDirectory.resolve("missing.png"));
+
+        assertEquals(ImageDerivativeService.STATUS_READY, status);
+        assertEquals(done.getVariants(), recordedUpdate().get("$set", Document.class).get("variants"));
+    }
+
+    @Test
+    void generate_KeepsFormatsWithoutADecoderAsUploaded() throws IOException {
+        Path original = contentDirectory.resolve("original.heic");
+        Files.write(original, new byte[] {0, 0, 0, 0x18, 'f', 't', 'y', 'p', 'h', 'e', 'i', 'c', 0, 0, 0, 0});
+
+        String status = imageDerivativeService.generate(HASH, original);
+
+        assertEquals(ImageDerivativeService.STATUS_UNSUPPORTED, status);
+    }
+
+    private Document recordedUpdate() {
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(any(Query.class), update.capture(), eq(ImageMetadata.class));
+        return update.getValue().getUpdateObject();
+    }
+
+    private Path writePng(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(255, 153, 51));
+        graphics.fillRect(0, 0, width, height / 2);
+        graphics.setColor(new Color(19, 136, 8));
+        graphics.fillRect(0, height / 2, width, height - height / 2);
+        graphics.dispose();
+        Path original = contentDirectory.resolve("original.png");
+        ImageIO.write(image, "png", original.toFile());
+        return original;
+    }
+}
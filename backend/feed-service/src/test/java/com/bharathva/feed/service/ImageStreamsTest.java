@@ -0,0 +1,85 @@
+package com.bharathva.feed.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ImageStreams
+ */
+class ImageStreamsTest {
+
+    private static final Set<String> IMAGES = Set.of("image/jpeg", "image/png", "image/heic", "image/svg+xml");
+
+    @Test
+    void sniff_RecognisesImagesByTheirSignature() {
+        assertEquals("image/jpeg", sniff(0xFF, 0xD8, 0xFF, 0xE0));
+        assertEquals("image/png", sniff(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A));
+        assertEquals("image/webp", sniff('R', 'I', 'F', 'F', 0, 0, 0, 0, 'W', 'E', 'B', 'P'));
+        assertEquals("image/heic", sniff(0, 0, 0, 0x18, 'f', 't', 'y', 'p', 'h', 'e', 'i', 'c'));
+        assertEquals("image/avif", sniff(0, 0, 0, 0x1C, 'f', 't', 'y', 'p', 'a', 'v', 'i', 'f'));
+        assertEquals("image/svg+xml", sniffText("<?xml version=\"1.0\"?>\n<svg/>"));
+        assertNull(sniffText("<html><script>"));
+        assertNull(sniff(0, 0, 0, 0x18, 'f', 't', 'y', 'p', 'i', 's', 'o', 'm'));
+    }
+
+    @Test
+    void check_UsesTheContentNotTheNameOrDeclaredType() throws IOException {
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 1, 2, 3};
+
+        ImageStreams.Checked checked = ImageStreams.check(new ByteArrayInputStream(png), 1024, IMAGES);
+
+        assertEquals("image/png", checked.getContentType());
+        // Sniffing does not consume the header
+        assertArrayEquals(png, checked.getStream().readAllBytes());
+        assertEquals(png.length, checked.getBytesRead());
+    }
+
+    @Test
+    void check_RejectsContentThatIsNotAnAllowedImage() {
+        InputStream html = new ByteArrayInputStream(bytes("<html><body>not an image</body></html>"));
+        InputStream gif = new ByteArrayInputStream(bytes("GIF89a...."));
+
+        assertThrows(IllegalArgumentException.class, () -> ImageStreams.check(html, 1024, IMAGES));
+        assertThrows(IllegalArgumentException.class, () -> ImageStreams.check(gif, 1024, IMAGES));
+        assertThrows(IllegalArgumentException.class,
+                () -> ImageStreams.check(new ByteArrayInputStream(new byte[0]), 1024, IMAGES));
+    }
+
+    @Test
+    void check_FailsTheReadThatPassesTheSizeLimit() throws IOException {
+        byte[] jpeg = new byte[64 * 1024];
+        jpeg[0] = (byte) 0xFF;
+        jpeg[1] = (byte) 0xD8;
+        jpeg[2] = (byte) 0xFF;
+
+        ImageStreams.Checked checked = ImageStreams.check(new ByteArrayInputStream(jpeg), 32 * 1024, IMAGES);
+
+        assertThrows(ImageStreams.SizeLimitExceededException.class,
+                () -> checked.getStream().transferTo(OutputStream.nullOutputStream()));
+    }
+
+    private static String sniff(int... header) {
+        byte[] data = new byte[header.length];
+        for (int i = 0; i < header.length; i++) {
+            data[i] = (byte) header[i];
+        }
+        return ImageStreams.sniff(data, data.length);
+    }
+
+    private static String sniffText(String text) {
+        byte[] data = bytes(text);
+        return ImageStreams.sniff(data, data.length);
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,78 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.model.ImageMetadata;
+import com.bharathva.feed.repository.ImageMetadataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ImageUploadService
+ */
+@ExtendWith(MockitoExtension.class)
+class ImageUploadServiceTest {
+
+    @Mock
+    private CloudinaryService cloudinaryService;
+
+    @Mock
+    private ImageMetadataRepository imageMetadataRepository;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @InjectMocks
+    private ImageUploadService imageUploadService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(imageUploadService, "storage", "local");
+    }
+
+    @Test
+    void uploadAndStoreImages_RemovesUploadsWhenTheQueueIsFull() throws Exception {
+        // Runs the first upload, then behaves like a full queue
+        AtomicInteger submitted = new AtomicInteger();
+        Executor fullAfterOne = task -> {
+            if (submitted.getAndIncrement() > 0) {
+                throw new RejectedExecutionException("queue full");
+            }
+            task.run();
+        };
+        ReflectionTestUtils.setField(imageUploadService, "imageUploadExecutor", fullAfterOne);
+
+        ImageMetadata stored = new ImageMetadata();
+        stored.setId("img-1");
+        stored.setUserId("user-1");
+        stored.setContentHash("ab12cd34");
+        when(fileStorageService.storeFile(any(MultipartFile.class), eq("user-1"))).thenReturn(stored);
+        when(imageMetadataRepository.findById("img-1")).thenReturn(Optional.of(stored));
+
+        MultipartFile[] files = {image("a.jpg"), image("b.jpg"), image("c.jpg")};
+
+        assertThrows(RejectedExecutionException.class, () -> imageUploadService.uploadAndStoreImages(files, "user-1"));
+        assertEquals(2, submitted.get());
+        verify(fileStorageService, times(1)).storeFile(any(MultipartFile.class), eq("user-1"));
+        verify(fileStorageService).deleteImage("img-1", "user-1");
+    }
+
+    private static MultipartFile image(String name) {
+        return new MockMultipartFile("files", name, "image/jpeg", new byte[] {1, 2, 3});
+    }
+}
@@ -0,0 +1,79 @@
+package com.bharathva.feed.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MediaFileService
+ */
+@ExtendWith(MockitoExtension.class)
+class MediaFileServiceTest {
+
+    private static final String HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @InjectMocks
+    private MediaFileService mediaFileService;
+
+    @TempDir
+    Path contentDirectory;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(mediaFileService, "hotFileMaxBytes", 16L);
+        mediaFileService.init();
+    }
+
+    @Test
+    void resolve_KeepsSmallFilesInMemory() throws IOException {
+        when(fileStorageService.contentDirectory(HASH)).thenReturn(contentDirectory);
+        Path thumbnail = Files.write(contentDirectory.resolve("w320.jpg"), new byte[] {1, 2, 3});
+
+        MediaFileService.MediaFile first = mediaFileService.resolve(HASH, "w320.jpg");
+        Files.delete(thumbnail);
+        MediaFileService.MediaFile second = mediaFileService.resolve(HASH, "w320.jpg");
+
+        assertArrayEquals(new byte[] {1, 2, 3}, first.getContent());
+        assertSame(first.getContent(), second.getContent());
+        assertEquals("image/jpeg", second.getContentType());
+        assertEquals("\"" + HASH + "-w320.jpg\"", second.getEtag());
+    }
+
+    @Test
+    void resolve_StreamsLargeFilesFromDisk() throws IOException {
+        when(fileStorageService.contentDirectory(HASH)).thenReturn(contentDirectory);
+        Files.write(contentDirectory.resolve("original.png"), new byte[64]);
+
+        MediaFileService.MediaFile file = mediaFileService.resolve(HASH, "original.png");
+
+        assertNull(file.getContent());
+        assertEquals(64, file.getSize());
+        assertEquals("image/png", file.getContentType());
+        assertNull(mediaFileService.resolve(HASH, "w640.jpg"));
+    }
+
+    @Test
+    void resolve_OnlyAcceptsNamesTheStoreWrites() throws IOException {
+        assertNull(mediaFileService.resolve(HASH, "../../application.yml"));
+        assertNull(mediaFileService.resolve(HASH, "original.exe"));
+        assertNull(mediaFileService.resolve("..", "original.jpg"));
+        assertNull(mediaFileService.resolve(HASH.toUpperCase(), "original.jpg"));
+        verify(fileStorageService, never()).contentDirectory(anyString());
+    }
+}
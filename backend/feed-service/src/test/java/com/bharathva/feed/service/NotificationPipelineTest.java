@@ -0,0 +1,233 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.model.Feed;
+import com.bharathva.feed.model.Notification;
+import com.bharathva.feed.model.NotificationLikeActor;
+import com.bharathva.feed.model.UserInfo;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for NotificationPipeline
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationPipelineTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private UnreadCounterService unreadCounterService;
+
+    @Mock
+    private UserProfileLoader userProfileLoader;
+
+    @Mock
+    private WebSocketService webSocketService;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private BulkOperations likeActorBulk;
+
+    @InjectMocks
+    private NotificationPipeline notificationPipeline;
+
+    @BeforeEach
+    void setUp() {
+        notificationPipeline.init();
+    }
+
+    @Test
+    void submit_OnlyQueuesUntilFlush() {
+        notificationPipeline.submit(NotificationPipeline.Command.like("feed-1", "actor-1"));
+
+        assertEquals(1, notificationPipeline.getQueueDepth());
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void shutdown_WritesQueuedCommandsAndRefusesNewOnes() {
+        stubFeed("feed-1", "owner-1");
+        notificationPipeline.submit(NotificationPipeline.Command.comment("feed-1", "actor-1", "Nice"));
+
+        notificationPipeline.shutdown();
+        notificationPipeline.submit(NotificationPipeline.Command.comment("feed-1", "actor-2", "Great"));
+
+        verify(mongoTemplate, times(1)).insert(anyList(), eq(Notification.class));
+        assertEquals(0, notificationPipeline.getQueueDepth());
+    }
+
+    @Test
+    void flush_RecordsLikeActorsAndUpsertsLikesKeyedByPostAndWindow() {
+        stubFeed("feed-1", "owner-1");
+        when(userProfileLoader.loadAll(anyCollection())).thenReturn(Map.of(
+                "actor-1", new UserInfo("actor-1", "asha", "Asha Rao", null)));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NotificationLikeActor.class)).thenReturn(likeActorBulk);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class)).thenReturn(bulkOperations);
+
+        notificationPipeline.submit(NotificationPipeline.Command.like("feed-1", "actor-1"));
+        notificationPipeline.submit(NotificationPipeline.Command.like("feed-1", "actor-2"));
+        notificationPipeline.flush();
+
+        String key = notificationPipeline.likeAggregationKey("feed-1", LocalDateTime.now());
+        ArgumentCaptor<List<NotificationLikeActor>> recorded = ArgumentCaptor.forClass(List.class);
+        verify(likeActorBulk).insert(recorded.capture());
+        assertEquals(List.of(NotificationLikeActor.idOf(key, "actor-1"), NotificationLikeActor.idOf(key, "actor-2")),
+                recorded.getValue().stream().map(NotificationLikeActor::getId).toList());
+
+        ArgumentCaptor<Query> filters = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(2)).upsert(filters.capture(), updates.capture());
+        verify(bulkOperations, times(1)).execute();
+        verify(unreadCounterService).adjustAll(Map.of("owner-1", 1L));
+
+        Document filter = filters.getAllValues().get(0).getQueryObject();
+        assertEquals(new Document("receiverId", "owner-1").append("aggregationKey", key), filter);
+        Document updateObject = updates.getAllValues().get(0).getUpdateObject();
+        assertEquals(1, updateObject.get("$inc", Document.class).get("actorCount"));
+        assertEquals("Asha Rao liked your post", updateObject.get("$set", Document.class).get("message"));
+        assertEquals(0, notificationPipeline.getQueueDepth());
+    }
+
+    @Test
+    void flush_SkipsLikesOnOwnPost() {
+        stubFeed("feed-1", "owner-1");
+
+        notificationPipeline.submit(NotificationPipeline.Command.like("feed-1", "owner-1"));
+        notificationPipeline.flush();
+
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), any(Class.class));
+        verifyNoInteractions(webSocketService);
+    }
+
+    @Test
+    void flush_LikeThenUnlikeInSameBatchOnlyRemovesTheActor() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class)).thenReturn(bulkOperations);
+        NotificationLikeActor counted = new NotificationLikeActor("owner-1", "feed-1", "LIKE:feed-1:1", "actor-1",
+                LocalDateTime.now());
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(NotificationLikeActor.class)))
+                .thenReturn(counted, (NotificationLikeActor) null);
+
+        notificationPipeline.submit(NotificationPipeline.Command.like("feed-1", "actor-1"));
+        notificationPipeline.submit(NotificationPipeline.Command.unlike("feed-1", "actor-1"));
+        notificationPipeline.flush();
+
+        verify(bulkOperations, never()).upsert(any(Query.class), any(Update.class));
+        verifyNoInteractions(likeActorBulk);
+        ArgumentCaptor<Query> filter = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations).updateOne(filter.capture(), update.capture());
+        assertEquals(new Document("receiverId", "owner-1").append("aggregationKey", "LIKE:feed-1:1"),
+                filter.getValue().getQueryObject());
+        Document updateObject = update.getValue().getUpdateObject();
+        assertEquals("actor-1", updateObject.get("$pull", Document.class).get("actorIds"));
+        assertEquals(-1, updateObject.get("$inc", Document.class).get("actorCount"));
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(Notification.class));
+    }
+
+    @Test
+    void process_DoesNotCountALikeWhoseActorIsAlreadyRecorded() {
+        stubFeed("feed-1", "owner-1");
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NotificationLikeActor.class)).thenReturn(likeActorBulk);
+        BulkOperationException duplicate = mock(BulkOperationException.class);
+        when(duplicate.getErrors()).thenReturn(List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 0)));
+        when(likeActorBulk.execute()).thenThrow(duplicate);
+
+        notificationPipeline.process(List.of(NotificationPipeline.Command.like("feed-1", "actor-1")));
+
+        verify(mongoTemplate, never()).bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class);
+        verify(unreadCounterService).adjustAll(Map.of());
+    }
+
+    @Test
+    void flush_InsertsCommentsInOneWriteAndPushesThemWithOneCounterRead() {
+        stubFeed("feed-1", "owner-1");
+        when(unreadCounterService.get("owner-1")).thenReturn(3L);
+
+        notificationPipeline.submit(NotificationPipeline.Command.comment("feed-1", "actor-1", "Nice"));
+        notificationPipeline.submit(NotificationPipeline.Command.comment("feed-1", "actor-2", "Great"));
+        notificationPipeline.flush();
+
+        ArgumentCaptor<List<Notification>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(mongoTemplate, times(1)).insert(inserted.capture(), eq(Notification.class));
+        assertEquals(2, inserted.getValue().size());
+        verify(unreadCounterService).adjustAll(Map.of("owner-1", 2L));
+        verify(unreadCounterService, times(1)).get("owner-1");
+        verify(webSocketService, times(2)).notifyNotificationCreated(any(), eq(3L));
+    }
+
+    @Test
+    void flush_DeletingACommentDecrementsOnlyForUnreadNotifications() {
+        Notification unread = new Notification("actor-1", "owner-1", "feed-1", Notification.NotificationType.COMMENT);
+        unread.setId("n-1");
+        Notification read = new Notification("actor-1", "owner-1", "feed-1", Notification.NotificationType.COMMENT);
+        read.setId("n-2");
+        read.setRead(true);
+        when(mongoTemplate.find(any(Query.class), eq(Notification.class))).thenReturn(List.of(unread, read));
+
+        notificationPipeline.submit(NotificationPipeline.Command.deleteComment("feed-1", "actor-1"));
+        notificationPipeline.flush();
+
+        verify(mongoTemplate).remove(any(Query.class), eq(Notification.class));
+        verify(unreadCounterService).adjustAll(Map.of("owner-1", -1L));
+        verifyNoInteractions(webSocketService);
+    }
+
+    @Test
+    void flush_DeletingACommentLeavesDailyDigestsAlone() {
+        notificationPipeline.submit(NotificationPipeline.Command.deleteComment("feed-1", "actor-1"));
+        notificationPipeline.flush();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Notification.class));
+        Document perActor = query.getValue().getQueryObject().getList("$or", Document.class).get(0);
+        assertEquals(new Document("$exists", false), perActor.get("aggregationKey"));
+    }
+
+    @Test
+    void flush_UnlikeDoesNotRepointDailyDigests() {
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(NotificationLikeActor.class))).thenReturn(null);
+
+        notificationPipeline.submit(NotificationPipeline.Command.unlike("feed-1", "actor-1"));
+        notificationPipeline.flush();
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queries.capture(), eq(Notification.class));
+        Document aggregationKey = queries.getAllValues().get(1).getQueryObject().get("aggregationKey", Document.class);
+        assertEquals(true, aggregationKey.get("$exists"));
+        assertEquals("^" + Notification.DIGEST_KEY_PREFIX, aggregationKey.get("$not", Pattern.class).pattern());
+    }
+
+    private void stubFeed(String feedId, String ownerId) {
+        Feed feed = new Feed(ownerId, "message");
+        feed.setId(feedId);
+        when(mongoTemplate.find(any(Query.class), eq(Feed.class))).thenReturn(List.of(feed));
+    }
+}
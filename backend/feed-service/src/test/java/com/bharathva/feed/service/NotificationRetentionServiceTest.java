@@ -0,0 +1,182 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.model.Notification;
+import com.mongodb.client.result.DeleteResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for NotificationRetentionService
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationRetentionServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private UnreadCounterService unreadCounterService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private NotificationRetentionService notificationRetentionService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(notificationRetentionService, "deleteBatchSize", 2);
+        ReflectionTestUtils.setField(notificationRetentionService, "maxDeletesPerSecond", 0);
+        notificationRetentionService.registerMetrics();
+    }
+
+    @Test
+    void deleteInBatches_DeletesByIdInBatchesAndDecrementsUnreadCounters() {
+        when(mongoTemplate.find(any(Query.class), eq(Notification.class)))
+                .thenReturn(List.of(notification("n-1", "user-1", false), notification("n-2", "user-1", true)))
+                .thenReturn(List.of(notification("n-3", "user-2", false)));
+        when(mongoTemplate.remove(any(Query.class), eq(Notification.class)))
+                .thenReturn(DeleteResult.acknowledged(2))
+                .thenReturn(DeleteResult.acknowledged(1));
+
+        long deleted = notificationRetentionService.deleteInBatches(
+                Criteria.where("receiverId").in("user-1", "user-2"), meterRegistry.counter("test.deleted"));
+
+        assertEquals(3, deleted);
+        verify(mongoTemplate, times(2)).remove(any(Query.class), eq(Notification.class));
+        verify(unreadCounterService).adjustAll(Map.of("user-1", -1L));
+        verify(unreadCounterService).adjustAll(Map.of("user-2", -1L));
+        assertEquals(3.0, meterRegistry.counter("test.deleted").count());
+    }
+
+    @Test
+    void foldDay_UpsertsOneDigestAndMarksItUnreadWhenOriginalsWereUnread() {
+        Date first = new Date(1_700_000_000_000L);
+        Date last = new Date(1_700_000_600_000L);
+        Document group = new Document("_id", new Document("receiverId", "owner-1").append("type", "LIKE").append("day", "2023-11-14"))
+                .append("actors", new ArrayList<>(List.of("a-1", "a-2", "a-3")))
+                .append("unread", 2)
+                .append("senderId", "a-3")
+                .append("postId", "feed-9")
+                .append("firstCreatedAt", first)
+                .append("lastCreatedAt", last);
+
+        long deleted = notificationRetentionService.foldDay(group);
+
+        assertEquals(0, deleted);
+        ArgumentCaptor<Query> filter = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(filter.capture(), update.capture(), eq(Notification.class));
+        assertTrue(filter.getValue().getQueryObject().toJson().contains("\"aggregationKey\": \"DIGEST:LIKE:2023-11-14\""));
+        Document updateObject = update.getValue().getUpdateObject();
+        assertEquals(3, updateObject.get("$inc", Document.class).get("actorCount"));
+        assertEquals(false, updateObject.get("$set", Document.class).get("isRead"));
+        verify(unreadCounterService).adjust("owner-1", 1);
+    }
+
+    @Test
+    void foldDay_KeepsAFullyReadDayRead() {
+        Document group = new Document("_id", new Document("receiverId", "owner-1").append("type", "COMMENT").append("day", "2023-11-14"))
+                .append("actors", List.of("a-1"))
+                .append("unread", 0)
+                .append("firstCreatedAt", new Date())
+                .append("lastCreatedAt", new Date());
+
+        notificationRetentionService.foldDay(group);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(Notification.class));
+        Document updateObject = update.getValue().getUpdateObject();
+        assertEquals(true, updateObject.get("$setOnInsert", Document.class).get("isRead"));
+        assertFalse(updateObject.get("$set", Document.class).containsKey("isRead"));
+        verify(unreadCounterService, never()).adjust(any(), anyLong());
+    }
+
+    @Test
+    void foldDay_RerunAfterAnInterruptedDeleteOnlyRemovesTheLeftovers() {
+        Date first = new Date(1_700_000_000_000L);
+        Date last = new Date(1_700_000_600_000L);
+        Notification digest = new Notification("a-3", "owner-1", "feed-9", Notification.NotificationType.LIKE);
+        digest.setFoldedThrough(LocalDateTime.ofInstant(last.toInstant(), ZoneId.systemDefault()));
+        when(mongoTemplate.findOne(any(Query.class), eq(Notification.class))).thenReturn(digest);
+        Document group = new Document("_id", new Document("receiverId", "owner-1").append("type", "LIKE").append("day", "2023-11-14"))
+                .append("actors", List.of("a-2", "a-3"))
+                .append("unread", 1)
+                .append("firstCreatedAt", first)
+                .append("lastCreatedAt", last);
+
+        notificationRetentionService.foldDay(group);
+
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(Notification.class));
+        verify(unreadCounterService, never()).adjust(any(), anyLong());
+        ArgumentCaptor<Query> deleted = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(deleted.capture(), eq(Notification.class));
+        Document createdAt = deleted.getValue().getQueryObject().get("createdAt", Document.class);
+        assertEquals(first, createdAt.get("$gte"));
+        assertEquals(last, createdAt.get("$lte"));
+    }
+
+    @Test
+    void foldDay_RecordsTheNewestOriginalItCounted() {
+        Date last = new Date(1_700_000_600_000L);
+        Document group = new Document("_id", new Document("receiverId", "owner-1").append("type", "COMMENT").append("day", "2023-11-14"))
+                .append("actors", List.of("a-1"))
+                .append("unread", 0)
+                .append("firstCreatedAt", new Date(1_700_000_000_000L))
+                .append("lastCreatedAt", last);
+
+        notificationRetentionService.foldDay(group);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(Notification.class));
+        assertEquals(last, update.getValue().getUpdateObject().get("$max", Document.class).get("foldedThrough"));
+    }
+
+    @Test
+    void atOrAfterInCapOrder_BreaksCreatedAtTiesById() {
+        LocalDateTime createdAt = LocalDateTime.of(2023, 11, 14, 12, 0);
+        Notification boundary = notification("6553a1f0c2a4b1a1d0e0f0a1", "owner-1", true);
+        boundary.setCreatedAt(createdAt);
+
+        Document criteria = notificationRetentionService.atOrAfterInCapOrder("owner-1", boundary).getCriteriaObject();
+
+        assertEquals("owner-1", criteria.get("receiverId"));
+        List<Document> branches = criteria.getList("$or", Document.class);
+        assertEquals(new Document("createdAt", new Document("$lt", createdAt)), branches.get(0));
+        assertEquals(new Document("createdAt", createdAt).append("_id", new Document("$lte", "6553a1f0c2a4b1a1d0e0f0a1")),
+                branches.get(1));
+    }
+
+    private Notification notification(String id, String receiverId, boolean read) {
+        Notification notification = new Notification("sender", receiverId, "feed-1", Notification.NotificationType.LIKE);
+        notification.setId(id);
+        notification.setRead(read);
+        return notification;
+    }
+}
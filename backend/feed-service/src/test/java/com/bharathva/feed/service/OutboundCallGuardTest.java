@@ -0,0 +1,74 @@
+package com.bharathva.feed.service;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OutboundCallGuard
+ */
+class OutboundCallGuardTest {
+
+    private OutboundCallGuard outboundCallGuard;
+
+    @BeforeEach
+    void setUp() {
+        outboundCallGuard = new OutboundCallGuard();
+        ReflectionTestUtils.setField(outboundCallGuard, "timeoutMs", 100L);
+        ReflectionTestUtils.setField(outboundCallGuard, "maxConcurrentCalls", 1);
+        ReflectionTestUtils.setField(outboundCallGuard, "failureRateThreshold", 50f);
+        ReflectionTestUtils.setField(outboundCallGuard, "slidingWindowSize", 4);
+        ReflectionTestUtils.setField(outboundCallGuard, "openStateSeconds", 60L);
+        outboundCallGuard.init();
+    }
+
+    @Test
+    void guard_TimesOutSlowCalls() {
+        Mono<String> slow = Mono.just("late").delayElement(Duration.ofSeconds(5));
+
+        long start = System.nanoTime();
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> outboundCallGuard.guard("slow", slow).block());
+
+        assertTrue(e.getCause() instanceof TimeoutException);
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2000);
+    }
+
+    @Test
+    void guard_RejectsCallsBeyondBulkhead() {
+        // Hold the only permit with a call that never completes
+        outboundCallGuard.guard("busy", Mono.never()).subscribe();
+
+        assertThrows(BulkheadFullException.class,
+                () -> outboundCallGuard.guard("busy", Mono.just("ok")).block());
+    }
+
+    @Test
+    void guard_OpensBreakerAndStopsCallingFailingDependency() {
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> failing = Mono.defer(() -> {
+            calls.incrementAndGet();
+            return Mono.error(new IllegalStateException("HTTP 503"));
+        });
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(IllegalStateException.class, () -> outboundCallGuard.guard("down", failing).block());
+        }
+        assertThrows(CallNotPermittedException.class, () -> outboundCallGuard.guard("down", failing).block());
+
+        assertEquals(4, calls.get());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> down = (Map<String, Object>) outboundCallGuard.getStatus().get("down");
+        assertEquals("OPEN", down.get("circuitBreaker"));
+    }
+}
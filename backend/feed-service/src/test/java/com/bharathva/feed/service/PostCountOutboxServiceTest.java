@@ -0,0 +1,112 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.model.PostCountOutbox;
+import com.bharathva.feed.repository.FeedRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PostCountOutboxService
+ */
+@ExtendWith(MockitoExtension.class)
+class PostCountOutboxServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private FeedRepository feedRepository;
+
+    @Mock
+    private PostStatsClient postStatsClient;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @InjectMocks
+    private PostCountOutboxService postCountOutboxService;
+
+    @Test
+    void record_BumpsSequenceAndMarksPending() {
+        postCountOutboxService.record("user-1");
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(PostCountOutbox.class));
+        Document updateObject = update.getValue().getUpdateObject();
+        assertEquals(1, updateObject.get("$inc", Document.class).get("seq"));
+        assertEquals(true, updateObject.get("$set", Document.class).get("pending"));
+        verifyNoInteractions(postStatsClient);
+    }
+
+    @Test
+    void record_LetsAFailedWriteFailTheFeedWrite() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(PostCountOutbox.class)))
+                .thenThrow(new DataAccessResourceFailureException("primary stepped down"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> postCountOutboxService.record("user-1"));
+    }
+
+    @Test
+    void relayPending_SendsOneCoalescedCountPerUserInASingleCall() {
+        when(mongoTemplate.find(any(Query.class), eq(PostCountOutbox.class)))
+                .thenReturn(List.of(new PostCountOutbox("user-1", 12), new PostCountOutbox("user-2", 3)));
+        when(feedRepository.countByUserId("user-1")).thenReturn(40L);
+        when(feedRepository.countByUserId("user-2")).thenReturn(7L);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PostCountOutbox.class)).thenReturn(bulkOperations);
+
+        int delivered = postCountOutboxService.relayPending();
+
+        assertEquals(2, delivered);
+        ArgumentCaptor<List<Map<String, Object>>> updates = ArgumentCaptor.forClass(List.class);
+        verify(postStatsClient, times(1)).applyPostCounts(updates.capture());
+        assertEquals(Map.of("userId", "user-1", "count", 40, "seq", 12L), updates.getValue().get(0));
+        assertEquals(Map.of("userId", "user-2", "count", 7, "seq", 3L), updates.getValue().get(1));
+
+        // Acknowledgement is conditional on the sequence that was sent
+        ArgumentCaptor<Query> ackQuery = ArgumentCaptor.forClass(Query.class);
+        verify(bulkOperations, times(2)).updateOne(ackQuery.capture(), any(Update.class));
+        assertEquals(12L, ackQuery.getAllValues().get(0).getQueryObject().get("seq"));
+        verify(bulkOperations).execute();
+    }
+
+    @Test
+    void relayPending_LeavesEntriesPendingWhenAuthServiceFails() {
+        when(mongoTemplate.find(any(Query.class), eq(PostCountOutbox.class)))
+                .thenReturn(List.of(new PostCountOutbox("user-1", 5)));
+        when(feedRepository.countByUserId("user-1")).thenReturn(2L);
+        doThrow(new RuntimeException("auth-stats circuit open")).when(postStatsClient).applyPostCounts(anyList());
+
+        int delivered = postCountOutboxService.relayPending();
+
+        assertEquals(0, delivered);
+        verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq(PostCountOutbox.class));
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(PostCountOutbox.class));
+    }
+
+    @Test
+    void relayPending_NoPendingEntriesMakesNoCall() {
+        when(mongoTemplate.find(any(Query.class), eq(PostCountOutbox.class))).thenReturn(List.of());
+
+        assertEquals(0, postCountOutboxService.relayPending());
+        verifyNoInteractions(postStatsClient);
+    }
+}
@@ -0,0 +1,139 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.model.PostCountOutbox;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PostCountSyncService
+ */
+@ExtendWith(MockitoExtension.class)
+class PostCountSyncServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private PostStatsClient postStatsClient;
+
+    @Mock
+    private PostCountOutboxService postCountOutboxService;
+
+    @InjectMocks
+    private PostCountSyncService postCountSyncService;
+
+    @Test
+    void syncAllPostCounts_StreamsGroupedCountsInBulkBatches() {
+        List<Document> userCounts = IntStream.range(0, 1200)
+                .mapToObj(i -> new Document("_id", "user-" + i).append("count", 2))
+                .toList();
+        when(mongoTemplate.aggregateStream(any(Aggregation.class), eq("feeds"), eq(Document.class)))
+                .thenReturn(userCounts.stream());
+        when(mongoTemplate.find(any(Query.class), eq(PostCountOutbox.class))).thenReturn(List.of());
+        when(postStatsClient.applyPostCounts(anyList(), eq(true)))
+                .thenAnswer(invocation -> Map.of("applied", ((List<?>) invocation.getArgument(0)).size(),
+                        "stale", 0, "rejected", List.of()));
+
+        Map<String, Object> result = postCountSyncService.syncAllPostCounts();
+
+        assertEquals(true, result.get("success"));
+        assertEquals(1200L, result.get("totalUsersInMongoDB"));
+        assertEquals(2400L, result.get("totalPosts"));
+        assertEquals(1200L, result.get("updatedUsers"));
+        assertEquals(3, result.get("batchesCompleted"));
+        verify(postStatsClient, times(3)).applyPostCounts(anyList(), eq(true));
+    }
+
+    @Test
+    void syncAllPostCounts_ZeroesOutboxUsersWhoseLastPostWasDeleted() {
+        LocalDateTime settledAt = LocalDateTime.now().minusHours(1);
+        PostCountOutbox emptied = new PostCountOutbox("emptied", 5);
+        emptied.setPending(false);
+        emptied.setUpdatedAt(settledAt);
+        PostCountOutbox stillPosting = new PostCountOutbox("still-posting", 2);
+        stillPosting.setPending(false);
+        stillPosting.setUpdatedAt(settledAt);
+        when(mongoTemplate.aggregateStream(any(Aggregation.class), eq("feeds"), eq(Document.class)))
+                .thenReturn(Stream.of(new Document("_id", "still-posting").append("count", 1)));
+        when(mongoTemplate.stream(any(Query.class), eq(PostCountOutbox.class)))
+                .thenReturn(Stream.of(emptied, stillPosting));
+        when(mongoTemplate.findDistinct(any(Query.class), eq("userId"), eq("feeds"), eq(String.class)))
+                .thenReturn(List.of("still-posting"));
+        when(mongoTemplate.find(any(Query.class), eq(PostCountOutbox.class)))
+                .thenReturn(List.of(stillPosting, emptied));
+        when(postStatsClient.applyPostCounts(anyList(), eq(true)))
+                .thenAnswer(invocation -> Map.of("applied", ((List<?>) invocation.getArgument(0)).size(),
+                        "stale", 0, "rejected", List.of()));
+
+        Map<String, Object> result = postCountSyncService.syncAllPostCounts();
+
+        assertEquals(true, result.get("success"));
+        assertEquals(1L, result.get("usersWithoutPosts"));
+        ArgumentCaptor<List<Map<String, Object>>> updates = ArgumentCaptor.forClass(List.class);
+        verify(postStatsClient, times(2)).applyPostCounts(updates.capture(), eq(true));
+        assertTrue(updates.getAllValues().contains(List.of(Map.of("userId", "emptied", "count", 0, "seq", 5L))));
+    }
+
+    @Test
+    void reconcileBatch_DefersUsersWithRecentOutboxChangesAndSequencesTheRest() {
+        LocalDateTime runStartedAt = LocalDateTime.now();
+        PostCountOutbox settled = new PostCountOutbox("settled", 9);
+        settled.setPending(false);
+        settled.setUpdatedAt(runStartedAt.minusMinutes(5));
+        PostCountOutbox pending = new PostCountOutbox("pending", 4);
+        PostCountOutbox changedDuringRun = new PostCountOutbox("changed", 6);
+        changedDuringRun.setPending(false);
+        changedDuringRun.setUpdatedAt(runStartedAt.plusSeconds(1));
+        when(mongoTemplate.find(any(Query.class), eq(PostCountOutbox.class)))
+                .thenReturn(List.of(settled, pending, changedDuringRun));
+        when(postStatsClient.applyPostCounts(anyList(), eq(true)))
+                .thenReturn(Map.of("applied", 1, "stale", 1, "rejected", List.of()));
+
+        postCountSyncService.reconcileBatch(List.of(
+                new Document("_id", "settled").append("count", 3),
+                new Document("_id", "pending").append("count", 1),
+                new Document("_id", "changed").append("count", 8),
+                new Document("_id", "never-recorded").append("count", 5)), runStartedAt);
+
+        ArgumentCaptor<List<Map<String, Object>>> updates = ArgumentCaptor.forClass(List.class);
+        verify(postStatsClient).applyPostCounts(updates.capture(), eq(true));
+        assertEquals(List.of(
+                Map.of("userId", "settled", "count", 3, "seq", 9L),
+                Map.of("userId", "never-recorded", "count", 5, "seq", 0L)), updates.getValue());
+        assertEquals(2L, postCountSyncService.getProgress().get("deferredUsers"));
+    }
+
+    @Test
+    void syncAllPostCounts_CountsFailedBatchesWithoutAborting() {
+        when(mongoTemplate.aggregateStream(any(Aggregation.class), eq("feeds"), eq(Document.class)))
+                .thenReturn(Stream.of(new Document("_id", "user-1").append("count", 1)));
+        when(mongoTemplate.find(any(Query.class), eq(PostCountOutbox.class))).thenReturn(List.of());
+        when(postStatsClient.applyPostCounts(anyList(), eq(true))).thenThrow(new RuntimeException("auth-stats down"));
+
+        Map<String, Object> result = postCountSyncService.syncAllPostCounts();
+
+        assertEquals(true, result.get("success"));
+        assertEquals(1L, result.get("failedUsers"));
+        assertFalse((Boolean) postCountSyncService.getProgress().get("running"));
+    }
+}
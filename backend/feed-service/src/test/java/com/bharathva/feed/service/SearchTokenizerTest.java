@@ -0,0 +1,58 @@
+package com.bharathva.feed.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SearchTokenizer
+ */
+class SearchTokenizerTest {
+
+    @Test
+    void terms_KeepIndicVowelSignsAndViramasInsideWords() {
+        List<String> terms = SearchTokenizer.terms("नमस्ते भारत! வணக்கம் তোমার");
+
+        assertEquals(List.of("नमस्ते", "भारत", "வணக்கம்", "তোমার"), terms);
+    }
+
+    @Test
+    void terms_FoldCaseWidthAndJoiners() {
+        // Full-width letters fold under NFKC; ZWJ/ZWNJ only change rendering
+        List<String> terms = SearchTokenizer.terms("Ｈｅｌｌｏ hello क्\u200Dष क्ष");
+
+        assertEquals(List.of("hello", "क्ष"), terms);
+    }
+
+    @Test
+    void hashtagsAndMentions_AreExtractedAtWordStartsOnly() {
+        String text = "Go #TeamIndia! #भारत cc @ravi.k and @Priya_S. mail me@example.com or a#b";
+
+        assertEquals(List.of("teamindia", "भारत"), SearchTokenizer.hashtags(text));
+        assertEquals(List.of("ravi.k", "priya_s"), SearchTokenizer.mentions(text));
+        assertTrue(SearchTokenizer.terms(text).containsAll(List.of("teamindia", "ravi.k", "example")));
+    }
+
+    @Test
+    void parseQuery_TreatsTheWordBeingTypedAsAPrefix() {
+        SearchTokenizer.ParsedQuery parsed = SearchTokenizer.parseQuery("#cricket @ravi world cu");
+
+        assertEquals(List.of("cricket"), parsed.getHashtags());
+        assertEquals(List.of("ravi"), parsed.getMentions());
+        assertEquals(List.of("world"), parsed.getTerms());
+        assertEquals("cu", parsed.getPrefix());
+    }
+
+    @Test
+    void parseQuery_FinishedWordsAreExactAndPunctuationIsNotARegex() {
+        SearchTokenizer.ParsedQuery finished = SearchTokenizer.parseQuery("world cup ");
+        assertEquals(List.of("world", "cup"), finished.getTerms());
+        assertNull(finished.getPrefix());
+
+        SearchTokenizer.ParsedQuery symbols = SearchTokenizer.parseQuery(".*(a+)+$");
+        assertEquals("a", symbols.getPrefix());
+        assertTrue(SearchTokenizer.parseQuery("?!*").isEmpty());
+    }
+}
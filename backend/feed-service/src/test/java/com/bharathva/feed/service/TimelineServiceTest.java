@@ -0,0 +1,152 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.dto.FeedResponse;
+import com.bharathva.feed.model.Feed;
+import com.bharathva.feed.model.HomeTimeline;
+import com.bharathva.feed.model.PullModeAuthor;
+import com.bharathva.feed.repository.FeedRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TimelineService
+ */
+@ExtendWith(MockitoExtension.class)
+class TimelineServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private FeedRepository feedRepository;
+
+    @Mock
+    private FollowGraphClient followGraphClient;
+
+    @Mock
+    private FeedEngagementService feedEngagementService;
+
+    @Mock
+    private UserProfileLoader userProfileLoader;
+
+    @Mock
+    private WebSocketService webSocketService;
+
+    // Disabled cache: passes straight through to the repository
+    @Spy
+    private FeedCacheService feedCacheService = new FeedCacheService();
+
+    @InjectMocks
+    private TimelineService timelineService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(timelineService, "capacity", 800);
+        ReflectionTestUtils.setField(timelineService, "fanoutThreshold", 10000L);
+        ReflectionTestUtils.setField(timelineService, "fanoutBatchSize", 2);
+    }
+
+    @Test
+    void fanOutFeed_PushesToFollowersInBatches() {
+        when(followGraphClient.getFollowerIds("author", 10000L))
+                .thenReturn(new FollowGraphClient.FollowerIds(Arrays.asList("f1", "f2", "f3"), 3, false));
+
+        int fannedOut = timelineService.fanOutFeed("author", "feed-1");
+
+        assertEquals(3, fannedOut);
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(HomeTimeline.class));
+        // 3 followers with a batch size of 2 -> 2 updateMulti calls
+        verify(mongoTemplate, times(2)).updateMulti(any(Query.class), any(Update.class), eq(HomeTimeline.class));
+        verify(mongoTemplate, never()).save(any(PullModeAuthor.class));
+        verify(mongoTemplate).remove(any(Query.class), eq(PullModeAuthor.class));
+        verify(webSocketService).notifyFollowersFeedCreated("author", "feed-1", Arrays.asList("f1", "f2", "f3"));
+    }
+
+    @Test
+    void fanOutFeed_HighFollowerAuthorSwitchesToPullMode() {
+        when(followGraphClient.getFollowerIds(eq("celebrity"), anyLong()))
+                .thenReturn(new FollowGraphClient.FollowerIds(List.of(), 250000, true));
+
+        int fannedOut = timelineService.fanOutFeed("celebrity", "feed-1");
+
+        assertEquals(0, fannedOut);
+        verify(mongoTemplate).save(any(PullModeAuthor.class));
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq(HomeTimeline.class));
+        verify(webSocketService, never()).notifyFollowersFeedCreated(any(), any(), any());
+    }
+
+    @Test
+    void fanOutFeed_RequiresIds() {
+        assertThrows(IllegalArgumentException.class, () -> timelineService.fanOutFeed("", "feed-1"));
+        assertThrows(IllegalArgumentException.class, () -> timelineService.fanOutFeed("author", null));
+    }
+
+    @Test
+    void getHomeTimeline_ReturnsFeedsInTimelineOrder() {
+        Feed older = createFeed("feed-1", "a", LocalDateTime.now().minusMinutes(10));
+        Feed newer = createFeed("feed-2", "b", LocalDateTime.now());
+
+        when(mongoTemplate.findOne(any(Query.class), eq(HomeTimeline.class)))
+                .thenReturn(new HomeTimeline("reader", Arrays.asList("feed-2", "feed-missing", "feed-1")));
+        when(feedRepository.findAllById(Arrays.asList("feed-2", "feed-missing", "feed-1")))
+                .thenReturn(Arrays.asList(older, newer));
+        when(mongoTemplate.exists(any(Query.class), eq(PullModeAuthor.class))).thenReturn(false);
+
+        Slice<FeedResponse> result = timelineService.getHomeTimeline("reader", 0, 20);
+
+        assertEquals(2, result.getContent().size());
+        assertEquals("feed-2", result.getContent().get(0).getId());
+        assertEquals("feed-1", result.getContent().get(1).getId());
+        assertFalse(result.hasNext());
+        verify(followGraphClient, never()).getFollowingIds(any());
+    }
+
+    @Test
+    void getHomeTimeline_DoesNotSaveTimelineWithoutFollowingList() {
+        Feed own = createFeed("feed-1", "reader", LocalDateTime.now());
+
+        when(mongoTemplate.findOne(any(Query.class), eq(HomeTimeline.class))).thenReturn(null);
+        when(followGraphClient.getFollowingIds("reader")).thenThrow(new RuntimeException("auth-service down"));
+        when(mongoTemplate.find(any(Query.class), eq(Feed.class))).thenReturn(List.of(own));
+        when(feedRepository.findAllById(List.of("feed-1"))).thenReturn(List.of(own));
+        when(mongoTemplate.exists(any(Query.class), eq(PullModeAuthor.class))).thenReturn(false);
+
+        Slice<FeedResponse> result = timelineService.getHomeTimeline("reader", 0, 20);
+
+        assertEquals(1, result.getContent().size());
+        verify(mongoTemplate, never()).save(any(HomeTimeline.class));
+    }
+
+    @Test
+    void getHomeTimeline_RejectsInvalidPageSize() {
+        assertThrows(IllegalArgumentException.class, () -> timelineService.getHomeTimeline("reader", 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> timelineService.getHomeTimeline("reader", -1, 20));
+    }
+
+    private Feed createFeed(String id, String userId, LocalDateTime createdAt) {
+        Feed feed = new Feed(userId, "message " + id);
+        feed.setId(id);
+        feed.setCreatedAt(createdAt);
+        return feed;
+    }
+}
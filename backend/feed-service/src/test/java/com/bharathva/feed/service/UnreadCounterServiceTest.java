@@ -0,0 +1,97 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.model.Notification;
+import com.bharathva.feed.model.NotificationCounter;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UnreadCounterService
+ */
+@ExtendWith(MockitoExtension.class)
+class UnreadCounterServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @InjectMocks
+    private UnreadCounterService unreadCounterService;
+
+    @Test
+    void get_ReadsTheCounterWithoutCounting() {
+        when(mongoTemplate.findById("user-1", NotificationCounter.class)).thenReturn(new NotificationCounter("user-1", 7));
+
+        assertEquals(7, unreadCounterService.get("user-1"));
+        verify(mongoTemplate, never()).count(any(Query.class), eq(Notification.class));
+    }
+
+    @Test
+    void get_SeedsAMissingCounterFromTheRealCount() {
+        when(mongoTemplate.count(any(Query.class), eq(Notification.class))).thenReturn(4L);
+
+        assertEquals(4, unreadCounterService.get("user-1"));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(NotificationCounter.class));
+        assertEquals(4L, update.getValue().getUpdateObject().get("$setOnInsert", Document.class).get("unread"));
+    }
+
+    @Test
+    void get_NeverReturnsANegativeCount() {
+        when(mongoTemplate.findById("user-1", NotificationCounter.class)).thenReturn(new NotificationCounter("user-1", -1));
+
+        assertEquals(0, unreadCounterService.get("user-1"));
+    }
+
+    @Test
+    void adjustAll_SkipsZeroDeltas() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NotificationCounter.class)).thenReturn(bulkOperations);
+
+        unreadCounterService.adjustAll(Map.of("user-1", 2L, "user-2", 0L));
+
+        verify(bulkOperations, times(1)).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations).execute();
+    }
+
+    @Test
+    void reconcilePage_CorrectsOnlyDriftedCountersWithCompareAndSet() {
+        AggregationResults<Document> results = new AggregationResults<>(
+                List.of(new Document("_id", "user-1").append("count", 5)), new Document());
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Notification.class), eq(Document.class))).thenReturn(results);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NotificationCounter.class)).thenReturn(bulkOperations);
+
+        int corrected = unreadCounterService.reconcilePage(List.of(
+                new NotificationCounter("user-1", 5),
+                new NotificationCounter("user-2", 3)));
+
+        assertEquals(1, corrected);
+        ArgumentCaptor<Query> filter = ArgumentCaptor.forClass(Query.class);
+        verify(bulkOperations).updateOne(filter.capture(), any(Update.class));
+        String filterJson = filter.getValue().getQueryObject().toJson();
+        assertTrue(filterJson.contains("\"_id\": \"user-2\""), filterJson);
+        assertTrue(filterJson.contains("\"unread\": 3"), filterJson);
+        verify(bulkOperations).execute();
+    }
+}
@@ -0,0 +1,36 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.model.UserInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for UserClient
+ */
+class UserClientTest {
+
+    private final UserClient userClient = new UserClient();
+
+    @Test
+    void toUserInfo_ReadsTheVerifiedFlagAuthServiceSends() {
+        Map<String, Object> userData = new HashMap<>();
+        userData.put("id", "user-1");
+        userData.put("username", "asha");
+        userData.put("profileImageUrl", "https://img.example/asha.jpg");
+        userData.put("isEmailVerified", true);
+
+        UserInfo userInfo = userClient.toUserInfo(userData);
+
+        assertTrue(userInfo.getVerified());
+        assertEquals("https://img.example/asha.jpg", userInfo.getAvatarUrl());
+    }
+
+    @Test
+    void toUserInfo_TreatsAMissingVerifiedFlagAsUnverified() {
+        assertFalse(userClient.toUserInfo(Map.of("id", "user-1")).getVerified());
+    }
+}
@@ -0,0 +1,88 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.dto.FeedResponse;
+import com.bharathva.feed.model.Feed;
+import com.bharathva.feed.model.UserInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UserProfileLoader
+ */
+@ExtendWith(MockitoExtension.class)
+class UserProfileLoaderTest {
+
+    @Mock
+    private UserClient userClient;
+
+    @InjectMocks
+    private UserProfileLoader userProfileLoader;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userProfileLoader, "cacheTtlSeconds", 300L);
+        ReflectionTestUtils.setField(userProfileLoader, "cacheMaxSize", 1000L);
+        userProfileLoader.init();
+    }
+
+    @Test
+    void hydrateFeeds_FetchesDistinctAuthorsInOneCall() {
+        when(userClient.getUserInfos(Arrays.asList("u1", "u2")))
+                .thenReturn(Map.of("u1", user("u1", "alice"), "u2", user("u2", "bob")));
+
+        List<FeedResponse> page = Arrays.asList(response("u1"), response("u2"), response("u1"));
+        userProfileLoader.hydrateFeeds(page);
+
+        verify(userClient, times(1)).getUserInfos(anyList());
+        assertEquals("alice", page.get(0).getAuthorUsername());
+        assertEquals("bob", page.get(1).getAuthorUsername());
+        assertEquals("alice", page.get(2).getAuthorUsername());
+    }
+
+    @Test
+    void loadAll_ServesRepeatsAndUnknownUsersFromNearCache() {
+        when(userClient.getUserInfos(Arrays.asList("u1", "ghost")))
+                .thenReturn(Map.of("u1", user("u1", "alice")));
+
+        userProfileLoader.loadAll(Arrays.asList("u1", "ghost"));
+        Map<String, UserInfo> second = userProfileLoader.loadAll(Arrays.asList("u1", "ghost"));
+
+        verify(userClient, times(1)).getUserInfos(anyList());
+        assertEquals(1, second.size());
+        assertEquals("alice", second.get("u1").getUsername());
+    }
+
+    @Test
+    void loadAll_FailedLookupIsRetriedOnNextPage() {
+        when(userClient.getUserInfos(List.of("u1")))
+                .thenThrow(new RuntimeException("auth service down"))
+                .thenReturn(Map.of("u1", user("u1", "alice")));
+
+        assertTrue(userProfileLoader.loadAll(List.of("u1")).isEmpty());
+        assertEquals("alice", userProfileLoader.loadAll(List.of("u1")).get("u1").getUsername());
+    }
+
+    private static UserInfo user(String id, String username) {
+        UserInfo userInfo = new UserInfo();
+        userInfo.setId(id);
+        userInfo.setUsername(username);
+        return userInfo;
+    }
+
+    private static FeedResponse response(String userId) {
+        return new FeedResponse(new Feed(userId, "hello"));
+    }
+}
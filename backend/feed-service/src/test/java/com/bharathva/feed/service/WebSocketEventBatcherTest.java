@@ -0,0 +1,98 @@
+package com.bharathva.feed.service;
+
+import com.bharathva.feed.dto.FeedEvent;
+import com.bharathva.feed.dto.FeedEventBatch;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for WebSocketEventBatcher
+ */
+@ExtendWith(MockitoExtension.class)
+class WebSocketEventBatcherTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private WebSocketEventBatcher eventBatcher;
+
+    @BeforeEach
+    void setUp() {
+        eventBatcher.registerMetrics();
+    }
+
+    @Test
+    void flush_SendsASingleEventUnwrapped() {
+        FeedEvent event = new FeedEvent("FEED_CREATED", "feed-1", "author", null);
+        eventBatcher.sendToUser("follower", "/queue/feeds", event);
+
+        verifyNoInteractions(messagingTemplate);
+        eventBatcher.flush();
+
+        verify(messagingTemplate).convertAndSendToUser("follower", "/queue/feeds", event);
+        assertEquals(0, eventBatcher.getPendingDestinations());
+    }
+
+    @Test
+    void flush_CoalescesRepeatsAndBatchesTheRestInOrder() {
+        eventBatcher.sendToTopic("/topic/feeds/feed-1", new FeedEvent("FEED_LIKED", "feed-1", "u-1", null));
+        eventBatcher.sendToTopic("/topic/feeds/feed-1", new FeedEvent("FEED_UNLIKED", "feed-1", "u-1", null));
+        FeedEvent likedAgain = new FeedEvent("FEED_LIKED", "feed-1", "u-1", null);
+        eventBatcher.sendToTopic("/topic/feeds/feed-1", likedAgain);
+        eventBatcher.sendToTopic("/topic/feeds/feed-1", new FeedEvent("FEED_LIKED", "feed-1", "u-2", null));
+
+        eventBatcher.flush();
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSend(eq("/topic/feeds/feed-1"), payload.capture());
+        List<FeedEvent> events = ((FeedEventBatch) payload.getValue()).getEvents();
+        assertEquals(3, events.size());
+        // The repeated like moves behind the unlike so clients end in the liked state
+        assertEquals("FEED_UNLIKED", events.get(0).getType());
+        assertSame(likedAgain, events.get(1));
+        assertEquals("u-2", events.get(2).getUserId());
+        assertEquals(1.0, meterRegistry.counter("feed.websocket.events.coalesced").count());
+    }
+
+    @Test
+    void enqueue_FlushesADestinationAsSoonAsItIsFull() {
+        ReflectionTestUtils.setField(eventBatcher, "maxEventsPerFlush", 2);
+
+        eventBatcher.sendToUser("follower", "/queue/feeds", new FeedEvent("FEED_CREATED", "feed-1", "a-1", null));
+        eventBatcher.sendToUser("follower", "/queue/feeds", new FeedEvent("FEED_CREATED", "feed-2", "a-2", null));
+
+        verify(messagingTemplate).convertAndSendToUser(eq("follower"), eq("/queue/feeds"), any(FeedEventBatch.class));
+        assertEquals(0, eventBatcher.getPendingDestinations());
+    }
+
+    @Test
+    void enqueue_SendsInlineWhenBatchingIsDisabled() {
+        ReflectionTestUtils.setField(eventBatcher, "enabled", false);
+        FeedEvent event = new FeedEvent("FEED_DELETED", "feed-1", "author", null);
+
+        eventBatcher.sendToTopic("/topic/feeds/feed-1", event);
+
+        verify(messagingTemplate).convertAndSend("/topic/feeds/feed-1", event);
+    }
+}